@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Compares allocation of toArray with projecting into a reused array. Run with -prof gc and compare
+ * gc.alloc.rate.norm, the bytes allocated per operation. Values are kept within the Integer cache so boxing
+ * does not allocate.
+ *
+ */
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+
+	TreeNode test;
+
+	PepArrayMapper arrayMapper;
+
+	Object[] values;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+
+		test = new TreeNode(1, new TreeNode(2, null, null), new TreeNode(3, new TreeNode(4, null, null), new TreeNode(5, null, null)));
+		values = arrayMapper.toArray(test, new Object[3]);
+	}
+
+	@Benchmark
+	public Object[] toArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public Object[] toArrayReuse() throws Throwable {
+		return arrayMapper.toArray(test, values);
+	}
+}
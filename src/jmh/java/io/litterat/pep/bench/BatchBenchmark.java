@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepBatch;
+
+/**
+ * 
+ * Measures how batch conversion scales with the number of threads. The sequential benchmarks convert the
+ * same objects one at a time on the benchmark thread.
+ *
+ */
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+	static final int SIZE = 100_000;
+
+	@Param({ "1", "2", "4", "8" })
+	int parallelism;
+
+	PepArrayMapper arrayMapper;
+
+	PepBatch batch;
+
+	List<SimpleImmutable> objects;
+
+	List<Object[]> values;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+		batch = PepBatch.builder().parallelism(parallelism).build();
+
+		objects = new ArrayList<>(SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			objects.add(new SimpleImmutable(x, x));
+		}
+		values = arrayMapper.toArrays(objects, batch);
+	}
+
+	@TearDown
+	public void tearDown() {
+		batch.close();
+	}
+
+	@Benchmark
+	public List<Object[]> sequentialToArray() throws Throwable {
+		List<Object[]> result = new ArrayList<>(SIZE);
+		for (SimpleImmutable object : objects) {
+			result.add(arrayMapper.toArray(object));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<SimpleImmutable> sequentialToObject() throws Throwable {
+		List<SimpleImmutable> result = new ArrayList<>(SIZE);
+		for (Object[] value : values) {
+			result.add(arrayMapper.toObject(SimpleImmutable.class, value));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<Object[]> batchToArray() throws Throwable {
+		return arrayMapper.toArrays(objects, batch);
+	}
+
+	@Benchmark
+	public List<SimpleImmutable> batchToObject() throws Throwable {
+		return arrayMapper.toObjects(SimpleImmutable.class, values, batch);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepBinaryMapper;
+
+/**
+ * 
+ * Compares the PepBinaryMapper with a hand written ByteBuffer encoding of the same class. The Object[]
+ * projection is included as the first step of an encoder built on the PepArrayMapper.
+ *
+ */
+@State(Scope.Benchmark)
+public class BinaryMapperBenchmark {
+
+	PrimitiveTelemetry test;
+
+	PepArrayMapper arrayMapper;
+	PepBinaryMapper binaryMapper;
+
+	ByteBuffer writeBuffer;
+	ByteBuffer readBuffer;
+	ByteBuffer manualReadBuffer;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		binaryMapper = new PepBinaryMapper(context);
+
+		test = new PrimitiveTelemetry(true, (byte) 2, 'c', (short) 400, 50000, 6000000000L, 7.5f, 8.25, "source");
+
+		writeBuffer = ByteBuffer.allocate(256);
+		readBuffer = ByteBuffer.allocate(256);
+		binaryMapper.toBuffer(test, readBuffer);
+		readBuffer.flip();
+
+		manualReadBuffer = ByteBuffer.allocate(256);
+		manualReadBuffer.put(manualToBuffer().flip());
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public ByteBuffer binaryMapperToBuffer() throws Throwable {
+		writeBuffer.clear();
+		binaryMapper.toBuffer(test, writeBuffer);
+		return writeBuffer;
+	}
+
+	@Benchmark
+	public PrimitiveTelemetry binaryMapperToObject() throws Throwable {
+		readBuffer.rewind();
+		return binaryMapper.toObject(PrimitiveTelemetry.class, readBuffer);
+	}
+
+	@Benchmark
+	public ByteBuffer manualToBuffer() {
+		writeBuffer.clear();
+		writeBuffer.put(test.active() ? (byte) 1 : (byte) 0);
+		writeBuffer.put(test.level());
+		writeBuffer.putChar(test.code());
+		writeBuffer.putShort(test.channel());
+		writeBuffer.putInt(test.count());
+		writeBuffer.putLong(test.timestamp());
+		writeBuffer.putFloat(test.ratio());
+		writeBuffer.putDouble(test.value());
+		byte[] source = test.source().getBytes(StandardCharsets.UTF_8);
+		writeBuffer.putInt(source.length);
+		writeBuffer.put(source);
+		return writeBuffer;
+	}
+
+	@Benchmark
+	public PrimitiveTelemetry manualToObject() {
+		ByteBuffer readBuffer = manualReadBuffer.rewind();
+		boolean active = readBuffer.get() != 0;
+		byte level = readBuffer.get();
+		char code = readBuffer.getChar();
+		short channel = readBuffer.getShort();
+		int count = readBuffer.getInt();
+		long timestamp = readBuffer.getLong();
+		float ratio = readBuffer.getFloat();
+		double value = readBuffer.getDouble();
+		byte[] source = new byte[readBuffer.getInt()];
+		readBuffer.get(source);
+		return new PrimitiveTelemetry(active, level, code, channel, count, timestamp, ratio, value, new String(source, StandardCharsets.UTF_8));
+	}
+}
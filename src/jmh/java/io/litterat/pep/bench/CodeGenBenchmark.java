@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.WideImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Compares the MethodHandle combinator chains with the generated class backend of PepArrayMapper for
+ * wide and nested classes.
+ *
+ */
+@State(Scope.Benchmark)
+public class CodeGenBenchmark {
+
+	WideImmutable wide;
+	NestedImmutable nested;
+
+	PepArrayMapper chainMapper;
+	PepArrayMapper generatedMapper;
+
+	Object[] wideValues;
+	Object[] nestedValues;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		chainMapper = new PepArrayMapper(context);
+		generatedMapper = new PepArrayMapper(context, true);
+
+		wide = new WideImmutable(1, 2L, 3.0, "4", 5, 6L, 7.0, "8", 9, 10L, 11.0, "12");
+
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), new SimpleImmutable(7, 8) };
+		nested = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		wideValues = chainMapper.toArray(wide);
+		nestedValues = chainMapper.toArray(nested);
+	}
+
+	@Benchmark
+	public Object[] chainWideToArray() throws Throwable {
+		return chainMapper.toArray(wide);
+	}
+
+	@Benchmark
+	public Object[] generatedWideToArray() throws Throwable {
+		return generatedMapper.toArray(wide);
+	}
+
+	@Benchmark
+	public WideImmutable chainWideToObject() throws Throwable {
+		return chainMapper.toObject(WideImmutable.class, wideValues);
+	}
+
+	@Benchmark
+	public WideImmutable generatedWideToObject() throws Throwable {
+		return generatedMapper.toObject(WideImmutable.class, wideValues);
+	}
+
+	@Benchmark
+	public Object[] chainNestedToArray() throws Throwable {
+		return chainMapper.toArray(nested);
+	}
+
+	@Benchmark
+	public Object[] generatedNestedToArray() throws Throwable {
+		return generatedMapper.toArray(nested);
+	}
+
+	@Benchmark
+	public NestedImmutable chainNestedToObject() throws Throwable {
+		return chainMapper.toObject(NestedImmutable.class, nestedValues);
+	}
+
+	@Benchmark
+	public NestedImmutable generatedNestedToObject() throws Throwable {
+		return generatedMapper.toObject(NestedImmutable.class, nestedValues);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.CollectionImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Compares projecting and embedding List and Set components through the CollectionBridge with hand written
+ * code building a presized ArrayList and HashSet.
+ *
+ */
+@State(Scope.Benchmark)
+public class CollectionBenchmark {
+
+	static final int SIZE = 100;
+
+	CollectionImmutable test;
+
+	PepArrayMapper arrayMapper;
+
+	Object[] values;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+
+		List<String> names = new ArrayList<>(SIZE);
+		Set<Integer> ids = new HashSet<>();
+		for (int x = 0; x < SIZE; x++) {
+			names.add("name" + x);
+			ids.add(x);
+		}
+		test = new CollectionImmutable(names, ids, null, null, null, null);
+
+		values = arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public Object[] manualToArray() {
+		Object[] result = new Object[6];
+		result[0] = test.names().toArray();
+		result[1] = test.ids().toArray();
+		return result;
+	}
+
+	@Benchmark
+	public CollectionImmutable manualToObject() {
+		Object[] namesData = (Object[]) values[0];
+		List<String> names = new ArrayList<>(namesData.length);
+		for (Object name : namesData) {
+			names.add((String) name);
+		}
+
+		Object[] idsData = (Object[]) values[1];
+		Set<Integer> ids = new HashSet<>((int) (idsData.length / 0.75f) + 1);
+		for (Object id : idsData) {
+			ids.add((Integer) id);
+		}
+
+		return new CollectionImmutable(names, ids, null, null, null, null);
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public CollectionImmutable arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(CollectionImmutable.class, values);
+	}
+}
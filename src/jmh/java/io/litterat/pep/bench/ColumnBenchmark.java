@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepColumnMapper;
+import io.litterat.pep.mapper.PepColumns;
+
+/**
+ * 
+ * Compares pivoting a list of objects to columns with projecting each object to an Object[] row, and
+ * scanning a single component of each.
+ *
+ */
+@State(Scope.Benchmark)
+public class ColumnBenchmark {
+
+	static final int SIZE = 10_000;
+
+	PepArrayMapper arrayMapper;
+
+	PepColumnMapper columnMapper;
+
+	List<PrimitiveTelemetry> objects;
+
+	List<Object[]> rows;
+
+	PepColumns columns;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+		columnMapper = new PepColumnMapper(context);
+
+		objects = new ArrayList<>(SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			objects.add(new PrimitiveTelemetry(true, (byte) x, 'c', (short) x, x, x, x, x, "source"));
+		}
+
+		rows = toRows();
+		columns = toColumns();
+	}
+
+	@Benchmark
+	public List<Object[]> toRows() throws Throwable {
+		List<Object[]> result = new ArrayList<>(SIZE);
+		for (PrimitiveTelemetry object : objects) {
+			result.add(arrayMapper.toArray(object));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public PepColumns toColumns() throws Throwable {
+		return columnMapper.toColumns(PrimitiveTelemetry.class, objects);
+	}
+
+	@Benchmark
+	public long scanRows() {
+		long sum = 0;
+		for (Object[] row : rows) {
+			sum += (Long) row[5];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long scanColumns() {
+		long sum = 0;
+		for (long timestamp : (long[]) columns.column("timestamp")) {
+			sum += timestamp;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public List<PrimitiveTelemetry> columnsToObjects() throws Throwable {
+		return columnMapper.toObjects(PrimitiveTelemetry.class, columns);
+	}
+}
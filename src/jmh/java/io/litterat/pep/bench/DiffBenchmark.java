@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.Circle;
+import io.litterat.pep.data.Drawing;
+import io.litterat.pep.data.Shape;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepDelta;
+import io.litterat.pep.mapper.PepDiffMapper;
+
+/**
+ * 
+ * Compares projecting a Drawing of 64 shapes with creating and applying a delta when one shape changed.
+ *
+ */
+@State(Scope.Benchmark)
+public class DiffBenchmark {
+
+	PepArrayMapper arrayMapper;
+
+	PepDiffMapper diffMapper;
+
+	Drawing previous;
+
+	Drawing current;
+
+	PepDelta delta;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+		diffMapper = new PepDiffMapper(context, arrayMapper);
+
+		Shape[] shapes = new Shape[64];
+		for (int x = 0; x < shapes.length; x++) {
+			shapes[x] = new Circle(x);
+		}
+		previous = new Drawing("plan", shapes[0], shapes);
+
+		Shape[] changed = shapes.clone();
+		changed[10] = new Circle(100);
+		current = new Drawing("plan", shapes[0], changed);
+
+		delta = diffMapper.diff(previous, current);
+	}
+
+	@Benchmark
+	public Object[] toArray() throws Throwable {
+		return arrayMapper.toArray(current);
+	}
+
+	@Benchmark
+	public PepDelta diff() throws Throwable {
+		return diffMapper.diff(previous, current);
+	}
+
+	@Benchmark
+	public Drawing apply() throws Throwable {
+		return diffMapper.apply(previous, delta);
+	}
+}
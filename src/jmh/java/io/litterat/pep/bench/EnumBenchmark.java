@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepException;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.describe.EnumBridge;
+import io.litterat.pep.describe.EnumOrdinalBridge;
+
+/**
+ * 
+ * Compares decoding enum names with Enum.valueOf against the EnumBridge name table and the
+ * EnumOrdinalBridge. Names are copied so they are not the interned constants.
+ *
+ */
+@State(Scope.Benchmark)
+public class EnumBenchmark {
+
+	EnumBridge bridge;
+
+	EnumOrdinalBridge ordinalBridge;
+
+	String[] names;
+
+	int index;
+
+	@Setup
+	public void setup() {
+		bridge = new EnumBridge(SimpleEnum.class);
+		ordinalBridge = new EnumOrdinalBridge(SimpleEnum.class);
+
+		SimpleEnum[] values = SimpleEnum.values();
+		names = new String[values.length];
+		for (int x = 0; x < values.length; x++) {
+			names[x] = new String(values[x].name());
+		}
+	}
+
+	private int next() {
+		index = (index + 1) % names.length;
+		return index;
+	}
+
+	@Benchmark
+	public SimpleEnum valueOf() {
+		return SimpleEnum.valueOf(names[next()]);
+	}
+
+	@Benchmark
+	public Enum<?> bridgeToObject() throws PepException {
+		return bridge.toObject(names[next()]);
+	}
+
+	@Benchmark
+	public Enum<?> ordinalToObject() throws PepException {
+		return ordinalBridge.toObject(next());
+	}
+}
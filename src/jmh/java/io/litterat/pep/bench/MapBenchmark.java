@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.MapImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Compares projecting and embedding a Map<String,Integer> component through the MapBridge with hand written
+ * code building parallel key and value arrays and a presized HashMap.
+ *
+ */
+@State(Scope.Benchmark)
+public class MapBenchmark {
+
+	static final int SIZE = 100;
+
+	MapImmutable test;
+
+	PepArrayMapper arrayMapper;
+
+	Object[] values;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (int x = 0; x < SIZE; x++) {
+			counts.put("key" + x, x);
+		}
+		test = new MapImmutable(counts, null, null, null);
+
+		values = arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public Object[] manualToArray() {
+		Map<String, Integer> counts = test.counts();
+		Object[] keys = new Object[counts.size()];
+		Object[] countValues = new Object[keys.length];
+		int x = 0;
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			keys[x] = entry.getKey();
+			countValues[x] = entry.getValue();
+			x++;
+		}
+
+		Object[] result = new Object[4];
+		result[0] = new Object[] { keys, countValues };
+		return result;
+	}
+
+	@Benchmark
+	public MapImmutable manualToObject() {
+		Object[] countsData = (Object[]) values[0];
+		Object[] keys = (Object[]) countsData[0];
+		Object[] countValues = (Object[]) countsData[1];
+		Map<String, Integer> counts = new HashMap<>((int) (keys.length / 0.75f) + 1);
+		for (int x = 0; x < keys.length; x++) {
+			counts.put((String) keys[x], (Integer) countValues[x]);
+		}
+
+		return new MapImmutable(counts, null, null, null);
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public MapImmutable arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(MapImmutable.class, values);
+	}
+}
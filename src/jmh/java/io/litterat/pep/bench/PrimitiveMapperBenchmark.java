@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepPrimitiveMapper;
+import io.litterat.pep.mapper.PepPrimitiveRecord;
+
+/**
+ * 
+ * Compares the boxed Object[] projection with the typed slot projection of PepPrimitiveMapper for a
+ * class of mostly primitive components. Run with the gc profiler to compare allocation.
+ *
+ */
+@State(Scope.Benchmark)
+public class PrimitiveMapperBenchmark {
+
+	PrimitiveTelemetry test;
+
+	PepArrayMapper arrayMapper;
+	PepPrimitiveMapper primitiveMapper;
+
+	Object[] values;
+	PepPrimitiveRecord record;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		primitiveMapper = new PepPrimitiveMapper(context);
+
+		test = new PrimitiveTelemetry(true, (byte) 2, 'c', (short) 400, 50000, 6000000000L, 7.5f, 8.25, "source");
+
+		values = arrayMapper.toArray(test);
+		record = primitiveMapper.toRecord(test);
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public PrimitiveTelemetry arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(PrimitiveTelemetry.class, values);
+	}
+
+	@Benchmark
+	public PepPrimitiveRecord primitiveMapperToRecord() throws Throwable {
+		return primitiveMapper.toRecord(test);
+	}
+
+	@Benchmark
+	public PrimitiveTelemetry primitiveMapperToObject() throws Throwable {
+		return primitiveMapper.toObject(PrimitiveTelemetry.class, record);
+	}
+}
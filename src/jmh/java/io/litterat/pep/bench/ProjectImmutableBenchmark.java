@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.ProjectImmutable.ProjectImmutableData;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+
+@State(Scope.Benchmark)
+public class ProjectImmutableBenchmark {
+
+	ProjectImmutable test;
+
+	PepArrayMapper arrayMapper;
+	PepMapMapper mapMapper;
+
+	Object[] values;
+	Map<String, Object> map;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		mapMapper = new PepMapMapper(context);
+
+		test = new ProjectImmutable(1, 2);
+
+		values = arrayMapper.toArray(test);
+		map = mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object[] handToArray() {
+		ProjectImmutableData data = test.toData();
+		return new Object[] { data.x(), data.y() };
+	}
+
+	@Benchmark
+	public ProjectImmutable handToObject() {
+		return new ProjectImmutable(new ProjectImmutableData((Integer) values[0], (Integer) values[1]));
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public ProjectImmutable arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(ProjectImmutable.class, values);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapMapperToMap() throws Throwable {
+		return mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object mapMapperToObject() throws Throwable {
+		return mapMapper.toObject(ProjectImmutable.class, map);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * Recursive structure linked lazily by the array mapper compared with hand written recursion. Complete tree of 15 nodes.
+ */
+@State(Scope.Benchmark)
+public class RecursiveBenchmark {
+
+	TreeNode test;
+
+	PepArrayMapper arrayMapper;
+	PepArrayMapper generatedMapper;
+
+	Object[] values;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		generatedMapper = new PepArrayMapper(context, true);
+
+		test = tree(0, 4);
+		values = arrayMapper.toArray(test);
+	}
+
+	private static TreeNode tree(int value, int depth) {
+		if (depth == 0) {
+			return null;
+		}
+		return new TreeNode(value, tree(value * 2 + 1, depth - 1), tree(value * 2 + 2, depth - 1));
+	}
+
+	private static Object[] handProject(TreeNode node) {
+		if (node == null) {
+			return null;
+		}
+		return new Object[] { node.value(), handProject(node.left()), handProject(node.right()) };
+	}
+
+	private static TreeNode handEmbed(Object[] values) {
+		if (values == null) {
+			return null;
+		}
+		return new TreeNode((Integer) values[0], handEmbed((Object[]) values[1]), handEmbed((Object[]) values[2]));
+	}
+
+	@Benchmark
+	public Object[] handToArray() {
+		return handProject(test);
+	}
+
+	@Benchmark
+	public TreeNode handToObject() {
+		return handEmbed(values);
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public TreeNode arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(TreeNode.class, values);
+	}
+
+	@Benchmark
+	public Object[] generatedToArray() throws Throwable {
+		return generatedMapper.toArray(test);
+	}
+
+	@Benchmark
+	public TreeNode generatedToObject() throws Throwable {
+		return generatedMapper.toObject(TreeNode.class, values);
+	}
+}
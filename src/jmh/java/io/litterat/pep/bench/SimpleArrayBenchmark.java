@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+
+@State(Scope.Benchmark)
+public class SimpleArrayBenchmark {
+
+	SimpleArray test;
+
+	PepArrayMapper arrayMapper;
+	PepMapMapper mapMapper;
+
+	Object[] values;
+	Map<String, Object> map;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		mapMapper = new PepMapMapper(context);
+
+		SimpleImmutable[] array = new SimpleImmutable[16];
+		for (int x = 0; x < array.length; x++) {
+			array[x] = new SimpleImmutable(x, x * 2);
+		}
+		test = new SimpleArray(array);
+
+		values = arrayMapper.toArray(test);
+		map = mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object[] handToArray() {
+		SimpleImmutable[] array = test.arrayImmutable();
+		Object[] output = new Object[array.length];
+		for (int x = 0; x < array.length; x++) {
+			output[x] = new Object[] { array[x].x(), array[x].y() };
+		}
+		return new Object[] { output };
+	}
+
+	@Benchmark
+	public SimpleArray handToObject() {
+		Object[] input = (Object[]) values[0];
+		SimpleImmutable[] array = new SimpleImmutable[input.length];
+		for (int x = 0; x < input.length; x++) {
+			Object[] element = (Object[]) input[x];
+			array[x] = new SimpleImmutable((Integer) element[0], (Integer) element[1]);
+		}
+		return new SimpleArray(array);
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public SimpleArray arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(SimpleArray.class, values);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapMapperToMap() throws Throwable {
+		return mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object mapMapperToObject() throws Throwable {
+		return mapMapper.toObject(SimpleArray.class, map);
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+
+@State(Scope.Benchmark)
+public class SimplePojoBenchmark {
+
+	SimplePojo test;
+
+	PepArrayMapper arrayMapper;
+	PepMapMapper mapMapper;
+
+	Object[] values;
+	Map<String, Object> map;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+
+		arrayMapper = new PepArrayMapper(context);
+		mapMapper = new PepMapMapper(context);
+
+		test = new SimplePojo();
+		test.setX(1);
+		test.setY(2);
+
+		values = arrayMapper.toArray(test);
+		map = mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object[] handToArray() {
+		return new Object[] { test.getX(), test.getY() };
+	}
+
+	@Benchmark
+	public SimplePojo handToObject() {
+		SimplePojo pojo = new SimplePojo();
+		pojo.setX((Integer) values[0]);
+		pojo.setY((Integer) values[1]);
+		return pojo;
+	}
+
+	@Benchmark
+	public Object[] arrayMapperToArray() throws Throwable {
+		return arrayMapper.toArray(test);
+	}
+
+	@Benchmark
+	public SimplePojo arrayMapperToObject() throws Throwable {
+		return arrayMapper.toObject(SimplePojo.class, values);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapMapperToMap() throws Throwable {
+		return mapMapper.toMap(test);
+	}
+
+	@Benchmark
+	public Object mapMapperToObject() throws Throwable {
+		return mapMapper.toObject(SimplePojo.class, map);
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepException;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepTypedArrayMapper;
+
+/**
+ * 
+ * Compares the PepArrayMapper, which looks up the functions for the class on each call, with a
+ * PepTypedArrayMapper held in a static final field.
+ *
+ */
+@State(Scope.Benchmark)
+public class TypedMapperBenchmark {
+
+	static final PepArrayMapper ARRAY_MAPPER = new PepArrayMapper(PepContext.builder().build());
+
+	static final PepTypedArrayMapper<SimpleImmutable> TYPED_MAPPER = typedMapper();
+
+	SimpleImmutable object;
+
+	Object[] values;
+
+	private static PepTypedArrayMapper<SimpleImmutable> typedMapper() {
+		try {
+			return ARRAY_MAPPER.forClass(SimpleImmutable.class);
+		} catch (PepException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Setup
+	public void setup() throws Throwable {
+		object = new SimpleImmutable(1, 2);
+		values = ARRAY_MAPPER.toArray(object);
+	}
+
+	@Benchmark
+	public Object[] mapperToArray() throws Throwable {
+		return ARRAY_MAPPER.toArray(object);
+	}
+
+	@Benchmark
+	public Object[] typedToArray() throws Throwable {
+		return TYPED_MAPPER.toArray(object);
+	}
+
+	@Benchmark
+	public SimpleImmutable mapperToObject() throws Throwable {
+		return ARRAY_MAPPER.toObject(SimpleImmutable.class, values);
+	}
+
+	@Benchmark
+	public SimpleImmutable typedToObject() throws Throwable {
+		return TYPED_MAPPER.toObject(values);
+	}
+}
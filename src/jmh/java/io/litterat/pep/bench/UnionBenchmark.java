@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.Circle;
+import io.litterat.pep.data.Drawing;
+import io.litterat.pep.data.Shape;
+import io.litterat.pep.data.Square;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Projects and embeds a Drawing with an array of 16 shapes alternating between the members of the Shape
+ * union.
+ *
+ */
+@State(Scope.Benchmark)
+public class UnionBenchmark {
+
+	PepArrayMapper arrayMapper;
+
+	Drawing drawing;
+
+	Object[] values;
+
+	@Setup
+	public void setup() throws Throwable {
+		arrayMapper = new PepArrayMapper(PepContext.builder().build());
+
+		Shape[] shapes = new Shape[16];
+		for (int x = 0; x < shapes.length; x++) {
+			shapes[x] = x % 2 == 0 ? new Circle(x) : new Square(x);
+		}
+		drawing = new Drawing("plan", new Square(1), shapes);
+		values = arrayMapper.toArray(drawing);
+	}
+
+	@Benchmark
+	public Object[] toArray() throws Throwable {
+		return arrayMapper.toArray(drawing);
+	}
+
+	@Benchmark
+	public Drawing toObject() throws Throwable {
+		return arrayMapper.toObject(Drawing.class, values);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import io.litterat.pep.ObjectDataBridge;
+import io.litterat.pep.PepContext;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimpleImmutableV1;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+/**
+ * 
+ * Compares unversioned conversion with conversion of mixed version traffic, alternating between two
+ * versions of SimpleImmutable.
+ *
+ */
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+
+	PepArrayMapper arrayMapper;
+
+	SimpleImmutable object;
+
+	Object[][] values;
+
+	int index;
+
+	@Setup
+	public void setup() throws Throwable {
+		PepContext context = PepContext.builder().build();
+		context.registerVersion(SimpleImmutable.class, 0, SimpleImmutableV1.class,
+				new ObjectDataBridge<SimpleImmutableV1, SimpleImmutable>() {
+
+					@Override
+					public SimpleImmutableV1 toData(SimpleImmutable b) {
+						return new SimpleImmutableV1(b.x());
+					}
+
+					@Override
+					public SimpleImmutable toObject(SimpleImmutableV1 s) {
+						return new SimpleImmutable(s.x(), 0);
+					}
+				});
+		context.registerVersion(SimpleImmutable.class, 1);
+
+		arrayMapper = new PepArrayMapper(context);
+		object = new SimpleImmutable(1, 2);
+		values = new Object[][] { arrayMapper.toArray(object, 0), arrayMapper.toArray(object, 1) };
+	}
+
+	private int next() {
+		index ^= 1;
+		return index;
+	}
+
+	@Benchmark
+	public Object[] toArray() throws Throwable {
+		return arrayMapper.toArray(object);
+	}
+
+	@Benchmark
+	public Object[] toArrayMixedVersions() throws Throwable {
+		return arrayMapper.toArray(object, next());
+	}
+
+	@Benchmark
+	public SimpleImmutable toObject() throws Throwable {
+		return arrayMapper.toObject(SimpleImmutable.class, values[1]);
+	}
+
+	@Benchmark
+	public SimpleImmutable toObjectMixedVersions() throws Throwable {
+		int version = next();
+		return arrayMapper.toObject(SimpleImmutable.class, version, values[version]);
+	}
+}
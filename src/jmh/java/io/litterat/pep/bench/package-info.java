@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * 
+ * JMH benchmarks comparing the sample mappers against hand written mapping code.
+ * 
+ * @formatter:off
+ * 
+ * Each benchmark class covers a single data shape from the test data package and
+ * measures both directions for:
+ * 
+ * hand - hand written projection to Object[] and constructor call.
+ * array - PepArrayMapper toArray/toObject.
+ * map - PepMapMapper toMap/toObject.
+ * 
+ * Run with "gradle jmh". Throughput, average time and the gc profiler (allocation rate)
+ * are configured in build.gradle.
+ * 
+ * @formatter:on
+ */
+package io.litterat.pep.bench;
@@ -17,16 +17,44 @@ package io.litterat.pep;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import io.litterat.pep.PepDataClass.DataType;
+import io.litterat.pep.describe.ComponentCache;
 import io.litterat.pep.describe.DefaultResolver;
+import io.litterat.pep.describe.EnumOrdinalBridge;
 
 public class PepContext {
 
 	// Resolved class information
 	private final ConcurrentHashMap<Class<?>, PepDataClass> descriptors = new ConcurrentHashMap<>();
 
+	// Classes being resolved by the current thread. Used to detect recursive data structures.
+	private final ThreadLocal<Set<Class<?>>> resolving = ThreadLocal.withInitial(HashSet::new);
+
+	// Versioned descriptors indexed by version number. Arrays are replaced, never modified, when a version is added.
+	private final ConcurrentHashMap<Class<?>, PepDataClass[]> versions = new ConcurrentHashMap<>();
+
+	// Schemas created for classes. Schemas are immutable so are created once per class.
+	private final ConcurrentHashMap<Class<?>, PepSchema> schemas = new ConcurrentHashMap<>();
+
+	// Guards inFlight and waiting. Threads waiting for another thread to resolve a class wait on this lock.
+	private final Object resolveLock = new Object();
+
+	// Classes being resolved and the thread resolving each. Guarded by resolveLock.
+	private final Map<Class<?>, Thread> inFlight = new HashMap<>();
+
+	// The class each waiting thread is waiting for. Guarded by resolveLock.
+	private final Map<Thread, Class<?>> waiting = new HashMap<>();
+
 	// Resolver
 	private final PepContextResolver resolver;
 
@@ -41,6 +69,10 @@ public class PepContext {
 
 		boolean allowSerializable = false;
 
+		Path componentCache;
+
+		boolean immutableCollections = false;
+
 		public Builder() {
 			this.resolver = null;
 		}
@@ -60,6 +92,24 @@ public class PepContext {
 			return this;
 		}
 
+		/**
+		 * Persist the components found by analysing classes to the given file so they are not analysed
+		 * again after a restart. Entries are invalidated when the class file changes.
+		 */
+		public Builder componentCache(Path file) {
+			componentCache = file;
+			return this;
+		}
+
+		/**
+		 * Embed List, Set and Collection components as immutable collections in the style of List.of. These
+		 * do not allow null elements.
+		 */
+		public Builder immutableCollections() {
+			immutableCollections = true;
+			return this;
+		}
+
 		public PepContext build() {
 			return new PepContext(this);
 		}
@@ -71,7 +121,9 @@ public class PepContext {
 
 	private PepContext(Builder builder) {
 
-		this.defaultResolver = new DefaultResolver(builder.allowSerializable, builder.allowAny);
+		ComponentCache componentCache = builder.componentCache == null ? null : new ComponentCache(builder.componentCache);
+
+		this.defaultResolver = new DefaultResolver(builder.allowSerializable, builder.allowAny, componentCache, builder.immutableCollections);
 
 		if (builder.resolver == null) {
 			this.resolver = defaultResolver;
@@ -112,20 +164,108 @@ public class PepContext {
 		register(targetClass, new PepDataClass(targetClass));
 	}
 
+	/**
+	 * Returns the descriptor for the class, resolving it on first use. Each class is resolved by a single
+	 * thread while other threads requesting it wait. A thread that would wait on a thread already waiting for
+	 * it, e.g. two threads resolving classes that refer to each other, resolves the class itself instead so
+	 * threads never wait on each other in a cycle. The first descriptor registered is used.
+	 */
 	public PepDataClass getDescriptor(Class<?> targetClass) throws PepException {
 
 		PepDataClass descriptor = descriptors.get(targetClass);
-		if (descriptor == null) {
+		if (descriptor != null) {
+			return descriptor;
+		}
+
+		Set<Class<?>> inProgress = resolving.get();
+		if (inProgress.contains(targetClass)) {
+			throw new PepException(String.format("Recursive reference to class being resolved: %s", targetClass.getName()));
+		}
+
+		Thread current = Thread.currentThread();
+		boolean owner = false;
+		synchronized (resolveLock) {
+			while (true) {
+				descriptor = descriptors.get(targetClass);
+				if (descriptor != null) {
+					return descriptor;
+				}
+
+				Thread resolvingThread = inFlight.get(targetClass);
+				if (resolvingThread == null) {
+					inFlight.put(targetClass, current);
+					owner = true;
+					break;
+				}
+
+				if (isWaitingOn(resolvingThread, current)) {
+					break;
+				}
+
+				waiting.put(current, targetClass);
+				try {
+					resolveLock.wait();
+				} catch (InterruptedException e) {
+					current.interrupt();
+					throw new PepException(String.format("Interrupted waiting for class to be resolved: %s", targetClass.getName()), e);
+				} finally {
+					waiting.remove(current);
+				}
+			}
+		}
+
+		inProgress.add(targetClass);
+		try {
 			descriptor = resolver.resolve(this, targetClass);
 			if (descriptor == null) {
 				throw new PepException(String.format("Unable to find suitable data descriptor for class: %s", targetClass.getName()));
 			}
-			register(targetClass, descriptor);
+
+			// Only a thread resolving a class in a cycle can find the class already registered.
+			PepDataClass existing = descriptors.putIfAbsent(targetClass, descriptor);
+			if (existing != null) {
+				descriptor = existing;
+			}
+		} finally {
+			inProgress.remove(targetClass);
+
+			// Waiting threads retry if resolution failed.
+			if (owner) {
+				synchronized (resolveLock) {
+					inFlight.remove(targetClass);
+					resolveLock.notifyAll();
+				}
+			}
 		}
 
 		return descriptor;
 	}
 
+	/**
+	 * Follows the classes each thread is waiting on from thread. Returns true if this leads back to target.
+	 * Must hold resolveLock.
+	 */
+	private boolean isWaitingOn(Thread thread, Thread target) {
+		Set<Thread> visited = new HashSet<>();
+		while (thread != null && visited.add(thread)) {
+			if (thread == target) {
+				return true;
+			}
+
+			Class<?> waitingFor = waiting.get(thread);
+			thread = waitingFor == null ? null : inFlight.get(waitingFor);
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the class is being resolved by the current thread. Resolvers use this to detect a
+	 *         recursive reference to a class which can not be resolved until the reference is complete.
+	 */
+	public boolean isResolving(Class<?> targetClass) {
+		return resolving.get().contains(targetClass);
+	}
+
 	private <T> void checkExists(Class<T> targetClass) throws PepException {
 		if (descriptors.containsKey(targetClass)) {
 			throw new PepException(String.format("Class already registered: %s", targetClass.getName()));
@@ -157,4 +297,121 @@ public class PepContext {
 
 	}
 
+	/**
+	 * @return the schema of the class and the classes it refers to. The schema is created on first use.
+	 */
+	public PepSchema getSchema(Class<?> targetClass) throws PepException {
+		PepSchema schema = schemas.get(targetClass);
+		if (schema == null) {
+			schema = PepSchema.create(this, getDescriptor(targetClass));
+			PepSchema existing = schemas.putIfAbsent(targetClass, schema);
+			if (existing != null) {
+				schema = existing;
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Register an interface or abstract class as a union of the member classes. Each member is given a tag by
+	 * its position in the list, the same as listing the members in a Union annotation.
+	 */
+	public void registerUnion(Class<?> unionClass, Class<?>... members) throws PepException {
+		checkExists(unionClass);
+
+		register(unionClass, DefaultResolver.resolveUnion(unionClass, members));
+	}
+
+	/**
+	 * Register the current descriptor of the class as the given version.
+	 */
+	public void registerVersion(Class<?> targetClass, int version) throws PepException {
+		registerVersion(targetClass, version, getDescriptor(targetClass));
+	}
+
+	/**
+	 * Register a version of the class that is projected to a different data class. The bridge converts
+	 * between the class and the data class of the version, in the same way as a class implementing ToData.
+	 * Versions are small non-negative integers, usually a version number carried with the data.
+	 */
+	public <D, T> void registerVersion(Class<T> targetClass, int version, Class<D> dataClass, ObjectDataBridge<D, T> bridge)
+			throws PepException {
+		PepDataClass data = getDescriptor(dataClass);
+		if (!data.isData()) {
+			throw new PepException(String.format("Version data class must be a tuple: %s", dataClass.getName()));
+		}
+
+		try {
+			MethodHandle toData = MethodHandles.lookup()
+					.findVirtual(ObjectDataBridge.class, "toData", MethodType.methodType(Object.class, Object.class)).bindTo(bridge)
+					.asType(MethodType.methodType(dataClass, targetClass));
+			MethodHandle toObject = MethodHandles.lookup()
+					.findVirtual(ObjectDataBridge.class, "toObject", MethodType.methodType(Object.class, Object.class)).bindTo(bridge)
+					.asType(MethodType.methodType(targetClass, dataClass));
+
+			// The constructor and data components are copied from the data class.
+			registerVersion(targetClass, version, new PepDataClass(targetClass, dataClass, data.constructor(), data.creator(), toData, toObject,
+					data.dataComponents(), DataType.TUPLE));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("Failed to register version bridge", e);
+		}
+	}
+
+	public void registerVersion(Class<?> targetClass, int version, PepDataClass descriptor) throws PepException {
+		if (version < 0) {
+			throw new PepException(String.format("Invalid version %d for class: %s", version, targetClass.getName()));
+		}
+
+		PepException[] failure = new PepException[1];
+		versions.compute(targetClass, (clss, existing) -> {
+			if (existing != null && version < existing.length && existing[version] != null) {
+				failure[0] = new PepException(String.format("Version %d already registered for class: %s", version, clss.getName()));
+				return existing;
+			}
+
+			PepDataClass[] updated = existing == null ? new PepDataClass[version + 1]
+					: Arrays.copyOf(existing, Math.max(existing.length, version + 1));
+			updated[version] = descriptor;
+			return updated;
+		});
+
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
+	/**
+	 * @return the descriptor registered for the version of the class.
+	 */
+	public PepDataClass getDescriptor(Class<?> targetClass, int version) throws PepException {
+		PepDataClass[] classVersions = versions.get(targetClass);
+		if (classVersions == null || version < 0 || version >= classVersions.length || classVersions[version] == null) {
+			throw new PepException(String.format("Version %d not registered for class: %s", version, targetClass.getName()));
+		}
+		return classVersions[version];
+	}
+
+	/**
+	 * Register an enum as an atom with the ordinal of the constant as its data. This is more compact than
+	 * the default name encoding but the data is only valid while the order of the constants does not change.
+	 */
+	public void registerOrdinalEnum(Class<? extends Enum<?>> targetClass) throws PepException {
+		checkExists(targetClass);
+
+		EnumOrdinalBridge bridge = new EnumOrdinalBridge(targetClass);
+
+		try {
+			MethodHandle toData = MethodHandles.lookup()
+					.findVirtual(EnumOrdinalBridge.class, "toData", MethodType.methodType(int.class, Enum.class)).bindTo(bridge)
+					.asType(MethodType.methodType(int.class, targetClass));
+			MethodHandle toObject = MethodHandles.lookup()
+					.findVirtual(EnumOrdinalBridge.class, "toObject", MethodType.methodType(Enum.class, int.class)).bindTo(bridge)
+					.asType(MethodType.methodType(targetClass, int.class));
+
+			register(targetClass, new PepDataClass(targetClass, int.class, toData, toObject));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("Failed to register ordinal enum", e);
+		}
+	}
+
 }
@@ -26,7 +26,7 @@ import java.lang.invoke.MethodHandles;
 public class PepDataClass {
 
 	public enum DataType {
-		ATOM, TUPLE, ARRAY
+		ATOM, TUPLE, ARRAY, MAP, UNION
 	};
 
 	// The class to be projected.
@@ -38,6 +38,9 @@ public class PepDataClass {
 	// Constructor for the data object.
 	private final MethodHandle constructor;
 
+	// Constructor for the data object taking each component as a typed argument. May be null.
+	private final MethodHandle creator;
+
 	// Method handle to convert object to data object.
 	private final MethodHandle toData;
 
@@ -56,17 +59,71 @@ public class PepDataClass {
 	// Target class is an array. Requires no-arg constructor.
 	private final boolean isArray;
 
-	public PepDataClass(Class<?> targetType, Class<?> serialType, MethodHandle constructor, MethodHandle toData, MethodHandle toObject,
-			PepDataComponent[] fields, DataType dataType) {
+	// Target class is a map projected to parallel key and value arrays.
+	private final boolean isMap;
+
+	// Target class is an interface or abstract class projected to Object[] { tag, value }.
+	private final boolean isUnion;
+
+	// Declared key and value classes of a map. Object when not known.
+	private final Class<?> keyClass;
+	private final Class<?> valueClass;
+
+	// Member classes of a union in tag order.
+	private final Class<?>[] unionMembers;
+
+	// Declared element class of an array or collection. Object when not known.
+	private final Class<?> elementClass;
+
+	public PepDataClass(Class<?> targetType, Class<?> serialType, MethodHandle constructor, MethodHandle creator, MethodHandle toData,
+			MethodHandle toObject, PepDataComponent[] fields, DataType dataType) {
+		this(targetType, serialType, constructor, creator, toData, toObject, fields, dataType, null, null, null,
+				DataType.ARRAY == dataType ? elementClass(targetType) : null);
+	}
+
+	// A Map with conversion functions to and from Object[] { keys[], values[] }.
+	public PepDataClass(Class<?> targetType, MethodHandle constructor, MethodHandle toData, MethodHandle toObject, Class<?> keyClass,
+			Class<?> valueClass) {
+		this(targetType, Object[].class, constructor, null, toData, toObject, new PepDataComponent[0], DataType.MAP, keyClass, valueClass,
+				null, null);
+	}
+
+	// A Collection with conversion functions to and from Object[] and the declared class of its elements.
+	public PepDataClass(Class<?> targetType, MethodHandle constructor, MethodHandle toData, MethodHandle toObject, Class<?> elementClass) {
+		this(targetType, Object[].class, constructor, null, toData, toObject, new PepDataComponent[0], DataType.ARRAY, null, null, null,
+				elementClass);
+	}
+
+	// A Union with conversion functions to and from Object[] { tag, value }. The value is not converted.
+	public PepDataClass(Class<?> targetType, MethodHandle toData, MethodHandle toObject, Class<?>[] unionMembers) {
+		this(targetType, Object[].class, null, null, toData, toObject, new PepDataComponent[0], DataType.UNION, null, null, unionMembers,
+				null);
+	}
+
+	private PepDataClass(Class<?> targetType, Class<?> serialType, MethodHandle constructor, MethodHandle creator, MethodHandle toData,
+			MethodHandle toObject, PepDataComponent[] fields, DataType dataType, Class<?> keyClass, Class<?> valueClass,
+			Class<?>[] unionMembers, Class<?> elementClass) {
 		this.typeClass = targetType;
 		this.dataClass = serialType;
 		this.dataComponents = fields;
 		this.constructor = constructor;
+		this.creator = creator;
 		this.toData = toData;
 		this.toObject = toObject;
 		this.isData = DataType.TUPLE == dataType;
 		this.isAtom = DataType.ATOM == dataType;
 		this.isArray = DataType.ARRAY == dataType;
+		this.isMap = DataType.MAP == dataType;
+		this.isUnion = DataType.UNION == dataType;
+		this.keyClass = keyClass;
+		this.valueClass = valueClass;
+		this.unionMembers = unionMembers;
+		this.elementClass = elementClass;
+	}
+
+	public PepDataClass(Class<?> targetType, Class<?> serialType, MethodHandle constructor, MethodHandle toData, MethodHandle toObject,
+			PepDataComponent[] fields, DataType dataType) {
+		this(targetType, serialType, constructor, null, toData, toObject, fields, dataType);
 	}
 
 	public PepDataClass(Class<?> targetType, Class<?> serialType, MethodHandle constructor, MethodHandle toData, MethodHandle toObject,
@@ -84,6 +141,10 @@ public class PepDataClass {
 		this(targetType, dataClass, identity(targetType), toData, toObject, new PepDataComponent[0], DataType.ATOM);
 	}
 
+	private static Class<?> elementClass(Class<?> targetType) {
+		return targetType.isArray() ? targetType.getComponentType() : Object.class;
+	}
+
 	private static MethodHandle identity(Class<?> targetType) {
 		return MethodHandles.identity(targetType);
 	}
@@ -114,6 +175,43 @@ public class PepDataClass {
 		return isArray;
 	}
 
+	public boolean isMap() {
+		return isMap;
+	}
+
+	public boolean isUnion() {
+		return isUnion;
+	}
+
+	/**
+	 * @return The member classes of a union in tag order. null if this is not a union.
+	 */
+	public Class<?>[] unionMembers() {
+		return unionMembers;
+	}
+
+	/**
+	 * @return The declared key class of a map. Object if not known and null if this is not a map.
+	 */
+	public Class<?> keyClass() {
+		return keyClass;
+	}
+
+	/**
+	 * @return The declared value class of a map. Object if not known and null if this is not a map.
+	 */
+	public Class<?> valueClass() {
+		return valueClass;
+	}
+
+	/**
+	 * @return The component class of an array or the declared element class of a collection. Object if not
+	 *         known and null if this is not an array.
+	 */
+	public Class<?> elementClass() {
+		return elementClass;
+	}
+
 	/**
 	 * @return A MethodHandle that has the signature T embed(Object[] values).
 	 */
@@ -121,6 +219,14 @@ public class PepDataClass {
 		return constructor;
 	}
 
+	/**
+	 * @return A MethodHandle that has the signature D create(c0, c1, ...) with each component passed as its
+	 *         declared type so primitives are not boxed. null if not available for this class.
+	 */
+	public MethodHandle creator() {
+		return creator;
+	}
+
 	/**
 	 * @return A MethodHandle that has the signature T embed(Object[] values).
 	 */
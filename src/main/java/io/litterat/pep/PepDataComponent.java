@@ -30,16 +30,46 @@ public class PepDataComponent {
 	// type of the field
 	private final Class<?> type;
 
-	private final PepDataClass dataClass;
+	// Resolved on first use for a recursive reference.
+	private volatile PepDataClass dataClass;
+
+	// Context used to resolve a recursive reference. null otherwise.
+	private final PepContext context;
 
 	// accessor read handle. signature: type t = object.getT();
 	private final MethodHandle accessor;
 
+	// setter write handle. signature: object.setT( t ); null if only set through the constructor.
+	private final MethodHandle setter;
+
 	public PepDataComponent(String name, Class<?> type, PepDataClass dataClass, MethodHandle readHandle) {
+		this(name, type, dataClass, readHandle, null);
+	}
+
+	public PepDataComponent(String name, Class<?> type, PepDataClass dataClass, MethodHandle readHandle, MethodHandle writeHandle) {
 		this.name = name;
 		this.type = type;
 		this.dataClass = dataClass;
+		this.context = null;
 		this.accessor = readHandle;
+		this.setter = writeHandle;
+	}
+
+	/**
+	 * Component with a recursive reference to a class that is still being resolved, such as the class that
+	 * owns the component. The data class is taken from the context on first use.
+	 */
+	public PepDataComponent(String name, Class<?> type, PepContext context, MethodHandle readHandle) {
+		this(name, type, context, readHandle, null);
+	}
+
+	public PepDataComponent(String name, Class<?> type, PepContext context, MethodHandle readHandle, MethodHandle writeHandle) {
+		this.name = name;
+		this.type = type;
+		this.dataClass = null;
+		this.context = context;
+		this.accessor = readHandle;
+		this.setter = writeHandle;
 	}
 
 	public String name() {
@@ -51,11 +81,28 @@ public class PepDataComponent {
 	}
 
 	public PepDataClass dataClass() {
-		return dataClass;
+		PepDataClass result = dataClass;
+		if (result == null) {
+			try {
+				result = context.getDescriptor(type);
+			} catch (PepException e) {
+				throw new IllegalStateException(String.format("Failed to resolve recursive component %s", name), e);
+			}
+			dataClass = result;
+		}
+		return result;
 	}
 
 	public MethodHandle accessor() {
 		return accessor;
 	}
 
+	/**
+	 * @return the setter with signature (object, type):void or null if the component is only set through the
+	 *         constructor.
+	 */
+	public MethodHandle setter() {
+		return setter;
+	}
+
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import io.litterat.pep.PepDataClass.DataType;
+
+/**
+ * 
+ * A compact description of the data form of a class and every class it refers to. The schema is itself a
+ * data class so it can be sent to a reader with any of the mappers. The fingerprint is a 64-bit Rabin
+ * fingerprint (CRC-64-AVRO) of the canonical form so peers can exchange fingerprints and only compare
+ * schemas when they differ.
+ * 
+ * @formatter:off
+ * 
+ * Components refer to other types with a type expression:
+ * 
+ * name             - an atom with the same data form such as int or java.lang.String, or a named type
+ * element[]        - an array of the element type expression
+ * name<element>    - a collection with the element type expression
+ * name<key,value>  - a map with key and value type expressions
+ * 
+ * Collections of raw or Object elements are given by name only. Named types are listed once in the
+ * order they are first referenced with the root type first. Atoms are only listed if their data class is
+ * different to the target class.
+ * 
+ * @formatter:on
+ */
+public class PepSchema {
+
+	private static final long EMPTY = 0xc15d213aa4d7a795L;
+
+	private static final long[] FINGERPRINT_TABLE = fingerprintTable();
+
+	// Name of the root type.
+	private final String root;
+
+	private final PepSchemaType[] types;
+
+	private final long fingerprint;
+
+	@Data
+	public PepSchema(String root, PepSchemaType[] types) {
+		this.root = root;
+		this.types = types;
+		this.fingerprint = fingerprint(toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Creates the schema for the descriptor, resolving the classes it refers to with the context.
+	 */
+	public static PepSchema create(PepContext context, PepDataClass dataClass) throws PepException {
+		SchemaBuilder builder = new SchemaBuilder(context);
+		String root = builder.expression(dataClass);
+		return new PepSchema(root, builder.types.toArray(new PepSchemaType[0]));
+	}
+
+	public String root() {
+		return root;
+	}
+
+	public PepSchemaType[] types() {
+		return types;
+	}
+
+	/**
+	 * @return 64-bit fingerprint of the canonical form.
+	 */
+	public long fingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return the canonical form, the root followed by each named type separated by semicolons.
+	 */
+	@Override
+	public String toString() {
+		StringJoiner joiner = new StringJoiner(";");
+		joiner.add(root);
+		for (PepSchemaType type : types) {
+			joiner.add(type.toString());
+		}
+		return joiner.toString();
+	}
+
+	private static long[] fingerprintTable() {
+		long[] table = new long[256];
+		for (int x = 0; x < table.length; x++) {
+			long fp = x;
+			for (int j = 0; j < 8; j++) {
+				fp = (fp >>> 1) ^ (EMPTY & -(fp & 1L));
+			}
+			table[x] = fp;
+		}
+		return table;
+	}
+
+	private static long fingerprint(byte[] bytes) {
+		long fp = EMPTY;
+		for (byte b : bytes) {
+			fp = (fp >>> 8) ^ FINGERPRINT_TABLE[(int) (fp ^ b) & 0xff];
+		}
+		return fp;
+	}
+
+	/**
+	 * Walks the descriptors depth first collecting the named types.
+	 */
+	private static class SchemaBuilder {
+
+		private final PepContext context;
+
+		private final List<PepSchemaType> types = new ArrayList<>();
+
+		// Named types already listed or being listed. Stops recursive references.
+		private final Set<String> named = new HashSet<>();
+
+		SchemaBuilder(PepContext context) {
+			this.context = context;
+		}
+
+		String expression(Class<?> clss) throws PepException {
+			// Undeclared types of collections, maps and arrays are not resolved.
+			if (clss == Object.class) {
+				return clss.getName();
+			}
+			return expression(context.getDescriptor(clss));
+		}
+
+		String expression(PepDataClass dataClass) throws PepException {
+			Class<?> typeClass = dataClass.typeClass();
+			String name = typeClass.getName();
+
+			if (dataClass.isArray()) {
+				if (typeClass.isArray()) {
+					return expression(typeClass.getComponentType()) + "[]";
+				}
+				return dataClass.elementClass() == Object.class ? name : name + "<" + expression(dataClass.elementClass()) + ">";
+			} else if (dataClass.isMap()) {
+				return name + "<" + expression(dataClass.keyClass()) + "," + expression(dataClass.valueClass()) + ">";
+			} else if (dataClass.isAtom() && typeClass == dataClass.dataClass()) {
+				return name;
+			}
+
+			if (named.add(name)) {
+				// Reserve the position so the type is listed before the types it refers to.
+				int index = types.size();
+				types.add(null);
+				types.set(index, namedType(dataClass));
+			}
+			return name;
+		}
+
+		private PepSchemaType namedType(PepDataClass dataClass) throws PepException {
+			String name = dataClass.typeClass().getName();
+			PepSchemaComponent[] components = new PepSchemaComponent[0];
+			String[] members = new String[0];
+			String data = "";
+
+			if (dataClass.isAtom()) {
+				data = dataClass.dataClass().getName();
+
+				// Enum data depends on the constants, either their names or their ordinals.
+				Object[] constants = dataClass.typeClass().getEnumConstants();
+				if (constants != null) {
+					members = new String[constants.length];
+					for (int x = 0; x < constants.length; x++) {
+						members[x] = ((Enum<?>) constants[x]).name();
+					}
+				}
+				return new PepSchemaType(name, DataType.ATOM.name(), data, components, members);
+			} else if (dataClass.isUnion()) {
+				Class<?>[] memberClasses = dataClass.unionMembers();
+				members = new String[memberClasses.length];
+				for (int x = 0; x < memberClasses.length; x++) {
+					members[x] = expression(memberClasses[x]);
+				}
+				return new PepSchemaType(name, DataType.UNION.name(), data, components, members);
+			}
+
+			PepDataComponent[] fields = dataClass.dataComponents();
+			components = new PepSchemaComponent[fields.length];
+			for (int x = 0; x < fields.length; x++) {
+				components[x] = new PepSchemaComponent(fields[x].name(), expression(fields[x].dataClass()));
+			}
+			return new PepSchemaType(name, DataType.TUPLE.name(), data, components, members);
+		}
+	}
+}
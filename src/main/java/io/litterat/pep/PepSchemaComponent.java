@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+/**
+ * 
+ * A component of a tuple in a PepSchema. The type is a type expression as described by PepSchema.
+ *
+ */
+public class PepSchemaComponent {
+
+	private final String name;
+
+	private final String type;
+
+	@Data
+	public PepSchemaComponent(String name, String type) {
+		this.name = name;
+		this.type = type;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public String type() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + type;
+	}
+}
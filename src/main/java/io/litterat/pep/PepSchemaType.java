@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.StringJoiner;
+
+import io.litterat.pep.PepDataClass.DataType;
+
+/**
+ * 
+ * A named type in a PepSchema. Tuples list their components, unions their members in tag order and atoms
+ * the name of their data class. Enum atoms also list their constant names in ordinal order so that adding,
+ * removing or reordering constants changes the fingerprint.
+ *
+ */
+public class PepSchemaType {
+
+	// Name of the target class.
+	private final String name;
+
+	// Name of the DataType.
+	private final String shape;
+
+	// Data class of an atom. Empty for other shapes.
+	private final String data;
+
+	// Components of a tuple. Empty for other shapes.
+	private final PepSchemaComponent[] components;
+
+	// Member class names of a union in tag order or constant names of an enum atom in ordinal order. Empty for
+	// other shapes.
+	private final String[] members;
+
+	@Data
+	public PepSchemaType(String name, String shape, String data, PepSchemaComponent[] components, String[] members) {
+		this.name = name;
+		this.shape = shape;
+		this.data = data;
+		this.components = components;
+		this.members = members;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public String shape() {
+		return shape;
+	}
+
+	public String data() {
+		return data;
+	}
+
+	public PepSchemaComponent[] components() {
+		return components;
+	}
+
+	public String[] members() {
+		return members;
+	}
+
+	/**
+	 * @return the canonical form, e.g. Point{x:int,y:int}, Shape|Circle,Square, UUID=java.lang.String or
+	 *         Color=java.lang.String[RED,GREEN,BLUE].
+	 */
+	@Override
+	public String toString() {
+		if (DataType.UNION.name().equals(shape)) {
+			return name + "|" + String.join(",", members);
+		} else if (DataType.ATOM.name().equals(shape)) {
+			return members.length == 0 ? name + "=" + data : name + "=" + data + "[" + String.join(",", members) + "]";
+		}
+
+		StringJoiner joiner = new StringJoiner(",", name + "{", "}");
+		for (PepSchemaComponent component : components) {
+			joiner.add(component.toString());
+		}
+		return joiner.toString();
+	}
+}
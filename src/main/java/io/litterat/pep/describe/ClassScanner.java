@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import io.litterat.pep.Data;
+import io.litterat.pep.PepException;
+
+/**
+ * 
+ * Finds data classes in a package and its sub packages. Directories and jar files on the class path are
+ * scanned for class files and classes with a @Data annotation on the class, a constructor or a static method
+ * are returned. Classes are loaded without being initialised.
+ *
+ */
+public class ClassScanner {
+
+	private static final String CLASS_SUFFIX = ".class";
+
+	private ClassScanner() {
+	}
+
+	public static List<Class<?>> findDataClasses(ClassLoader loader, String packageName) throws PepException {
+		String path = packageName.replace('.', '/');
+
+		// Sorted so the result does not depend on the order of the file system.
+		TreeSet<String> classNames = new TreeSet<>();
+		try {
+			Enumeration<URL> resources = loader.getResources(path);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				if ("file".equals(url.getProtocol())) {
+					findInDirectory(Paths.get(url.toURI()), packageName, classNames);
+				} else if ("jar".equals(url.getProtocol())) {
+					findInJar((JarURLConnection) url.openConnection(), path, classNames);
+				}
+			}
+		} catch (IOException | URISyntaxException e) {
+			throw new PepException(String.format("Failed to scan package %s", packageName), e);
+		}
+
+		List<Class<?>> classes = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				Class<?> clss = Class.forName(className, false, loader);
+				if (isData(clss)) {
+					classes.add(clss);
+				}
+			} catch (ClassNotFoundException | LinkageError e) {
+				// Not loadable from this class loader, ignore.
+			}
+		}
+		return classes;
+	}
+
+	private static void findInDirectory(Path directory, String packageName, TreeSet<String> classNames) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.forEach(file -> {
+				String name = directory.relativize(file).toString();
+				if (name.endsWith(CLASS_SUFFIX)) {
+					String relativeName = name.substring(0, name.length() - CLASS_SUFFIX.length()).replace(file.getFileSystem().getSeparator(), ".");
+					classNames.add(packageName + "." + relativeName);
+				}
+			});
+		}
+	}
+
+	private static void findInJar(JarURLConnection connection, String path, TreeSet<String> classNames) throws IOException {
+		connection.setUseCaches(false);
+		try (JarFile jar = connection.getJarFile()) {
+			Enumeration<JarEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				String name = entries.nextElement().getName();
+				if (name.startsWith(path + "/") && name.endsWith(CLASS_SUFFIX)) {
+					classNames.add(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'));
+				}
+			}
+		}
+	}
+
+	private static boolean isData(Class<?> clss) {
+		if (clss.isAnnotation() || clss.isInterface()) {
+			return false;
+		}
+
+		if (clss.isAnnotationPresent(Data.class)) {
+			return true;
+		}
+
+		for (Constructor<?> constructor : clss.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(Data.class)) {
+				return true;
+			}
+		}
+
+		for (Method method : clss.getDeclaredMethods()) {
+			if (method.isAnnotationPresent(Data.class)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -1,42 +1,158 @@
 package io.litterat.pep.describe;
 
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import io.litterat.pep.ObjectDataBridge;
+import io.litterat.pep.PepException;
 
 /**
- * 
+ *
  * Default Collection to array bridge.
  *
+ * Collections are created using a capacity constructor where one exists so they do not grow while being
+ * filled. Otherwise a no-arg constructor or a static no-arg factory method on the class is used. Interfaces
+ * use a default implementation (ArrayList, HashSet, TreeSet or ArrayDeque). When immutable collections are
+ * requested the List, Set and Collection interfaces are created with List.of and Set.copyOf.
+ *
  */
 public class CollectionBridge implements ObjectDataBridge<Object[], Collection<?>> {
 
-	MethodHandle collectionConstructor;
+	private final Class<?> collectionClass;
+
+	// Signature: (int):Collection where the argument is the number of elements to be added.
+	private final MethodHandle collectionConstructor;
 
-	public CollectionBridge(MethodHandle collectionConstructor) {
+	// Result is an immutable List or Set.
+	private final boolean immutable;
+
+	private CollectionBridge(Class<?> collectionClass, MethodHandle collectionConstructor, boolean immutable) {
+		this.collectionClass = collectionClass;
 		this.collectionConstructor = collectionConstructor;
+		this.immutable = immutable;
 	}
 
-	@Override
-	public Object[] toData(Collection<?> b) {
-		return b.toArray();
-	}
+	/**
+	 * @param collectionClass the collection class or interface.
+	 * @param immutable       create immutable results for the List, Set and Collection interfaces.
+	 */
+	public static CollectionBridge create(Class<?> collectionClass, boolean immutable) throws PepException {
+		// Only the List, Set and Collection interfaces can be satisfied by an immutable copy. The constructor
+		// still creates the default implementation so it matches the declared type.
+		immutable = immutable && (collectionClass == List.class || collectionClass == Set.class || collectionClass == Collection.class);
+
+		Class<?> implementationClass = implementation(collectionClass);
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	@Override
-	public Collection<?> toObject(Object[] s) {
 		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
 
-			Collection collection = (Collection) collectionConstructor.invoke();
+			// Presize with a capacity constructor. Hash based collections need extra capacity for the load factor.
+			try {
+				MethodHandle constructor = lookup.findConstructor(implementationClass, MethodType.methodType(void.class, int.class));
+				if (HashSet.class.isAssignableFrom(implementationClass)) {
+					constructor = MethodHandles.filterArguments(constructor, 0,
+							lookup.findStatic(CollectionBridge.class, "hashCapacity", MethodType.methodType(int.class, int.class)));
+				}
+				return new CollectionBridge(collectionClass, constructor.asType(MethodType.methodType(Collection.class, int.class)), immutable);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				// fall through to the no-arg constructor.
+			}
+
+			try {
+				MethodHandle constructor = lookup.findConstructor(implementationClass, MethodType.methodType(void.class));
+				return new CollectionBridge(collectionClass,
+						MethodHandles.dropArguments(constructor.asType(MethodType.methodType(Collection.class)), 0, int.class), immutable);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				// fall through to a factory method.
+			}
 
-			for (int x = 0; x < s.length; x++) {
-				collection.add(s[x]);
+			for (Method method : implementationClass.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 0
+						&& collectionClass.isAssignableFrom(method.getReturnType())) {
+					MethodHandle factory = lookup.unreflect(method);
+					return new CollectionBridge(collectionClass,
+							MethodHandles.dropArguments(factory.asType(MethodType.methodType(Collection.class)), 0, int.class), immutable);
+				}
 			}
+		} catch (IllegalAccessException | SecurityException e) {
+			throw new PepException(String.format("Failed to access constructor for collection %s", collectionClass), e);
+		}
+
+		throw new PepException(String.format("No constructor or factory found for collection %s", collectionClass));
+	}
+
+	private static Class<?> implementation(Class<?> collectionClass) throws PepException {
+		if (!collectionClass.isInterface() && !Modifier.isAbstract(collectionClass.getModifiers())) {
+			return collectionClass;
+		}
+
+		if (collectionClass.isAssignableFrom(ArrayList.class)) {
+			return ArrayList.class;
+		} else if (collectionClass.isAssignableFrom(HashSet.class)) {
+			return HashSet.class;
+		} else if (collectionClass == SortedSet.class || collectionClass == NavigableSet.class) {
+			return TreeSet.class;
+		} else if (collectionClass.isAssignableFrom(ArrayDeque.class) || collectionClass == Queue.class) {
+			return ArrayDeque.class;
+		}
+
+		throw new PepException(String.format("No default implementation for collection %s", collectionClass));
+	}
+
+	@SuppressWarnings("unused")
+	private static int hashCapacity(int size) {
+		return (int) (size / 0.75f) + 1;
+	}
+
+	/**
+	 * @return MethodHandle with signature (int):Collection creating an empty collection with room for the
+	 *         given number of elements. For immutable collections this is the default mutable implementation.
+	 */
+	public MethodHandle constructor() {
+		return collectionConstructor;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Collection<Object> newCollection(int size) throws PepException {
+		try {
+			return (Collection<Object>) collectionConstructor.invokeExact(size);
 		} catch (Throwable e) {
-			throw new RuntimeException("Failed to convert to Collection");
+			throw new PepException(String.format("Failed to create collection %s", collectionClass), e);
 		}
-		return null;
 	}
 
+	@Override
+	public Object[] toData(Collection<?> b) {
+		return b.toArray();
+	}
+
+	@Override
+	public Collection<?> toObject(Object[] s) throws PepException {
+		if (immutable) {
+			if (collectionClass == Set.class) {
+				return Set.copyOf(Arrays.asList(s));
+			}
+			return List.of(s);
+		}
+
+		Collection<Object> collection = newCollection(s.length);
+		for (int x = 0; x < s.length; x++) {
+			collection.add(s[x]);
+		}
+		return collection;
+	}
 }
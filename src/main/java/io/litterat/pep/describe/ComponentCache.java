@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 
+ * Persistent cache of the components found by analysing classes. This allows classes not covered by the
+ * ComponentIndex, such as third party classes resolved with allowAny or allowSerializable, to skip the byte
+ * code analysis after the first run.
+ * 
+ * Entries are keyed by class name and a SHA-256 hash of the class file. An entry is ignored if the class file
+ * has changed. New entries are appended to the file, a later entry for the same class replaces an earlier one.
+ * The file uses the ComponentIndex line format with a class line before each entry:
+ * 
+ * pep-cache 1
+ * class com.example.Point 3f2a...
+ * constructor (II)V
+ * component x 0 x -
+ * 
+ * The cache is an optimisation only. Failures to read or write the file cause classes to be analysed again.
+ *
+ */
+public class ComponentCache {
+
+	public static final String VERSION = "pep-cache 1";
+	public static final String CLASS = "class";
+
+	private final Path file;
+
+	// Entries by class name. Loaded on first use.
+	private Map<String, Entry> entries;
+
+	// The file is missing, invalid or has replaced entries so is written in full on the next store.
+	private boolean rewrite;
+
+	private static class Entry {
+		private final String hash;
+		private final List<String> lines;
+
+		Entry(String hash, List<String> lines) {
+			this.hash = hash;
+			this.lines = lines;
+		}
+	}
+
+	public ComponentCache(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Adds the cached components of the class to fields. Returns false if the class is not cached or the class
+	 * file has changed.
+	 */
+	public synchronized boolean findComponents(Class<?> clss, Constructor<?> constructor, List<ComponentInfo> fields) {
+		Entry entry = entries().get(clss.getName());
+		if (entry == null) {
+			return false;
+		}
+
+		String hash = classHash(clss);
+		if (hash == null || !hash.equals(entry.hash)) {
+			return false;
+		}
+
+		return ComponentIndex.readComponents(clss, constructor, entry.lines, fields);
+	}
+
+	/**
+	 * Records the components found for the class.
+	 */
+	public synchronized void store(Class<?> clss, Constructor<?> constructor, List<ComponentInfo> fields) {
+		String hash = classHash(clss);
+		List<String> lines = ComponentIndex.writeComponents(constructor, fields);
+		if (hash == null || lines == null) {
+			return;
+		}
+
+		Entry entry = new Entry(hash, lines);
+		if (entries().put(clss.getName(), entry) != null) {
+			rewrite = true;
+		}
+
+		StringBuilder output = new StringBuilder();
+		try {
+			if (rewrite) {
+				output.append(VERSION).append('\n');
+				for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+					appendEntry(output, cached.getKey(), cached.getValue());
+				}
+
+				Files.write(file, output.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+				rewrite = false;
+			} else {
+				appendEntry(output, clss.getName(), entry);
+
+				Files.write(file, output.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+			}
+		} catch (IOException | SecurityException e) {
+			// Not cached. The class will be analysed again next time.
+		}
+	}
+
+	private void appendEntry(StringBuilder output, String className, Entry entry) {
+		output.append(CLASS).append(ComponentIndex.SEPARATOR).append(className).append(ComponentIndex.SEPARATOR).append(entry.hash).append('\n');
+		for (String line : entry.lines) {
+			output.append(line).append('\n');
+		}
+	}
+
+	private Map<String, Entry> entries() {
+		if (entries == null) {
+			entries = new HashMap<>();
+			load();
+		}
+		return entries;
+	}
+
+	private void load() {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		} catch (IOException | SecurityException e) {
+			// Missing or unreadable, start a new file.
+			rewrite = true;
+			return;
+		}
+
+		if (lines.isEmpty() || !VERSION.equals(lines.get(0))) {
+			rewrite = true;
+			return;
+		}
+
+		String className = null;
+		String hash = null;
+		List<String> entryLines = null;
+		for (int x = 1; x <= lines.size(); x++) {
+			String line = x < lines.size() ? lines.get(x) : null;
+
+			if (line == null || line.startsWith(CLASS + ComponentIndex.SEPARATOR)) {
+				if (className != null && entries.put(className, new Entry(hash, entryLines)) != null) {
+					rewrite = true;
+				}
+				if (line == null) {
+					break;
+				}
+
+				String[] values = line.split(ComponentIndex.SEPARATOR, -1);
+				if (values.length != 3) {
+					className = null;
+					rewrite = true;
+					continue;
+				}
+				className = values[1];
+				hash = values[2];
+				entryLines = new ArrayList<>();
+			} else if (className != null) {
+				entryLines.add(line);
+			}
+		}
+	}
+
+	/**
+	 * Returns the hex SHA-256 hash of the class file or null if the class file can not be read.
+	 */
+	static String classHash(Class<?> clss) {
+		try (InputStream input = clss.getResourceAsStream("/" + clss.getName().replace('.', '/') + ".class")) {
+			if (input == null) {
+				return null;
+			}
+
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+
+			StringBuilder hash = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hash.toString();
+
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+}
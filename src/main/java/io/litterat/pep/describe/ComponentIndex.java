@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.litterat.pep.PepException;
+
+/**
+ * 
+ * Reads the component index generated at build time by the PepIndexProcessor annotation processor. The index
+ * records the constructor argument order, component names and accessor/setter names of a data class so its
+ * components can be found without reading and analysing the class file.
+ * 
+ * The index is a resource named META-INF/litterat/pep/<binary class name> with tab separated lines:
+ * 
+ * pep-index 1
+ * constructor (II)V
+ * component x 0 x -
+ * component name -1 getName setName
+ * 
+ * A component line gives the component name, constructor argument (-1 for setters), accessor and setter.
+ *
+ */
+public class ComponentIndex {
+
+	public static final String INDEX_PATH = "META-INF/litterat/pep/";
+
+	public static final String VERSION = "pep-index 1";
+	public static final String CONSTRUCTOR = "constructor";
+	public static final String COMPONENT = "component";
+	public static final String NONE = "-";
+	public static final String SEPARATOR = "\t";
+
+	public static String indexName(String binaryName) {
+		return INDEX_PATH + binaryName;
+	}
+
+	public static String constructorDescriptor(Constructor<?> constructor) {
+		return MethodType.methodType(void.class, constructor.getParameterTypes()).toMethodDescriptorString();
+	}
+
+	/**
+	 * Adds the indexed components of the class to fields. Returns false without changing fields if the class
+	 * has no index or the index no longer matches the class, in which case the class must be analysed.
+	 */
+	public boolean findComponents(Class<?> clss, Constructor<?> constructor, List<ComponentInfo> fields) throws PepException {
+
+		ClassLoader loader = clss.getClassLoader();
+		if (loader == null) {
+			return false;
+		}
+
+		try (InputStream input = loader.getResourceAsStream(indexName(clss.getName()))) {
+			if (input == null) {
+				return false;
+			}
+
+			BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+			if (!VERSION.equals(reader.readLine())) {
+				return false;
+			}
+
+			List<String> lines = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+
+			return readComponents(clss, constructor, lines, fields);
+
+		} catch (IOException | SecurityException e) {
+			throw new PepException(String.format("Failed to read component index for class: %s", clss), e);
+		}
+	}
+
+	/**
+	 * Adds the components described by the constructor and component lines to fields. Returns false without
+	 * changing fields if the lines do not match the class.
+	 */
+	static boolean readComponents(Class<?> clss, Constructor<?> constructor, List<String> lines, List<ComponentInfo> fields) {
+
+		try {
+			List<ComponentInfo> indexFields = new ArrayList<>();
+			Class<?>[] params = constructor.getParameterTypes();
+			String descriptor = null;
+
+			for (String line : lines) {
+				String[] values = line.split(SEPARATOR, -1);
+
+				if (values[0].equals(CONSTRUCTOR) && values.length == 2) {
+					descriptor = values[1];
+				} else if (values[0].equals(COMPONENT) && values.length == 5) {
+					int arg = Integer.parseInt(values[2]);
+					Method readMethod = clss.getDeclaredMethod(values[3]);
+
+					ComponentInfo info;
+					if (arg >= 0) {
+						info = new ComponentInfo(values[1], params[arg]);
+						info.setConstructorArgument(arg);
+					} else {
+						info = new ComponentInfo(values[1], readMethod.getReturnType());
+						info.setWriteMethod(clss.getDeclaredMethod(values[4], readMethod.getReturnType()));
+					}
+					info.setReadMethod(readMethod);
+
+					indexFields.add(info);
+				} else {
+					return false;
+				}
+			}
+
+			// The class has been changed since the index was generated.
+			if (!constructorDescriptor(constructor).equals(descriptor)) {
+				return false;
+			}
+
+			fields.addAll(indexFields);
+			return true;
+
+		} catch (NoSuchMethodException | IndexOutOfBoundsException | NumberFormatException | SecurityException e) {
+			// The index does not match the class.
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the constructor and component lines describing fields, or null if they can not be written.
+	 */
+	static List<String> writeComponents(Constructor<?> constructor, List<ComponentInfo> fields) {
+		List<String> lines = new ArrayList<>();
+		lines.add(CONSTRUCTOR + SEPARATOR + constructorDescriptor(constructor));
+
+		for (ComponentInfo info : fields) {
+			if (info.getReadMethod() == null || info.getName().contains(SEPARATOR) || info.getName().contains("\n")) {
+				return null;
+			}
+
+			int arg = info.getWriteMethod() == null ? info.getConstructorArgument() : -1;
+			String writeMethod = info.getWriteMethod() == null ? NONE : info.getWriteMethod().getName();
+
+			lines.add(String.join(SEPARATOR, COMPONENT, info.getName(), Integer.toString(arg), info.getReadMethod().getName(), writeMethod));
+		}
+		return lines;
+	}
+}
@@ -20,6 +20,7 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
@@ -30,6 +31,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import io.litterat.pep.Atom;
@@ -41,19 +43,39 @@ import io.litterat.pep.PepDataClass.DataType;
 import io.litterat.pep.PepDataComponent;
 import io.litterat.pep.PepException;
 import io.litterat.pep.ToData;
+import io.litterat.pep.Union;
 
 public class DefaultResolver implements PepContextResolver {
 
 	private static final String TODATA_METHOD = "toData";
 	private static final String TOOBJECT_METHOD = "toObject";
 
+	// Class.getPermittedSubclasses when running on Java 17 or later, otherwise null.
+	private static final Method PERMITTED_SUBCLASSES = findPermittedSubclasses();
+
 	private final boolean allowSerializable;
 
 	private final boolean allowAny;
 
+	// Optional persistent cache of analysed components.
+	private final ComponentCache componentCache;
+
+	// Create immutable results for List, Set and Collection components.
+	private final boolean immutableCollections;
+
 	public DefaultResolver(boolean allowSerializable, boolean allowAny) {
+		this(allowSerializable, allowAny, null);
+	}
+
+	public DefaultResolver(boolean allowSerializable, boolean allowAny, ComponentCache componentCache) {
+		this(allowSerializable, allowAny, componentCache, false);
+	}
+
+	public DefaultResolver(boolean allowSerializable, boolean allowAny, ComponentCache componentCache, boolean immutableCollections) {
 		this.allowSerializable = allowSerializable;
 		this.allowAny = allowAny;
+		this.componentCache = componentCache;
+		this.immutableCollections = immutableCollections;
 	}
 
 	@Override
@@ -61,9 +83,13 @@ public class DefaultResolver implements PepContextResolver {
 		PepDataClass descriptor = null;
 
 		if (isArray(targetClass)) {
-			descriptor = resolveArray(context, targetClass);
+			descriptor = resolveArray(targetClass, Object.class);
+		} else if (Map.class.isAssignableFrom(targetClass)) {
+			descriptor = resolveMap(targetClass, Object.class, Object.class);
 		} else if (isAtom(targetClass)) {
 			descriptor = resolveAtom(context, targetClass);
+		} else if (isUnion(targetClass)) {
+			descriptor = resolveUnion(targetClass, unionMembers(targetClass));
 		} else if (isTuple(targetClass)) {
 			descriptor = resolveTuple(context, targetClass);
 		} else {
@@ -119,6 +145,79 @@ public class DefaultResolver implements PepContextResolver {
 		return false;
 	}
 
+	private boolean isUnion(Class<?> targetClass) throws PepException {
+		return targetClass.isAnnotationPresent(Union.class) || permittedSubclasses(targetClass) != null;
+	}
+
+	/**
+	 * @return the members of a class annotated with Union or the permitted subclasses of a sealed class,
+	 *         otherwise null. Sealed classes are found by reflection as they are not available before Java 17.
+	 *         Permitted subclasses that are themselves sealed are replaced by their members.
+	 */
+	private static Class<?>[] unionMembers(Class<?> targetClass) throws PepException {
+		Union union = targetClass.getAnnotation(Union.class);
+		if (union != null) {
+			return union.value();
+		}
+
+		Class<?>[] permitted = permittedSubclasses(targetClass);
+		if (permitted == null) {
+			return null;
+		}
+
+		List<Class<?>> members = new ArrayList<>();
+		for (Class<?> subclass : permitted) {
+			Class<?>[] nested = permittedSubclasses(subclass);
+			if (nested == null) {
+				members.add(subclass);
+			} else {
+				members.addAll(Arrays.asList(unionMembers(subclass)));
+			}
+		}
+		return members.toArray(new Class<?>[0]);
+	}
+
+	private static Class<?>[] permittedSubclasses(Class<?> targetClass) throws PepException {
+		if (PERMITTED_SUBCLASSES == null) {
+			return null;
+		}
+
+		try {
+			return (Class<?>[]) PERMITTED_SUBCLASSES.invoke(targetClass);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new PepException(String.format("Failed to get permitted subclasses of %s", targetClass), e);
+		}
+	}
+
+	private static Method findPermittedSubclasses() {
+		try {
+			return Class.class.getMethod("getPermittedSubclasses");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Unions are projected to Object[] { tag, value } by a UnionBridge. Each member is given a tag by its
+	 * position in the list of members.
+	 */
+	public static PepDataClass resolveUnion(Class<?> targetClass, Class<?>[] members) throws PepException {
+		UnionBridge bridge = new UnionBridge(targetClass, members);
+
+		try {
+			MethodHandle toData = MethodHandles.lookup()
+					.findVirtual(UnionBridge.class, TODATA_METHOD, MethodType.methodType(Object[].class, Object.class)).bindTo(bridge)
+					.asType(MethodType.methodType(Object[].class, targetClass));
+			MethodHandle toObject = MethodHandles.lookup()
+					.findVirtual(UnionBridge.class, TOOBJECT_METHOD, MethodType.methodType(Object.class, Object[].class)).bindTo(bridge)
+					.asType(MethodType.methodType(targetClass, Object[].class));
+
+			return new PepDataClass(targetClass, toData, toObject, bridge.members());
+		} catch (IllegalAccessException | NoSuchMethodException | SecurityException e) {
+			throw new PepException("Failed to get union descriptor", e);
+		}
+	}
+
 	private boolean isArray(Class<?> targetClass) {
 
 		if (targetClass.isArray() || Collection.class.isAssignableFrom(targetClass)) {
@@ -169,7 +268,11 @@ public class DefaultResolver implements PepContextResolver {
 		return false;
 	}
 
-	private PepDataClass resolveArray(PepContext context, Class<?> targetClass) throws PepException {
+	/**
+	 * Collections are resolved for each component as the element class is taken from the declared type of the
+	 * component.
+	 */
+	private PepDataClass resolveArray(Class<?> targetClass, Class<?> elementClass) throws PepException {
 		PepDataClass descriptor = null;
 
 		try {
@@ -182,16 +285,17 @@ public class DefaultResolver implements PepContextResolver {
 
 			} else if (Collection.class.isAssignableFrom(targetClass)) {
 
-				// TODO Some Collections will not have a size constructor. Fallback and drop the argument.
-				MethodHandle constructor = MethodHandles.lookup().unreflectConstructor(targetClass.getConstructor(int.class));
-				CollectionBridge bridge = new CollectionBridge(constructor);
+				CollectionBridge bridge = CollectionBridge.create(targetClass, immutableCollections);
+				MethodHandle constructor = bridge.constructor().asType(MethodType.methodType(targetClass, int.class));
 
 				MethodHandle toObject = MethodHandles.lookup()
-						.findVirtual(CollectionBridge.class, TOOBJECT_METHOD, MethodType.methodType(Collection.class, Object[].class)).bindTo(bridge);
+						.findVirtual(CollectionBridge.class, TOOBJECT_METHOD, MethodType.methodType(Collection.class, Object[].class)).bindTo(bridge)
+						.asType(MethodType.methodType(targetClass, Object[].class));
 				MethodHandle toData = MethodHandles.lookup()
-						.findVirtual(CollectionBridge.class, TODATA_METHOD, MethodType.methodType(Object[].class, Collection.class)).bindTo(bridge);
+						.findVirtual(CollectionBridge.class, TODATA_METHOD, MethodType.methodType(Object[].class, Collection.class)).bindTo(bridge)
+						.asType(MethodType.methodType(Object[].class, targetClass));
 
-				descriptor = new PepDataClass(targetClass, Object[].class, constructor, toData, toObject, new PepDataComponent[0], DataType.ARRAY);
+				descriptor = new PepDataClass(targetClass, constructor, toData, toObject, elementClass);
 
 			}
 
@@ -202,6 +306,42 @@ public class DefaultResolver implements PepContextResolver {
 		return descriptor;
 	}
 
+	/**
+	 * Maps are resolved for each component as the key and value classes are taken from the declared type of
+	 * the component.
+	 */
+	private PepDataClass resolveMap(Class<?> targetClass, Class<?> keyClass, Class<?> valueClass) throws PepException {
+		try {
+			MapBridge bridge = MapBridge.create(targetClass, immutableCollections);
+			MethodHandle constructor = bridge.constructor().asType(MethodType.methodType(targetClass, int.class));
+
+			MethodHandle toObject = MethodHandles.lookup()
+					.findVirtual(MapBridge.class, TOOBJECT_METHOD, MethodType.methodType(Map.class, Object[].class)).bindTo(bridge)
+					.asType(MethodType.methodType(targetClass, Object[].class));
+			MethodHandle toData = MethodHandles.lookup().findVirtual(MapBridge.class, TODATA_METHOD, MethodType.methodType(Object[].class, Map.class))
+					.bindTo(bridge).asType(MethodType.methodType(Object[].class, targetClass));
+
+			return new PepDataClass(targetClass, constructor, toData, toObject, keyClass, valueClass);
+		} catch (IllegalAccessException | NoSuchMethodException | SecurityException e) {
+			throw new PepException("Failed to get map descriptor", e);
+		}
+	}
+
+	/**
+	 * @return the class of the given type argument of a generic type or Object if not known.
+	 */
+	private static Class<?> typeArgument(Type type, int index) {
+		if (type instanceof ParameterizedType) {
+			Type argument = ((ParameterizedType) type).getActualTypeArguments()[index];
+			if (argument instanceof Class) {
+				return (Class<?>) argument;
+			} else if (argument instanceof ParameterizedType) {
+				return (Class<?>) ((ParameterizedType) argument).getRawType();
+			}
+		}
+		return Object.class;
+	}
+
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	private static final Set<Class> WRAPPER_TYPES = new HashSet(
 			Arrays.asList(Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, Void.class));
@@ -339,7 +479,8 @@ public class DefaultResolver implements PepContextResolver {
 						MethodHandle toData = MethodHandles.lookup().unreflect(targetClass.getMethod(TODATA_METHOD));
 
 						// The constructor and data components are copied from the data class.
-						descriptor = new PepDataClass(targetClass, dataType, tupleData.constructor(), toData, toObject, tupleData.dataComponents());
+						descriptor = new PepDataClass(targetClass, dataType, tupleData.constructor(), tupleData.creator(), toData, toObject,
+								tupleData.dataComponents(), DataType.TUPLE);
 						break;
 					}
 
@@ -355,13 +496,23 @@ public class DefaultResolver implements PepContextResolver {
 				// get the constructor.
 				Constructor<?> ctor = getConstructor(targetClass);
 
-				// Use the Immutable finder to discover any immutable fields for the class.
-				ImmutableFinder describer = new ImmutableFinder(context);
-				describer.findComponents(targetClass, ctor, components);
+				// Use the component index generated at build time or the component cache if present, otherwise analyse the class.
+				ComponentIndex index = new ComponentIndex();
+				if (!index.findComponents(targetClass, ctor, components)
+						&& (componentCache == null || !componentCache.findComponents(targetClass, ctor, components))) {
 
-				// Use the getter/setter finder to discover any fields with matching getters and setters.
-				GetSetFinder getSetFinder = new GetSetFinder();
-				getSetFinder.findComponents(targetClass, ctor, components);
+					// Use the Immutable finder to discover any immutable fields for the class.
+					ImmutableFinder describer = new ImmutableFinder(context);
+					describer.findComponents(targetClass, ctor, components);
+
+					// Use the getter/setter finder to discover any fields with matching getters and setters.
+					GetSetFinder getSetFinder = new GetSetFinder();
+					getSetFinder.findComponents(targetClass, ctor, components);
+
+					if (componentCache != null) {
+						componentCache.store(targetClass, ctor, components);
+					}
+				}
 
 				// get the correct data constructor method handle. Either a constructor or a static method tagged with @Data.
 				MethodHandle dataConstructor = getDataConstructor(targetClass);
@@ -369,6 +520,9 @@ public class DefaultResolver implements PepContextResolver {
 				// Build a MethodHandle that creates object and also calls setters with order of fields as defined in components.
 				MethodHandle constructor = createTupleConstructor(targetClass, components, dataConstructor);
 
+				// The same again but taking each component as a typed argument.
+				MethodHandle creator = createTupleCreator(targetClass, components, dataConstructor);
+
 				// This is a data class so toObject/toData is identity functions.
 				MethodHandle toObject = MethodHandles.identity(targetClass);
 				MethodHandle toData = MethodHandles.identity(targetClass);
@@ -379,15 +533,34 @@ public class DefaultResolver implements PepContextResolver {
 					ComponentInfo info = components.get(x);
 
 					MethodHandle accessor = MethodHandles.publicLookup().unreflect(info.getReadMethod());
-
-					PepDataClass dataClass = context.getDescriptor(info.getType());
-
-					PepDataComponent component = new PepDataComponent(info.getName(), info.getType(), dataClass, accessor);
+					MethodHandle setter = info.getWriteMethod() == null ? null : MethodHandles.publicLookup().unreflect(info.getWriteMethod());
+
+					PepDataComponent component;
+					if (context.isResolving(info.getType())) {
+						// Recursive reference, the component type can only be resolved once complete.
+						component = new PepDataComponent(info.getName(), info.getType(), context, accessor, setter);
+					} else if (Map.class.isAssignableFrom(info.getType())) {
+						// Key and value classes are taken from the declared type of the component.
+						Type genericType = info.getReadMethod().getGenericReturnType();
+						PepDataClass dataClass = resolveMap(info.getType(), typeArgument(genericType, 0), typeArgument(genericType, 1));
+
+						component = new PepDataComponent(info.getName(), info.getType(), dataClass, accessor, setter);
+					} else if (Collection.class.isAssignableFrom(info.getType())) {
+						// The element class is taken from the declared type of the component.
+						Type genericType = info.getReadMethod().getGenericReturnType();
+						PepDataClass dataClass = resolveArray(info.getType(), typeArgument(genericType, 0));
+
+						component = new PepDataComponent(info.getName(), info.getType(), dataClass, accessor, setter);
+					} else {
+						PepDataClass dataClass = context.getDescriptor(info.getType());
+
+						component = new PepDataComponent(info.getName(), info.getType(), dataClass, accessor, setter);
+					}
 
 					dataComponents[x] = component;
 				}
 
-				descriptor = new PepDataClass(targetClass, targetClass, constructor, toData, toObject, dataComponents);
+				descriptor = new PepDataClass(targetClass, targetClass, constructor, creator, toData, toObject, dataComponents, DataType.TUPLE);
 			}
 		} catch (IllegalAccessException | NoSuchMethodException | SecurityException | PepException e) {
 			throw new PepException("Failed to get data descriptor", e);
@@ -506,6 +679,65 @@ public class DefaultResolver implements PepContextResolver {
 		return result;
 	}
 
+	/**
+	 * Creates a single MethodHandle that constructs an object and calls any setters with each component passed
+	 * as a separate argument of its declared type, in the order of the components. This is equivalent to:
+	 * 
+	 * T t = new T( c[arg0], c[arg1], ... ); 
+	 * t.setZ( c[z] ); 
+	 * return t;
+	 * 
+	 * @param fields
+	 * @param dataConstructor
+	 * @return MethodHandle with signature (c0, c1, ...):dataClass
+	 * @throws IllegalAccessException
+	 */
+	private MethodHandle createTupleCreator(Class<?> dataClass, List<ComponentInfo> fields, MethodHandle dataConstructor)
+			throws IllegalAccessException {
+
+		Class<?>[] params = new Class<?>[fields.size()];
+		for (int x = 0; x < fields.size(); x++) {
+			params[x] = fields.get(x).getType();
+		}
+
+		// Map each constructor argument to its component.
+		int[] constructorInput = new int[dataConstructor.type().parameterCount()];
+		for (int x = 0; x < fields.size(); x++) {
+			ComponentInfo field = fields.get(x);
+			if (field.getWriteMethod() == null) {
+				constructorInput[field.getConstructorArgument()] = x;
+			}
+		}
+
+		// (c0, c1, ...):dataClass -> ctor( c[arg0], c[arg1], ... )
+		MethodHandle create = MethodHandles.permuteArguments(dataConstructor.asType(dataConstructor.type().changeReturnType(dataClass)),
+				MethodType.methodType(dataClass, params), constructorInput);
+
+		// (dataClass, c0, c1, ...):dataClass -> return dataClass;
+		MethodHandle setters = MethodHandles.dropArguments(MethodHandles.identity(dataClass), 1, params);
+
+		MethodType setterType = MethodType.methodType(void.class, dataClass).appendParameterTypes(params);
+		for (int x = 0; x < fields.size(); x++) {
+			ComponentInfo field = fields.get(x);
+
+			if (field.getWriteMethod() != null) {
+
+				// (obj, value):void -> obj.setField( value );
+				MethodHandle fieldSetter = MethodHandles.lookup().unreflect(field.getWriteMethod());
+
+				// (obj, c0, c1, ...):void -> obj.setField( cx );
+				MethodHandle componentSetter = MethodHandles.permuteArguments(fieldSetter, setterType, 0, x + 1);
+
+				// add to list of setters.
+				setters = MethodHandles.foldArguments(setters, componentSetter);
+			}
+		}
+
+		// (c0, c1, ...):dataClass -> setters( ctor(...), c0, c1, ... )
+		// Folding passes the components once so wide classes stay within the parameter limit.
+		return MethodHandles.foldArguments(setters, create);
+	}
+
 	/**
 	 * Builds a constructor that takes Object[] as constructor arguments and return an object instance. Passes
 	 * relevant fields into the data class constructor.
@@ -1,10 +1,16 @@
 package io.litterat.pep.describe;
 
 import io.litterat.pep.ObjectDataBridge;
+import io.litterat.pep.PepException;
 
 /**
  * 
  * Default bridge for Enums that converts to/from String.
+ * 
+ * The constant names are taken from Enum.name() so an overridden toString() does not change the data. Names
+ * are precomputed by ordinal and decoded through an open addressed table sized so that each name has its own
+ * slot where possible. A name read from data that was interned or taken from the table is matched by
+ * identity before falling back to equals.
  *
  */
 @SuppressWarnings("rawtypes")
@@ -12,21 +18,91 @@ public class EnumBridge implements ObjectDataBridge<String, Enum> {
 
 	private final Class enumType;
 
+	// Constant names indexed by ordinal.
+	private final String[] names;
+
+	// Lookup table of names and constants indexed by the spread hash of the name.
+	private final String[] tableNames;
+	private final Enum[] tableConstants;
+	private final int mask;
+
 	public EnumBridge(Class enumType) {
 		this.enumType = enumType;
+
+		Enum[] constants = (Enum[]) enumType.getEnumConstants();
+		this.names = new String[constants.length];
+		for (int x = 0; x < constants.length; x++) {
+			names[x] = constants[x].name();
+		}
+
+		// Find the smallest table without collisions up to 16 slots per constant. Otherwise fall back to
+		// linear probing in a table at least twice the number of constants.
+		int size = tableSize(constants.length * 2);
+		int maxSize = tableSize(constants.length * 16);
+		while (size < maxSize && !isPerfect(names, size - 1)) {
+			size <<= 1;
+		}
+		if (!isPerfect(names, size - 1)) {
+			size = tableSize(constants.length * 2);
+		}
+
+		this.mask = size - 1;
+		this.tableNames = new String[size];
+		this.tableConstants = new Enum[size];
+		for (int x = 0; x < constants.length; x++) {
+			int slot = hash(names[x]) & mask;
+			while (tableNames[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			tableNames[slot] = names[x];
+			tableConstants[slot] = constants[x];
+		}
+	}
+
+	private static int tableSize(int minimum) {
+		int size = 2;
+		while (size < minimum) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	private static int hash(String name) {
+		int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean isPerfect(String[] names, int mask) {
+		boolean[] used = new boolean[mask + 1];
+		for (String name : names) {
+			int slot = hash(name) & mask;
+			if (used[slot]) {
+				return false;
+			}
+			used[slot] = true;
+		}
+		return true;
 	}
 
 	@Override
 	public String toData(Enum b) {
 
-		return b.toString();
+		return names[b.ordinal()];
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public Enum toObject(String s) {
+	public Enum toObject(String s) throws PepException {
+
+		int slot = hash(s) & mask;
+		String name;
+		while ((name = tableNames[slot]) != null) {
+			if (name == s || name.equals(s)) {
+				return tableConstants[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
 
-		return Enum.valueOf(enumType, s);
+		throw new PepException(String.format("No enum constant %s.%s", enumType.getName(), s));
 	}
 
 }
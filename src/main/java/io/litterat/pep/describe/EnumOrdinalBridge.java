@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import io.litterat.pep.PepException;
+
+/**
+ * 
+ * Bridge for Enums that converts to/from the ordinal of the constant. This is a compact alternative to the
+ * EnumBridge for binary encodings where both sides share the same version of the enum. A null value is
+ * represented as -1 as the data class is a primitive int.
+ * 
+ * This does not implement ObjectDataBridge as the data class is primitive. It is registered with
+ * PepContext.registerOrdinalEnum.
+ *
+ */
+@SuppressWarnings("rawtypes")
+public class EnumOrdinalBridge {
+
+	private final Class enumType;
+
+	// Constants indexed by ordinal.
+	private final Enum[] constants;
+
+	public EnumOrdinalBridge(Class enumType) {
+		this.enumType = enumType;
+		this.constants = (Enum[]) enumType.getEnumConstants();
+	}
+
+	public int toData(Enum b) {
+
+		return b == null ? -1 : b.ordinal();
+	}
+
+	public Enum toObject(int s) throws PepException {
+		if (s == -1) {
+			return null;
+		}
+
+		if (s < 0 || s >= constants.length) {
+			throw new PepException(String.format("No enum constant %s with ordinal %d", enumType.getName(), s));
+		}
+		return constants[s];
+	}
+}
@@ -20,6 +20,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 
@@ -174,6 +175,15 @@ public class ImmutableFinder implements ComponentFinder {
 		int arg = 0;
 		int argsFound = 0;
 
+		// long and double arguments take two local variable slots, so map each slot to its argument.
+		Type[] argumentTypes = methodType.getArgumentTypes();
+		int[] slotArguments = new int[methodType.getArgumentsAndReturnSizes() >> 2];
+		Arrays.fill(slotArguments, -1);
+		for (int x = 0, slot = 1; x < argumentTypes.length; x++) {
+			slotArguments[slot] = x;
+			slot += argumentTypes[x].getSize();
+		}
+
 		ListIterator<AbstractInsnNode> it = method.instructions.iterator();
 		while (it.hasNext()) {
 			AbstractInsnNode insn = it.next();
@@ -194,9 +204,9 @@ public class ImmutableFinder implements ComponentFinder {
 				VarInsnNode varLoadInsn = (VarInsnNode) insn;
 
 				// Check if this is being loaded from a parameter variable.
-				if (foundLoadThis & varLoadInsn.var > 0 && varLoadInsn.var <= methodType.getArgumentTypes().length) {
+				if (foundLoadThis & varLoadInsn.var > 0 && varLoadInsn.var < slotArguments.length && slotArguments[varLoadInsn.var] >= 0) {
 					foundLoadArg = true;
-					arg = varLoadInsn.var - 1;
+					arg = slotArguments[varLoadInsn.var];
 				}
 				break;
 			case Opcodes.PUTFIELD:
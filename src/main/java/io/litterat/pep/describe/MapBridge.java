@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import io.litterat.pep.ObjectDataBridge;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Default Map to parallel key and value array bridge. The data form is Object[] { keys[], values[] }.
+ *
+ * Maps are created in the same way as collections by the CollectionBridge. A capacity constructor is used
+ * where one exists so the map does not resize while being filled, otherwise a no-arg constructor or static
+ * factory method. Interfaces use a default implementation (HashMap, TreeMap, ConcurrentHashMap or
+ * ConcurrentSkipListMap). When immutable collections are requested the Map interface is created with
+ * Map.copyOf.
+ *
+ */
+public class MapBridge implements ObjectDataBridge<Object[], Map<?, ?>> {
+
+	public static final int KEYS = 0;
+
+	public static final int VALUES = 1;
+
+	private final Class<?> mapClass;
+
+	// Signature: (int):Map where the argument is the number of entries to be added.
+	private final MethodHandle mapConstructor;
+
+	// Result is an immutable Map.
+	private final boolean immutable;
+
+	private MapBridge(Class<?> mapClass, MethodHandle mapConstructor, boolean immutable) {
+		this.mapClass = mapClass;
+		this.mapConstructor = mapConstructor;
+		this.immutable = immutable;
+	}
+
+	/**
+	 * @param mapClass  the map class or interface.
+	 * @param immutable create immutable results for the Map interface.
+	 */
+	public static MapBridge create(Class<?> mapClass, boolean immutable) throws PepException {
+		// Only the Map interface can be satisfied by an immutable copy.
+		immutable = immutable && mapClass == Map.class;
+		Class<?> implementationClass = immutable ? HashMap.class : implementation(mapClass);
+
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+			// Presize with a capacity constructor. Hash based maps need extra capacity for the load factor.
+			try {
+				MethodHandle constructor = lookup.findConstructor(implementationClass, MethodType.methodType(void.class, int.class));
+				if (HashMap.class.isAssignableFrom(implementationClass) || Hashtable.class.isAssignableFrom(implementationClass)
+						|| WeakHashMap.class.isAssignableFrom(implementationClass)) {
+					constructor = MethodHandles.filterArguments(constructor, 0,
+							lookup.findStatic(MapBridge.class, "hashCapacity", MethodType.methodType(int.class, int.class)));
+				}
+				return new MapBridge(mapClass, constructor.asType(MethodType.methodType(Map.class, int.class)), immutable);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				// fall through to the no-arg constructor.
+			}
+
+			try {
+				MethodHandle constructor = lookup.findConstructor(implementationClass, MethodType.methodType(void.class));
+				return new MapBridge(mapClass, MethodHandles.dropArguments(constructor.asType(MethodType.methodType(Map.class)), 0, int.class),
+						immutable);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				// fall through to a factory method.
+			}
+
+			for (Method method : implementationClass.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 0 && mapClass.isAssignableFrom(method.getReturnType())) {
+					MethodHandle factory = lookup.unreflect(method);
+					return new MapBridge(mapClass, MethodHandles.dropArguments(factory.asType(MethodType.methodType(Map.class)), 0, int.class),
+							immutable);
+				}
+			}
+		} catch (IllegalAccessException | SecurityException e) {
+			throw new PepException(String.format("Failed to access constructor for map %s", mapClass), e);
+		}
+
+		throw new PepException(String.format("No constructor or factory found for map %s", mapClass));
+	}
+
+	private static Class<?> implementation(Class<?> mapClass) throws PepException {
+		if (!mapClass.isInterface() && !Modifier.isAbstract(mapClass.getModifiers())) {
+			return mapClass;
+		}
+
+		if (mapClass.isAssignableFrom(HashMap.class)) {
+			return HashMap.class;
+		} else if (mapClass == SortedMap.class || mapClass == NavigableMap.class) {
+			return TreeMap.class;
+		} else if (mapClass == ConcurrentMap.class) {
+			return ConcurrentHashMap.class;
+		} else if (mapClass == ConcurrentNavigableMap.class) {
+			return ConcurrentSkipListMap.class;
+		}
+
+		throw new PepException(String.format("No default implementation for map %s", mapClass));
+	}
+
+	@SuppressWarnings("unused")
+	private static int hashCapacity(int size) {
+		return (int) (size / 0.75f) + 1;
+	}
+
+	/**
+	 * @return MethodHandle with signature (int):Map creating an empty map with room for the given number of
+	 *         entries. Immutable maps are built from a HashMap.
+	 */
+	public MethodHandle constructor() {
+		return mapConstructor;
+	}
+
+	/**
+	 * Copies the map to parallel key and value arrays in a single pass over the entries.
+	 */
+	@Override
+	public Object[] toData(Map<?, ?> b) {
+		Object[] keys = new Object[b.size()];
+		Object[] values = new Object[keys.length];
+
+		int x = 0;
+		for (Map.Entry<?, ?> entry : b.entrySet()) {
+			keys[x] = entry.getKey();
+			values[x] = entry.getValue();
+			x++;
+		}
+
+		return new Object[] { keys, values };
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<?, ?> toObject(Object[] s) throws PepException {
+		Object[] keys = (Object[]) s[KEYS];
+		Object[] values = (Object[]) s[VALUES];
+
+		Map<Object, Object> map;
+		try {
+			map = (Map<Object, Object>) mapConstructor.invokeExact(keys.length);
+		} catch (Throwable e) {
+			throw new PepException(String.format("Failed to create map %s", mapClass), e);
+		}
+
+		for (int x = 0; x < keys.length; x++) {
+			map.put(keys[x], values[x]);
+		}
+
+		return immutable ? Map.copyOf(map) : map;
+	}
+}
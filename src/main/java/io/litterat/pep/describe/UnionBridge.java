@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.describe;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import io.litterat.pep.ObjectDataBridge;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Union to tagged value bridge. The data form is Object[] { tag, value } where the tag is the index of the
+ * class of the value in the list of members. The value is not converted, mappers convert it using the
+ * member selected by the tag.
+ *
+ * Members are found by comparing the class of the value with each member before checking for subclasses
+ * of a member. Unions are expected to have a small number of members.
+ *
+ */
+public class UnionBridge implements ObjectDataBridge<Object[], Object> {
+
+	public static final int TAG = 0;
+
+	public static final int VALUE = 1;
+
+	private final Class<?> unionClass;
+
+	// Member classes in tag order.
+	private final Class<?>[] members;
+
+	public UnionBridge(Class<?> unionClass, Class<?>[] members) throws PepException {
+		Set<Class<?>> unique = new HashSet<>();
+		for (Class<?> member : members) {
+			if (!unionClass.isAssignableFrom(member)) {
+				throw new PepException(String.format("Union member %s is not a subtype of %s", member.getName(), unionClass.getName()));
+			}
+			if (!unique.add(member)) {
+				throw new PepException(String.format("Union member %s listed more than once in %s", member.getName(), unionClass.getName()));
+			}
+		}
+
+		this.unionClass = unionClass;
+		this.members = members.clone();
+	}
+
+	/**
+	 * @return the member classes in tag order.
+	 */
+	public Class<?>[] members() {
+		return members.clone();
+	}
+
+	/**
+	 * @return the tag of the member class of the value.
+	 */
+	public int tag(Object value) throws PepException {
+		Class<?> valueClass = value.getClass();
+		for (int x = 0; x < members.length; x++) {
+			if (members[x] == valueClass) {
+				return x;
+			}
+		}
+
+		// Subclasses of a member use the tag of the member.
+		for (int x = 0; x < members.length; x++) {
+			if (members[x].isInstance(value)) {
+				return x;
+			}
+		}
+
+		throw new PepException(String.format("Class %s is not a member of union %s", valueClass.getName(), unionClass.getName()));
+	}
+
+	/**
+	 * @return the tag of the data after checking it is a valid tag for the union.
+	 */
+	public static int tag(Object[] data, int memberCount) throws PepException {
+		int tag = (Integer) data[TAG];
+		if (tag < 0 || tag >= memberCount) {
+			throw new PepException(String.format("Invalid union tag %d", tag));
+		}
+		return tag;
+	}
+
+	@Override
+	public Object[] toData(Object b) throws PepException {
+		return new Object[] { tag(b), b };
+	}
+
+	@Override
+	public Object toObject(Object[] s) throws PepException {
+		tag(s, members.length);
+		return s[VALUE];
+	}
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepException;
+
+/**
+ * Generates a small class for each PepDataClass with straight-line project and embed methods. This is
+ * equivalent to:
+ *
+ * @formatter:off
+ *
+ * public static Object[] project(Object o) {
+ *    Object d = TO_DATA.invokeExact(o);
+ *    Object[] values = new Object[n];
+ *    Object v = A0.invokeExact(d); if (v != null) v = P0.invokeExact(v); values[0] = v;
+ *    ...
+ *    return values;
+ * }
+ *
+ * public static Object embed(Object[] values) {
+ *    Object v = values[0]; if (v != null) v = E0.invokeExact(v); // left on the stack, unboxed if primitive
+ *    ...
+ *    return CONSTRUCT.invokeExact((int) v0, v1, ...);
+ * }
+ *
+ * @formatter:on
+ *
+ * CONSTRUCT is the typed creator of the class so no arguments array is created. Classes without a creator
+ * are constructed by passing an Object[] of the values to the constructor.
+ *
+ * Accessors, constructors and component conversions are held in static final MethodHandle fields of
+ * the generated class. The JIT treats these as constants so each call is inlined as if it was made directly.
+ * Using handles rather than invoke instructions means the generated class is not restricted to public
+ * members of the target class. The class is defined through a Lookup in this package.
+ *
+ * Also generates the subclass of PepTypedArrayMapper returned by PepArrayMapper.forClass, which holds the
+ * compiled project and embed functions in the same way.
+ */
+class ArrayCodeGenerator {
+
+	private static final String PROJECT_METHOD = "project";
+	private static final String EMBED_METHOD = "embed";
+
+	private static final String HANDLES_METHOD = "handles";
+
+	private static final String TYPED_PROJECT_METHOD = "project";
+	private static final String TYPED_EMBED_METHOD = "embed";
+	private static final String TYPED_NAME = Type.getInternalName(PepTypedArrayMapper.class);
+	private static final String TYPED_INIT_DESC = "(Ljava/lang/Class;)V";
+
+	private static final String MH_NAME = Type.getInternalName(MethodHandle.class);
+	private static final String MH_DESC = Type.getDescriptor(MethodHandle.class);
+
+	private static final String OBJECT_NAME = Type.getInternalName(Object.class);
+	private static final String GENERIC_DESC = "(Ljava/lang/Object;)Ljava/lang/Object;";
+	private static final String CONSTRUCT_DESC = "([Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final String PROJECT_DESC = "(Ljava/lang/Object;)[Ljava/lang/Object;";
+	private static final String EMBED_DESC = "([Ljava/lang/Object;)Ljava/lang/Object;";
+
+	private static final AtomicLong classCounter = new AtomicLong();
+
+	// Handles waiting for the generated class static initializer to collect them.
+	private static final ConcurrentHashMap<String, MethodHandle[]> pendingHandles = new ConcurrentHashMap<>();
+
+	private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	/**
+	 * Called by the static initializer of a generated class to collect its handles.
+	 */
+	static MethodHandle[] handles(Class<?> generatedClass) {
+		return pendingHandles.remove(generatedClass.getName());
+	}
+
+	/**
+	 * Generate project and embed functions for a data class.
+	 *
+	 * @param dataClass    the data class being generated.
+	 * @param toData       component conversion to data value for each component.
+	 * @param toObject     component conversion from data value for each component.
+	 * @return array with project function (typeClass):Object[] and embed function (Object[]):typeClass
+	 * @throws PepException
+	 */
+	MethodHandle[] generate(PepDataClass dataClass, MethodHandle[] toData, MethodHandle[] toObject) throws PepException {
+
+		int count = dataClass.dataComponents().length;
+
+		// Reference arguments of the creator are passed as Object so the generated class does not need access
+		// to their classes. Primitive arguments are unboxed on the stack. null if there is no creator.
+		MethodType constructType = dataClass.creator() != null ? dataClass.creator().type().erase() : null;
+
+		// Layout of handles: TO_DATA, CONSTRUCT, A0..An, P0..Pn, E0..En
+		MethodHandle[] handles = new MethodHandle[2 + count * 3];
+		handles[0] = generic(dataClass.toData());
+		if (constructType != null) {
+			handles[1] = MethodHandles.filterReturnValue(dataClass.creator(), dataClass.toObject())
+					.asType(constructType.changeReturnType(Object.class));
+		} else {
+			handles[1] = MethodHandles.filterReturnValue(dataClass.constructor(), dataClass.toObject())
+					.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+		for (int x = 0; x < count; x++) {
+			handles[2 + x] = generic(dataClass.dataComponents()[x].accessor());
+			handles[2 + count + x] = generic(toData[x]);
+			handles[2 + count * 2 + x] = generic(toObject[x]);
+		}
+
+		String className = lookup.lookupClass().getPackageName().replace('.', '/') + "/PepArrayMapper$Gen$"
+				+ dataClass.typeClass().getSimpleName().replace('[', '_').replace(']', '_') + "$" + classCounter.incrementAndGet();
+
+		byte[] code = generateClass(className, count, constructType);
+
+		pendingHandles.put(className.replace('/', '.'), handles);
+		try {
+			Class<?> generatedClass = lookup.defineClass(code);
+
+			// Initialize now so the static initializer collects the handles.
+			Class.forName(generatedClass.getName(), true, generatedClass.getClassLoader());
+
+			MethodHandle project = lookup.findStatic(generatedClass, PROJECT_METHOD, MethodType.methodType(Object[].class, Object.class))
+					.asType(MethodType.methodType(Object[].class, dataClass.typeClass()));
+			MethodHandle embed = lookup.findStatic(generatedClass, EMBED_METHOD, MethodType.methodType(Object.class, Object[].class))
+					.asType(MethodType.methodType(dataClass.typeClass(), Object[].class));
+
+			return new MethodHandle[] { project, embed };
+		} catch (IllegalAccessException | NoSuchMethodException | ClassNotFoundException | LinkageError e) {
+			throw new PepException(String.format("Failed to generate mapper for class: %s", dataClass.typeClass()), e);
+		} finally {
+			pendingHandles.remove(className.replace('/', '.'));
+		}
+	}
+
+	/**
+	 * Generate a PepTypedArrayMapper holding the functions of a class in static final fields. This is
+	 * equivalent to:
+	 *
+	 * @formatter:off
+	 *
+	 * Object[] project(Object o) {
+	 *    return TO_ARRAY.invokeExact(o);
+	 * }
+	 *
+	 * Object embed(Object[] values) {
+	 *    return TO_OBJECT.invokeExact(values);
+	 * }
+	 *
+	 * @formatter:on
+	 *
+	 * @param typeClass the class converted by the mapper.
+	 * @param toArray   project function (typeClass):Object[]
+	 * @param toObject  embed function (Object[]):typeClass
+	 * @throws PepException
+	 */
+	@SuppressWarnings("unchecked")
+	<T> PepTypedArrayMapper<T> generateTyped(Class<T> typeClass, MethodHandle toArray, MethodHandle toObject) throws PepException {
+
+		// Layout of handles: TO_ARRAY, TO_OBJECT
+		MethodHandle[] handles = new MethodHandle[] { toArray.asType(MethodType.methodType(Object[].class, Object.class)),
+				toObject.asType(MethodType.methodType(Object.class, Object[].class)) };
+
+		String className = lookup.lookupClass().getPackageName().replace('.', '/') + "/PepTypedArrayMapper$Gen$"
+				+ typeClass.getSimpleName().replace('[', '_').replace(']', '_') + "$" + classCounter.incrementAndGet();
+
+		byte[] code = generateTypedClass(className, handles.length);
+
+		pendingHandles.put(className.replace('/', '.'), handles);
+		try {
+			Class<?> generatedClass = lookup.defineClass(code);
+
+			// Initialize now so the static initializer collects the handles.
+			Class.forName(generatedClass.getName(), true, generatedClass.getClassLoader());
+
+			MethodHandle constructor = lookup.findConstructor(generatedClass, MethodType.methodType(void.class, Class.class));
+			return (PepTypedArrayMapper<T>) constructor.invoke(typeClass);
+		} catch (Throwable e) {
+			throw new PepException(String.format("Failed to generate typed mapper for class: %s", typeClass), e);
+		} finally {
+			pendingHandles.remove(className.replace('/', '.'));
+		}
+	}
+
+	private static MethodHandle generic(MethodHandle handle) {
+		return handle.asType(MethodType.methodType(Object.class, Object.class));
+	}
+
+	private byte[] generateClass(String className, int count, MethodType constructType) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+
+			// Only Object and Object[] are used as frame types, no need to load classes.
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				return OBJECT_NAME;
+			}
+		};
+
+		cw.visit(Opcodes.V11, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, className, null, OBJECT_NAME, null);
+
+		int handleCount = 2 + count * 3;
+		for (int x = 0; x < handleCount; x++) {
+			cw.visitField(Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_PRIVATE, handleName(x), MH_DESC, null, null).visitEnd();
+		}
+
+		generateStaticInit(cw, className, handleCount);
+		generateProject(cw, className, count);
+		if (constructType != null) {
+			generateCreate(cw, className, count, constructType);
+		} else {
+			generateEmbed(cw, className, count);
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private byte[] generateTypedClass(String className, int handleCount) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+
+		cw.visit(Opcodes.V11, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, className, null, TYPED_NAME, null);
+
+		for (int x = 0; x < handleCount; x++) {
+			cw.visitField(Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_PRIVATE, handleName(x), MH_DESC, null, null).visitEnd();
+		}
+
+		generateStaticInit(cw, className, handleCount);
+
+		// Generated(Class typeClass) { super(typeClass); }
+		MethodVisitor mv = cw.visitMethod(0, "<init>", TYPED_INIT_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKESPECIAL, TYPED_NAME, "<init>", TYPED_INIT_DESC, false);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		generateDelegate(cw, className, TYPED_PROJECT_METHOD, PROJECT_DESC, 0);
+		generateDelegate(cw, className, TYPED_EMBED_METHOD, EMBED_DESC, 1);
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Instance method returning H[handle].invokeExact(arg) with the descriptor of the handle.
+	 */
+	private void generateDelegate(ClassWriter cw, String className, String name, String desc, int handle) {
+		MethodVisitor mv = cw.visitMethod(0, name, desc, null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(handle), MH_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", desc, false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private static String handleName(int index) {
+		return "H" + index;
+	}
+
+	private void generateStaticInit(ClassWriter cw, String className, int handleCount) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitCode();
+
+		// MethodHandle[] h = ArrayCodeGenerator.handles(ThisClass.class);
+		mv.visitLdcInsn(Type.getObjectType(className));
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(ArrayCodeGenerator.class), HANDLES_METHOD,
+				"(Ljava/lang/Class;)[Ljava/lang/invoke/MethodHandle;", false);
+		mv.visitVarInsn(Opcodes.ASTORE, 0);
+
+		for (int x = 0; x < handleCount; x++) {
+			// Hx = h[x];
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			pushInt(mv, x);
+			mv.visitInsn(Opcodes.AALOAD);
+			mv.visitFieldInsn(Opcodes.PUTSTATIC, className, handleName(x), MH_DESC);
+		}
+
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private void generateProject(ClassWriter cw, String className, int count) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, PROJECT_METHOD, PROJECT_DESC, null, null);
+		mv.visitCode();
+
+		// locals: 0 = object, 1 = data, 2 = values[], 3 = v
+		mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(0), MH_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, 0);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", GENERIC_DESC, false);
+		mv.visitVarInsn(Opcodes.ASTORE, 1);
+
+		pushInt(mv, count);
+		mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT_NAME);
+		mv.visitVarInsn(Opcodes.ASTORE, 2);
+
+		for (int x = 0; x < count; x++) {
+			// v = Ax.invokeExact(data);
+			mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(2 + x), MH_DESC);
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", GENERIC_DESC, false);
+			mv.visitVarInsn(Opcodes.ASTORE, 3);
+
+			// if (v != null) v = Px.invokeExact(v);
+			generateConvert(mv, className, 2 + count + x);
+
+			// values[x] = v;
+			mv.visitVarInsn(Opcodes.ALOAD, 2);
+			pushInt(mv, x);
+			mv.visitVarInsn(Opcodes.ALOAD, 3);
+			mv.visitInsn(Opcodes.AASTORE);
+		}
+
+		mv.visitVarInsn(Opcodes.ALOAD, 2);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private void generateEmbed(ClassWriter cw, String className, int count) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, EMBED_METHOD, EMBED_DESC, null, null);
+		mv.visitCode();
+
+		// locals: 0 = values[], 1 = args[], 2 = unused, 3 = v
+		pushInt(mv, count);
+		mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT_NAME);
+		mv.visitVarInsn(Opcodes.ASTORE, 1);
+
+		for (int x = 0; x < count; x++) {
+			// v = values[x];
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			pushInt(mv, x);
+			mv.visitInsn(Opcodes.AALOAD);
+			mv.visitVarInsn(Opcodes.ASTORE, 3);
+
+			// if (v != null) v = Ex.invokeExact(v);
+			generateConvert(mv, className, 2 + count * 2 + x);
+
+			// args[x] = v;
+			mv.visitVarInsn(Opcodes.ALOAD, 1);
+			pushInt(mv, x);
+			mv.visitVarInsn(Opcodes.ALOAD, 3);
+			mv.visitInsn(Opcodes.AASTORE);
+		}
+
+		// return CONSTRUCT.invokeExact(args);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(1), MH_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", CONSTRUCT_DESC, false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	private void generateCreate(ClassWriter cw, String className, int count, MethodType constructType) {
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, EMBED_METHOD, EMBED_DESC, null, null);
+		mv.visitCode();
+
+		// locals: 0 = values[], 1 = unused, 2 = unused, 3 = v
+		mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(1), MH_DESC);
+
+		for (int x = 0; x < count; x++) {
+			// v = values[x];
+			mv.visitVarInsn(Opcodes.ALOAD, 0);
+			pushInt(mv, x);
+			mv.visitInsn(Opcodes.AALOAD);
+			mv.visitVarInsn(Opcodes.ASTORE, 3);
+
+			// if (v != null) v = Ex.invokeExact(v);
+			generateConvert(mv, className, 2 + count * 2 + x);
+
+			// push v as the next argument.
+			mv.visitVarInsn(Opcodes.ALOAD, 3);
+			unbox(mv, constructType.parameterType(x));
+		}
+
+		// return CONSTRUCT.invokeExact(v0, v1, ...);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", constructType.changeReturnType(Object.class).toMethodDescriptorString(),
+				false);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Casts the Object on the stack to the wrapper class and unboxes it if the argument is primitive.
+	 */
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (!type.isPrimitive()) {
+			return;
+		}
+
+		String wrapperName = Type.getInternalName(MethodType.methodType(type).wrap().returnType());
+		mv.visitTypeInsn(Opcodes.CHECKCAST, wrapperName);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperName, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+	}
+
+	/**
+	 * if (v != null) v = H[handle].invokeExact(v); with v in local 3.
+	 */
+	private void generateConvert(MethodVisitor mv, String className, int handle) {
+		Label isNull = new Label();
+
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitJumpInsn(Opcodes.IFNULL, isNull);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, className, handleName(handle), MH_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, 3);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, MH_NAME, "invokeExact", GENERIC_DESC, false);
+		mv.visitVarInsn(Opcodes.ASTORE, 3);
+		mv.visitLabel(isNull);
+	}
+
+	private static void pushInt(MethodVisitor mv, int value) {
+		if (value >= -1 && value <= 5) {
+			mv.visitInsn(Opcodes.ICONST_0 + value);
+		} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.BIPUSH, value);
+		} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(Opcodes.SIPUSH, value);
+		} else {
+			mv.visitLdcInsn(value);
+		}
+	}
+}
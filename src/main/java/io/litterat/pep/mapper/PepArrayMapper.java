@@ -18,15 +18,20 @@ package io.litterat.pep.mapper;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
 
 import io.litterat.pep.ObjectDataBridge;
 import io.litterat.pep.PepContext;
 import io.litterat.pep.PepDataClass;
 import io.litterat.pep.PepDataComponent;
 import io.litterat.pep.PepException;
+import io.litterat.pep.describe.MapBridge;
+import io.litterat.pep.describe.UnionBridge;
 
 /**
  * Sample showing how to use the Pep library to convert an Object to/from Object[]
@@ -34,16 +39,46 @@ import io.litterat.pep.PepException;
  * This is intentionally using MethodHandles throughout to demonstrate pre-building method handles for
  * each type. This is the method likely to be used by serialization libraries to improve performance.
  * 
+ * A mapper is thread safe and can be shared. Functions for a class are compiled once on first use and
+ * looked up without locking afterwards.
+ * 
+ * Recursive structures are linked lazily. A component referring back to a class that is still being
+ * compiled calls through a link function which invokes the compiled function once it is available. The
+ * link is not a constant call site, so the JIT does not inline the recursion into itself.
+ * 
  * TODO add try/catch/throw around conversions 
- * TODO deal with arrays 
- * TODO deal with null values correctly
  *
  */
 public class PepArrayMapper {
 
 	private final PepContext context;
 
-	private final Map<Class<?>, ArrayFunctions> functionCache;
+	// Lock free lookup of the functions for each class. Holders are created on first access and filled once.
+	private final ClassValue<FunctionsHolder> functionCache;
+
+	// Guards compilation so each class is compiled exactly once. Only taken on first use of a class.
+	private final Object compileLock = new Object();
+
+	// Classes being compiled. Functions are only published once the outermost class is compiled so that
+	// recursive references are linked before use. Guarded by compileLock.
+	private final Map<Class<?>, LinkingFunctions> linking = new HashMap<>();
+
+	private static class FunctionsHolder {
+
+		// null until the functions for the class have been compiled.
+		private volatile ArrayFunctions functions;
+
+		// Sets components of an existing instance. Has signature: void embed( Object target, Object[] values ).
+		// null until first used.
+		private volatile MethodHandle embedInto;
+
+		// Projects into a supplied array. Has signature: Object[] project( Object[] values, Object object ).
+		// null until first used.
+		private volatile MethodHandle toArrayInto;
+
+		// Functions for each registered version indexed by version number. Replaced when a version is compiled.
+		private volatile ArrayFunctions[] versions = new ArrayFunctions[0];
+	}
 
 	private static class ArrayFunctions {
 
@@ -60,24 +95,203 @@ public class PepArrayMapper {
 		}
 	}
 
+	private static class LinkingFunctions {
+
+		private final FunctionsHolder holder;
+
+		// Functions calling through to the compiled functions once linked.
+		private final ArrayFunctions linked;
+
+		// The compiled functions. null until compiled.
+		private ArrayFunctions functions;
+
+		// Compiled functions with generic signatures. Signatures: (Object):Object[] and (Object[]):Object
+		private MethodHandle linkedToArray;
+		private MethodHandle linkedToObject;
+
+		LinkingFunctions(FunctionsHolder holder, Class<?> typeClass) throws PepException {
+			this.holder = holder;
+			try {
+				MethodHandle toArray = MethodHandles.lookup()
+						.findVirtual(LinkingFunctions.class, "toArray", MethodType.methodType(Object[].class, Object.class)).bindTo(this)
+						.asType(MethodType.methodType(Object[].class, typeClass));
+				MethodHandle toObject = MethodHandles.lookup()
+						.findVirtual(LinkingFunctions.class, "toObject", MethodType.methodType(Object.class, Object[].class)).bindTo(this)
+						.asType(MethodType.methodType(typeClass, Object[].class));
+				this.linked = new ArrayFunctions(toArray, toObject);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build recursive link", e);
+			}
+		}
+
+		void link(ArrayFunctions functions) {
+			this.functions = functions;
+			this.linkedToArray = functions.toArray.asType(MethodType.methodType(Object[].class, Object.class));
+			this.linkedToObject = functions.toObject.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+
+		@SuppressWarnings("unused")
+		private Object[] toArray(Object value) throws Throwable {
+			return (Object[]) linkedToArray.invokeExact(value);
+		}
+
+		@SuppressWarnings("unused")
+		private Object toObject(Object[] values) throws Throwable {
+			return linkedToObject.invokeExact(values);
+		}
+	}
+
+	// Generates a class for each data class when set, otherwise MethodHandle combinators are used.
+	private final ArrayCodeGenerator generator;
+
 	public PepArrayMapper(PepContext context) {
+		this(context, false);
+	}
+
+	/**
+	 * @param context      the context used to resolve descriptors.
+	 * @param generateCode generate a class with straight-line project and embed methods for each data class
+	 *                     instead of building MethodHandle combinator chains.
+	 */
+	public PepArrayMapper(PepContext context, boolean generateCode) {
 		this.context = context;
-		this.functionCache = new HashMap<>();
+		this.generator = generateCode ? new ArrayCodeGenerator() : null;
+		this.functionCache = new ClassValue<>() {
+
+			@Override
+			protected FunctionsHolder computeValue(Class<?> type) {
+				return new FunctionsHolder();
+			}
+		};
+	}
+
+	/**
+	 * Compiles the functions for the class ahead of first use.
+	 */
+	public void compile(Class<?> clss) throws PepException {
+		Objects.requireNonNull(clss);
+
+		getFunctions(clss);
+	}
+
+	/**
+	 * Returns a mapper for the class holding its compiled functions in a generated class. Use this when always
+	 * converting the same class to avoid looking up the functions on each call. A class is generated on each
+	 * call so keep the returned mapper, usually in a static final field.
+	 */
+	public <T> PepTypedArrayMapper<T> forClass(Class<T> clss) throws PepException {
+		Objects.requireNonNull(clss);
 
+		ArrayFunctions af = getFunctions(clss);
+		return typedGenerator().generateTyped(clss, af.toArray, af.toObject);
+	}
+
+	/**
+	 * Returns a mapper for the version of the class registered with the context.
+	 */
+	public <T> PepTypedArrayMapper<T> forClass(Class<T> clss, int version) throws PepException {
+		Objects.requireNonNull(clss);
+
+		ArrayFunctions af = getFunctions(clss, version);
+		return typedGenerator().generateTyped(clss, af.toArray, af.toObject);
+	}
+
+	private ArrayCodeGenerator typedGenerator() {
+		return generator != null ? generator : new ArrayCodeGenerator();
 	}
 
 	private ArrayFunctions getFunctions(Class<?> clss) throws PepException {
-		ArrayFunctions af = functionCache.get(clss);
+		FunctionsHolder holder = functionCache.get(clss);
+
+		// fast path, functions already compiled.
+		ArrayFunctions af = holder.functions;
 		if (af == null) {
-			PepDataClass dataClass = context.getDescriptor(clss);
+			af = compileFunctions(clss, holder);
+		}
+		return af;
+	}
+
+	/**
+	 * Compiles the functions for the class while holding the compile lock. Other threads requesting the
+	 * same class wait and then use the published result rather than building the chain again. The lock is
+	 * re-entrant so nested component types can be compiled from within the same call.
+	 */
+	private ArrayFunctions compileFunctions(Class<?> clss, FunctionsHolder holder) throws PepException {
+		synchronized (compileLock) {
+			ArrayFunctions af = holder.functions;
+			if (af != null) {
+				return af;
+			}
 
-			MethodHandle toArray = createProjectFunction(dataClass);
-			MethodHandle toObject = createEmbedFunction(dataClass);
+			// Already being compiled further up the stack. Use the link functions if this is a recursive reference.
+			LinkingFunctions linkingFunctions = linking.get(clss);
+			if (linkingFunctions != null) {
+				return linkingFunctions.functions != null ? linkingFunctions.functions : linkingFunctions.linked;
+			}
+
+			boolean outermost = linking.isEmpty();
+			try {
+				PepDataClass dataClass = context.getDescriptor(clss);
+
+				linkingFunctions = new LinkingFunctions(holder, dataClass.typeClass());
+				linking.put(clss, linkingFunctions);
+
+				if (generator != null && dataClass.isData()) {
+					af = generateFunctions(dataClass);
+				} else if (dataClass.isUnion()) {
+					af = createUnionFunctions(dataClass);
+				} else {
+					MethodHandle toArray = createProjectFunction(dataClass);
+					MethodHandle toObject = createEmbedFunction(dataClass);
 
-			af = new ArrayFunctions(toArray, toObject);
-			functionCache.put(clss, af);
+					af = new ArrayFunctions(toArray, toObject);
+				}
+				linkingFunctions.link(af);
+
+				if (outermost) {
+					publishFunctions();
+				}
+				return af;
+			} finally {
+				if (outermost) {
+					linking.clear();
+				}
+			}
 		}
-		return af;
+	}
+
+	private MethodHandle compileEmbedInto(Class<?> clss, FunctionsHolder holder) throws PepException {
+		synchronized (compileLock) {
+			MethodHandle embedInto = holder.embedInto;
+			if (embedInto == null) {
+				embedInto = createEmbedIntoFunction(context.getDescriptor(clss));
+				holder.embedInto = embedInto;
+			}
+			return embedInto;
+		}
+	}
+
+	/**
+	 * Makes the functions of all compiled classes available to other threads.
+	 */
+	private void publishFunctions() {
+		for (LinkingFunctions linkingFunctions : linking.values()) {
+			linkingFunctions.holder.functions = linkingFunctions.functions;
+		}
+	}
+
+	private ArrayFunctions generateFunctions(PepDataClass dataClass) throws PepException {
+		PepDataComponent[] fields = dataClass.dataComponents();
+
+		MethodHandle[] toData = new MethodHandle[fields.length];
+		MethodHandle[] toObject = new MethodHandle[fields.length];
+		for (int x = 0; x < fields.length; x++) {
+			toData[x] = createComponentToData(fields[x]);
+			toObject[x] = createComponentToObject(fields[x]);
+		}
+
+		MethodHandle[] functions = generator.generate(dataClass, toData, toObject);
+		return new ArrayFunctions(functions[0], functions[1]);
 	}
 
 	/**
@@ -96,6 +310,40 @@ public class PepArrayMapper {
 		return (Object[]) af.toArray.invoke(o);
 	}
 
+	/**
+	 * Projects the object into the supplied array instead of allocating a new one. The array must have a slot
+	 * for each component. Nested tuples are projected into the Object[] already in their slot if it has the
+	 * right length, so repeatedly projecting objects of the same shape into the same array allocates no
+	 * arrays. Primitive components are still boxed, and arrays, collections and maps are still copied.
+	 * 
+	 * @param o      target object instance to project.
+	 * @param values array to fill, usually the result of a previous projection.
+	 * @return values
+	 * @throws Throwable any failure from the project function.
+	 */
+	public Object[] toArray(Object o, Object[] values) throws Throwable {
+		Objects.requireNonNull(o);
+		Objects.requireNonNull(values);
+
+		return (Object[]) getToArrayInto(o.getClass()).invokeExact(values, o);
+	}
+
+	private MethodHandle getToArrayInto(Class<?> clss) throws PepException {
+		FunctionsHolder holder = functionCache.get(clss);
+
+		MethodHandle toArrayInto = holder.toArrayInto;
+		if (toArrayInto == null) {
+			synchronized (compileLock) {
+				toArrayInto = holder.toArrayInto;
+				if (toArrayInto == null) {
+					toArrayInto = createProjectIntoFunction(context.getDescriptor(clss));
+					holder.toArrayInto = toArrayInto;
+				}
+			}
+		}
+		return toArrayInto;
+	}
+
 	/**
 	 * Convenience function. Takes an array of values based on the field types and returns the target
 	 * object.
@@ -114,6 +362,135 @@ public class PepArrayMapper {
 		return (T) af.toObject.invoke(values);
 	}
 
+	/**
+	 * Projects the object using the version registered with the context. Each version has its own compiled
+	 * functions, selected by indexing an array with the version number.
+	 * 
+	 * @param o       target object instance to project to object[]
+	 * @param version version registered with PepContext.registerVersion.
+	 * @return values from target object in the layout of the version.
+	 * @throws Throwable any failure from the project function.
+	 */
+	public Object[] toArray(Object o, int version) throws Throwable {
+		Objects.requireNonNull(o);
+
+		ArrayFunctions af = getFunctions(o.getClass(), version);
+
+		return (Object[]) af.toArray.invoke(o);
+	}
+
+	/**
+	 * Creates the object from values in the layout of the version registered with the context.
+	 * 
+	 * @param version version registered with PepContext.registerVersion.
+	 * @param values  object values to embed into target object.
+	 * @return recreated target object.
+	 * @throws Throwable any failure from the embed function.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T toObject(Class<T> clss, int version, Object[] values) throws Throwable {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(values);
+
+		ArrayFunctions af = getFunctions(clss, version);
+
+		return (T) af.toObject.invoke(values);
+	}
+
+	private ArrayFunctions getFunctions(Class<?> clss, int version) throws PepException {
+		ArrayFunctions[] versions = functionCache.get(clss).versions;
+
+		// fast path, version already compiled.
+		if (version >= 0 && version < versions.length) {
+			ArrayFunctions af = versions[version];
+			if (af != null) {
+				return af;
+			}
+		}
+		return compileVersion(clss, version);
+	}
+
+	private ArrayFunctions compileVersion(Class<?> clss, int version) throws PepException {
+		synchronized (compileLock) {
+			FunctionsHolder holder = functionCache.get(clss);
+			ArrayFunctions[] versions = holder.versions;
+			if (version >= 0 && version < versions.length && versions[version] != null) {
+				return versions[version];
+			}
+
+			// Throws if the version is not registered, so the version is valid below.
+			PepDataClass dataClass = context.getDescriptor(clss, version);
+
+			ArrayFunctions af = new ArrayFunctions(createProjectFunction(dataClass), createEmbedFunction(dataClass));
+
+			ArrayFunctions[] updated = Arrays.copyOf(versions, Math.max(versions.length, version + 1));
+			updated[version] = af;
+			holder.versions = updated;
+			return af;
+		}
+	}
+
+	/**
+	 * Sets the components of an existing instance from the values instead of creating a new object. Components
+	 * with a setter are set. Components only set through the constructor must already have the given value,
+	 * compared with Objects.deepEquals, otherwise a PepException is thrown. All of these components are checked
+	 * before the first setter is called, so a rejected embed leaves the target unchanged.
+	 * 
+	 * @param target instance to update.
+	 * @param values object values to embed into the target object.
+	 * @return the target.
+	 * @throws Throwable any failure from the embed function.
+	 */
+	public <T> T embed(T target, Object[] values) throws Throwable {
+		Objects.requireNonNull(target);
+		Objects.requireNonNull(values);
+
+		FunctionsHolder holder = functionCache.get(target.getClass());
+		MethodHandle embedInto = holder.embedInto;
+		if (embedInto == null) {
+			embedInto = compileEmbedInto(target.getClass(), holder);
+		}
+
+		embedInto.invokeExact((Object) target, values);
+		return target;
+	}
+
+	/**
+	 * Projects each object of the list in parallel.
+	 * 
+	 * @return the projected values in the order of the input.
+	 * @throws PepBatchException if any element failed with the index of each failed element.
+	 */
+	public List<Object[]> toArrays(List<?> objects, PepBatch batch) throws PepBatchException {
+		return toArrays(objects.spliterator(), batch);
+	}
+
+	public List<Object[]> toArrays(Object[] objects, PepBatch batch) throws PepBatchException {
+		return toArrays(Arrays.spliterator(objects), batch);
+	}
+
+	public List<Object[]> toArrays(Spliterator<?> objects, PepBatch batch) throws PepBatchException {
+		return batch.map(objects, this::toArray);
+	}
+
+	/**
+	 * Embeds each array of values in parallel.
+	 * 
+	 * @return the objects in the order of the input.
+	 * @throws PepBatchException if any element failed with the index of each failed element.
+	 */
+	public <T> List<T> toObjects(Class<T> clss, List<Object[]> values, PepBatch batch) throws PepBatchException {
+		return toObjects(clss, values.spliterator(), batch);
+	}
+
+	public <T> List<T> toObjects(Class<T> clss, Object[][] values, PepBatch batch) throws PepBatchException {
+		return toObjects(clss, Arrays.spliterator(values), batch);
+	}
+
+	public <T> List<T> toObjects(Class<T> clss, Spliterator<Object[]> values, PepBatch batch) throws PepBatchException {
+		return batch.map(values, value -> toObject(clss, value));
+	}
+
 	/**
 	 * Creates the embed method handle. Will create the serial instance, call setters, and class the
 	 * embed method handle to create the target object in a single call. This is equivalent to:
@@ -139,90 +516,119 @@ public class PepArrayMapper {
 	}
 
 	/**
-	 * Builds a constructor that takes Object[] as constructor arguments and return an object instance.
-	 *
-	 * @param objectConstructor
-	 * @param fields
-	 * @return
-	 * @throws PepException
+	 * Creates the function setting the components of an existing instance. Components without a setter are
+	 * checked first so that no setter is called if any check fails. This is equivalent to:
+	 * 
+	 * check( t.y(), toObject( values[1] ) );
+	 * t.setX( toObject( values[0] ) );
+	 * 
+	 * @return MethodHandle with signature (Object, Object[]):void
 	 */
-	private MethodHandle createEmbedConstructor(PepDataClass dataClass) throws PepException {
-		MethodHandle result = dataClass.constructor();
-
-		PepDataComponent[] fields = dataClass.dataComponents();
-		for (int x = 0; x < dataClass.dataComponents().length; x++) {
-			PepDataComponent field = fields[x];
+	private MethodHandle createEmbedIntoFunction(PepDataClass dataClass) throws PepException {
+		if (!dataClass.isData() || dataClass.typeClass() != dataClass.dataClass()) {
+			throw new PepException(String.format("Can only embed into an existing instance of a data class: %s", dataClass.typeClass()));
+		}
 
-			int inputIndex = x;
+		Class<?> typeClass = dataClass.typeClass();
+		try {
+			MethodHandle check = MethodHandles.lookup().findStatic(PepArrayMapper.class, "checkUnchanged",
+					MethodType.methodType(void.class, String.class, Object.class, Object.class));
 
-			// (values[],int) -> values[int]
-			MethodHandle arrayGetter = MethodHandles.arrayElementGetter(Object[].class);
+			MethodType stepType = MethodType.methodType(void.class, typeClass, Object[].class);
 
-			// () -> inputIndex
-			MethodHandle index = MethodHandles.constant(int.class, inputIndex);
+			// (typeClass, Object[]):void
+			MethodHandle checks = MethodHandles.empty(stepType);
+			MethodHandle setters = MethodHandles.empty(stepType);
 
-			PepDataClass fieldDataClass = field.dataClass();
+			PepDataComponent[] fields = dataClass.dataComponents();
+			for (int x = 0; x < fields.length; x++) {
+				PepDataComponent field = fields[x];
 
-			// (values[]) -> values[inputIndex]
-			MethodHandle arrayIndexGetter = MethodHandles.collectArguments(arrayGetter, 1, index)
-					.asType(MethodType.methodType(fieldDataClass.dataClass(), Object[].class));
+				// (dataClass):typeClass -> toObject(value)
+				MethodHandle toObject = createComponentToObject(field);
 
-			// TODO Needs to be check for nulls before calling toObject or array to Object.
+				// (values[]):type -> toObject(values[x])
+				MethodHandle value = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, x)
+						.asType(MethodType.methodType(toObject.type().parameterType(0), Object[].class));
+				value = MethodHandles.filterReturnValue(value, toObject).asType(MethodType.methodType(field.type(), Object[].class));
 
-			// Pass the object through toObject if it isn't an atom.
-			// (values[]) -> toObject(values[x])
+				if (field.setter() != null) {
 
-			if (fieldDataClass.isAtom()) {
+					// (typeClass, values[]):void -> t.setX( toObject(values[x]) )
+					MethodHandle step = MethodHandles.filterArguments(field.setter(), 1, value);
 
-				arrayIndexGetter = MethodHandles.collectArguments(fieldDataClass.toObject(), 0, arrayIndexGetter);
-			} else if (fieldDataClass.isData()) {
-				if (field.dataClass().typeClass() == dataClass.typeClass()) {
-					throw new IllegalArgumentException("Recursive structures not yet supported for array mapper");
+					// (typeClass, values[]):void -> setters( t, values ); step( t, values )
+					setters = MethodHandles.foldArguments(step.asType(stepType), setters);
 				} else {
-					ArrayFunctions af = this.getFunctions(field.dataClass().typeClass());
-
-					arrayIndexGetter = MethodHandles.collectArguments(af.toObject, 0, arrayIndexGetter);
-				}
-			} else {
-				try {
-					ArrayBridge bridge = new ArrayBridge(this, fieldDataClass);
-					MethodHandle bridgeToObject = MethodHandles.lookup()
-							.findVirtual(ArrayBridge.class, "toObject", MethodType.methodType(Object[].class, Object[].class)).bindTo(bridge);
 
-					bridgeToObject = bridgeToObject.asType(MethodType.methodType(Object[].class, fieldDataClass.typeClass()));
+					// (typeClass, values[]):void -> checkUnchanged( name, t.x(), toObject(values[x]) )
+					MethodHandle step = MethodHandles.insertArguments(check, 0, field.name());
+					step = MethodHandles.filterArguments(step, 0, field.accessor().asType(MethodType.methodType(Object.class, typeClass)),
+							value.asType(MethodType.methodType(Object.class, Object[].class)));
 
-					arrayIndexGetter = MethodHandles.collectArguments(bridgeToObject, 0, arrayIndexGetter);
-				} catch (NoSuchMethodException | IllegalAccessException e) {
-					throw new PepException("failed to build bridge for array", e);
+					// (typeClass, values[]):void -> checks( t, values ); step( t, values )
+					checks = MethodHandles.foldArguments(step.asType(stepType), checks);
 				}
 			}
 
-			// (values[],int,Object):void -> values[int] = Object;
-			MethodHandle arraySetter = MethodHandles.arrayElementSetter(Object[].class);
+			// (typeClass, values[]):void -> checks( t, values ); setters( t, values )
+			MethodHandle result = MethodHandles.foldArguments(setters, checks);
 
-			//(values[],Object):void -> values[x] = Object;
-			MethodHandle arrayIndexSetter = MethodHandles.collectArguments(arraySetter, 1, index);
+			return result.asType(MethodType.methodType(void.class, Object.class, Object[].class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("failed to build embed into function", e);
+		}
+	}
 
-			// (values[],Object[]):void -> values[x] = toObject(values[x]);
-			MethodHandle arrayValueSetter = MethodHandles.collectArguments(arrayIndexSetter, 1,
-					arrayIndexGetter.asType(MethodType.methodType(Object.class, Object[].class)));
+	@SuppressWarnings("unused")
+	private static void checkUnchanged(String name, Object current, Object value) throws PepException {
+		if (!Objects.deepEquals(current, value)) {
+			throw new PepException(String.format("Component %s has no setter and can not be changed", name));
+		}
+	}
 
-			int[] permuteInput = new int[2];
-			MethodHandle combined = MethodHandles.permuteArguments(arrayValueSetter, MethodType.methodType(void.class, Object[].class), permuteInput);
+	/**
+	 * Builds a constructor that takes Object[] as constructor arguments and return an object instance. Each
+	 * value is read from the array and converted as it is passed to the constructor, so the caller's array is
+	 * not modified and can be embedded again. This is equivalent to:
+	 * 
+	 * return creator( toObject( values[0] ), toObject( values[1] ), ... );
+	 *
+	 * @return MethodHandle with signature (Object[]):serialClass
+	 * @throws PepException
+	 */
+	private MethodHandle createEmbedConstructor(PepDataClass dataClass) throws PepException {
+		PepDataComponent[] fields = dataClass.dataComponents();
+
+		// (c0, c1, ...):serialClass -> creator( c0, c1, ... ) or constructor( new Object[] { c0, c1, ... } )
+		MethodHandle result = dataClass.creator() != null ? dataClass.creator()
+				: dataClass.constructor().asCollector(Object[].class, fields.length);
+
+		MethodHandle[] readers = new MethodHandle[fields.length];
+		for (int x = 0; x < fields.length; x++) {
 
-			// ()-> constructor( ..., values[inputIndex] , ... )
-			//result = MethodHandles.collectArguments(result, arg, arrayIndexGetter);
+			// (dataClass):typeClass -> toObject(value)
+			MethodHandle toObject = createComponentToObject(fields[x]);
 
-			result = MethodHandles.foldArguments(result, combined);
+			// (values[]):dataClass -> values[x]
+			MethodHandle arrayIndexGetter = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, x)
+					.asType(MethodType.methodType(toObject.type().parameterType(0), Object[].class));
 
+			// (values[]):cx -> toObject(values[x])
+			readers[x] = MethodHandles.filterReturnValue(arrayIndexGetter, toObject)
+					.asType(MethodType.methodType(result.type().parameterType(x), Object[].class));
 		}
 
-		return result;
+		// (values[], values[], ...):serialClass -> creator( toObject(values[0]), toObject(values[1]), ... )
+		result = MethodHandles.filterArguments(result, 0, readers);
+
+		// (values[]):serialClass
+		return MethodHandles.permuteArguments(result, MethodType.methodType(result.type().returnType(), Object[].class), new int[fields.length]);
 	}
 
 	/**
-	 * create project takes a target object and returns an Object[] of values. Not yet complete. Haven't
-	 * worked out how to re-use the Object[] in return value.
+	 * create project takes a target object and returns a new Object[] of values. See
+	 * createProjectIntoFunction for projecting into a reused Object[].
 	 * 
 	 * // Project the instance to the embedded version.
 	 * EmbeddedClass e = project.invoke(o)
@@ -290,94 +696,542 @@ public class PepArrayMapper {
 			// (value[],v) -> value[inputIndex] = v
 			MethodHandle arrayIndexSetter = MethodHandles.collectArguments(arraySetter, 1, index);
 
-			PepDataClass fieldDataClass = field.dataClass();
-
 			// (object) -> (Object) object.getter()
 			MethodHandle fieldBox = field.accessor();
 
-			// TODO needs to deal with null here.
+			// (object) -> toData(object.getter())
+			fieldBox = MethodHandles.collectArguments(createComponentToData(field), 0, fieldBox);
+
+			fieldBox = fieldBox.asType(MethodType.methodType(Object.class, dataClass.dataClass()));
+
+			// (value[],object) -> value[inputIndex] = object.getter()
+			MethodHandle arrayValueSetter = MethodHandles.collectArguments(arrayIndexSetter, 1, fieldBox);
+
+			// add to list of getters.
+			result = MethodHandles.foldArguments(result, arrayValueSetter);
+
+		}
+
+		// (object[]):object[] -> ... callGetters(object[]); ... return object[];
+		return result;
+	}
+
+	/**
+	 * Creates the function projecting into a supplied array. Nested tuples are projected through an IntoLink
+	 * which reuses the array already in the slot. This is equivalent to:
+	 * 
+	 * values[0] = toData( d.x() );
+	 * values[1] = link.project( values[1], d.nested() );
+	 * return values;
+	 * 
+	 * @return MethodHandle with signature (Object[], Object):Object[]
+	 */
+	private MethodHandle createProjectIntoFunction(PepDataClass dataClass) throws PepException {
+		if (!dataClass.isData()) {
+			throw new PepException(String.format("Can only project a data class into an array: %s", dataClass.typeClass()));
+		}
+
+		PepDataComponent[] fields = dataClass.dataComponents();
+		Class<?> serialClass = dataClass.dataClass();
+
+		try {
+			// (Object[], serialClass):Object[] -> return values;
+			MethodHandle result = MethodHandles.dropArguments(MethodHandles.identity(Object[].class), 1, serialClass);
 
-			// Pass the object through toArray if it isn't an atom.
-			if (fieldDataClass.isAtom()) {
-				fieldBox = MethodHandles.collectArguments(fieldDataClass.toData(), 0, fieldBox);
-			} else if (fieldDataClass.isData()) {
-				if (field.dataClass().typeClass() == dataClass.typeClass()) {
-					throw new IllegalArgumentException("Recursive structures not yet supported for array mapper");
+			for (int x = 0; x < fields.length; x++) {
+				PepDataComponent field = fields[x];
+
+				// (Object[], Object):void -> values[x] = value
+				MethodHandle arrayIndexSetter = MethodHandles.insertArguments(MethodHandles.arrayElementSetter(Object[].class), 1, x);
+
+				// (serialClass):Object -> d.getter()
+				MethodHandle accessor = field.accessor().asType(MethodType.methodType(Object.class, serialClass));
+
+				MethodHandle value;
+				if (field.dataClass().isData()) {
+					IntoLink link = new IntoLink(field.type(), field.dataClass().dataComponents().length);
+
+					// (Object, Object):Object[] -> link.project( existing, value )
+					MethodHandle project = MethodHandles.lookup()
+							.findVirtual(IntoLink.class, "project", MethodType.methodType(Object[].class, Object.class, Object.class)).bindTo(link);
+
+					// (Object[], serialClass):Object[] -> link.project( values[x], d.getter() )
+					MethodHandle existing = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, x);
+					value = MethodHandles.filterArguments(project, 0, existing, accessor);
 				} else {
-					ArrayFunctions af = this.getFunctions(field.dataClass().typeClass());
-					fieldBox = MethodHandles.collectArguments(af.toArray, 0, fieldBox);
+
+					// (Object[], serialClass):Object -> toData( d.getter() )
+					value = MethodHandles.filterReturnValue(field.accessor(), createComponentToData(field));
+					value = MethodHandles.dropArguments(value.asType(MethodType.methodType(Object.class, serialClass)), 0, Object[].class);
 				}
-			} else {
-				try {
-					ArrayBridge bridge = new ArrayBridge(this, fieldDataClass);
 
-					MethodHandle bridgeToData = MethodHandles.lookup()
-							.findVirtual(ArrayBridge.class, "toData", MethodType.methodType(Object[].class, Object[].class)).bindTo(bridge);
+				// (Object[], Object[], serialClass):void -> values[x] = value( values, d )
+				MethodHandle arrayValueSetter = MethodHandles.collectArguments(arrayIndexSetter, 1,
+						value.asType(MethodType.methodType(Object.class, Object[].class, serialClass)));
+
+				// (Object[], serialClass):void
+				arrayValueSetter = MethodHandles.permuteArguments(arrayValueSetter,
+						MethodType.methodType(void.class, Object[].class, serialClass), 0, 0, 1);
+
+				result = MethodHandles.foldArguments(result, arrayValueSetter);
+			}
+
+			// (Object[], typeClass):Object[] -> checkLength( values ) then project( values, toData( object ) )
+			MethodHandle checkLength = MethodHandles.insertArguments(MethodHandles.lookup().findStatic(PepArrayMapper.class, "checkLength",
+					MethodType.methodType(Object[].class, Object[].class, int.class)), 1, fields.length);
+			result = MethodHandles.filterArguments(result, 0, checkLength);
+			result = MethodHandles.filterArguments(result, 1, dataClass.toData());
+
+			return result.asType(MethodType.methodType(Object[].class, Object[].class, Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("failed to build project into function", e);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static Object[] checkLength(Object[] values, int length) {
+		if (values.length != length) {
+			throw new IllegalArgumentException(String.format("Expected array of length %d but was %d", length, values.length));
+		}
+		return values;
+	}
+
+	/**
+	 * Projects a nested tuple into the array already in its slot. The function for the nested class is taken
+	 * on first use so recursive structures do not need to be linked.
+	 */
+	private class IntoLink {
+
+		private final Class<?> typeClass;
+
+		private final int length;
+
+		// Signature: (Object[], Object):Object[]
+		private volatile MethodHandle toArrayInto;
+
+		IntoLink(Class<?> typeClass, int length) {
+			this.typeClass = typeClass;
+			this.length = length;
+		}
+
+		@SuppressWarnings("unused")
+		Object[] project(Object existing, Object value) throws Throwable {
+			if (value == null) {
+				return null;
+			}
+
+			MethodHandle into = toArrayInto;
+			if (into == null) {
+				into = getToArrayInto(typeClass);
+				toArrayInto = into;
+			}
+
+			Object[] values = existing instanceof Object[] && ((Object[]) existing).length == length ? (Object[]) existing : new Object[length];
+			return (Object[]) into.invokeExact(values, value);
+		}
+	}
+
+	/**
+	 * Creates the function that converts a component value to its data form. Atoms use the atom toData
+	 * function, tuples are projected to Object[], unions to a tagged Object[], arrays are converted by the
+	 * ArrayBridge, collections by their CollectionBridge and maps to parallel key and value arrays.
+	 * 
+	 * @return MethodHandle with signature (typeClass):dataValue
+	 * @throws PepException
+	 */
+	MethodHandle createComponentToData(PepDataComponent field) throws PepException {
+		return createValueToData(field.dataClass());
+	}
+
+	MethodHandle createValueToData(PepDataClass fieldDataClass) throws PepException {
+		if (fieldDataClass.isAtom()) {
+			return fieldDataClass.toData();
+		} else if (fieldDataClass.isData() || fieldDataClass.isUnion()) {
+			return nullSafe(this.getFunctions(fieldDataClass.typeClass()).toArray);
+		} else if (fieldDataClass.isMap()) {
+			try {
+				MapConversion conversion = new MapConversion(fieldDataClass);
+
+				MethodHandle conversionToData = MethodHandles.lookup()
+						.findVirtual(MapConversion.class, "toData", MethodType.methodType(Object[].class, Object.class)).bindTo(conversion);
+
+				return nullSafe(conversionToData.asType(MethodType.methodType(Object[].class, fieldDataClass.typeClass())));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build map conversion", e);
+			}
+		} else if (!fieldDataClass.typeClass().isArray()) {
+			PepDataClass elementClass = elementDataClass(fieldDataClass.elementClass());
+			if (elementClass == null) {
+				// Elements of raw or Object collections are passed through as values.
+				return nullSafe(fieldDataClass.toData());
+			}
+
+			try {
+				CollectionConversion conversion = new CollectionConversion(fieldDataClass, elementClass);
+
+				MethodHandle conversionToData = MethodHandles.lookup()
+						.findVirtual(CollectionConversion.class, "toData", MethodType.methodType(Object[].class, Object.class)).bindTo(conversion);
+
+				return nullSafe(conversionToData.asType(MethodType.methodType(Object[].class, fieldDataClass.typeClass())));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build collection conversion", e);
+			}
+		} else {
+			try {
+				ArrayBridge bridge = new ArrayBridge(fieldDataClass);
+
+				MethodHandle bridgeToData = MethodHandles.lookup()
+						.findVirtual(ArrayBridge.class, "toData", MethodType.methodType(Object[].class, Object[].class)).bindTo(bridge);
+
+				return nullSafe(bridgeToData.asType(MethodType.methodType(Object[].class, fieldDataClass.typeClass())));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build array bridge", e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the function that converts a component from its data form back to the component type. Arrays are
+	 * embedded from their Object[] data form.
+	 * 
+	 * @return MethodHandle with signature (dataValue):typeClass
+	 * @throws PepException
+	 */
+	MethodHandle createComponentToObject(PepDataComponent field) throws PepException {
+		return createValueToObject(field.dataClass());
+	}
+
+	MethodHandle createValueToObject(PepDataClass fieldDataClass) throws PepException {
+		if (fieldDataClass.isAtom()) {
+			return fieldDataClass.toObject();
+		} else if (fieldDataClass.isData() || fieldDataClass.isUnion()) {
+			return nullSafe(this.getFunctions(fieldDataClass.typeClass()).toObject);
+		} else if (fieldDataClass.isMap()) {
+			try {
+				MapConversion conversion = new MapConversion(fieldDataClass);
+
+				MethodHandle conversionToObject = MethodHandles.lookup()
+						.findVirtual(MapConversion.class, "toObject", MethodType.methodType(Object.class, Object[].class)).bindTo(conversion);
+
+				return nullSafe(conversionToObject.asType(MethodType.methodType(fieldDataClass.typeClass(), Object[].class)));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build map conversion", e);
+			}
+		} else if (!fieldDataClass.typeClass().isArray()) {
+			PepDataClass elementClass = elementDataClass(fieldDataClass.elementClass());
+			if (elementClass == null) {
+				return nullSafe(fieldDataClass.toObject());
+			}
+
+			try {
+				CollectionConversion conversion = new CollectionConversion(fieldDataClass, elementClass);
+
+				MethodHandle conversionToObject = MethodHandles.lookup()
+						.findVirtual(CollectionConversion.class, "toObject", MethodType.methodType(Object.class, Object[].class)).bindTo(conversion);
+
+				return nullSafe(conversionToObject.asType(MethodType.methodType(fieldDataClass.typeClass(), Object[].class)));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build collection conversion", e);
+			}
+		} else {
+			try {
+				ArrayBridge bridge = new ArrayBridge(fieldDataClass);
+
+				MethodHandle bridgeToObject = MethodHandles.lookup()
+						.findVirtual(ArrayBridge.class, "toObject", MethodType.methodType(Object[].class, Object[].class)).bindTo(bridge);
+
+				return nullSafe(bridgeToObject.asType(MethodType.methodType(fieldDataClass.typeClass(), Object[].class)));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build bridge for array", e);
+			}
+		}
+	}
+
+	/**
+	 * Converts the keys and values of a map to and from their data form. The conversions are compiled once for
+	 * the declared key and value classes so there are no per-entry descriptor lookups. Keys and values of
+	 * undeclared type or with identity conversions, such as String and boxed primitives, are not visited.
+	 */
+	private class MapConversion {
+
+		// Signature: (Object):Object[] and (Object[]):Object
+		private final MethodHandle mapToData;
+		private final MethodHandle mapToObject;
+
+		// Signature: (Object):Object. null if the values are passed through.
+		private final MethodHandle keyToData;
+		private final MethodHandle keyToObject;
+		private final MethodHandle valueToData;
+		private final MethodHandle valueToObject;
+
+		MapConversion(PepDataClass mapClass) throws PepException {
+			this.mapToData = mapClass.toData().asType(MethodType.methodType(Object[].class, Object.class));
+			this.mapToObject = mapClass.toObject().asType(MethodType.methodType(Object.class, Object[].class));
 
-					bridgeToData = bridgeToData.asType(MethodType.methodType(Object[].class, fieldDataClass.typeClass()));
-					fieldBox = MethodHandles.collectArguments(bridgeToData, 0, fieldBox);
-				} catch (NoSuchMethodException | IllegalAccessException e) {
-					throw new PepException("failed to build array bridge", e);
+			PepDataClass keyClass = elementDataClass(mapClass.keyClass());
+			PepDataClass valueClass = elementDataClass(mapClass.valueClass());
+
+			this.keyToData = keyClass == null ? null : generic(createValueToData(keyClass));
+			this.keyToObject = keyClass == null ? null : generic(createValueToObject(keyClass));
+			this.valueToData = valueClass == null ? null : generic(createValueToData(valueClass));
+			this.valueToObject = valueClass == null ? null : generic(createValueToObject(valueClass));
+		}
+
+
+		@SuppressWarnings("unused")
+		Object[] toData(Object map) throws Throwable {
+			Object[] data = (Object[]) mapToData.invokeExact(map);
+
+			// The key and value arrays are new so are converted in place.
+			if (keyToData != null) {
+				Object[] keys = (Object[]) data[MapBridge.KEYS];
+				for (int x = 0; x < keys.length; x++) {
+					keys[x] = keyToData.invokeExact(keys[x]);
+				}
+			}
+			if (valueToData != null) {
+				Object[] values = (Object[]) data[MapBridge.VALUES];
+				for (int x = 0; x < values.length; x++) {
+					values[x] = valueToData.invokeExact(values[x]);
 				}
+			}
+			return data;
+		}
 
+		@SuppressWarnings("unused")
+		Object toObject(Object[] data) throws Throwable {
+			if (keyToObject != null || valueToObject != null) {
+				Object[] keys = (Object[]) data[MapBridge.KEYS];
+				Object[] values = (Object[]) data[MapBridge.VALUES];
+
+				if (keyToObject != null) {
+					Object[] objectKeys = new Object[keys.length];
+					for (int x = 0; x < keys.length; x++) {
+						objectKeys[x] = keyToObject.invokeExact(keys[x]);
+					}
+					keys = objectKeys;
+				}
+				if (valueToObject != null) {
+					Object[] objectValues = new Object[values.length];
+					for (int x = 0; x < values.length; x++) {
+						objectValues[x] = valueToObject.invokeExact(values[x]);
+					}
+					values = objectValues;
+				}
+				data = new Object[] { keys, values };
 			}
 
-			fieldBox = fieldBox.asType(MethodType.methodType(Object.class, dataClass.dataClass()));
+			return mapToObject.invokeExact(data);
+		}
+	}
 
-			// (value[],object) -> value[inputIndex] = object.getter()
-			MethodHandle arrayValueSetter = MethodHandles.collectArguments(arrayIndexSetter, 1, fieldBox);
+	/**
+	 * Converts the elements of a collection to and from their data form. The conversion is compiled once for the
+	 * declared element class of the component.
+	 */
+	private class CollectionConversion {
 
-			// add to list of getters.
-			result = MethodHandles.foldArguments(result, arrayValueSetter);
+		// Signature: (Object):Object[] and (Object[]):Object
+		private final MethodHandle collectionToData;
+		private final MethodHandle collectionToObject;
+
+		// Signature: (Object):Object
+		private final MethodHandle elementToData;
+		private final MethodHandle elementToObject;
 
+		CollectionConversion(PepDataClass collectionClass, PepDataClass elementClass) throws PepException {
+			this.collectionToData = collectionClass.toData().asType(MethodType.methodType(Object[].class, Object.class));
+			this.collectionToObject = collectionClass.toObject().asType(MethodType.methodType(Object.class, Object[].class));
+
+			this.elementToData = generic(createValueToData(elementClass));
+			this.elementToObject = generic(createValueToObject(elementClass));
 		}
 
-		// (object[]):object[] -> ... callGetters(object[]); ... return object[];
-		return result;
+		@SuppressWarnings("unused")
+		Object[] toData(Object collection) throws Throwable {
+			Object[] data = (Object[]) collectionToData.invokeExact(collection);
+
+			// The array is new so the elements are converted in place.
+			for (int x = 0; x < data.length; x++) {
+				data[x] = elementToData.invokeExact(data[x]);
+			}
+			return data;
+		}
+
+		@SuppressWarnings("unused")
+		Object toObject(Object[] data) throws Throwable {
+			Object[] elements = new Object[data.length];
+			for (int x = 0; x < data.length; x++) {
+				elements[x] = elementToObject.invokeExact(data[x]);
+			}
+			return collectionToObject.invokeExact(elements);
+		}
+	}
+
+	/**
+	 * Returns the descriptor used to convert a declared key, value or element class. Returns null if values
+	 * are passed through because the class is Object or has an identity conversion, such as String and boxed
+	 * primitives.
+	 */
+	private PepDataClass elementDataClass(Class<?> clss) throws PepException {
+		if (clss == Object.class) {
+			return null;
+		}
+
+		PepDataClass elementClass = context.getDescriptor(clss);
+		if (elementClass.isAtom() && elementClass.typeClass() == elementClass.dataClass()) {
+			return null;
+		}
+		return elementClass;
+	}
+
+	// Maps and collections may hold null values.
+	private static MethodHandle generic(MethodHandle conversion) throws PepException {
+		return nullSafe(conversion).asType(MethodType.methodType(Object.class, Object.class));
+	}
+
+	/**
+	 * Creates the functions for a union. The tag selects the member conversion from a table so there are no
+	 * descriptor lookups per value.
+	 */
+	private ArrayFunctions createUnionFunctions(PepDataClass dataClass) throws PepException {
+		try {
+			UnionConversion conversion = new UnionConversion(dataClass);
+
+			MethodHandle toArray = MethodHandles.lookup()
+					.findVirtual(UnionConversion.class, "toData", MethodType.methodType(Object[].class, Object.class)).bindTo(conversion)
+					.asType(MethodType.methodType(Object[].class, dataClass.typeClass()));
+			MethodHandle toObject = MethodHandles.lookup()
+					.findVirtual(UnionConversion.class, "toObject", MethodType.methodType(Object.class, Object[].class)).bindTo(conversion)
+					.asType(MethodType.methodType(dataClass.typeClass(), Object[].class));
+
+			return new ArrayFunctions(toArray, toObject);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("failed to build union conversion", e);
+		}
+	}
+
+	/**
+	 * Converts a union to and from Object[] { tag, value }. The member conversions are compiled once and held
+	 * in tables indexed by the tag.
+	 */
+	private class UnionConversion {
+
+		// Signature: (Object):Object[]
+		private final MethodHandle unionToData;
+
+		// Signature: (Object):Object indexed by tag.
+		private final MethodHandle[] memberToData;
+		private final MethodHandle[] memberToObject;
+
+		UnionConversion(PepDataClass unionClass) throws PepException {
+			this.unionToData = unionClass.toData().asType(MethodType.methodType(Object[].class, Object.class));
+
+			Class<?>[] members = unionClass.unionMembers();
+			this.memberToData = new MethodHandle[members.length];
+			this.memberToObject = new MethodHandle[members.length];
+			for (int x = 0; x < members.length; x++) {
+				PepDataClass memberClass = context.getDescriptor(members[x]);
+				memberToData[x] = createValueToData(memberClass).asType(MethodType.methodType(Object.class, Object.class));
+				memberToObject[x] = createValueToObject(memberClass).asType(MethodType.methodType(Object.class, Object.class));
+			}
+		}
+
+		@SuppressWarnings("unused")
+		Object[] toData(Object value) throws Throwable {
+			Object[] data = (Object[]) unionToData.invokeExact(value);
+
+			// The tagged array is new so the value is converted in place.
+			data[UnionBridge.VALUE] = memberToData[(Integer) data[UnionBridge.TAG]].invokeExact(data[UnionBridge.VALUE]);
+			return data;
+		}
+
+		@SuppressWarnings("unused")
+		Object toObject(Object[] data) throws Throwable {
+			return memberToObject[UnionBridge.tag(data, memberToObject.length)].invokeExact(data[UnionBridge.VALUE]);
+		}
+	}
+
+	/**
+	 * Wraps a conversion so that null values are passed through. Recursive structures end with null references.
+	 * 
+	 * @return MethodHandle with the same signature returning null for a null input.
+	 * @throws PepException
+	 */
+	private static MethodHandle nullSafe(MethodHandle conversion) throws PepException {
+		Class<?> paramType = conversion.type().parameterType(0);
+		Class<?> returnType = conversion.type().returnType();
+
+		try {
+			// (paramType):boolean -> value == null
+			MethodHandle isNull = MethodHandles.lookup().findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class))
+					.asType(MethodType.methodType(boolean.class, paramType));
+
+			// (paramType):returnType -> null
+			MethodHandle returnNull = MethodHandles.dropArguments(MethodHandles.constant(returnType, null), 0, paramType);
+
+			return MethodHandles.guardWithTest(isNull, returnNull, conversion);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("failed to build null check", e);
+		}
 	}
 
+	/**
+	 * Converts the elements of an array. The element conversion is compiled once for the declared component
+	 * type, so elements of a union component type are tagged. Elements of an Object[] have no declared type
+	 * and are converted using their class.
+	 */
 	private class ArrayBridge implements ObjectDataBridge<Object[], Object[]> {
 
-		private final PepArrayMapper arrayMapper;
 		private final PepDataClass fieldDataClass;
 
-		public ArrayBridge(PepArrayMapper arrayMapper, PepDataClass fieldDataClass) {
-			this.arrayMapper = arrayMapper;
+		// Signature: (Object):Object. null if the component type is Object.
+		private final MethodHandle elementToData;
+		private final MethodHandle elementToObject;
+
+		public ArrayBridge(PepDataClass fieldDataClass) throws PepException {
 			this.fieldDataClass = fieldDataClass;
+
+			Class<?> componentType = fieldDataClass.typeClass().getComponentType();
+			if (componentType == Object.class) {
+				this.elementToData = null;
+				this.elementToObject = null;
+			} else {
+				PepDataClass elementClass = context.getDescriptor(componentType);
+				this.elementToData = createValueToData(elementClass).asType(MethodType.methodType(Object.class, Object.class));
+				this.elementToObject = createValueToObject(elementClass).asType(MethodType.methodType(Object.class, Object.class));
+			}
 		}
 
 		@Override
 		public Object[] toData(Object[] v) throws PepException {
 			try {
-				// convert each element of the array toMap.
-				Object[] dataArray = v;
-				Object[] outputArray = new Object[dataArray.length];
-				for (int x = 0; x < dataArray.length; x++) {
-					if (dataArray[x] != null) {
-						outputArray[x] = arrayMapper.toArray(dataArray[x]);
+				// convert each element of the array.
+				Object[] outputArray = new Object[v.length];
+				for (int x = 0; x < v.length; x++) {
+					if (v[x] != null) {
+						outputArray[x] = elementToData != null ? elementToData.invokeExact(v[x]) : toArray(v[x]);
 					}
 				}
 
 				return outputArray;
 			} catch (Throwable e) {
-				throw new PepException("Failed to convert arra", e);
+				throw new PepException("Failed to convert array", e);
 			}
 		}
 
 		@Override
 		public Object[] toObject(Object[] s) throws PepException {
 			try {
-				Object[] inputArray = s;
-				Object[] dataArray = (Object[]) fieldDataClass.constructor().invoke(inputArray.length);
-				Class<?> arrayClass = fieldDataClass.typeClass().getComponentType();
-				for (int x = 0; x < inputArray.length; x++) {
-					if (inputArray[x] != null) {
-						dataArray[x] = arrayMapper.toObject(arrayClass, (Object[]) inputArray[x]);
+				Object[] dataArray = (Object[]) fieldDataClass.constructor().invoke(s.length);
+				for (int x = 0; x < s.length; x++) {
+					if (s[x] != null) {
+						dataArray[x] = elementToObject != null ? elementToObject.invokeExact(s[x]) : s[x];
 					}
 				}
 				return dataArray;
 			} catch (Throwable e) {
-				throw new PepException("Failed to convert arra", e);
+				throw new PepException("Failed to convert array", e);
 			}
 		}
 
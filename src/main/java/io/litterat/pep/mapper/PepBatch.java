@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 
+ * Settings for converting a batch of objects in parallel with the batch methods of the PepArrayMapper and
+ * PepMapMapper.
+ * 
+ * The input is split into chunks of at most granularity elements which are converted by tasks on a
+ * ForkJoinPool. Results are written to their input position so the output has the same order as the input.
+ * Each element is converted independently and failures are collected with the index of the element. If any
+ * element fails a PepBatchException is thrown once the batch is complete.
+ * 
+ * By default the common pool is used. A batch created with a parallelism owns its pool which is shut down
+ * by close().
+ *
+ */
+public class PepBatch implements AutoCloseable {
+
+	// Used when granularity is not set. Splits the input into this many chunks per worker thread.
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	private final ForkJoinPool pool;
+
+	private final boolean ownsPool;
+
+	// Maximum elements converted by a single task. 0 to calculate from the size of the input.
+	private final int granularity;
+
+	public static class Builder {
+
+		ForkJoinPool pool;
+
+		int parallelism;
+
+		int granularity;
+
+		public Builder() {
+		}
+
+		/**
+		 * Run the batch on the given pool. The pool is not shut down by close().
+		 */
+		public Builder pool(ForkJoinPool pool) {
+			this.pool = pool;
+			return this;
+		}
+
+		/**
+		 * Run the batch on a new pool with the given number of threads.
+		 */
+		public Builder parallelism(int parallelism) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException("parallelism must be at least 1");
+			}
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * Maximum number of elements converted by a single task.
+		 */
+		public Builder granularity(int granularity) {
+			if (granularity < 1) {
+				throw new IllegalArgumentException("granularity must be at least 1");
+			}
+			this.granularity = granularity;
+			return this;
+		}
+
+		public PepBatch build() {
+			if (pool != null && parallelism > 0) {
+				throw new IllegalStateException("Set either a pool or parallelism, not both");
+			}
+
+			if (parallelism > 0) {
+				return new PepBatch(new ForkJoinPool(parallelism), true, granularity);
+			}
+			return new PepBatch(pool == null ? ForkJoinPool.commonPool() : pool, false, granularity);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return batch settings using the common pool.
+	 */
+	public static PepBatch commonPool() {
+		return new PepBatch(ForkJoinPool.commonPool(), false, 0);
+	}
+
+	private PepBatch(ForkJoinPool pool, boolean ownsPool, int granularity) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.granularity = granularity;
+	}
+
+	public int parallelism() {
+		return pool.getParallelism();
+	}
+
+	@Override
+	public void close() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Conversion of a single element of a batch.
+	 */
+	@FunctionalInterface
+	interface Conversion<S, T> {
+
+		T apply(S s) throws Throwable;
+	}
+
+	/**
+	 * Convert each element of the source in parallel.
+	 * 
+	 * @return the converted elements in the order of the source.
+	 */
+	@SuppressWarnings("unchecked")
+	<S, T> List<T> map(Spliterator<S> source, Conversion<S, T> conversion) throws PepBatchException {
+
+		// Without known sizes the position of each split is not known. Take the references first, this
+		// is cheap compared to converting them.
+		if (!source.hasCharacteristics(Spliterator.SUBSIZED)) {
+			List<S> buffer = new ArrayList<>();
+			source.forEachRemaining(buffer::add);
+			source = buffer.spliterator();
+		}
+
+		int size = (int) source.getExactSizeIfKnown();
+		Object[] results = new Object[size];
+		ConcurrentLinkedQueue<PepBatchException.Failure> failures = new ConcurrentLinkedQueue<>();
+
+		int chunkSize = granularity > 0 ? granularity : Math.max(1, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+		pool.invoke(new ConvertTask<>(source, 0, chunkSize, conversion, results, failures));
+
+		if (!failures.isEmpty()) {
+			PepBatchException.Failure[] sorted = failures.toArray(new PepBatchException.Failure[0]);
+			Arrays.sort(sorted, Comparator.comparingInt(PepBatchException.Failure::index));
+			throw new PepBatchException(size, Arrays.asList(sorted));
+		}
+
+		return (List<T>) Arrays.asList(results);
+	}
+
+	private static class ConvertTask<S, T> extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<S> source;
+		private final int offset;
+		private final int chunkSize;
+		private final Conversion<S, T> conversion;
+		private final Object[] results;
+		private final ConcurrentLinkedQueue<PepBatchException.Failure> failures;
+
+		ConvertTask(Spliterator<S> source, int offset, int chunkSize, Conversion<S, T> conversion, Object[] results,
+				ConcurrentLinkedQueue<PepBatchException.Failure> failures) {
+			this.source = source;
+			this.offset = offset;
+			this.chunkSize = chunkSize;
+			this.conversion = conversion;
+			this.results = results;
+			this.failures = failures;
+		}
+
+		@Override
+		protected void compute() {
+			Spliterator<S> remaining = source;
+			int index = offset;
+
+			// Fork the prefix of each split, keeping the last chunk for this task.
+			List<ConvertTask<S, T>> forked = new ArrayList<>();
+			Spliterator<S> prefix;
+			while (remaining.estimateSize() > chunkSize && (prefix = remaining.trySplit()) != null) {
+				// Size must be taken before the fork as the task splits the prefix further.
+				int prefixSize = (int) prefix.getExactSizeIfKnown();
+				ConvertTask<S, T> task = new ConvertTask<>(prefix, index, chunkSize, conversion, results, failures);
+				task.fork();
+				forked.add(task);
+				index += prefixSize;
+			}
+
+			int[] position = { index };
+			remaining.forEachRemaining(element -> {
+				int x = position[0]++;
+				try {
+					results[x] = conversion.apply(element);
+				} catch (Throwable t) {
+					failures.add(new PepBatchException.Failure(x, t));
+				}
+			});
+
+			for (ConvertTask<S, T> task : forked) {
+				task.join();
+			}
+		}
+	}
+}
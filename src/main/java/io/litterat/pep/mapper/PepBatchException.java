@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.util.List;
+
+import io.litterat.pep.PepException;
+
+/**
+ * 
+ * Thrown when one or more elements of a batch failed to convert. The cause is the failure of the first
+ * failed element and all failures are available in the order of the input.
+ *
+ */
+public class PepBatchException extends PepException {
+
+	private static final long serialVersionUID = -6411836205538370563L;
+
+	public static class Failure {
+
+		private final int index;
+
+		private final Throwable cause;
+
+		public Failure(int index, Throwable cause) {
+			this.index = index;
+			this.cause = cause;
+		}
+
+		/**
+		 * @return position of the element in the input.
+		 */
+		public int index() {
+			return index;
+		}
+
+		public Throwable cause() {
+			return cause;
+		}
+	}
+
+	private final transient List<Failure> failures;
+
+	public PepBatchException(int size, List<Failure> failures) {
+		super(String.format("Failed to convert %d of %d elements. First failure at index %d", failures.size(), size, failures.get(0).index()),
+				failures.get(0).cause());
+		this.failures = failures;
+	}
+
+	/**
+	 * @return the failed elements ordered by index.
+	 */
+	public List<Failure> failures() {
+		return failures;
+	}
+}
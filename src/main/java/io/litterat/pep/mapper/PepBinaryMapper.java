@@ -0,0 +1,914 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ * Sample showing how to use the Pep library to convert an Object to/from a compact binary form in a ByteBuffer.
+ * 
+ * Components are written directly from the accessors and read directly into the creator of each data class so
+ * no intermediate Object[] is produced. The encoding has no type information, the reader must know the class.
+ * 
+ * @formatter:off
+ * 
+ * boolean, byte       - single byte
+ * short, int, long    - zigzag varint
+ * char                - unsigned varint
+ * float, double       - 4 and 8 bytes in buffer order
+ * String              - varint UTF-8 length + 1 then bytes, 0 for null
+ * arrays              - varint length + 1 then elements, 0 for null
+ * tuples, wrappers    - presence byte (0 null, 1 present) then components or value
+ * atoms               - the encoding of the atom data class
+ * 
+ * @formatter:on
+ * 
+ * A mapper is thread safe and can be shared. Recursive structures are linked in the same way as the
+ * PepArrayMapper. Collections, maps and unions are not yet supported.
+ *
+ */
+public class PepBinaryMapper {
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	private final PepContext context;
+
+	// Lock free lookup of the functions for each class.
+	private final ClassValue<FunctionsHolder> functionCache;
+
+	// Guards compilation so each class is compiled exactly once.
+	private final Object compileLock = new Object();
+
+	// Classes being compiled. Functions are only published once the outermost class is compiled so that
+	// recursive references are linked before use. Guarded by compileLock.
+	private final Map<Class<?>, LinkingFunctions> linking = new HashMap<>();
+
+	private static class FunctionsHolder {
+
+		// null until the functions for the class have been compiled.
+		private volatile BinaryFunctions functions;
+	}
+
+	private static class BinaryFunctions {
+
+		// Signature: (ByteBuffer, T):void
+		private final MethodHandle encode;
+
+		// Signature: (ByteBuffer):T
+		private final MethodHandle decode;
+
+		// Signatures: (ByteBuffer, Object):void and (ByteBuffer):Object
+		private final MethodHandle genericEncode;
+		private final MethodHandle genericDecode;
+
+		BinaryFunctions(MethodHandle encode, MethodHandle decode) {
+			this.encode = encode;
+			this.decode = decode;
+			this.genericEncode = encode.asType(MethodType.methodType(void.class, ByteBuffer.class, Object.class));
+			this.genericDecode = decode.asType(MethodType.methodType(Object.class, ByteBuffer.class));
+		}
+	}
+
+	private static class LinkingFunctions {
+
+		private final FunctionsHolder holder;
+
+		// Functions calling through to the compiled functions once linked.
+		private final BinaryFunctions linked;
+
+		// The compiled functions. null until compiled.
+		private BinaryFunctions functions;
+
+		LinkingFunctions(FunctionsHolder holder, Class<?> typeClass) throws PepException {
+			this.holder = holder;
+			try {
+				MethodHandle encode = lookup
+						.findVirtual(LinkingFunctions.class, "encode", MethodType.methodType(void.class, ByteBuffer.class, Object.class))
+						.bindTo(this).asType(MethodType.methodType(void.class, ByteBuffer.class, typeClass));
+				MethodHandle decode = lookup.findVirtual(LinkingFunctions.class, "decode", MethodType.methodType(Object.class, ByteBuffer.class))
+						.bindTo(this).asType(MethodType.methodType(typeClass, ByteBuffer.class));
+				this.linked = new BinaryFunctions(encode, decode);
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build recursive link", e);
+			}
+		}
+
+		@SuppressWarnings("unused")
+		private void encode(ByteBuffer buffer, Object value) throws Throwable {
+			functions.genericEncode.invokeExact(buffer, value);
+		}
+
+		@SuppressWarnings("unused")
+		private Object decode(ByteBuffer buffer) throws Throwable {
+			return functions.genericDecode.invokeExact(buffer);
+		}
+	}
+
+	public PepBinaryMapper(PepContext context) {
+		this.context = context;
+		this.functionCache = new ClassValue<>() {
+
+			@Override
+			protected FunctionsHolder computeValue(Class<?> type) {
+				return new FunctionsHolder();
+			}
+		};
+	}
+
+	/**
+	 * Writes the object to the buffer starting at the buffer position.
+	 * 
+	 * @param o      target object instance to encode.
+	 * @param buffer buffer to write to.
+	 * @throws Throwable any failure from the encode function. BufferOverflowException if the buffer is full.
+	 */
+	public void toBuffer(Object o, ByteBuffer buffer) throws Throwable {
+		Objects.requireNonNull(o);
+
+		toBuffer(o.getClass(), o, buffer);
+	}
+
+	/**
+	 * Writes the object to the buffer using the encoding of the given class. Used when the object is a
+	 * subclass of the class that will be read.
+	 * 
+	 * @param clss   class to encode the object as.
+	 * @param o      target object instance to encode.
+	 * @param buffer buffer to write to.
+	 * @throws Throwable any failure from the encode function. BufferOverflowException if the buffer is full.
+	 */
+	public void toBuffer(Class<?> clss, Object o, ByteBuffer buffer) throws Throwable {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(o);
+		Objects.requireNonNull(buffer);
+
+		BinaryFunctions bf = getFunctions(clss);
+
+		bf.genericEncode.invokeExact(buffer, o);
+	}
+
+	/**
+	 * Reads an object of the given class from the buffer starting at the buffer position.
+	 * 
+	 * @param clss   class of the encoded object.
+	 * @param buffer buffer to read from.
+	 * @return recreated target object.
+	 * @throws Throwable any failure from the decode function.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T toObject(Class<T> clss, ByteBuffer buffer) throws Throwable {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(buffer);
+
+		BinaryFunctions bf = getFunctions(clss);
+
+		return (T) bf.genericDecode.invokeExact(buffer);
+	}
+
+	private BinaryFunctions getFunctions(Class<?> clss) throws PepException {
+		FunctionsHolder holder = functionCache.get(clss);
+
+		BinaryFunctions bf = holder.functions;
+		if (bf == null) {
+			bf = compileFunctions(clss, holder);
+		}
+		return bf;
+	}
+
+	private BinaryFunctions compileFunctions(Class<?> clss, FunctionsHolder holder) throws PepException {
+		synchronized (compileLock) {
+			BinaryFunctions bf = holder.functions;
+			if (bf != null) {
+				return bf;
+			}
+
+			// Already being compiled further up the stack. Use the link functions if this is a recursive reference.
+			LinkingFunctions linkingFunctions = linking.get(clss);
+			if (linkingFunctions != null) {
+				return linkingFunctions.functions != null ? linkingFunctions.functions : linkingFunctions.linked;
+			}
+
+			boolean outermost = linking.isEmpty();
+			try {
+				PepDataClass dataClass = context.getDescriptor(clss);
+
+				linkingFunctions = new LinkingFunctions(holder, dataClass.typeClass());
+				linking.put(clss, linkingFunctions);
+
+				if (dataClass.isData()) {
+					bf = new BinaryFunctions(createTupleEncoder(dataClass), createTupleDecoder(dataClass));
+				} else {
+					bf = new BinaryFunctions(createValueWriter(dataClass), createValueReader(dataClass));
+				}
+				linkingFunctions.functions = bf;
+
+				if (outermost) {
+					for (LinkingFunctions linked : linking.values()) {
+						linked.holder.functions = linked.functions;
+					}
+				}
+				return bf;
+			} finally {
+				if (outermost) {
+					linking.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the tuple encoder. Each component is read from the accessor and written in order. This is
+	 * equivalent to:
+	 * 
+	 * D d = toData( t );
+	 * write( buffer, d.c0() );
+	 * write( buffer, d.c1() );
+	 * 
+	 * @return MethodHandle with signature (ByteBuffer, typeClass):void
+	 */
+	private MethodHandle createTupleEncoder(PepDataClass dataClass) throws PepException {
+
+		// (ByteBuffer, dataClass):void -> return;
+		MethodHandle result = MethodHandles.empty(MethodType.methodType(void.class, ByteBuffer.class, dataClass.dataClass()));
+
+		PepDataComponent[] fields = dataClass.dataComponents();
+		for (int x = fields.length - 1; x >= 0; x--) {
+			PepDataComponent field = fields[x];
+
+			// (ByteBuffer, fieldType):void
+			MethodHandle writer = createValueWriter(field.dataClass()).asType(MethodType.methodType(void.class, ByteBuffer.class, field.type()));
+
+			// (ByteBuffer, dataClass):void -> write( buffer, d.getter() )
+			MethodHandle componentWriter = MethodHandles.filterArguments(writer, 1,
+					field.accessor().asType(MethodType.methodType(field.type(), dataClass.dataClass())));
+
+			// Folded in reverse so the first component is written first.
+			result = MethodHandles.foldArguments(result, componentWriter);
+		}
+
+		// (ByteBuffer, typeClass):void -> encode( buffer, toData(t) )
+		return MethodHandles.filterArguments(result, 1, dataClass.toData());
+	}
+
+	/**
+	 * Creates the tuple decoder. Each component is read in order and passed to the creator. This is
+	 * equivalent to:
+	 * 
+	 * c0 = read( buffer );
+	 * c1 = read( buffer );
+	 * return toObject( creator( c0, c1 ) );
+	 * 
+	 * @return MethodHandle with signature (ByteBuffer):typeClass
+	 */
+	private MethodHandle createTupleDecoder(PepDataClass dataClass) throws PepException {
+		MethodHandle creator = dataClass.creator();
+		if (creator == null) {
+			throw new PepException(String.format("Binary mapper requires a creator for %s", dataClass.typeClass()));
+		}
+
+		PepDataComponent[] fields = dataClass.dataComponents();
+
+		// (c0, c1, ..., ByteBuffer):dataClass -> creator( c0, c1, ... )
+		MethodHandle result = MethodHandles.dropArguments(creator, fields.length, ByteBuffer.class);
+
+		for (int x = fields.length - 1; x >= 0; x--) {
+
+			// (ByteBuffer):cx
+			MethodHandle reader = createValueReader(fields[x].dataClass())
+					.asType(MethodType.methodType(creator.type().parameterType(x), ByteBuffer.class));
+
+			// (c0, ..., cx-1, ByteBuffer):dataClass -> reads cx before the components that follow it.
+			result = MethodHandles.foldArguments(result, x, reader);
+		}
+
+		// (ByteBuffer):typeClass -> toObject( creator( read(buffer), ... ) )
+		return MethodHandles.filterReturnValue(result, dataClass.toObject());
+	}
+
+	/**
+	 * @return MethodHandle with signature (ByteBuffer, typeClass):void
+	 */
+	private MethodHandle createValueWriter(PepDataClass valueClass) throws PepException {
+		Class<?> type = valueClass.typeClass();
+
+		if (valueClass.isAtom()) {
+
+			// (ByteBuffer, typeClass):void -> write( buffer, toData(value) )
+			return MethodHandles.filterArguments(dataWriter(valueClass.dataClass()), 1, nullSafe(valueClass.toData()));
+		} else if (valueClass.isData()) {
+
+			// (ByteBuffer, typeClass):void -> presence byte then encode( buffer, value )
+			return nullable(getFunctions(type).encode);
+		} else if (type.isArray()) {
+			Class<?> componentType = type.getComponentType();
+			if (componentType.isPrimitive()) {
+				return codec("write", void.class, ByteBuffer.class, type);
+			}
+
+			ArrayCodec arrayCodec = new ArrayCodec(type, createValueWriter(context.getDescriptor(componentType)),
+					createValueReader(context.getDescriptor(componentType)));
+			try {
+				return lookup.findVirtual(ArrayCodec.class, "write", MethodType.methodType(void.class, ByteBuffer.class, Object[].class))
+						.bindTo(arrayCodec).asType(MethodType.methodType(void.class, ByteBuffer.class, type));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build array writer", e);
+			}
+		}
+
+		throw new PepException(String.format("Binary mapper does not support %s", type));
+	}
+
+	/**
+	 * @return MethodHandle with signature (ByteBuffer):typeClass
+	 */
+	private MethodHandle createValueReader(PepDataClass valueClass) throws PepException {
+		Class<?> type = valueClass.typeClass();
+
+		if (valueClass.isAtom()) {
+
+			// (ByteBuffer):typeClass -> toObject( read(buffer) )
+			return MethodHandles.filterReturnValue(dataReader(valueClass.dataClass()), nullSafe(valueClass.toObject()));
+		} else if (valueClass.isData()) {
+
+			// (ByteBuffer):typeClass -> presence byte then decode( buffer )
+			return nullableReader(getFunctions(type).decode);
+		} else if (type.isArray()) {
+			Class<?> componentType = type.getComponentType();
+			if (componentType.isPrimitive()) {
+				return codec("read" + capitalize(componentType.getName()) + "s", type, ByteBuffer.class);
+			}
+
+			ArrayCodec arrayCodec = new ArrayCodec(type, createValueWriter(context.getDescriptor(componentType)),
+					createValueReader(context.getDescriptor(componentType)));
+			try {
+				return lookup.findVirtual(ArrayCodec.class, "read", MethodType.methodType(Object[].class, ByteBuffer.class))
+						.bindTo(arrayCodec).asType(MethodType.methodType(type, ByteBuffer.class));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new PepException("failed to build array reader", e);
+			}
+		}
+
+		throw new PepException(String.format("Binary mapper does not support %s", type));
+	}
+
+	/**
+	 * @return MethodHandle with signature (ByteBuffer, dataClass):void
+	 */
+	private static MethodHandle dataWriter(Class<?> dataClass) throws PepException {
+		if (dataClass.isPrimitive() || dataClass == String.class) {
+			return codec("write", void.class, ByteBuffer.class, dataClass);
+		}
+
+		Class<?> primitive = unwrap(dataClass);
+		if (primitive != null) {
+			return nullable(dataWriter(primitive).asType(MethodType.methodType(void.class, ByteBuffer.class, dataClass)));
+		}
+
+		throw new PepException(String.format("Binary mapper does not support atom data class %s", dataClass));
+	}
+
+	/**
+	 * @return MethodHandle with signature (ByteBuffer):dataClass
+	 */
+	private static MethodHandle dataReader(Class<?> dataClass) throws PepException {
+		if (dataClass.isPrimitive() || dataClass == String.class) {
+			return codec("read" + capitalize(dataClass.getSimpleName()), dataClass, ByteBuffer.class);
+		}
+
+		Class<?> primitive = unwrap(dataClass);
+		if (primitive != null) {
+			return nullableReader(dataReader(primitive).asType(MethodType.methodType(dataClass, ByteBuffer.class)));
+		}
+
+		throw new PepException(String.format("Binary mapper does not support atom data class %s", dataClass));
+	}
+
+	private static Class<?> unwrap(Class<?> wrapper) {
+		try {
+			Class<?> primitive = MethodType.methodType(wrapper).unwrap().returnType();
+			return primitive != wrapper && primitive != void.class ? primitive : null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private static MethodHandle codec(String name, Class<?> returnType, Class<?>... params) throws PepException {
+		try {
+			return lookup.findStatic(PepBinaryMapper.class, name, MethodType.methodType(returnType, params));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException(String.format("failed to find codec %s", name), e);
+		}
+	}
+
+	/**
+	 * Writes a presence byte before the value.
+	 * 
+	 * @return MethodHandle with the same signature (ByteBuffer, T):void
+	 */
+	private static MethodHandle nullable(MethodHandle writer) throws PepException {
+		Class<?> type = writer.type().parameterType(1);
+
+		// (ByteBuffer, T):boolean -> value == null
+		MethodHandle isNull = MethodHandles.dropArguments(codec("isNull", boolean.class, Object.class).asType(MethodType.methodType(boolean.class, type)),
+				0, ByteBuffer.class);
+
+		// (ByteBuffer, T):void -> buffer.put(0)
+		MethodHandle writeAbsent = MethodHandles.dropArguments(codec("writeAbsent", void.class, ByteBuffer.class), 1, type);
+
+		// (ByteBuffer, T):void -> buffer.put(1); write( buffer, value )
+		MethodHandle writePresent = MethodHandles.foldArguments(writer, codec("writePresent", void.class, ByteBuffer.class));
+
+		return MethodHandles.guardWithTest(isNull, writeAbsent, writePresent);
+	}
+
+	/**
+	 * Reads the presence byte before the value.
+	 * 
+	 * @return MethodHandle with the same signature (ByteBuffer):T
+	 */
+	private static MethodHandle nullableReader(MethodHandle reader) throws PepException {
+		Class<?> type = reader.type().returnType();
+
+		// (ByteBuffer):T -> null
+		MethodHandle readNull = MethodHandles.dropArguments(MethodHandles.constant(type, null), 0, ByteBuffer.class);
+
+		return MethodHandles.guardWithTest(codec("readAbsent", boolean.class, ByteBuffer.class), readNull, reader);
+	}
+
+	/**
+	 * Passes null through an atom conversion.
+	 */
+	private static MethodHandle nullSafe(MethodHandle conversion) throws PepException {
+		Class<?> paramType = conversion.type().parameterType(0);
+		Class<?> returnType = conversion.type().returnType();
+		if (paramType.isPrimitive() || returnType.isPrimitive()) {
+			return conversion;
+		}
+
+		MethodHandle isNull = codec("isNull", boolean.class, Object.class).asType(MethodType.methodType(boolean.class, paramType));
+		MethodHandle returnNull = MethodHandles.dropArguments(MethodHandles.constant(returnType, null), 0, paramType);
+
+		return MethodHandles.guardWithTest(isNull, returnNull, conversion);
+	}
+
+	private static class ArrayCodec {
+
+		// Signature: (int):Object[]
+		private final MethodHandle constructor;
+
+		// Signature: (ByteBuffer, Object):void
+		private final MethodHandle elementWriter;
+
+		// Signature: (ByteBuffer):Object
+		private final MethodHandle elementReader;
+
+		ArrayCodec(Class<?> arrayClass, MethodHandle elementWriter, MethodHandle elementReader) {
+			this.constructor = MethodHandles.arrayConstructor(arrayClass).asType(MethodType.methodType(Object[].class, int.class));
+			this.elementWriter = elementWriter.asType(MethodType.methodType(void.class, ByteBuffer.class, Object.class));
+			this.elementReader = elementReader.asType(MethodType.methodType(Object.class, ByteBuffer.class));
+		}
+
+		@SuppressWarnings("unused")
+		void write(ByteBuffer buffer, Object[] values) throws Throwable {
+			if (values == null) {
+				buffer.put((byte) 0);
+				return;
+			}
+
+			writeLength(buffer, values.length);
+			for (Object value : values) {
+				elementWriter.invokeExact(buffer, value);
+			}
+		}
+
+		@SuppressWarnings("unused")
+		Object[] read(ByteBuffer buffer) throws Throwable {
+			// Every element starts with at least a presence or length byte.
+			int length = readLength(buffer, 1);
+			if (length < 0) {
+				return null;
+			}
+
+			Object[] values = (Object[]) constructor.invokeExact(length);
+			for (int x = 0; x < length; x++) {
+				values[x] = elementReader.invokeExact(buffer);
+			}
+			return values;
+		}
+	}
+
+	// Encodings used by the compiled functions.
+
+	@SuppressWarnings("unused")
+	private static boolean isNull(Object value) {
+		return value == null;
+	}
+
+	@SuppressWarnings("unused")
+	private static void writeAbsent(ByteBuffer buffer) {
+		buffer.put((byte) 0);
+	}
+
+	@SuppressWarnings("unused")
+	private static void writePresent(ByteBuffer buffer) {
+		buffer.put((byte) 1);
+	}
+
+	@SuppressWarnings("unused")
+	private static boolean readAbsent(ByteBuffer buffer) {
+		return buffer.get() == 0;
+	}
+
+	private static void writeUnsigned(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static long readUnsigned(ByteBuffer buffer) throws PepException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			// The tenth byte only holds the top bit of the value.
+			if (shift == 63 && (b & 0x7E) != 0) {
+				break;
+			}
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new PepException("Malformed varint");
+	}
+
+	// Array and String lengths are written as length + 1 so 0 can represent null.
+	private static void writeLength(ByteBuffer buffer, int length) {
+		writeUnsigned(buffer, length + 1L);
+	}
+
+	// Lengths are checked against the remaining bytes using the minimum encoded width of an element before
+	// anything is allocated. Lengths above Long.MAX_VALUE decode as negative.
+	private static int readLength(ByteBuffer buffer, int width) throws PepException {
+		long length = readUnsigned(buffer) - 1;
+		if (length < -1 || length > Integer.MAX_VALUE) {
+			throw new PepException("Malformed length");
+		}
+		if (length > buffer.remaining() / width) {
+			throw new PepException(String.format("Length %d exceeds remaining %d bytes", length, buffer.remaining()));
+		}
+		return (int) length;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, boolean value) {
+		buffer.put(value ? (byte) 1 : (byte) 0);
+	}
+
+	@SuppressWarnings("unused")
+	private static boolean readBoolean(ByteBuffer buffer) {
+		return buffer.get() != 0;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, byte value) {
+		buffer.put(value);
+	}
+
+	@SuppressWarnings("unused")
+	private static byte readByte(ByteBuffer buffer) {
+		return buffer.get();
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, char value) {
+		writeUnsigned(buffer, value);
+	}
+
+	@SuppressWarnings("unused")
+	private static char readChar(ByteBuffer buffer) throws PepException {
+		return (char) readUnsigned(buffer);
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, short value) {
+		write(buffer, (long) value);
+	}
+
+	@SuppressWarnings("unused")
+	private static short readShort(ByteBuffer buffer) throws PepException {
+		return (short) readLong(buffer);
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, int value) {
+		write(buffer, (long) value);
+	}
+
+	@SuppressWarnings("unused")
+	private static int readInt(ByteBuffer buffer) throws PepException {
+		return (int) readLong(buffer);
+	}
+
+	private static void write(ByteBuffer buffer, long value) {
+		writeUnsigned(buffer, (value << 1) ^ (value >> 63));
+	}
+
+	private static long readLong(ByteBuffer buffer) throws PepException {
+		long value = readUnsigned(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, float value) {
+		buffer.putFloat(value);
+	}
+
+	@SuppressWarnings("unused")
+	private static float readFloat(ByteBuffer buffer) {
+		return buffer.getFloat();
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, double value) {
+		buffer.putDouble(value);
+	}
+
+	@SuppressWarnings("unused")
+	private static double readDouble(ByteBuffer buffer) {
+		return buffer.getDouble();
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, String value) {
+		if (value == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeLength(buffer, bytes.length);
+		buffer.put(bytes);
+	}
+
+	@SuppressWarnings("unused")
+	private static String readString(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		// Decode in place when the buffer is backed by an array.
+		if (buffer.hasArray()) {
+			String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return value;
+		}
+
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, boolean[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (boolean value : values) {
+			buffer.put(value ? (byte) 1 : (byte) 0);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static boolean[] readBooleans(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		boolean[] values = new boolean[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = buffer.get() != 0;
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, byte[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		buffer.put(values);
+	}
+
+	@SuppressWarnings("unused")
+	private static byte[] readBytes(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		byte[] values = new byte[length];
+		buffer.get(values);
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, char[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (char value : values) {
+			writeUnsigned(buffer, value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static char[] readChars(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		char[] values = new char[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = (char) readUnsigned(buffer);
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, short[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (short value : values) {
+			write(buffer, (long) value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static short[] readShorts(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		short[] values = new short[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = (short) readLong(buffer);
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, int[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (int value : values) {
+			write(buffer, (long) value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static int[] readInts(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		int[] values = new int[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = (int) readLong(buffer);
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, long[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (long value : values) {
+			write(buffer, value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static long[] readLongs(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, 1);
+		if (length < 0) {
+			return null;
+		}
+
+		long[] values = new long[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = readLong(buffer);
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, float[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (float value : values) {
+			buffer.putFloat(value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static float[] readFloats(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, Float.BYTES);
+		if (length < 0) {
+			return null;
+		}
+
+		float[] values = new float[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = buffer.getFloat();
+		}
+		return values;
+	}
+
+	@SuppressWarnings("unused")
+	private static void write(ByteBuffer buffer, double[] values) {
+		if (values == null) {
+			buffer.put((byte) 0);
+			return;
+		}
+
+		writeLength(buffer, values.length);
+		for (double value : values) {
+			buffer.putDouble(value);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static double[] readDoubles(ByteBuffer buffer) throws PepException {
+		int length = readLength(buffer, Double.BYTES);
+		if (length < 0) {
+			return null;
+		}
+
+		double[] values = new double[length];
+		for (int x = 0; x < length; x++) {
+			values[x] = buffer.getDouble();
+		}
+		return values;
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ * Sample showing how to use the Pep library to pivot a collection of objects to/from PepColumns.
+ * 
+ * Each data component becomes a column. Primitive components are written to a primitive array of the
+ * component type without boxing, other components to an array of the component type. Nested data classes,
+ * arrays and collections are stored as is. Optionally String and other atom components are dictionary
+ * encoded so each distinct value is held once.
+ * 
+ * Rows are rebuilt using the typed creator of the data class where available, otherwise the Object[]
+ * constructor.
+ *
+ */
+public class PepColumnMapper {
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	private final PepContext context;
+
+	// Dictionary encode String and atom components.
+	private final boolean dictionary;
+
+	// Functions are compiled on first use. Compiling twice under a race is harmless.
+	private final ClassValue<FunctionsHolder> functionCache;
+
+	// Functions for other descriptors of a class, such as registered versions, keyed by descriptor.
+	private final Map<PepDataClass, ColumnFunctions> descriptorCache = new ConcurrentHashMap<>();
+
+	private static class FunctionsHolder {
+
+		private volatile ColumnFunctions functions;
+	}
+
+	private static class ColumnFunctions {
+
+		// Descriptor the functions were compiled for.
+		private final PepDataClass dataClass;
+
+		// Array class of each column, null for dictionary columns.
+		private final Class<?>[] columnClasses;
+
+		// Signature: (Object[] columns, int row, Object object):void -> columns[x][row] = toData( object ).accessor()
+		private final MethodHandle writeRow;
+
+		// Signature: (Object[] columns, int row):Object -> toObject( creator( columns[0][row], columns[1][row], ... ) )
+		private final MethodHandle toObject;
+
+		private ColumnFunctions(PepDataClass dataClass, Class<?>[] columnClasses, MethodHandle writeRow, MethodHandle toObject) {
+			this.dataClass = dataClass;
+			this.columnClasses = columnClasses;
+			this.writeRow = writeRow;
+			this.toObject = toObject;
+		}
+	}
+
+	public PepColumnMapper(PepContext context) {
+		this(context, false);
+	}
+
+	/**
+	 * @param dictionary dictionary encode String and atom components.
+	 */
+	public PepColumnMapper(PepContext context, boolean dictionary) {
+		this.context = context;
+		this.dictionary = dictionary;
+		this.functionCache = new ClassValue<>() {
+
+			@Override
+			protected FunctionsHolder computeValue(Class<?> type) {
+				return new FunctionsHolder();
+			}
+		};
+	}
+
+	public PepColumns toColumns(Class<?> clss, Collection<?> objects) throws Throwable {
+		Objects.requireNonNull(clss);
+
+		return toColumns(context.getDescriptor(clss), objects);
+	}
+
+	/**
+	 * Pivots the objects to one column for each data component of the data class.
+	 */
+	public PepColumns toColumns(PepDataClass dataClass, Collection<?> objects) throws Throwable {
+		Objects.requireNonNull(objects);
+
+		ColumnFunctions functions = getFunctions(dataClass);
+		MethodHandle writeRow = functions.writeRow;
+
+		int size = objects.size();
+		Object[] columns = new Object[functions.columnClasses.length];
+		for (int x = 0; x < columns.length; x++) {
+			Class<?> columnClass = functions.columnClasses[x];
+			columns[x] = columnClass == null ? new DictionaryBuilder(size) : Array.newInstance(columnClass.getComponentType(), size);
+		}
+
+		int row = 0;
+		for (Object object : objects) {
+			writeRow.invokeExact(columns, row, Objects.requireNonNull(object));
+			row++;
+		}
+
+		for (int x = 0; x < columns.length; x++) {
+			if (columns[x] instanceof DictionaryBuilder) {
+				columns[x] = ((DictionaryBuilder) columns[x]).build();
+			}
+		}
+
+		return new PepColumns(dataClass, columns, size);
+	}
+
+	/**
+	 * Rebuilds the object at the given row.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T toObject(Class<T> clss, PepColumns columns, int row) throws Throwable {
+		Objects.requireNonNull(clss);
+		Objects.checkIndex(row, columns.size());
+
+		return (T) getFunctions(columns.dataClass()).toObject.invokeExact(columns.columns(), row);
+	}
+
+	/**
+	 * Rebuilds all rows in order.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> toObjects(Class<T> clss, PepColumns columns) throws Throwable {
+		Objects.requireNonNull(clss);
+
+		MethodHandle toObject = getFunctions(columns.dataClass()).toObject;
+		Object[] data = columns.columns();
+
+		Object[] result = new Object[columns.size()];
+		for (int row = 0; row < result.length; row++) {
+			result[row] = (Object) toObject.invokeExact(data, row);
+		}
+		return (List<T>) Arrays.asList(result);
+	}
+
+	private ColumnFunctions getFunctions(PepDataClass dataClass) throws PepException {
+		FunctionsHolder holder = functionCache.get(dataClass.typeClass());
+
+		ColumnFunctions functions = holder.functions;
+		if (functions == null) {
+			functions = createFunctions(dataClass);
+			holder.functions = functions;
+		} else if (functions.dataClass != dataClass) {
+			// The functions are only valid for the descriptor they were compiled from.
+			functions = descriptorCache.get(dataClass);
+			if (functions == null) {
+				functions = createFunctions(dataClass);
+				descriptorCache.put(dataClass, functions);
+			}
+		}
+		return functions;
+	}
+
+	private ColumnFunctions createFunctions(PepDataClass dataClass) throws PepException {
+		if (!dataClass.isData()) {
+			throw new PepException(String.format("Column mapper requires a data class: %s", dataClass.typeClass()));
+		}
+
+		try {
+			PepDataComponent[] fields = dataClass.dataComponents();
+			Class<?>[] columnClasses = new Class<?>[fields.length];
+			MethodHandle writeRow = MethodHandles.empty(MethodType.methodType(void.class, Object[].class, int.class, Object.class));
+			MethodHandle[] readers = new MethodHandle[fields.length];
+
+			for (int x = 0; x < fields.length; x++) {
+				PepDataComponent field = fields[x];
+				Class<?> type = field.type();
+
+				MethodHandle write;
+				MethodHandle read;
+				if (dictionary && !type.isPrimitive() && field.dataClass().isAtom()) {
+
+					// (DictionaryBuilder, int, D):void -> builder.set( row, data.accessor() )
+					write = lookup.findVirtual(DictionaryBuilder.class, "set", MethodType.methodType(void.class, int.class, Object.class));
+					write = MethodHandles.filterArguments(write, 2, field.accessor().asType(field.accessor().type().changeReturnType(Object.class)));
+
+					// (PepDictionaryColumn, int):Object -> column.get( row )
+					read = lookup.findVirtual(PepDictionaryColumn.class, "get", MethodType.methodType(Object.class, int.class));
+				} else {
+					columnClasses[x] = Array.newInstance(type, 0).getClass();
+
+					// (type[], int, D):void -> column[row] = data.accessor()
+					write = MethodHandles.filterArguments(MethodHandles.arrayElementSetter(columnClasses[x]), 2, field.accessor());
+
+					// (type[], int):type -> column[row]
+					read = MethodHandles.arrayElementGetter(columnClasses[x]);
+				}
+
+				// (Object[], int):Object -> columns[x]
+				MethodHandle column = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, x);
+
+				// (Object[], int, Object):void -> writeRow( columns, row, data ); write( columns[x], row, data )
+				write = MethodHandles.filterArguments(write, 0, column.asType(MethodType.methodType(write.type().parameterType(0), Object[].class)));
+				writeRow = MethodHandles.foldArguments(write.asType(MethodType.methodType(void.class, Object[].class, int.class, Object.class)),
+						writeRow);
+
+				// (Object[], int):type -> columns[x][row]
+				readers[x] = MethodHandles.filterArguments(read, 0, column.asType(MethodType.methodType(read.type().parameterType(0), Object[].class)));
+			}
+
+			// Use the typed creator to avoid boxing primitive columns.
+			MethodHandle creator = dataClass.creator();
+			if (creator == null) {
+				creator = dataClass.constructor().asCollector(Object[].class, fields.length);
+			}
+
+			// (c0, c1, ..., Object[], int):D -> creator( c0, c1, ... )
+			MethodHandle result = MethodHandles.dropArguments(creator, fields.length, Object[].class, int.class);
+
+			for (int x = fields.length - 1; x >= 0; x--) {
+
+				// (c0, ..., cx-1, Object[], int):D -> reads cx from the shared columns and row.
+				result = MethodHandles.foldArguments(result, x,
+						readers[x].asType(readers[x].type().changeReturnType(creator.type().parameterType(x))));
+			}
+
+			// (Object[], int):Object -> toObject( creator(...) )
+			MethodHandle toObject = MethodHandles.filterReturnValue(result, dataClass.toObject())
+					.asType(MethodType.methodType(Object.class, Object[].class, int.class));
+
+			// (Object[], int, Object):void -> writeRow( columns, row, toData( object ) )
+			writeRow = MethodHandles.filterArguments(writeRow, 2, dataClass.toData().asType(MethodType.methodType(Object.class, Object.class)));
+
+			return new ColumnFunctions(dataClass, columnClasses, writeRow, toObject);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException(String.format("Failed to create column functions for %s", dataClass.typeClass()), e);
+		}
+	}
+
+	/**
+	 * Builds a dictionary column while the objects are projected.
+	 */
+	private static class DictionaryBuilder {
+
+		private final Map<Object, Integer> index = new HashMap<>();
+
+		private final List<Object> values = new ArrayList<>();
+
+		private final int[] codes;
+
+		DictionaryBuilder(int size) {
+			this.codes = new int[size];
+		}
+
+		void set(int row, Object value) {
+			if (value == null) {
+				codes[row] = -1;
+				return;
+			}
+
+			Integer code = index.get(value);
+			if (code == null) {
+				code = values.size();
+				index.put(value, code);
+				values.add(value);
+			}
+			codes[row] = code;
+		}
+
+		PepDictionaryColumn build() {
+			return new PepDictionaryColumn(values.toArray(), codes);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+
+/**
+ * 
+ * Objects of a data class stored as one column per component. Primitive components are stored in primitive
+ * arrays (int[], long[], double[], ...), other components in an array of the component type or a
+ * PepDictionaryColumn. Created by the PepColumnMapper.
+ *
+ */
+public class PepColumns {
+
+	private final PepDataClass dataClass;
+
+	private final Object[] columns;
+
+	private final int size;
+
+	PepColumns(PepDataClass dataClass, Object[] columns, int size) {
+		this.dataClass = dataClass;
+		this.columns = columns;
+		this.size = size;
+	}
+
+	public PepDataClass dataClass() {
+		return dataClass;
+	}
+
+	/**
+	 * @return number of rows.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of columns, one for each data component.
+	 */
+	public int columnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return the column for the data component at the given index. Either an array or a PepDictionaryColumn.
+	 */
+	public Object column(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * @return the column for the named data component.
+	 */
+	public Object column(String name) {
+		PepDataComponent[] components = dataClass.dataComponents();
+		for (int x = 0; x < components.length; x++) {
+			if (components[x].name().equals(name)) {
+				return columns[x];
+			}
+		}
+		throw new IllegalArgumentException(String.format("No component %s in %s", name, dataClass.typeClass()));
+	}
+
+	Object[] columns() {
+		return columns;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * 
+ * The changed components between two instances of a class, created by the PepDiffMapper. Each change has a
+ * path and a value. A path holds the component index at each level of nested tuples and the element index
+ * at each level of arrays. The value is in the data form used by the PepArrayMapper, e.g. Object[] for a
+ * tuple. Changes are in depth first order of the components.
+ *
+ */
+public class PepDelta {
+
+	private final Class<?> typeClass;
+
+	private final int[][] paths;
+
+	private final Object[] values;
+
+	public PepDelta(Class<?> typeClass, int[][] paths, Object[] values) {
+		if (paths.length != values.length) {
+			throw new IllegalArgumentException("Delta requires a value for each path");
+		}
+
+		this.typeClass = typeClass;
+		this.paths = paths;
+		this.values = values;
+	}
+
+	public Class<?> typeClass() {
+		return typeClass;
+	}
+
+	/**
+	 * @return number of changes.
+	 */
+	public int size() {
+		return paths.length;
+	}
+
+	public boolean isEmpty() {
+		return paths.length == 0;
+	}
+
+	public int[] path(int index) {
+		return paths[index];
+	}
+
+	public Object value(int index) {
+		return values[index];
+	}
+
+	@Override
+	public String toString() {
+		StringJoiner joiner = new StringJoiner(", ", typeClass.getSimpleName() + "{", "}");
+		for (int x = 0; x < paths.length; x++) {
+			Object value = values[x];
+			joiner.add(Arrays.toString(paths[x]) + "=" + (value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value));
+		}
+		return joiner.toString();
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+/**
+ * 
+ * Dictionary encoded column. Each distinct value is stored once in the dictionary and each row holds the
+ * index of its value in the dictionary, or -1 for null.
+ *
+ */
+public class PepDictionaryColumn {
+
+	private final Object[] dictionary;
+
+	private final int[] codes;
+
+	public PepDictionaryColumn(Object[] dictionary, int[] codes) {
+		this.dictionary = dictionary;
+		this.codes = codes;
+	}
+
+	/**
+	 * @return distinct values in order of first occurrence.
+	 */
+	public Object[] dictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return dictionary index of each row, -1 for null.
+	 */
+	public int[] codes() {
+		return codes;
+	}
+
+	public Object get(int row) {
+		int code = codes[row];
+		return code < 0 ? null : dictionary[code];
+	}
+
+	public int size() {
+		return codes.length;
+	}
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ * 
+ * Compares two instances of a data class component by component and creates a PepDelta holding only the
+ * components that changed. Nested tuples, unions with the same member class and arrays of the same length
+ * are compared recursively, other components are compared with Objects.deepEquals. Components that are the
+ * same reference are not visited, so unchanged parts of an immutable object are skipped.
+ * 
+ * apply rebuilds the new instance from the old instance and the delta. Only the tuples on the path to a
+ * change are recreated, other components keep their existing values.
+ *
+ */
+public class PepDiffMapper {
+
+	private final PepContext context;
+
+	// Converts changed values to and from their data form.
+	private final PepArrayMapper arrayMapper;
+
+	private final ClassValue<PlanHolder> planCache;
+
+	private final Object compileLock = new Object();
+
+	private static class PlanHolder {
+
+		// null until the plan for the class has been compiled.
+		private volatile TuplePlan plan;
+	}
+
+	public PepDiffMapper(PepContext context) {
+		this(context, new PepArrayMapper(context));
+	}
+
+	public PepDiffMapper(PepContext context, PepArrayMapper arrayMapper) {
+		this.context = context;
+		this.arrayMapper = arrayMapper;
+		this.planCache = new ClassValue<>() {
+
+			@Override
+			protected PlanHolder computeValue(Class<?> type) {
+				return new PlanHolder();
+			}
+		};
+	}
+
+	/**
+	 * @param previous the earlier instance.
+	 * @param current  the later instance of the same class.
+	 * @return the changed components. Empty if the instances have the same values.
+	 */
+	public <T> PepDelta diff(T previous, T current) throws PepException {
+		Objects.requireNonNull(previous);
+		Objects.requireNonNull(current);
+
+		Class<?> clss = previous.getClass();
+		if (current.getClass() != clss) {
+			throw new PepException(String.format("Can not compare %s with %s", clss.getName(), current.getClass().getName()));
+		}
+
+		List<int[]> paths = new ArrayList<>();
+		List<Object> values = new ArrayList<>();
+		try {
+			getPlan(clss).diff(previous, current, new int[8], 0, paths, values);
+		} catch (PepException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new PepException(String.format("Failed to compare %s", clss.getName()), e);
+		}
+
+		return new PepDelta(clss, paths.toArray(new int[0][]), values.toArray());
+	}
+
+	/**
+	 * @param previous the instance the delta was created from.
+	 * @param delta    changes from diff.
+	 * @return a new instance with the changes applied, or previous if the delta is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T apply(T previous, PepDelta delta) throws PepException {
+		Objects.requireNonNull(previous);
+		Objects.requireNonNull(delta);
+
+		Class<?> clss = previous.getClass();
+		if (delta.typeClass() != clss) {
+			throw new PepException(String.format("Delta for %s can not be applied to %s", delta.typeClass().getName(), clss.getName()));
+		}
+
+		if (delta.isEmpty()) {
+			return previous;
+		}
+
+		try {
+			return (T) getPlan(clss).apply(previous, delta, 0, delta.size(), 0);
+		} catch (PepException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new PepException(String.format("Failed to apply delta to %s", clss.getName()), e);
+		}
+	}
+
+	private TuplePlan getPlan(Class<?> clss) throws PepException {
+		PlanHolder holder = planCache.get(clss);
+
+		TuplePlan plan = holder.plan;
+		if (plan == null) {
+			synchronized (compileLock) {
+				plan = holder.plan;
+				if (plan == null) {
+					plan = new TuplePlan(context.getDescriptor(clss));
+					holder.plan = plan;
+				}
+			}
+		}
+		return plan;
+	}
+
+	private static MethodHandle generic(MethodHandle handle) {
+		return handle.asType(MethodType.methodType(Object.class, Object.class));
+	}
+
+	/**
+	 * @return the end of the run of changes from the given change with the same index at the depth.
+	 */
+	private static int groupEnd(PepDelta delta, int from, int to, int depth) throws PepException {
+		int index = index(delta, from, depth);
+		int end = from + 1;
+		while (end < to && index(delta, end, depth) == index) {
+			end++;
+		}
+		return end;
+	}
+
+	private static int index(PepDelta delta, int change, int depth) throws PepException {
+		int[] path = delta.path(change);
+		if (path.length <= depth) {
+			throw new PepException(String.format("Invalid delta path %s", Arrays.toString(path)));
+		}
+		return path[depth];
+	}
+
+	/**
+	 * Precompiled accessors and constructor for a data class.
+	 */
+	private class TuplePlan {
+
+		// Signature: (Object):Object
+		private final MethodHandle toData;
+		private final MethodHandle toObject;
+
+		// Signature: (Object[]):Object
+		private final MethodHandle constructor;
+
+		// Signature: (Object):Object
+		private final MethodHandle[] accessors;
+
+		private final ComponentPlan[] components;
+
+		TuplePlan(PepDataClass dataClass) throws PepException {
+			if (!dataClass.isData()) {
+				throw new PepException(String.format("Diff requires a data class: %s", dataClass.typeClass()));
+			}
+
+			PepDataComponent[] fields = dataClass.dataComponents();
+			this.accessors = new MethodHandle[fields.length];
+			this.components = new ComponentPlan[fields.length];
+			for (int x = 0; x < fields.length; x++) {
+				accessors[x] = generic(fields[x].accessor());
+				components[x] = new ComponentPlan(fields[x].dataClass());
+			}
+
+			this.toData = generic(dataClass.toData());
+			this.toObject = generic(dataClass.toObject());
+			this.constructor = dataClass.constructor().asType(MethodType.methodType(Object.class, Object[].class));
+		}
+
+		void diff(Object previous, Object current, int[] path, int depth, List<int[]> paths, List<Object> values) throws Throwable {
+			Object previousData = toData.invokeExact(previous);
+			Object currentData = toData.invokeExact(current);
+
+			if (depth == path.length) {
+				path = Arrays.copyOf(path, path.length * 2);
+			}
+
+			for (int x = 0; x < accessors.length; x++) {
+				path[depth] = x;
+				components[x].diff(accessors[x].invokeExact(previousData), accessors[x].invokeExact(currentData), path, depth + 1, paths, values);
+			}
+		}
+
+		Object apply(Object previous, PepDelta delta, int from, int to, int depth) throws Throwable {
+			Object data = toData.invokeExact(previous);
+
+			Object[] values = new Object[accessors.length];
+			for (int x = 0; x < accessors.length; x++) {
+				values[x] = accessors[x].invokeExact(data);
+			}
+
+			// Changes are grouped by component as they are in depth first order.
+			for (int change = from; change < to;) {
+				int end = groupEnd(delta, change, to, depth);
+				int index = delta.path(change)[depth];
+				values[index] = components[index].apply(values[index], delta, change, end, depth + 1);
+				change = end;
+			}
+
+			return toObject.invokeExact(constructor.invokeExact(values));
+		}
+	}
+
+	/**
+	 * Compares and applies changes to a single component or array element.
+	 */
+	private class ComponentPlan {
+
+		private final PepDataClass fieldDataClass;
+
+		// Signature: (Object):Object. Null values are passed through.
+		private final MethodHandle valueToData;
+		private final MethodHandle valueToObject;
+
+		// Elements of an array of references. null if this is not an array or the elements are primitive.
+		private final ComponentPlan elementPlan;
+
+		// Plan of a tuple component. Taken on first use so recursive structures do not need to be linked.
+		private volatile TuplePlan tuplePlan;
+
+		ComponentPlan(PepDataClass fieldDataClass) throws PepException {
+			this.fieldDataClass = fieldDataClass;
+			this.valueToData = nullSafe(generic(arrayMapper.createValueToData(fieldDataClass)));
+			this.valueToObject = nullSafe(generic(arrayMapper.createValueToObject(fieldDataClass)));
+
+			Class<?> elementClass = fieldDataClass.typeClass().getComponentType();
+			this.elementPlan = elementClass == null || elementClass.isPrimitive() || elementClass == Object.class ? null
+					: new ComponentPlan(context.getDescriptor(elementClass));
+		}
+
+		private TuplePlan plan(Object value) throws PepException {
+			// Union members are compared using the plan of the member class.
+			if (fieldDataClass.isUnion()) {
+				return getPlan(value.getClass());
+			}
+
+			TuplePlan plan = tuplePlan;
+			if (plan == null) {
+				plan = getPlan(fieldDataClass.typeClass());
+				tuplePlan = plan;
+			}
+			return plan;
+		}
+
+		void diff(Object previous, Object current, int[] path, int depth, List<int[]> paths, List<Object> values) throws Throwable {
+			if (previous == current) {
+				return;
+			}
+
+			if (previous != null && current != null) {
+				if (fieldDataClass.isData() || (fieldDataClass.isUnion() && previous.getClass() == current.getClass())) {
+					plan(current).diff(previous, current, path, depth, paths, values);
+					return;
+				} else if (elementPlan != null && ((Object[]) previous).length == ((Object[]) current).length) {
+					Object[] previousArray = (Object[]) previous;
+					Object[] currentArray = (Object[]) current;
+
+					if (depth == path.length) {
+						path = Arrays.copyOf(path, path.length * 2);
+					}
+
+					for (int x = 0; x < currentArray.length; x++) {
+						path[depth] = x;
+						elementPlan.diff(previousArray[x], currentArray[x], path, depth + 1, paths, values);
+					}
+					return;
+				} else if (!fieldDataClass.isUnion() && elementPlan == null && Objects.deepEquals(previous, current)) {
+					return;
+				}
+			}
+
+			paths.add(Arrays.copyOf(path, depth));
+			values.add(valueToData.invokeExact(current));
+		}
+
+		Object apply(Object previous, PepDelta delta, int from, int to, int depth) throws Throwable {
+			// The whole value was replaced.
+			if (to - from == 1 && delta.path(from).length == depth) {
+				return valueToObject.invokeExact(delta.value(from));
+			}
+
+			if (previous == null) {
+				throw new PepException(String.format("Invalid delta path %s", Arrays.toString(delta.path(from))));
+			}
+
+			if (elementPlan != null) {
+				Object[] array = ((Object[]) previous).clone();
+				for (int change = from; change < to;) {
+					int end = groupEnd(delta, change, to, depth);
+					int index = delta.path(change)[depth];
+					array[index] = elementPlan.apply(array[index], delta, change, end, depth + 1);
+					change = end;
+				}
+				return array;
+			}
+
+			return plan(previous).apply(previous, delta, from, to, depth);
+		}
+	}
+
+	/**
+	 * @return MethodHandle with signature (Object):Object returning null for a null input.
+	 */
+	private static MethodHandle nullSafe(MethodHandle conversion) throws PepException {
+		try {
+			MethodHandle isNull = MethodHandles.lookup().findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class));
+			MethodHandle returnNull = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+
+			return MethodHandles.guardWithTest(isNull, returnNull, conversion);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new PepException("failed to build null check", e);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+/**
+ *
+ * Events produced by a PepEventSource. The events for a value are one of:
+ * 
+ * @formatter:off
+ * 
+ * ATOM                                                     - atom data value
+ * NULL                                                     - null tuple, array or atom
+ * BEGIN_TUPLE ( COMPONENT value )* END_TUPLE               - data class
+ * BEGIN_ARRAY ( value )* END_ARRAY                         - array or collection
+ * 
+ * @formatter:on
+ */
+public enum PepEvent {
+	BEGIN_TUPLE, COMPONENT, END_TUPLE, BEGIN_ARRAY, END_ARRAY, ATOM, NULL
+}
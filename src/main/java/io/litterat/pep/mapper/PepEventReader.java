@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Sample showing how to use the Pep library to build an object by pulling events from a PepEventSource. Only
+ * the components of the tuples currently being read are held in memory.
+ * 
+ * Components may arrive in any order and are matched by name. Elements of collections have no declared type
+ * so tuple elements are read using the type class given by the source.
+ *
+ */
+public class PepEventReader {
+
+	private final PepContext context;
+
+	// Lock free lookup of the plan for each class.
+	private final ClassValue<PlanHolder> planCache;
+
+	private static class PlanHolder {
+
+		// null until the plan for the class has been compiled. Plans do not refer to each other so a plan
+		// compiled twice by racing threads is harmless.
+		private volatile ReadPlan plan;
+	}
+
+	private static class ReadPlan {
+
+		private final PepDataClass dataClass;
+
+		// Component names in constructor order.
+		private final String[] names;
+
+		// Signature: (Object[]):Object
+		private final MethodHandle constructor;
+
+		// Signature: (Object):Object
+		private final MethodHandle toObject;
+
+		// Declared type of array elements.
+		private final Class<?> elementClass;
+
+		ReadPlan(PepDataClass dataClass) {
+			this.dataClass = dataClass;
+
+			PepDataComponent[] fields = dataClass.dataComponents();
+			this.names = new String[fields.length];
+			for (int x = 0; x < fields.length; x++) {
+				names[x] = fields[x].name();
+			}
+
+			this.constructor = dataClass.isData() ? dataClass.constructor().asType(MethodType.methodType(Object.class, Object[].class)) : null;
+			this.toObject = dataClass.toObject().asType(MethodType.methodType(Object.class, Object.class));
+
+			Class<?> typeClass = dataClass.typeClass();
+			this.elementClass = typeClass.isArray() ? typeClass.getComponentType() : Object.class;
+		}
+
+		// Components are expected in order so the next index is checked first.
+		int indexOf(String name, int expected) {
+			if (expected < names.length && names[expected].equals(name)) {
+				return expected;
+			}
+			for (int x = 0; x < names.length; x++) {
+				if (names[x].equals(name)) {
+					return x;
+				}
+			}
+			return -1;
+		}
+	}
+
+	public PepEventReader(PepContext context) {
+		this.context = context;
+		this.planCache = new ClassValue<>() {
+
+			@Override
+			protected PlanHolder computeValue(Class<?> type) {
+				return new PlanHolder();
+			}
+		};
+	}
+
+	/**
+	 * Reads the next value from the source as the given class.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T read(Class<T> clss, PepEventSource source) throws PepException {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(source);
+
+		return (T) readValue(clss, source.next(), source);
+	}
+
+	private ReadPlan getPlan(Class<?> clss) throws PepException {
+		PlanHolder holder = planCache.get(clss);
+
+		ReadPlan plan = holder.plan;
+		if (plan == null) {
+			plan = new ReadPlan(context.getDescriptor(clss));
+			holder.plan = plan;
+		}
+		return plan;
+	}
+
+	private Object readValue(Class<?> declaredClass, PepEvent event, PepEventSource source) throws PepException {
+		if (event == PepEvent.NULL) {
+			return null;
+		}
+
+		if (declaredClass == Object.class) {
+			if (event == PepEvent.ATOM) {
+				return source.value();
+			}
+
+			Class<?> type = event == PepEvent.BEGIN_TUPLE ? source.type() : null;
+			if (type == null) {
+				throw new PepException(String.format("Unexpected event %s. Only atoms and typed tuples can be read without a declared type", event));
+			}
+			declaredClass = type;
+		}
+
+		ReadPlan plan = getPlan(declaredClass);
+		PepDataClass dataClass = plan.dataClass;
+
+		Object data;
+		if (dataClass.isAtom() && event == PepEvent.ATOM) {
+			data = source.value();
+		} else if (dataClass.isData() && event == PepEvent.BEGIN_TUPLE) {
+			data = readTuple(plan, source);
+		} else if (dataClass.isArray() && event == PepEvent.BEGIN_ARRAY) {
+			data = readArray(plan, source);
+		} else {
+			throw new PepException(String.format("Unexpected event %s reading %s", event, dataClass.typeClass()));
+		}
+
+		try {
+			return plan.toObject.invokeExact(data);
+		} catch (Throwable t) {
+			throw new PepException(String.format("Failed to read %s. Could not convert from data", dataClass.typeClass()), t);
+		}
+	}
+
+	private Object readTuple(ReadPlan plan, PepEventSource source) throws PepException {
+		PepDataClass dataClass = plan.dataClass;
+		PepDataComponent[] fields = dataClass.dataComponents();
+
+		Object[] values = new Object[fields.length];
+
+		int expected = 0;
+		PepEvent event;
+		while ((event = source.next()) == PepEvent.COMPONENT) {
+			String name = source.name();
+			int index = plan.indexOf(name, expected);
+			if (index < 0) {
+				throw new PepException(String.format("Failed to read %s. Unknown field %s", dataClass.typeClass(), name));
+			}
+
+			values[index] = readValue(fields[index].type(), source.next(), source);
+			expected = index + 1;
+		}
+
+		if (event != PepEvent.END_TUPLE) {
+			throw new PepException(String.format("Unexpected event %s reading %s", event, dataClass.typeClass()));
+		}
+
+		try {
+			return plan.constructor.invokeExact(values);
+		} catch (Throwable t) {
+			throw new PepException(String.format("Failed to read %s. Could not construct data class", dataClass.typeClass()), t);
+		}
+	}
+
+	private Object readArray(ReadPlan plan, PepEventSource source) throws PepException {
+		int length = source.length();
+
+		// Length not known in advance, collect the elements first.
+		if (length < 0) {
+			List<Object> elements = new ArrayList<>();
+			PepEvent event;
+			while ((event = source.next()) != PepEvent.END_ARRAY) {
+				elements.add(readValue(plan.elementClass, event, source));
+			}
+
+			Object array = Array.newInstance(plan.elementClass, elements.size());
+			for (int x = 0; x < elements.size(); x++) {
+				Array.set(array, x, elements.get(x));
+			}
+			return array;
+		}
+
+		Object array = Array.newInstance(plan.elementClass, length);
+		for (int x = 0; x < length; x++) {
+			Array.set(array, x, readValue(plan.elementClass, source.next(), source));
+		}
+
+		PepEvent event = source.next();
+		if (event != PepEvent.END_ARRAY) {
+			throw new PepException(String.format("Unexpected event %s reading %s. Expected %d elements", event, plan.dataClass.typeClass(), length));
+		}
+		return array;
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Receives the events of an object walked by the PepEventWriter. Events follow the same grammar as PepEvent.
+ * Atom values are passed after conversion to their data class. A sink should keep the type class of each tuple
+ * so that tuples without a declared type can be read back.
+ *
+ */
+public interface PepEventSink {
+
+	void beginTuple(PepDataClass dataClass) throws PepException;
+
+	void component(PepDataComponent component) throws PepException;
+
+	void endTuple(PepDataClass dataClass) throws PepException;
+
+	void beginArray(PepDataClass dataClass, int length) throws PepException;
+
+	void endArray(PepDataClass dataClass) throws PepException;
+
+	void atom(Object value) throws PepException;
+
+	void nullValue() throws PepException;
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Pull source of events read by the PepEventReader. Each call to next returns the following event, the
+ * details of the current event are available from name, length and value.
+ *
+ */
+public interface PepEventSource {
+
+	PepEvent next() throws PepException;
+
+	/**
+	 * @return the component name of a COMPONENT event.
+	 */
+	String name();
+
+	/**
+	 * @return the number of elements of a BEGIN_ARRAY event or -1 if not known.
+	 */
+	int length();
+
+	/**
+	 * @return the data value of an ATOM event.
+	 */
+	Object value();
+
+	/**
+	 * @return the type class of a BEGIN_TUPLE event or null if not known. Required for tuples without a
+	 *         declared type such as the elements of collections.
+	 */
+	Class<?> type();
+}
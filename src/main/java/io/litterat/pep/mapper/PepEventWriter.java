@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Sample showing how to use the Pep library to walk an object and push its structure to a PepEventSink.
+ * Unlike the PepArrayMapper and PepMapMapper no intermediate tree is built, the memory used is bounded by the
+ * nesting depth of the object rather than its size.
+ * 
+ * Components are written using the descriptor of their declared type. Elements of collections have no
+ * declared type and are written using the descriptor of their class.
+ *
+ */
+public class PepEventWriter {
+
+	private final PepContext context;
+
+	// Lock free lookup of the plan for each class.
+	private final ClassValue<PlanHolder> planCache;
+
+	private static class PlanHolder {
+
+		// null until the plan for the class has been compiled. Plans do not refer to each other so a plan
+		// compiled twice by racing threads is harmless.
+		private volatile WritePlan plan;
+	}
+
+	private static class WritePlan {
+
+		private final PepDataClass dataClass;
+
+		// Signature: (Object):Object
+		private final MethodHandle toData;
+
+		// Signature: (Object):Object
+		private final MethodHandle[] accessors;
+
+		// Declared type of array elements.
+		private final Class<?> elementClass;
+
+		WritePlan(PepDataClass dataClass) {
+			this.dataClass = dataClass;
+			this.toData = dataClass.toData().asType(MethodType.methodType(Object.class, Object.class));
+
+			PepDataComponent[] fields = dataClass.dataComponents();
+			this.accessors = new MethodHandle[fields.length];
+			for (int x = 0; x < fields.length; x++) {
+				accessors[x] = fields[x].accessor().asType(MethodType.methodType(Object.class, Object.class));
+			}
+
+			Class<?> typeClass = dataClass.typeClass();
+			this.elementClass = typeClass.isArray() ? typeClass.getComponentType() : Object.class;
+		}
+	}
+
+	public PepEventWriter(PepContext context) {
+		this.context = context;
+		this.planCache = new ClassValue<>() {
+
+			@Override
+			protected PlanHolder computeValue(Class<?> type) {
+				return new PlanHolder();
+			}
+		};
+	}
+
+	/**
+	 * Walks the object pushing events to the sink.
+	 */
+	public void write(Object o, PepEventSink sink) throws PepException {
+		Objects.requireNonNull(o);
+		Objects.requireNonNull(sink);
+
+		writeValue(o.getClass(), o, sink);
+	}
+
+	private WritePlan getPlan(Class<?> clss) throws PepException {
+		PlanHolder holder = planCache.get(clss);
+
+		WritePlan plan = holder.plan;
+		if (plan == null) {
+			plan = new WritePlan(context.getDescriptor(clss));
+			holder.plan = plan;
+		}
+		return plan;
+	}
+
+	private void writeValue(Class<?> declaredClass, Object value, PepEventSink sink) throws PepException {
+		if (value == null) {
+			sink.nullValue();
+			return;
+		}
+
+		WritePlan plan = getPlan(declaredClass == Object.class ? value.getClass() : declaredClass);
+		PepDataClass dataClass = plan.dataClass;
+
+		if (dataClass.isMap()) {
+			throw new PepException(String.format("Failed to write %s. Maps are not supported by the event writer", dataClass.typeClass()));
+		}
+
+		if (dataClass.isUnion()) {
+			throw new PepException(String.format("Failed to write %s. Unions are not supported by the event writer", dataClass.typeClass()));
+		}
+
+		if (dataClass.isArray() && value instanceof Collection) {
+			// Collections are iterated directly rather than copied to an array.
+			Collection<?> collection = (Collection<?>) value;
+
+			sink.beginArray(dataClass, collection.size());
+			for (Object element : collection) {
+				writeValue(Object.class, element, sink);
+			}
+			sink.endArray(dataClass);
+			return;
+		}
+
+		Object data;
+		try {
+			data = plan.toData.invokeExact(value);
+		} catch (Throwable t) {
+			throw new PepException(String.format("Failed to write %s. Could not convert to data", dataClass.typeClass()), t);
+		}
+
+		if (dataClass.isAtom()) {
+			sink.atom(data);
+		} else if (dataClass.isData()) {
+			PepDataComponent[] fields = dataClass.dataComponents();
+
+			sink.beginTuple(dataClass);
+			for (int x = 0; x < fields.length; x++) {
+				Object v;
+				try {
+					v = plan.accessors[x].invokeExact(data);
+				} catch (Throwable t) {
+					throw new PepException(String.format("Failed to write %s. Could not read field %s", dataClass.typeClass(), fields[x].name()), t);
+				}
+
+				sink.component(fields[x]);
+				writeValue(fields[x].type(), v, sink);
+			}
+			sink.endTuple(dataClass);
+		} else {
+			// Arrays and collections are both arrays once converted to data.
+			int length = Array.getLength(data);
+
+			sink.beginArray(dataClass, length);
+			for (int x = 0; x < length; x++) {
+				writeValue(plan.elementClass, Array.get(data, x), sink);
+			}
+			sink.endArray(dataClass);
+		}
+	}
+}
@@ -15,128 +15,491 @@
  */
 package io.litterat.pep.mapper;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
 
 import io.litterat.pep.PepContext;
 import io.litterat.pep.PepDataClass;
 import io.litterat.pep.PepDataComponent;
 import io.litterat.pep.PepException;
+import io.litterat.pep.describe.MapBridge;
+import io.litterat.pep.describe.UnionBridge;
 
 /**
- * 
+ *
  * Sample showing how to use the Pep library to convert an Object to/from Map<String,Object>
- * 
+ *
+ * A MapPlan is compiled once for each class. It holds the accessor and conversion handles adapted to exact
+ * types, the plans of nested data classes and the size of the output map. Converting an object walks the
+ * plan without descriptor lookups.
+ *
  */
 public class PepMapMapper {
 
 	private final PepContext context;
 
+	// Lock free lookup of the plan for each class.
+	private final ClassValue<PlanHolder> planCache;
+
+	// Guards compilation so each plan is compiled once.
+	private final Object compileLock = new Object();
+
+	// Plans being linked by the compiling thread. Allows recursive structures to refer to plans that are not
+	// yet complete. Plans are only published once the outermost plan has been linked. Guarded by compileLock.
+	private final Map<Class<?>, MapPlan> linking = new HashMap<>();
+
+	private static class PlanHolder {
+
+		// null until the plan for the class has been compiled.
+		private volatile MapPlan plan;
+	}
+
 	public PepMapMapper(PepContext context) {
 		this.context = context;
+		this.planCache = new ClassValue<>() {
+
+			@Override
+			protected PlanHolder computeValue(Class<?> type) {
+				return new PlanHolder();
+			}
+		};
 	}
 
 	public Map<String, Object> toMap(Object object) throws PepException {
 
 		Objects.requireNonNull(object);
 
-		PepDataClass dataClass = context.getDescriptor(object.getClass());
-		int fieldIndex = 0;
+		return getPlan(object.getClass()).toMap(object);
+	}
 
-		try {
-			Object data = dataClass.toData().invoke(object);
+	public Object toObject(Class<?> clss, Map<String, Object> map) throws PepException {
 
-			Map<String, Object> map = new HashMap<>();
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(map);
 
-			PepDataComponent[] fields = dataClass.dataComponents();
-			for (fieldIndex = 0; fieldIndex < dataClass.dataComponents().length; fieldIndex++) {
-				PepDataComponent field = fields[fieldIndex];
-
-				Object v = field.accessor().invoke(data);
-
-				// Recursively convert object to map.
-				if (v != null) {
-					PepDataClass fieldDataClass = field.dataClass();
-
-					if (fieldDataClass.isAtom()) {
-						v = fieldDataClass.toData().invoke(v);
-					} else if (fieldDataClass.isData()) {
-						v = toMap(v);
-					} else {
-						// convert each element of the array toMap.
-						Object[] dataArray = (Object[]) v;
-						Object[] outputArray = new Object[dataArray.length];
-						for (int x = 0; x < dataArray.length; x++) {
-							if (dataArray[x] != null) {
-								outputArray[x] = toMap(dataArray[x]);
-							}
+		return getPlan(clss).toObject(map);
+	}
+
+	/**
+	 * Converts each object of the list to a map in parallel.
+	 * 
+	 * @return the maps in the order of the input.
+	 * @throws PepBatchException if any element failed with the index of each failed element.
+	 */
+	public List<Map<String, Object>> toMaps(List<?> objects, PepBatch batch) throws PepBatchException {
+		return toMaps(objects.spliterator(), batch);
+	}
+
+	public List<Map<String, Object>> toMaps(Object[] objects, PepBatch batch) throws PepBatchException {
+		return toMaps(Arrays.spliterator(objects), batch);
+	}
+
+	public List<Map<String, Object>> toMaps(Spliterator<?> objects, PepBatch batch) throws PepBatchException {
+		return batch.map(objects, this::toMap);
+	}
+
+	/**
+	 * Creates an object from each map in parallel.
+	 * 
+	 * @return the objects in the order of the input.
+	 * @throws PepBatchException if any element failed with the index of each failed element.
+	 */
+	public <T> List<T> toObjects(Class<T> clss, List<Map<String, Object>> maps, PepBatch batch) throws PepBatchException {
+		return toObjects(clss, maps.spliterator(), batch);
+	}
+
+	public <T> List<T> toObjects(Class<T> clss, Spliterator<Map<String, Object>> maps, PepBatch batch) throws PepBatchException {
+		return batch.map(maps, map -> clss.cast(toObject(clss, map)));
+	}
+
+	private MapPlan getPlan(Class<?> clss) throws PepException {
+		PlanHolder holder = planCache.get(clss);
+
+		MapPlan plan = holder.plan;
+		if (plan == null) {
+			plan = compilePlan(clss);
+		}
+		return plan;
+	}
+
+	private MapPlan compilePlan(Class<?> clss) throws PepException {
+		synchronized (compileLock) {
+			MapPlan plan = planCache.get(clss).plan;
+			if (plan != null) {
+				return plan;
+			}
+
+			// Recursive reference to a plan currently being linked.
+			plan = linking.get(clss);
+			if (plan != null) {
+				return plan;
+			}
+
+			boolean outermost = linking.isEmpty();
+			try {
+				plan = new MapPlan(context.getDescriptor(clss));
+				linking.put(clss, plan);
+
+				plan.link();
+
+				if (outermost) {
+					// Publish all linked plans together.
+					for (Map.Entry<Class<?>, MapPlan> entry : linking.entrySet()) {
+						planCache.get(entry.getKey()).plan = entry.getValue();
+					}
+				}
+				return plan;
+			} finally {
+				if (outermost) {
+					linking.clear();
+				}
+			}
+		}
+	}
+
+	private static MethodHandle generic(MethodHandle handle) {
+		return handle.asType(MethodType.methodType(Object.class, Object.class));
+	}
+
+	/**
+	 * Precompiled conversion of a single component to and from its map value.
+	 */
+	private class ComponentPlan {
+
+		private final PepDataClass fieldDataClass;
+
+		// Atom conversions. Signature: (Object):Object
+		private MethodHandle atomToData;
+		private MethodHandle atomToObject;
+
+		// Nested data class plan.
+		private MapPlan dataPlan;
+
+		// Array element plan and array constructor. Signature: (int):Object[]
+		private MapPlan elementPlan;
+		private Class<?> elementClass;
+		private MethodHandle arrayToData;
+		private MethodHandle arrayToObject;
+		private MethodHandle arrayConstructor;
+
+		// Map conversion to Map from Object[] { keys[], values[] }. Key and value plans are null if passed through.
+		private MethodHandle mapToObject;
+		private ComponentPlan keyPlan;
+		private ComponentPlan valuePlan;
+
+		// Union conversion to Object[] { tag, value }. Signature: (Object):Object[]. Member plans indexed by tag.
+		private MethodHandle unionToData;
+		private ComponentPlan[] memberPlans;
+
+		// Plan for array elements of a union type.
+		private ComponentPlan unionElementPlan;
+
+		// Plan for collection elements of the declared element class. null if passed through.
+		private ComponentPlan collectionPlan;
+
+		ComponentPlan(PepDataClass fieldDataClass) {
+			this.fieldDataClass = fieldDataClass;
+		}
+
+		void link() throws PepException {
+			if (fieldDataClass.isAtom()) {
+				atomToData = generic(fieldDataClass.toData());
+				atomToObject = generic(fieldDataClass.toObject());
+			} else if (fieldDataClass.isData()) {
+				dataPlan = getPlan(fieldDataClass.typeClass());
+			} else if (fieldDataClass.isMap()) {
+				mapToObject = fieldDataClass.toObject().asType(MethodType.methodType(Object.class, Object[].class));
+				keyPlan = elementPlan(fieldDataClass.keyClass());
+				valuePlan = elementPlan(fieldDataClass.valueClass());
+			} else if (fieldDataClass.isUnion()) {
+				unionToData = fieldDataClass.toData().asType(MethodType.methodType(Object[].class, Object.class));
+
+				Class<?>[] members = fieldDataClass.unionMembers();
+				memberPlans = new ComponentPlan[members.length];
+				for (int x = 0; x < members.length; x++) {
+					memberPlans[x] = new ComponentPlan(context.getDescriptor(members[x]));
+					memberPlans[x].link();
+				}
+			} else {
+				arrayToData = generic(fieldDataClass.toData());
+				arrayToObject = generic(fieldDataClass.toObject());
+
+				elementClass = fieldDataClass.typeClass().getComponentType();
+				if (elementClass != null) {
+					arrayConstructor = MethodHandles.arrayConstructor(fieldDataClass.typeClass())
+							.asType(MethodType.methodType(Object[].class, int.class));
+					// Elements of Object[] have no declared type and are passed through like collection elements.
+					if (!elementClass.isPrimitive() && elementClass != Object.class) {
+						PepDataClass elementDataClass = context.getDescriptor(elementClass);
+						if (elementDataClass.isUnion()) {
+							unionElementPlan = new ComponentPlan(elementDataClass);
+							unionElementPlan.link();
+						} else {
+							elementPlan = getPlan(elementClass);
 						}
+					}
+				} else {
+					collectionPlan = elementPlan(fieldDataClass.elementClass());
+				}
+			}
+		}
 
-						v = outputArray;
+		// Keys, values and collection elements of undeclared type or with identity conversions are passed through.
+		private ComponentPlan elementPlan(Class<?> clss) throws PepException {
+			if (clss == Object.class) {
+				return null;
+			}
+
+			PepDataClass elementDataClass = context.getDescriptor(clss);
+			if (elementDataClass.isAtom() && elementDataClass.typeClass() == elementDataClass.dataClass()) {
+				return null;
+			}
+
+			ComponentPlan plan = new ComponentPlan(elementDataClass);
+			plan.link();
+			return plan;
+		}
+
+		Object toData(Object v) throws Throwable {
+			if (atomToData != null) {
+				return atomToData.invokeExact(v);
+			} else if (dataPlan != null) {
+				return dataPlan.toMap(v);
+			} else if (mapToObject != null) {
+				// Entries are read directly into parallel key and value arrays.
+				Map<?, ?> map = (Map<?, ?>) v;
+				Object[] keys = new Object[map.size()];
+				Object[] values = new Object[keys.length];
+				int x = 0;
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					Object key = entry.getKey();
+					Object value = entry.getValue();
+					keys[x] = keyPlan != null && key != null ? keyPlan.toData(key) : key;
+					values[x] = valuePlan != null && value != null ? valuePlan.toData(value) : value;
+					x++;
+				}
+				return new Object[] { keys, values };
+			} else if (unionToData != null) {
+				// The tagged array is new so the value is converted in place.
+				Object[] data = (Object[]) unionToData.invokeExact(v);
+				data[UnionBridge.VALUE] = memberPlans[(Integer) data[UnionBridge.TAG]].toData(data[UnionBridge.VALUE]);
+				return data;
+			}
+
+			if (elementClass == null) {
+				// The array is new so collection elements are converted in place.
+				Object[] elements = ((Collection<?>) v).toArray();
+				if (collectionPlan != null) {
+					for (int x = 0; x < elements.length; x++) {
+						if (elements[x] != null) {
+							elements[x] = collectionPlan.toData(elements[x]);
+						}
 					}
 				}
+				return elements;
+			}
+
+			Object data = arrayToData.invokeExact(v);
+			if (elementClass.isPrimitive()) {
+				return data;
+			}
 
-				map.put(field.name(), v);
+			// convert each element of the array toMap.
+			Object[] dataArray = (Object[]) data;
+			Object[] outputArray = new Object[dataArray.length];
+			for (int x = 0; x < dataArray.length; x++) {
+				Object element = dataArray[x];
+				if (element != null && unionElementPlan != null) {
+					outputArray[x] = unionElementPlan.toData(element);
+				} else if (element != null && elementPlan != null) {
+					MapPlan plan = element.getClass() == elementClass ? elementPlan : getPlan(element.getClass());
+					outputArray[x] = plan.elementToData(element);
+				} else {
+					outputArray[x] = element;
+				}
 			}
-			return map;
-		} catch (Throwable t) {
-			throw new PepException(String.format("Failed to convert %s to Map. Could not convert field %s", dataClass.typeClass(),
-					dataClass.dataComponents()[fieldIndex].name()), t);
+			return outputArray;
+		}
+
+		@SuppressWarnings("unchecked")
+		Object toObject(Object v) throws Throwable {
+			if (atomToObject != null) {
+				return atomToObject.invokeExact(v);
+			} else if (dataPlan != null) {
+				return dataPlan.toObject((Map<String, Object>) v);
+			} else if (mapToObject != null) {
+				Object[] data = (Object[]) v;
+				if (keyPlan != null || valuePlan != null) {
+					data = new Object[] { elementsToObject(keyPlan, (Object[]) data[MapBridge.KEYS]),
+							elementsToObject(valuePlan, (Object[]) data[MapBridge.VALUES]) };
+				}
+				return mapToObject.invokeExact(data);
+			} else if (memberPlans != null) {
+				Object[] data = (Object[]) v;
+				return memberPlans[UnionBridge.tag(data, memberPlans.length)].toObject(data[UnionBridge.VALUE]);
+			}
+
+			if (elementClass == null) {
+				return arrayToObject.invokeExact((Object) elementsToObject(collectionPlan, (Object[]) v));
+			} else if (elementClass.isPrimitive()) {
+				return arrayToObject.invokeExact(v);
+			}
+
+			Object[] inputArray = (Object[]) v;
+			Object[] dataArray = (Object[]) arrayConstructor.invokeExact(inputArray.length);
+			for (int x = 0; x < inputArray.length; x++) {
+				if (inputArray[x] != null && unionElementPlan != null) {
+					dataArray[x] = unionElementPlan.toObject(inputArray[x]);
+				} else if (inputArray[x] != null) {
+					dataArray[x] = elementPlan != null ? elementPlan.elementToObject(inputArray[x]) : inputArray[x];
+				}
+			}
+			return arrayToObject.invokeExact((Object) dataArray);
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public Object toObject(Class<?> clss, Map<String, Object> map) throws PepException {
+	private static Object[] elementsToObject(ComponentPlan plan, Object[] elements) throws Throwable {
+		if (plan == null) {
+			return elements;
+		}
 
-		Objects.requireNonNull(clss);
-		Objects.requireNonNull(map);
+		Object[] objects = new Object[elements.length];
+		for (int x = 0; x < elements.length; x++) {
+			if (elements[x] != null) {
+				objects[x] = plan.toObject(elements[x]);
+			}
+		}
+		return objects;
+	}
+
+	/**
+	 * Precompiled conversion of a class to and from a map.
+	 */
+	private class MapPlan {
+
+		private final PepDataClass dataClass;
+
+		// Component names used as keys.
+		private final String[] names;
 
-		PepDataClass dataClass = context.getDescriptor(clss);
-		int fieldIndex = 0;
+		// Signature: (Object):Object
+		private final MethodHandle toData;
+		private final MethodHandle toObject;
 
-		try {
+		// Signature: (Object[]):Object
+		private final MethodHandle constructor;
+
+		// Signature: (Object):Object
+		private final MethodHandle[] accessors;
+
+		private final ComponentPlan[] components;
+
+		// Initial capacity of output map so that it does not resize.
+		private final int mapCapacity;
+
+		MapPlan(PepDataClass dataClass) {
+			this.dataClass = dataClass;
 
 			PepDataComponent[] fields = dataClass.dataComponents();
-			Object[] construct = new Object[fields.length];
-			for (fieldIndex = 0; fieldIndex < dataClass.dataComponents().length; fieldIndex++) {
-				PepDataComponent field = fields[fieldIndex];
-
-				Object v = map.get(field.name());
-
-				// Recursively convert maps back to objects.
-				if (v != null) {
-					PepDataClass fieldDataClass = field.dataClass();
-					if (fieldDataClass.isAtom()) {
-						v = fieldDataClass.toObject().invoke(v);
-					} else if (fieldDataClass.isData()) {
-						v = toObject(fieldDataClass.typeClass(), (Map<String, Object>) v);
-					} else {
-						Object[] inputArray = (Object[]) v;
-						Object[] dataArray = (Object[]) fieldDataClass.constructor().invoke(inputArray.length);
-						Class<?> arrayClass = fieldDataClass.typeClass().getComponentType();
-						for (int x = 0; x < inputArray.length; x++) {
-							if (inputArray[x] != null) {
-								dataArray[x] = toObject(arrayClass, (Map<String, Object>) inputArray[x]);
-							}
-						}
-						v = dataArray;
+			this.names = new String[fields.length];
+			this.accessors = new MethodHandle[fields.length];
+			this.components = new ComponentPlan[fields.length];
+			for (int x = 0; x < fields.length; x++) {
+				names[x] = fields[x].name();
+				accessors[x] = generic(fields[x].accessor());
+				components[x] = new ComponentPlan(fields[x].dataClass());
+			}
+
+			this.toData = generic(dataClass.toData());
+			this.toObject = generic(dataClass.toObject());
+			this.constructor = dataClass.isData() ? dataClass.constructor().asType(MethodType.methodType(Object.class, Object[].class)) : null;
+			this.mapCapacity = (int) (fields.length / 0.75f) + 1;
+		}
+
+		void link() throws PepException {
+			for (ComponentPlan component : components) {
+				component.link();
+			}
+		}
+
+		Object elementToData(Object element) throws Throwable {
+			if (dataClass.isAtom()) {
+				return toData.invokeExact(element);
+			}
+			return toMap(element);
+		}
+
+		@SuppressWarnings("unchecked")
+		Object elementToObject(Object element) throws Throwable {
+			if (dataClass.isAtom()) {
+				return toObject.invokeExact(element);
+			}
+			return toObject((Map<String, Object>) element);
+		}
+
+		Map<String, Object> toMap(Object object) throws PepException {
+			int fieldIndex = 0;
+
+			try {
+				Object data = toData.invokeExact(object);
+
+				Map<String, Object> map = new HashMap<>(mapCapacity);
+
+				for (fieldIndex = 0; fieldIndex < accessors.length; fieldIndex++) {
+					Object v = accessors[fieldIndex].invokeExact(data);
+
+					// Recursively convert object to map.
+					if (v != null) {
+						v = components[fieldIndex].toData(v);
 					}
+
+					map.put(names[fieldIndex], v);
+				}
+				return map;
+			} catch (Throwable t) {
+				if (fieldIndex < names.length) {
+					throw new PepException(
+							String.format("Failed to convert %s to Map. Could not convert field %s", dataClass.typeClass(), names[fieldIndex]), t);
+				} else {
+					throw new PepException(String.format("Failed to convert %s to Map.", dataClass.typeClass()), t);
 				}
-				construct[fieldIndex] = v;
 			}
+		}
 
-			Object data = dataClass.constructor().invoke(construct);
+		Object toObject(Map<String, Object> map) throws PepException {
+			int fieldIndex = 0;
 
-			return dataClass.toObject().invoke(data);
-		} catch (Throwable t) {
-			if (fieldIndex < dataClass.dataComponents().length) {
-				throw new PepException(String.format("Failed to convert Map to %s. Incorrect value for field %s", dataClass.typeClass(),
-						dataClass.dataComponents()[fieldIndex].name()), t);
-			} else {
-				throw new PepException(String.format("Failed to convert Map to %s.", dataClass.typeClass()), t);
+			try {
+				Object[] construct = new Object[names.length];
+				for (fieldIndex = 0; fieldIndex < names.length; fieldIndex++) {
+					Object v = map.get(names[fieldIndex]);
+
+					// Recursively convert maps back to objects.
+					if (v != null) {
+						v = components[fieldIndex].toObject(v);
+					}
+					construct[fieldIndex] = v;
+				}
+
+				Object data = constructor.invokeExact(construct);
+
+				return toObject.invokeExact(data);
+			} catch (Throwable t) {
+				if (fieldIndex < names.length) {
+					throw new PepException(String.format("Failed to convert Map to %s. Incorrect value for field %s", dataClass.typeClass(),
+							names[fieldIndex]), t);
+				} else {
+					throw new PepException(String.format("Failed to convert Map to %s.", dataClass.typeClass()), t);
+				}
 			}
 		}
-
 	}
 }
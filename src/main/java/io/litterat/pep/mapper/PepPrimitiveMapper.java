@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ * Sample showing how to use the Pep library to convert an Object to/from a PepPrimitiveRecord.
+ *
+ * Unlike PepArrayMapper, primitive components are written to and read from typed long[]/double[] slots
+ * using the component type, so there is no boxing in either direction. Embedding uses the typed creator of
+ * the data class rather than the Object[] constructor.
+ *
+ * Atoms with a primitive data form can not be null.
+ *
+ */
+public class PepPrimitiveMapper {
+
+	private static final int LONG_SLOT = 0;
+	private static final int DOUBLE_SLOT = 1;
+	private static final int OBJECT_SLOT = 2;
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	private final PepContext context;
+
+	private final ClassValue<FunctionsHolder> functionCache;
+
+	private final Object compileLock = new Object();
+
+	// Classes currently being compiled. Guarded by compileLock and used to detect recursive structures.
+	private final Set<Class<?>> compiling = new HashSet<>();
+
+	private static class FunctionsHolder {
+
+		private volatile PrimitiveFunctions functions;
+	}
+
+	private static class PrimitiveFunctions {
+
+		// Converts target to record. Has signature: PepPrimitiveRecord project( T object );
+		public final MethodHandle toRecord;
+
+		// Converts record to target. Has signature: T embed( PepPrimitiveRecord record );
+		public final MethodHandle toObject;
+
+		// Creates an empty record. Has signature: PepPrimitiveRecord create();
+		public final MethodHandle newRecord;
+
+		public PrimitiveFunctions(MethodHandle toRecord, MethodHandle toObject, MethodHandle newRecord) {
+			this.toRecord = toRecord;
+			this.toObject = toObject;
+			this.newRecord = newRecord;
+		}
+	}
+
+	public PepPrimitiveMapper(PepContext context) {
+		this.context = context;
+		this.functionCache = new ClassValue<>() {
+
+			@Override
+			protected FunctionsHolder computeValue(Class<?> type) {
+				return new FunctionsHolder();
+			}
+		};
+	}
+
+	private PrimitiveFunctions getFunctions(Class<?> clss) throws PepException {
+		FunctionsHolder holder = functionCache.get(clss);
+
+		PrimitiveFunctions pf = holder.functions;
+		if (pf == null) {
+			synchronized (compileLock) {
+				pf = holder.functions;
+				if (pf == null) {
+					if (!compiling.add(clss)) {
+						throw new PepException(String.format("Recursive structures not yet supported for primitive mapper: %s", clss));
+					}
+					try {
+						pf = createFunctions(context.getDescriptor(clss));
+						holder.functions = pf;
+					} finally {
+						compiling.remove(clss);
+					}
+				}
+			}
+		}
+		return pf;
+	}
+
+	/**
+	 * Project the target object into a record.
+	 *
+	 * @param o target object instance to project.
+	 * @return values from target object
+	 * @throws Throwable any failure from the project function.
+	 */
+	public PepPrimitiveRecord toRecord(Object o) throws Throwable {
+		Objects.requireNonNull(o);
+
+		PrimitiveFunctions pf = getFunctions(o.getClass());
+
+		return (PepPrimitiveRecord) pf.toRecord.invoke(o);
+	}
+
+	/**
+	 * Embed the values of a record into a new target object.
+	 *
+	 * @param record values to embed into target object.
+	 * @return recreated target object.
+	 * @throws Throwable any failure from the embed function.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T toObject(Class<T> clss, PepPrimitiveRecord record) throws Throwable {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(record);
+
+		PrimitiveFunctions pf = getFunctions(clss);
+
+		return (T) pf.toObject.invoke(record);
+	}
+
+	/**
+	 * Create an empty record for the class. Used when reading values from another source before embedding.
+	 */
+	public PepPrimitiveRecord newRecord(Class<?> clss) throws Throwable {
+		Objects.requireNonNull(clss);
+
+		return (PepPrimitiveRecord) getFunctions(clss).newRecord.invokeExact();
+	}
+
+	private static int slotKind(Class<?> type) {
+		if (type == double.class || type == float.class) {
+			return DOUBLE_SLOT;
+		} else if (type.isPrimitive()) {
+			return LONG_SLOT;
+		}
+		return OBJECT_SLOT;
+	}
+
+	/**
+	 * The type stored in the record for a component. Atoms are stored as their data form.
+	 */
+	private static Class<?> slotType(PepDataComponent field) {
+		PepDataClass fieldDataClass = field.dataClass();
+		if (fieldDataClass.isAtom()) {
+			return fieldDataClass.dataClass();
+		}
+		return Object.class;
+	}
+
+	private PrimitiveFunctions createFunctions(PepDataClass dataClass) throws PepException {
+		if (!dataClass.isData()) {
+			throw new PepException(String.format("Primitive mapper requires a data class: %s", dataClass.typeClass()));
+		}
+
+		// Allocate a slot for each component in the relevant typed array.
+		PepDataComponent[] fields = dataClass.dataComponents();
+		int[] slots = new int[fields.length];
+		int[] counts = new int[3];
+		for (int x = 0; x < fields.length; x++) {
+			int kind = slotKind(slotType(fields[x]));
+			slots[x] = counts[kind]++;
+		}
+
+		try {
+			// ():PepPrimitiveRecord -> new PepPrimitiveRecord(dataClass, slots, ...)
+			MethodHandle newRecord = lookup
+					.findConstructor(PepPrimitiveRecord.class,
+							MethodType.methodType(void.class, PepDataClass.class, int[].class, int.class, int.class, int.class))
+					.bindTo(dataClass);
+			newRecord = MethodHandles.insertArguments(newRecord, 0, slots, counts[LONG_SLOT], counts[DOUBLE_SLOT], counts[OBJECT_SLOT]);
+
+			MethodHandle toRecord = createProjectFunction(dataClass, slots, newRecord);
+			MethodHandle toObject = createEmbedFunction(dataClass, slots);
+
+			return new PrimitiveFunctions(toRecord, toObject, newRecord);
+		} catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+			throw new PepException(String.format("Failed to build primitive mapper for %s", dataClass.typeClass()), e);
+		}
+	}
+
+	/**
+	 * Equivalent to:
+	 *
+	 * PepPrimitiveRecord record = new PepPrimitiveRecord(...);
+	 * D data = toData(object);
+	 * record.longs[slot0] = data.x();
+	 * record.doubles[slot1] = data.y();
+	 * ...
+	 * return record;
+	 *
+	 */
+	private MethodHandle createProjectFunction(PepDataClass dataClass, int[] slots, MethodHandle newRecord)
+			throws PepException, NoSuchMethodException, NoSuchFieldException, IllegalAccessException {
+
+		// (record, D):record -> return record;
+		MethodHandle result = MethodHandles.dropArguments(MethodHandles.identity(PepPrimitiveRecord.class), 1, dataClass.dataClass());
+
+		PepDataComponent[] fields = dataClass.dataComponents();
+		for (int x = 0; x < fields.length; x++) {
+			PepDataComponent field = fields[x];
+			PepDataClass fieldDataClass = field.dataClass();
+
+			// (D):type -> data.getter()
+			MethodHandle value = field.accessor();
+
+			// (D):slotType -> toData(data.getter())
+			if (fieldDataClass.isAtom()) {
+				value = MethodHandles.filterReturnValue(value, nullSafe(fieldDataClass.toData()));
+			} else if (fieldDataClass.isData()) {
+				value = MethodHandles.filterReturnValue(value,
+						nullSafe(getFunctions(fieldDataClass.typeClass()).toRecord.asType(MethodType.methodType(Object.class, field.type()))));
+			} else if (fieldDataClass.isMap() || fieldDataClass.isUnion()) {
+				// Maps and unions are stored as is.
+			} else {
+				MethodHandle bridgeToData = lookup.findVirtual(ArrayBridge.class, "toData", MethodType.methodType(Object.class, Object.class))
+						.bindTo(new ArrayBridge(fieldDataClass));
+				value = MethodHandles.filterReturnValue(value, nullSafe(bridgeToData.asType(MethodType.methodType(Object.class, field.type()))));
+			}
+
+			Class<?> slotType = slotType(field);
+			int kind = slotKind(slotType);
+
+			Class<?> arrayClass;
+			if (kind == LONG_SLOT) {
+				arrayClass = long[].class;
+				if (slotType == boolean.class) {
+					value = MethodHandles.filterReturnValue(value, conversion("booleanToLong", long.class, boolean.class));
+				}
+				value = value.asType(MethodType.methodType(long.class, dataClass.dataClass()));
+			} else if (kind == DOUBLE_SLOT) {
+				arrayClass = double[].class;
+				value = value.asType(MethodType.methodType(double.class, dataClass.dataClass()));
+			} else {
+				arrayClass = Object[].class;
+				value = value.asType(MethodType.methodType(Object.class, dataClass.dataClass()));
+			}
+
+			// (array, value):void -> array[slot] = value
+			MethodHandle store = MethodHandles.insertArguments(MethodHandles.arrayElementSetter(arrayClass), 1, slots[x]);
+
+			// (record, value):void -> record.array[slot] = value
+			store = MethodHandles.filterArguments(store, 0, slotArray(arrayClass));
+
+			// (record, D):void -> record.array[slot] = toData(data.getter())
+			store = MethodHandles.collectArguments(store, 1, value);
+
+			result = MethodHandles.foldArguments(result, store);
+		}
+
+		// (record, T):record -> setters(record, toData(T))
+		result = MethodHandles.collectArguments(result, 1, dataClass.toData());
+
+		// (T):record
+		return MethodHandles.collectArguments(result, 0, newRecord);
+	}
+
+	/**
+	 * Equivalent to:
+	 *
+	 * return toObject( creator( (int) record.longs[slot0], record.doubles[slot1], ... ) );
+	 *
+	 */
+	private MethodHandle createEmbedFunction(PepDataClass dataClass, int[] slots)
+			throws PepException, NoSuchMethodException, NoSuchFieldException, IllegalAccessException {
+
+		MethodHandle creator = dataClass.creator();
+		if (creator == null) {
+			throw new PepException(String.format("Primitive mapper requires a typed creator: %s", dataClass.typeClass()));
+		}
+
+		PepDataComponent[] fields = dataClass.dataComponents();
+		MethodHandle[] readers = new MethodHandle[fields.length];
+		for (int x = 0; x < fields.length; x++) {
+			PepDataComponent field = fields[x];
+			PepDataClass fieldDataClass = field.dataClass();
+
+			Class<?> slotType = slotType(field);
+			int kind = slotKind(slotType);
+
+			Class<?> arrayClass = kind == LONG_SLOT ? long[].class : kind == DOUBLE_SLOT ? double[].class : Object[].class;
+
+			// (array):value -> array[slot]
+			MethodHandle read = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(arrayClass), 1, slots[x]);
+
+			// (record):value -> record.array[slot]
+			read = MethodHandles.filterArguments(read, 0, slotArray(arrayClass));
+
+			// Narrow back to the slot type.
+			if (slotType == boolean.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("longToBoolean", boolean.class, long.class));
+			} else if (slotType == byte.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("longToByte", byte.class, long.class));
+			} else if (slotType == char.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("longToChar", char.class, long.class));
+			} else if (slotType == short.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("longToShort", short.class, long.class));
+			} else if (slotType == int.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("longToInt", int.class, long.class));
+			} else if (slotType == float.class) {
+				read = MethodHandles.filterReturnValue(read, conversion("doubleToFloat", float.class, double.class));
+			}
+
+			// (record):type -> toObject(record.array[slot])
+			if (fieldDataClass.isAtom()) {
+				MethodHandle toObject = fieldDataClass.toObject();
+				read = MethodHandles.filterReturnValue(read.asType(read.type().changeReturnType(toObject.type().parameterType(0))),
+						nullSafe(toObject));
+			} else if (fieldDataClass.isData()) {
+				MethodHandle toObject = getFunctions(fieldDataClass.typeClass()).toObject;
+				read = MethodHandles.filterReturnValue(read, nullSafe(toObject.asType(MethodType.methodType(field.type(), Object.class))));
+			} else if (fieldDataClass.isMap() || fieldDataClass.isUnion()) {
+				// Maps and unions are stored as is.
+			} else {
+				MethodHandle bridgeToObject = lookup.findVirtual(ArrayBridge.class, "toObject", MethodType.methodType(Object.class, Object.class))
+						.bindTo(new ArrayBridge(fieldDataClass));
+				read = MethodHandles.filterReturnValue(read, nullSafe(bridgeToObject));
+			}
+
+			readers[x] = read.asType(MethodType.methodType(creator.type().parameterType(x), PepPrimitiveRecord.class));
+		}
+
+		// (record, record, ...):D -> creator( reader0(record), reader1(record), ... )
+		MethodHandle result = MethodHandles.filterArguments(creator, 0, readers);
+
+		// (record):D
+		if (fields.length > 0) {
+			result = MethodHandles.permuteArguments(result, MethodType.methodType(result.type().returnType(), PepPrimitiveRecord.class),
+					new int[fields.length]);
+		} else {
+			result = MethodHandles.dropArguments(result, 0, PepPrimitiveRecord.class);
+		}
+
+		// (record):T -> toObject( creator(...) )
+		return MethodHandles.filterReturnValue(result, dataClass.toObject());
+	}
+
+	private static MethodHandle slotArray(Class<?> arrayClass) throws NoSuchFieldException, IllegalAccessException {
+		String name = arrayClass == long[].class ? "longs" : arrayClass == double[].class ? "doubles" : "objects";
+		return lookup.findGetter(PepPrimitiveRecord.class, name, arrayClass);
+	}
+
+	private static MethodHandle conversion(String name, Class<?> returnType, Class<?> paramType)
+			throws NoSuchMethodException, IllegalAccessException {
+		return lookup.findStatic(PepPrimitiveMapper.class, name, MethodType.methodType(returnType, paramType));
+	}
+
+	/**
+	 * Wraps a reference conversion so that null is passed through without calling it.
+	 */
+	private static MethodHandle nullSafe(MethodHandle conversion) throws NoSuchMethodException, IllegalAccessException {
+		Class<?> paramType = conversion.type().parameterType(0);
+		Class<?> returnType = conversion.type().returnType();
+		if (paramType.isPrimitive() || returnType.isPrimitive()) {
+			return conversion;
+		}
+
+		MethodHandle isNull = lookup.findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class))
+				.asType(MethodType.methodType(boolean.class, paramType));
+		MethodHandle returnNull = MethodHandles.dropArguments(MethodHandles.constant(returnType, null), 0, paramType);
+
+		return MethodHandles.guardWithTest(isNull, returnNull, conversion);
+	}
+
+	@SuppressWarnings("unused")
+	private static long booleanToLong(boolean value) {
+		return value ? 1 : 0;
+	}
+
+	@SuppressWarnings("unused")
+	private static boolean longToBoolean(long value) {
+		return value != 0;
+	}
+
+	@SuppressWarnings("unused")
+	private static byte longToByte(long value) {
+		return (byte) value;
+	}
+
+	@SuppressWarnings("unused")
+	private static char longToChar(long value) {
+		return (char) value;
+	}
+
+	@SuppressWarnings("unused")
+	private static short longToShort(long value) {
+		return (short) value;
+	}
+
+	@SuppressWarnings("unused")
+	private static int longToInt(long value) {
+		return (int) value;
+	}
+
+	@SuppressWarnings("unused")
+	private static float doubleToFloat(double value) {
+		return (float) value;
+	}
+
+	/**
+	 * Arrays of primitives are stored as is. Other arrays are stored as an Object[] of element data with
+	 * records for data class elements.
+	 */
+	private class ArrayBridge {
+
+		private final PepDataClass fieldDataClass;
+
+		private final Class<?> componentType;
+
+		// Signature: (Object):Object. null if the element type is only known at runtime.
+		private final MethodHandle elementToData;
+		private final MethodHandle elementToObject;
+
+		public ArrayBridge(PepDataClass fieldDataClass) throws PepException {
+			this.fieldDataClass = fieldDataClass;
+			this.componentType = fieldDataClass.typeClass().getComponentType();
+
+			PepDataClass elementClass = componentType != null && componentType != Object.class && !componentType.isPrimitive()
+					? context.getDescriptor(componentType)
+					: null;
+
+			MethodType elementType = MethodType.methodType(Object.class, Object.class);
+			if (elementClass != null && elementClass.isAtom()) {
+				this.elementToData = elementClass.toData().asType(elementType);
+				this.elementToObject = elementClass.toObject().asType(elementType);
+			} else if (elementClass != null && elementClass.isData()) {
+				PrimitiveFunctions pf = getFunctions(componentType);
+				this.elementToData = pf.toRecord.asType(elementType);
+				this.elementToObject = pf.toObject.asType(elementType);
+			} else {
+				this.elementToData = null;
+				this.elementToObject = null;
+			}
+		}
+
+		@SuppressWarnings("unused")
+		public Object toData(Object v) throws Throwable {
+			Object data = fieldDataClass.toData().invoke(v);
+			if (data.getClass().getComponentType().isPrimitive()) {
+				return data;
+			}
+
+			Object[] dataArray = (Object[]) data;
+			Object[] outputArray = new Object[dataArray.length];
+			for (int x = 0; x < dataArray.length; x++) {
+				Object element = dataArray[x];
+				if (element == null) {
+					continue;
+				} else if (elementToData != null) {
+					outputArray[x] = elementToData.invokeExact(element);
+				} else {
+					// Collections and Object[] only know the element type at runtime.
+					PepDataClass elementClass = context.getDescriptor(element.getClass());
+					if (elementClass.isAtom()) {
+						outputArray[x] = elementClass.toData().invoke(element);
+					} else {
+						outputArray[x] = toRecord(element);
+					}
+				}
+			}
+			return outputArray;
+		}
+
+		@SuppressWarnings("unused")
+		public Object toObject(Object s) throws Throwable {
+			if (s.getClass().getComponentType().isPrimitive()) {
+				return fieldDataClass.toObject().invoke(s);
+			}
+
+			Object[] inputArray = (Object[]) s;
+
+			Object[] dataArray = componentType != null ? (Object[]) fieldDataClass.constructor().invoke(inputArray.length)
+					: new Object[inputArray.length];
+			for (int x = 0; x < inputArray.length; x++) {
+				Object element = inputArray[x];
+				if (element == null) {
+					continue;
+				} else if (elementToObject != null) {
+					dataArray[x] = elementToObject.invokeExact(element);
+				} else if (element instanceof PepPrimitiveRecord) {
+					PepPrimitiveRecord record = (PepPrimitiveRecord) element;
+					dataArray[x] = PepPrimitiveMapper.this.toObject(record.dataClass().typeClass(), record);
+				} else {
+					dataArray[x] = element;
+				}
+			}
+			return fieldDataClass.toObject().invoke(dataArray);
+		}
+	}
+}
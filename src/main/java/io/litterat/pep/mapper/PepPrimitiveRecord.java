@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import io.litterat.pep.PepDataClass;
+
+/**
+ *
+ * The projected values of a data class stored in typed slots so that primitives are not boxed. Integral
+ * values (boolean, byte, char, short, int, long) are stored in longs, floating point values (float, double)
+ * in doubles and everything else in objects. Components are accessed by their index in the data class.
+ *
+ */
+public class PepPrimitiveRecord {
+
+	// The data class for these values.
+	private final PepDataClass dataClass;
+
+	// Index into longs, doubles or objects for each component.
+	private final int[] slots;
+
+	final long[] longs;
+
+	final double[] doubles;
+
+	final Object[] objects;
+
+	PepPrimitiveRecord(PepDataClass dataClass, int[] slots, int longCount, int doubleCount, int objectCount) {
+		this.dataClass = dataClass;
+		this.slots = slots;
+		this.longs = new long[longCount];
+		this.doubles = new double[doubleCount];
+		this.objects = new Object[objectCount];
+	}
+
+	public PepDataClass dataClass() {
+		return dataClass;
+	}
+
+	/**
+	 * @return the index of the component in its typed array.
+	 */
+	public int slot(int component) {
+		return slots[component];
+	}
+
+	public long[] longs() {
+		return longs;
+	}
+
+	public double[] doubles() {
+		return doubles;
+	}
+
+	public Object[] objects() {
+		return objects;
+	}
+
+	public boolean getBoolean(int component) {
+		return longs[slots[component]] != 0;
+	}
+
+	public int getInt(int component) {
+		return (int) longs[slots[component]];
+	}
+
+	public long getLong(int component) {
+		return longs[slots[component]];
+	}
+
+	public float getFloat(int component) {
+		return (float) doubles[slots[component]];
+	}
+
+	public double getDouble(int component) {
+		return doubles[slots[component]];
+	}
+
+	public Object getObject(int component) {
+		return objects[slots[component]];
+	}
+
+	public void setBoolean(int component, boolean value) {
+		longs[slots[component]] = value ? 1 : 0;
+	}
+
+	public void setLong(int component, long value) {
+		longs[slots[component]] = value;
+	}
+
+	public void setDouble(int component, double value) {
+		doubles[slots[component]] = value;
+	}
+
+	public void setObject(int component, Object value) {
+		objects[slots[component]] = value;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Read access to a file of records written by PepRecordWriter. The file is memory mapped with FileChannel.map
+ * and each record is exposed through a PepRecordView which only decodes the components accessed. Files
+ * larger than a single mapping are mapped in regions.
+ * 
+ * PepRecordFile<Telemetry> file = PepRecordFile.open(context, Telemetry.class, path);
+ * PepRecordView<Telemetry> view = file.view();
+ * while (view.next()) {
+ *     if (view.getLong(TIMESTAMP) > start) {
+ *         Telemetry telemetry = view.materialize();
+ *     }
+ * }
+ *
+ */
+public class PepRecordFile<T> implements Closeable {
+
+	static final int MAGIC = 0x50455052;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 8;
+
+	// Default size of each mapped region of the file.
+	public static final long DEFAULT_REGION_SIZE = 1L << 30;
+
+	final PepRecordLayout layout;
+
+	final PepBinaryMapper binaryMapper;
+
+	final FileChannel channel;
+
+	final long size;
+
+	final long regionSize;
+
+	private PepRecordFile(PepRecordLayout layout, PepBinaryMapper binaryMapper, FileChannel channel, long regionSize) throws IOException {
+		this.layout = layout;
+		this.binaryMapper = binaryMapper;
+		this.channel = channel;
+		this.size = channel.size();
+		this.regionSize = regionSize;
+	}
+
+	public static <T> PepRecordFile<T> open(PepContext context, Class<T> clss, Path path) throws PepException, IOException {
+		return open(context, clss, path, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Opens the file mapping at most regionSize bytes at a time. A record must fit within a region.
+	 */
+	public static <T> PepRecordFile<T> open(PepContext context, Class<T> clss, Path path, long regionSize) throws PepException, IOException {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(path);
+		if (regionSize < HEADER_SIZE || regionSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format("Invalid region size %d", regionSize));
+		}
+
+		PepRecordLayout layout = new PepRecordLayout(context.getDescriptor(clss));
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					break;
+				}
+			}
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new PepException(String.format("Not a record file: %s", path));
+			}
+
+			return new PepRecordFile<>(layout, new PepBinaryMapper(context), channel, regionSize);
+		} catch (PepException | IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return a new view positioned before the first record. Views are not thread safe, use a view per thread.
+	 */
+	public PepRecordView<T> view() {
+		return new PepRecordView<>(this);
+	}
+
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
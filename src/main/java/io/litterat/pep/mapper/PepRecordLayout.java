@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Layout of the components of a data class in a record. The record body starts with a fixed section derived
+ * from the component list. Components with a primitive data value are stored at a fixed offset in their
+ * natural width. All other components are stored as an int offset from the start of the body to their
+ * PepBinaryMapper encoding, or -1 for null. The encodings follow the fixed section.
+ *
+ */
+class PepRecordLayout {
+
+	enum Slot {
+		BOOLEAN(1), BYTE(1), CHAR(2), SHORT(2), INT(4), LONG(8), FLOAT(4), DOUBLE(8), REFERENCE(4);
+
+		final int width;
+
+		Slot(int width) {
+			this.width = width;
+		}
+
+		static Slot of(Class<?> dataClass) {
+			if (dataClass == boolean.class) {
+				return BOOLEAN;
+			} else if (dataClass == byte.class) {
+				return BYTE;
+			} else if (dataClass == char.class) {
+				return CHAR;
+			} else if (dataClass == short.class) {
+				return SHORT;
+			} else if (dataClass == int.class) {
+				return INT;
+			} else if (dataClass == long.class) {
+				return LONG;
+			} else if (dataClass == float.class) {
+				return FLOAT;
+			} else if (dataClass == double.class) {
+				return DOUBLE;
+			}
+			return REFERENCE;
+		}
+	}
+
+	final PepDataClass dataClass;
+
+	final PepDataComponent[] fields;
+
+	final Slot[] slots;
+
+	// Offset of each component from the start of the record body.
+	final int[] offsets;
+
+	// Size of the fixed section.
+	final int fixedSize;
+
+	// Reads the stored value from the data object. Signature: (Object):slotType or (Object):Object for references
+	final MethodHandle[] getters;
+
+	// Converts a stored primitive value to the component value. Signature: (Object):Object
+	final MethodHandle[] toComponent;
+
+	// Signature: (Object):Object
+	final MethodHandle toData;
+	final MethodHandle toObject;
+
+	// Signature: (Object[]):Object
+	final MethodHandle constructor;
+
+	PepRecordLayout(PepDataClass dataClass) throws PepException {
+		if (!dataClass.isData()) {
+			throw new PepException(String.format("Records require a data class: %s", dataClass.typeClass()));
+		}
+
+		this.dataClass = dataClass;
+		this.fields = dataClass.dataComponents();
+		this.slots = new Slot[fields.length];
+		this.offsets = new int[fields.length];
+		this.getters = new MethodHandle[fields.length];
+		this.toComponent = new MethodHandle[fields.length];
+
+		int offset = 0;
+		for (int x = 0; x < fields.length; x++) {
+			PepDataComponent field = fields[x];
+			PepDataClass fieldDataClass = field.dataClass();
+
+			// (Object):fieldType
+			MethodHandle accessor = field.accessor().asType(MethodType.methodType(field.type(), Object.class));
+
+			Slot slot = fieldDataClass.isAtom() ? Slot.of(fieldDataClass.dataClass()) : Slot.REFERENCE;
+			if (slot == Slot.REFERENCE) {
+				getters[x] = accessor.asType(MethodType.methodType(Object.class, Object.class));
+				toComponent[x] = MethodHandles.identity(Object.class);
+			} else {
+				// (Object):slotType -> toData( d.getter() )
+				getters[x] = MethodHandles.filterReturnValue(accessor, fieldDataClass.toData());
+				toComponent[x] = fieldDataClass.toObject().asType(MethodType.methodType(Object.class, Object.class));
+			}
+
+			slots[x] = slot;
+			offsets[x] = offset;
+			offset += slot.width;
+		}
+		this.fixedSize = offset;
+
+		this.toData = dataClass.toData().asType(MethodType.methodType(Object.class, Object.class));
+		this.toObject = dataClass.toObject().asType(MethodType.methodType(Object.class, Object.class));
+		this.constructor = dataClass.constructor().asType(MethodType.methodType(Object.class, Object[].class));
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepException;
+import io.litterat.pep.mapper.PepRecordLayout.Slot;
+
+/**
+ *
+ * A lazy view of the current record in a PepRecordFile. The view is moved from record to record with next and
+ * nothing is decoded until a component is accessed. Primitive components are read in place at the offset
+ * given by the layout, other components are decoded from the mapped buffer each time they are accessed.
+ * 
+ * Components are accessed by their index in the data class. Integral values (boolean, byte, char, short, int,
+ * long) can be read with getLong and floating point values (float, double) with getDouble in the same way as
+ * PepPrimitiveRecord.
+ *
+ */
+public class PepRecordView<T> {
+
+	private final PepRecordFile<T> file;
+
+	private final PepRecordLayout layout;
+
+	// Currently mapped region of the file.
+	private MappedByteBuffer region;
+	private long regionStart;
+
+	// File position of the current record or -1 before the first record.
+	private long position = -1;
+
+	// File position of the next record.
+	private long next = PepRecordFile.HEADER_SIZE;
+
+	// Index of the current record body in the region.
+	private int body;
+
+	PepRecordView(PepRecordFile<T> file) {
+		this.file = file;
+		this.layout = file.layout;
+	}
+
+	public PepDataClass dataClass() {
+		return layout.dataClass;
+	}
+
+	/**
+	 * Moves to the next record.
+	 * 
+	 * @return false if there are no more records.
+	 */
+	public boolean next() throws PepException, IOException {
+		if (next + 4 > file.size) {
+			return false;
+		}
+
+		map(next, 4);
+		int length = region.getInt((int) (next - regionStart));
+		if (length < layout.fixedSize || next + 4 + length > file.size) {
+			throw new PepException(String.format("Corrupt record at %d", next));
+		}
+		map(next, 4 + length);
+
+		position = next;
+		body = (int) (next - regionStart) + 4;
+		next = next + 4 + length;
+		return true;
+	}
+
+	/**
+	 * @return the file position of the current record.
+	 */
+	public long position() {
+		return position;
+	}
+
+	private void map(long start, int length) throws PepException, IOException {
+		if (region != null && start >= regionStart && start + length <= regionStart + region.limit()) {
+			return;
+		}
+
+		long size = Math.min(file.regionSize, file.size - start);
+		if (length > size) {
+			throw new PepException(String.format("Record at %d of %d bytes is larger than the region size", start, length));
+		}
+
+		region = file.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+		regionStart = start;
+	}
+
+	public boolean getBoolean(int component) {
+		return getLong(component) != 0;
+	}
+
+	public int getInt(int component) {
+		return (int) getLong(component);
+	}
+
+	public long getLong(int component) {
+		int offset = body + layout.offsets[component];
+
+		switch (layout.slots[component]) {
+		case BOOLEAN:
+		case BYTE:
+			return region.get(offset);
+		case CHAR:
+			return region.getChar(offset);
+		case SHORT:
+			return region.getShort(offset);
+		case INT:
+			return region.getInt(offset);
+		case LONG:
+			return region.getLong(offset);
+		default:
+			throw new IllegalArgumentException(String.format("Component %s is not integral", layout.fields[component].name()));
+		}
+	}
+
+	public float getFloat(int component) {
+		return (float) getDouble(component);
+	}
+
+	public double getDouble(int component) {
+		int offset = body + layout.offsets[component];
+
+		switch (layout.slots[component]) {
+		case FLOAT:
+			return region.getFloat(offset);
+		case DOUBLE:
+			return region.getDouble(offset);
+		default:
+			throw new IllegalArgumentException(String.format("Component %s is not floating point", layout.fields[component].name()));
+		}
+	}
+
+	/**
+	 * Decodes the component value. Atoms are converted to the component type.
+	 */
+	public Object getObject(int component) throws PepException {
+		Slot slot = layout.slots[component];
+
+		try {
+			if (slot == Slot.REFERENCE) {
+				int valueOffset = region.getInt(body + layout.offsets[component]);
+				if (valueOffset < 0) {
+					return null;
+				}
+
+				ByteBuffer buffer = region.duplicate().position(body + valueOffset);
+				return file.binaryMapper.toObject(layout.fields[component].type(), buffer);
+			}
+
+			Object value;
+			switch (slot) {
+			case BOOLEAN:
+				value = getBoolean(component);
+				break;
+			case BYTE:
+				value = (byte) getLong(component);
+				break;
+			case CHAR:
+				value = (char) getLong(component);
+				break;
+			case SHORT:
+				value = (short) getLong(component);
+				break;
+			case INT:
+				value = getInt(component);
+				break;
+			case LONG:
+				value = getLong(component);
+				break;
+			case FLOAT:
+				value = getFloat(component);
+				break;
+			default:
+				value = getDouble(component);
+				break;
+			}
+			return layout.toComponent[component].invokeExact(value);
+		} catch (PepException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new PepException(
+					String.format("Failed to read %s. Could not read field %s", layout.dataClass.typeClass(), layout.fields[component].name()), t);
+		}
+	}
+
+	/**
+	 * Decodes every component and creates the object using the descriptor constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	public T materialize() throws PepException {
+		Object[] values = new Object[layout.fields.length];
+		for (int x = 0; x < values.length; x++) {
+			values[x] = getObject(x);
+		}
+
+		try {
+			Object data = layout.constructor.invokeExact(values);
+			return (T) layout.toObject.invokeExact(data);
+		} catch (Throwable t) {
+			throw new PepException(String.format("Failed to materialize %s.", layout.dataClass.typeClass()), t);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepException;
+
+/**
+ *
+ * Writes objects of a single data class as records that can be read lazily with PepRecordFile. Each record is
+ * an int body length followed by the body described by PepRecordLayout. Records are buffered and written to
+ * the file in blocks.
+ *
+ */
+public class PepRecordWriter<T> implements Closeable {
+
+	// Records are flushed once the buffer has this much free space or less.
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	private final PepRecordLayout layout;
+
+	private final PepBinaryMapper binaryMapper;
+
+	private final FileChannel channel;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE * 2);
+
+	public PepRecordWriter(PepContext context, Class<T> clss, Path path) throws PepException, IOException {
+		Objects.requireNonNull(clss);
+		Objects.requireNonNull(path);
+
+		this.layout = new PepRecordLayout(context.getDescriptor(clss));
+		this.binaryMapper = new PepBinaryMapper(context);
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		buffer.putInt(PepRecordFile.MAGIC);
+		buffer.putInt(PepRecordFile.VERSION);
+	}
+
+	public void write(T object) throws PepException, IOException {
+		Objects.requireNonNull(object);
+
+		try {
+			encode(object);
+		} catch (BufferOverflowException e) {
+			flush();
+
+			// Grow the buffer until the record fits.
+			while (true) {
+				try {
+					encode(object);
+					break;
+				} catch (BufferOverflowException e2) {
+					buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+				}
+			}
+		}
+
+		if (buffer.remaining() <= BLOCK_SIZE) {
+			flush();
+		}
+	}
+
+	private void encode(Object object) throws PepException {
+		int start = buffer.position();
+		try {
+			encode(object, start);
+		} catch (Throwable t) {
+			// Discard the partial record so a failed write leaves the buffer as it was.
+			buffer.position(start);
+			throw t;
+		}
+	}
+
+	private void encode(Object object, int start) throws PepException {
+		int body = start + 4;
+		if (buffer.limit() - body < layout.fixedSize) {
+			throw new BufferOverflowException();
+		}
+		buffer.position(body + layout.fixedSize);
+
+		int fieldIndex = 0;
+		try {
+			Object data = layout.toData.invokeExact(object);
+
+			for (fieldIndex = 0; fieldIndex < layout.fields.length; fieldIndex++) {
+				int offset = body + layout.offsets[fieldIndex];
+
+				switch (layout.slots[fieldIndex]) {
+				case BOOLEAN:
+					buffer.put(offset, (boolean) layout.getters[fieldIndex].invokeExact(data) ? (byte) 1 : (byte) 0);
+					break;
+				case BYTE:
+					buffer.put(offset, (byte) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case CHAR:
+					buffer.putChar(offset, (char) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case SHORT:
+					buffer.putShort(offset, (short) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case INT:
+					buffer.putInt(offset, (int) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case LONG:
+					buffer.putLong(offset, (long) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case FLOAT:
+					buffer.putFloat(offset, (float) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case DOUBLE:
+					buffer.putDouble(offset, (double) layout.getters[fieldIndex].invokeExact(data));
+					break;
+				case REFERENCE:
+					Object value = layout.getters[fieldIndex].invokeExact(data);
+					if (value == null) {
+						buffer.putInt(offset, -1);
+					} else {
+						buffer.putInt(offset, buffer.position() - body);
+						binaryMapper.toBuffer(layout.fields[fieldIndex].type(), value, buffer);
+					}
+					break;
+				}
+			}
+		} catch (BufferOverflowException e) {
+			throw e;
+		} catch (Throwable t) {
+			if (fieldIndex < layout.fields.length) {
+				throw new PepException(String.format("Failed to write %s. Could not write field %s", layout.dataClass.typeClass(),
+						layout.fields[fieldIndex].name()), t);
+			}
+			throw new PepException(String.format("Failed to write %s.", layout.dataClass.typeClass()), t);
+		}
+
+		buffer.putInt(start, buffer.position() - body);
+	}
+
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.util.Objects;
+
+/**
+ * 
+ * Converts a single class to and from an Object[] using functions compiled by a PepArrayMapper. Created with
+ * PepArrayMapper.forClass, which generates a small subclass holding the functions in static final
+ * MethodHandle fields. The JIT treats these as constants, so when the mapper is held in a static final field
+ * each call is inlined without a class lookup or type adaptation. Each call to forClass generates a new
+ * class, so create the mapper once and keep it.
+ *
+ */
+public abstract class PepTypedArrayMapper<T> {
+
+	private final Class<T> typeClass;
+
+	PepTypedArrayMapper(Class<T> typeClass) {
+		this.typeClass = typeClass;
+	}
+
+	public Class<T> typeClass() {
+		return typeClass;
+	}
+
+	/**
+	 * @param object instance of the class to project.
+	 * @return values from the object.
+	 * @throws Throwable any failure from the project function.
+	 */
+	public final Object[] toArray(T object) throws Throwable {
+		Objects.requireNonNull(object);
+
+		return project(object);
+	}
+
+	/**
+	 * @param values object values to embed into the class.
+	 * @return recreated object.
+	 * @throws Throwable any failure from the embed function.
+	 */
+	@SuppressWarnings("unchecked")
+	public final T toObject(Object[] values) throws Throwable {
+		Objects.requireNonNull(values);
+
+		return (T) embed(values);
+	}
+
+	// Implemented by the generated class as a single invokeExact of its static final handle.
+	abstract Object[] project(Object object) throws Throwable;
+
+	abstract Object embed(Object[] values) throws Throwable;
+}
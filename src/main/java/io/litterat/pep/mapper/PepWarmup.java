@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.mapper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import io.litterat.pep.PepContext;
+import io.litterat.pep.PepDataClass;
+import io.litterat.pep.PepDataComponent;
+import io.litterat.pep.PepException;
+import io.litterat.pep.describe.ClassScanner;
+
+/**
+ * 
+ * Resolves a set of classes at startup so the first request using a class does not pay for resolution and
+ * compilation. Classes are resolved in parallel, the functions of an optional PepArrayMapper are compiled and
+ * each class can be converted a number of times so the JIT has compiled the conversion before it is used.
+ * 
+ * Warm-up uses a sample object created through the descriptor with zero values for primitives, empty
+ * strings and sample objects for nested data classes. Other components are null.
+ * 
+ * The report gives the time spent on each step for each class. A class that fails does not stop the others
+ * and is reported with the cause.
+ *
+ */
+public class PepWarmup {
+
+	// Nested data classes deeper than this are left null in sample objects.
+	private static final int SAMPLE_DEPTH = 4;
+
+	private final PepContext context;
+
+	private final List<Class<?>> classes;
+
+	private final PepArrayMapper arrayMapper;
+
+	private final int iterations;
+
+	private final int parallelism;
+
+	public static class Builder {
+
+		private final PepContext context;
+
+		private final Set<Class<?>> classes = new LinkedHashSet<>();
+
+		private final List<String> packages = new ArrayList<>();
+
+		private ClassLoader loader;
+
+		private PepArrayMapper arrayMapper;
+
+		private int iterations;
+
+		private int parallelism = Runtime.getRuntime().availableProcessors();
+
+		private Builder(PepContext context) {
+			this.context = context;
+		}
+
+		public Builder classes(Class<?>... classes) {
+			return classes(Arrays.asList(classes));
+		}
+
+		public Builder classes(Collection<Class<?>> classes) {
+			this.classes.addAll(classes);
+			return this;
+		}
+
+		/**
+		 * Include all classes with a @Data annotation in the package and its sub packages.
+		 */
+		public Builder scanPackage(String packageName) {
+			packages.add(packageName);
+			return this;
+		}
+
+		/**
+		 * Class loader used to scan packages. Defaults to the context class loader.
+		 */
+		public Builder classLoader(ClassLoader loader) {
+			this.loader = loader;
+			return this;
+		}
+
+		/**
+		 * Compile the functions of the array mapper for each class.
+		 */
+		public Builder arrayMapper(PepArrayMapper arrayMapper) {
+			this.arrayMapper = arrayMapper;
+			return this;
+		}
+
+		/**
+		 * Number of times a sample object of each class is projected and embedded with the array mapper.
+		 */
+		public Builder iterations(int iterations) {
+			if (iterations < 0) {
+				throw new IllegalArgumentException("iterations must not be negative");
+			}
+			this.iterations = iterations;
+			return this;
+		}
+
+		public Builder parallelism(int parallelism) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException("parallelism must be at least 1");
+			}
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		public PepWarmup build() throws PepException {
+			ClassLoader scanLoader = loader != null ? loader : Thread.currentThread().getContextClassLoader();
+			for (String packageName : packages) {
+				classes.addAll(ClassScanner.findDataClasses(scanLoader, packageName));
+			}
+
+			if (iterations > 0 && arrayMapper == null) {
+				throw new IllegalStateException("Warm-up iterations require an array mapper");
+			}
+
+			return new PepWarmup(this);
+		}
+	}
+
+	public static Builder builder(PepContext context) {
+		return new Builder(context);
+	}
+
+	/**
+	 * Time spent on a single class.
+	 */
+	public static class ClassReport {
+
+		private final Class<?> typeClass;
+		private final long resolveNanos;
+		private final long compileNanos;
+		private final long warmupNanos;
+		private final Throwable failure;
+
+		ClassReport(Class<?> typeClass, long resolveNanos, long compileNanos, long warmupNanos, Throwable failure) {
+			this.typeClass = typeClass;
+			this.resolveNanos = resolveNanos;
+			this.compileNanos = compileNanos;
+			this.warmupNanos = warmupNanos;
+			this.failure = failure;
+		}
+
+		public Class<?> typeClass() {
+			return typeClass;
+		}
+
+		/**
+		 * @return time to resolve the descriptor. Near zero if already resolved as part of another class.
+		 */
+		public long resolveNanos() {
+			return resolveNanos;
+		}
+
+		public long compileNanos() {
+			return compileNanos;
+		}
+
+		public long warmupNanos() {
+			return warmupNanos;
+		}
+
+		/**
+		 * @return the failure or null if the class was resolved and warmed up.
+		 */
+		public Throwable failure() {
+			return failure;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s resolve %dus compile %dus warmup %dus%s", typeClass.getName(), resolveNanos / 1000, compileNanos / 1000,
+					warmupNanos / 1000, failure == null ? "" : " failed: " + failure);
+		}
+	}
+
+	public static class Report {
+
+		private final List<ClassReport> classes;
+
+		private final long elapsedNanos;
+
+		Report(List<ClassReport> classes, long elapsedNanos) {
+			this.classes = Collections.unmodifiableList(classes);
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return a report for each class in the order the classes were added.
+		 */
+		public List<ClassReport> classes() {
+			return classes;
+		}
+
+		public ClassReport get(Class<?> clss) {
+			for (ClassReport report : classes) {
+				if (report.typeClass() == clss) {
+					return report;
+				}
+			}
+			return null;
+		}
+
+		public List<ClassReport> failures() {
+			List<ClassReport> failures = new ArrayList<>();
+			for (ClassReport report : classes) {
+				if (report.failure() != null) {
+					failures.add(report);
+				}
+			}
+			return failures;
+		}
+
+		/**
+		 * @return wall clock time of the whole warm-up.
+		 */
+		public long elapsedNanos() {
+			return elapsedNanos;
+		}
+	}
+
+	private PepWarmup(Builder builder) {
+		this.context = builder.context;
+		this.classes = new ArrayList<>(builder.classes);
+		this.arrayMapper = builder.arrayMapper;
+		this.iterations = builder.iterations;
+		this.parallelism = builder.parallelism;
+	}
+
+	public List<Class<?>> classes() {
+		return Collections.unmodifiableList(classes);
+	}
+
+	public Report run() throws InterruptedException {
+		long start = System.nanoTime();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Future<ClassReport>> futures = new ArrayList<>(classes.size());
+			for (Class<?> clss : classes) {
+				futures.add(pool.submit(() -> warmup(clss)));
+			}
+
+			List<ClassReport> reports = new ArrayList<>(classes.size());
+			for (Future<ClassReport> future : futures) {
+				try {
+					reports.add(future.get());
+				} catch (ExecutionException e) {
+					// warmup catches failures of each class.
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return new Report(reports, System.nanoTime() - start);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private ClassReport warmup(Class<?> clss) {
+		long resolveNanos = 0;
+		long compileNanos = 0;
+		long warmupNanos = 0;
+
+		try {
+			long start = System.nanoTime();
+			PepDataClass dataClass = context.getDescriptor(clss);
+			resolveNanos = System.nanoTime() - start;
+
+			if (arrayMapper != null) {
+				start = System.nanoTime();
+				arrayMapper.compile(clss);
+				compileNanos = System.nanoTime() - start;
+			}
+
+			if (iterations > 0 && dataClass.isData()) {
+				start = System.nanoTime();
+				Object sample = sample(dataClass, 0);
+				for (int x = 0; x < iterations; x++) {
+					arrayMapper.toObject(clss, arrayMapper.toArray(sample));
+				}
+				warmupNanos = System.nanoTime() - start;
+			}
+		} catch (Throwable t) {
+			return new ClassReport(clss, resolveNanos, compileNanos, warmupNanos, t);
+		}
+
+		return new ClassReport(clss, resolveNanos, compileNanos, warmupNanos, null);
+	}
+
+	private Object sample(PepDataClass dataClass, int depth) throws Throwable {
+		PepDataComponent[] fields = dataClass.dataComponents();
+
+		Object[] values = new Object[fields.length];
+		for (int x = 0; x < fields.length; x++) {
+			values[x] = sampleValue(fields[x], depth);
+		}
+
+		Object data = dataClass.constructor().invoke(values);
+		return dataClass.toObject().invoke(data);
+	}
+
+	private Object sampleValue(PepDataComponent field, int depth) throws Throwable {
+		Class<?> type = field.type();
+
+		// zero for primitives and their wrappers.
+		Class<?> primitive = MethodType.methodType(type).unwrap().returnType();
+		if (primitive.isPrimitive() && primitive != void.class) {
+			return MethodHandles.zero(primitive).invoke();
+		} else if (type == String.class) {
+			return "";
+		} else if (field.dataClass().isData() && depth < SAMPLE_DEPTH) {
+			return sample(field.dataClass(), depth + 1);
+		}
+		return null;
+	}
+}
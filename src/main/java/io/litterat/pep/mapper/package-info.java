@@ -21,7 +21,17 @@ package io.litterat.pep.mapper;
  * @formatter:off
  * 
  * PepArrayMapper - converts to and from an Object[] 
+ * PepTypedArrayMapper - converts a single class to and from an Object[] with functions taken from a PepArrayMapper
  * PepMapMapper - converts to and from a Map<String,Object>
+ * PepPrimitiveMapper - converts to and from a PepPrimitiveRecord with typed slots and no boxing
+ * PepBinaryMapper - converts to and from a compact binary encoding in a ByteBuffer
+ * PepEventWriter - walks an object pushing events to a PepEventSink
+ * PepEventReader - builds an object pulling events from a PepEventSource
+ * PepRecordWriter/PepRecordFile - writes records to a file and reads them as lazy views over a mapped file
+ * PepColumnMapper - pivots a collection of objects to and from PepColumns with a column per component
+ * PepBatch - settings for converting batches in parallel with the PepArrayMapper and PepMapMapper
+ * PepWarmup - resolves, compiles and warms up classes at startup with a report of the time per class
+ * PepDiffMapper - creates a PepDelta of the components changed between two instances and applies it
  * 
  * @formatter:on
  */
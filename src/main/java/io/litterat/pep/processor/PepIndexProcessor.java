@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.ExpressionStatementTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.Trees;
+
+import io.litterat.pep.Atom;
+import io.litterat.pep.Data;
+import io.litterat.pep.Field;
+import io.litterat.pep.ToData;
+import io.litterat.pep.describe.ComponentIndex;
+
+/**
+ * 
+ * Annotation processor that writes a ComponentIndex for each @Data class and each data class exported through
+ * ToData. The source of the constructor and accessors is matched the same way ImmutableFinder matches the byte
+ * code, and setters the same way as GetSetFinder. A class is only indexed if all of its components are found,
+ * otherwise it is left for the runtime analysis.
+ *
+ */
+@SupportedAnnotationTypes("*")
+public class PepIndexProcessor extends AbstractProcessor {
+
+	// Classes already indexed in this compilation.
+	private final Set<String> indexed = new HashSet<>();
+
+	// Source trees are only available when running in javac.
+	private Trees trees;
+
+	private static class Component {
+		String name;
+		int argument;
+		String readMethod;
+		String writeMethod;
+
+		Component(String name, int argument) {
+			this.name = name;
+			this.argument = argument;
+		}
+	}
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+
+		try {
+			trees = Trees.instance(processingEnv);
+		} catch (IllegalArgumentException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Pep component index not generated. Compiler does not provide source trees.");
+		}
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (trees == null) {
+			return false;
+		}
+
+		// @Data can be on the class, a constructor or a static constructor method.
+		for (Element element : roundEnv.getElementsAnnotatedWith(Data.class)) {
+			Element type = element.getKind() == ElementKind.CLASS ? element : element.getEnclosingElement();
+			if (type.getKind() == ElementKind.CLASS && !isToData((TypeElement) type)) {
+				indexClass((TypeElement) type);
+			}
+		}
+
+		// ToData classes export a data class which may not be annotated.
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			indexToData(type);
+		}
+
+		// Other processors may also use these annotations.
+		return false;
+	}
+
+	private void indexToData(TypeElement type) {
+		TypeElement toData = processingEnv.getElementUtils().getTypeElement(ToData.class.getCanonicalName());
+
+		for (TypeMirror genericInterface : type.getInterfaces()) {
+			DeclaredType declared = (DeclaredType) genericInterface;
+			if (declared.asElement().equals(toData) && declared.getTypeArguments().size() == 1) {
+				TypeMirror dataType = declared.getTypeArguments().get(0);
+				if (dataType instanceof DeclaredType) {
+					TypeElement dataElement = (TypeElement) ((DeclaredType) dataType).asElement();
+					if (dataElement.getKind() == ElementKind.CLASS && !isToData(dataElement)) {
+						indexClass(dataElement);
+					}
+				}
+			}
+		}
+
+		for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+			indexToData(nested);
+		}
+	}
+
+	private boolean isToData(TypeElement type) {
+		TypeMirror toData = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(ToData.class.getCanonicalName()).asType());
+		return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()), toData);
+	}
+
+	private void indexClass(TypeElement type) {
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		if (!indexed.add(binaryName) || isAtom(type)) {
+			return;
+		}
+
+		ExecutableElement constructor = findConstructor(type);
+		if (constructor == null) {
+			return;
+		}
+
+		List<Component> components = findImmutableComponents(type, constructor);
+		if (components == null) {
+			return;
+		}
+		components.addAll(findGetSetComponents(type));
+
+		String descriptor = constructorDescriptor(constructor);
+		if (descriptor == null) {
+			return;
+		}
+
+		StringBuilder index = new StringBuilder();
+		index.append(ComponentIndex.VERSION).append('\n');
+		index.append(ComponentIndex.CONSTRUCTOR).append(ComponentIndex.SEPARATOR).append(descriptor).append('\n');
+		for (Component component : components) {
+			if (component.name.contains(ComponentIndex.SEPARATOR) || component.name.contains("\n")) {
+				return;
+			}
+
+			index.append(ComponentIndex.COMPONENT);
+			index.append(ComponentIndex.SEPARATOR).append(component.name);
+			index.append(ComponentIndex.SEPARATOR).append(component.argument);
+			index.append(ComponentIndex.SEPARATOR).append(component.readMethod);
+			index.append(ComponentIndex.SEPARATOR).append(component.writeMethod == null ? ComponentIndex.NONE : component.writeMethod);
+			index.append('\n');
+		}
+
+		try {
+			FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					ComponentIndex.indexName(binaryName), type);
+			try (Writer writer = resource.openWriter()) {
+				writer.write(index.toString());
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Failed to write Pep component index: " + e.getMessage(), type);
+		}
+	}
+
+	private boolean isAtom(TypeElement type) {
+		if (type.getAnnotation(Atom.class) != null) {
+			return true;
+		}
+
+		for (Element element : type.getEnclosedElements()) {
+			if (element.getAnnotation(Atom.class) != null && element.getKind() == ElementKind.CONSTRUCTOR) {
+				return true;
+			}
+			if (element.getAnnotation(Atom.class) != null && element.getModifiers().contains(Modifier.STATIC)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Selects the constructor the same way as DefaultResolver.
+	 */
+	private ExecutableElement findConstructor(TypeElement type) {
+		List<ExecutableElement> constructors = new ArrayList<>();
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+				constructors.add(constructor);
+			}
+		}
+
+		// only one constructor. this must be it.
+		if (constructors.size() == 1) {
+			return constructors.get(0);
+		}
+
+		// Does it have an annotation?
+		for (ExecutableElement constructor : constructors) {
+			if (constructor.getAnnotation(Data.class) != null) {
+				return constructor;
+			}
+		}
+
+		// look for a static constructor with a matching constructor.
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if (method.getModifiers().contains(Modifier.STATIC) && method.getAnnotation(Data.class) != null) {
+				for (ExecutableElement constructor : constructors) {
+					if (sameParameters(constructor, method)) {
+						return constructor;
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private boolean sameParameters(ExecutableElement a, ExecutableElement b) {
+		if (a.getParameters().size() != b.getParameters().size()) {
+			return false;
+		}
+		for (int x = 0; x < a.getParameters().size(); x++) {
+			TypeMirror aType = processingEnv.getTypeUtils().erasure(a.getParameters().get(x).asType());
+			TypeMirror bType = processingEnv.getTypeUtils().erasure(b.getParameters().get(x).asType());
+			if (!processingEnv.getTypeUtils().isSameType(aType, bType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Matches constructor arguments assigned directly to fields with accessors that directly return the field.
+	 * Returns null if not all components could be matched.
+	 */
+	private List<Component> findImmutableComponents(TypeElement type, ExecutableElement constructor) {
+		List<Component> components = new ArrayList<>();
+
+		Set<String> fields = new HashSet<>();
+		for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if (!field.getModifiers().contains(Modifier.STATIC)) {
+				fields.add(field.getSimpleName().toString());
+			}
+		}
+
+		List<String> params = new ArrayList<>();
+		for (VariableElement param : constructor.getParameters()) {
+			params.add(param.getSimpleName().toString());
+		}
+
+		// Find constructor statements of the form this.field = arg;
+		if (!params.isEmpty()) {
+			MethodTree constructorTree = trees.getTree(constructor);
+			if (constructorTree == null || constructorTree.getBody() == null) {
+				return null;
+			}
+
+			for (StatementTree statement : constructorTree.getBody().getStatements()) {
+				if (statement.getKind() != Tree.Kind.EXPRESSION_STATEMENT) {
+					continue;
+				}
+
+				ExpressionTree expression = ((ExpressionStatementTree) statement).getExpression();
+				if (expression.getKind() != Tree.Kind.ASSIGNMENT) {
+					continue;
+				}
+
+				AssignmentTree assignment = (AssignmentTree) expression;
+				String field = fieldName(assignment.getVariable(), fields, params);
+				ExpressionTree value = unwrap(assignment.getExpression());
+				if (field != null && value.getKind() == Tree.Kind.IDENTIFIER) {
+					int arg = params.indexOf(((IdentifierTree) value).getName().toString());
+					if (arg >= 0) {
+						components.add(new Component(field, arg));
+					}
+				}
+			}
+		}
+
+		// @Field on constructor parameters renames or adds components.
+		for (int x = 0; x < params.size(); x++) {
+			Field field = constructor.getParameters().get(x).getAnnotation(Field.class);
+			if (field != null) {
+				Component component = findArgument(components, x);
+				if (component != null) {
+					component.name = field.name();
+				} else {
+					components.add(new Component(field.name(), x));
+				}
+			}
+		}
+
+		List<ExecutableElement> accessors = new ArrayList<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if (method.getParameters().isEmpty() && !method.getModifiers().contains(Modifier.STATIC)) {
+				accessors.add(method);
+			}
+		}
+
+		// Find accessors of the form return this.field;
+		for (ExecutableElement method : accessors) {
+			MethodTree methodTree = trees.getTree(method);
+			if (methodTree == null || methodTree.getBody() == null || methodTree.getBody().getStatements().size() != 1) {
+				continue;
+			}
+
+			StatementTree statement = methodTree.getBody().getStatements().get(0);
+			if (statement.getKind() == Tree.Kind.RETURN && ((ReturnTree) statement).getExpression() != null) {
+				String field = fieldName(unwrap(((ReturnTree) statement).getExpression()), fields, params);
+				Component component = findName(components, field);
+				if (component != null) {
+					component.readMethod = method.getSimpleName().toString();
+				}
+			}
+		}
+
+		// Fallback on @Field annotation or method name.
+		for (ExecutableElement method : accessors) {
+			Field field = method.getAnnotation(Field.class);
+			if (field != null) {
+				Component component = findName(components, field.name());
+				if (component != null && component.readMethod == null) {
+					component.readMethod = method.getSimpleName().toString();
+					continue;
+				}
+			}
+
+			Component component = findName(components, method.getSimpleName().toString());
+			if (component != null && component.readMethod == null) {
+				component.readMethod = method.getSimpleName().toString();
+			}
+		}
+
+		if (components.size() != params.size()) {
+			return null;
+		}
+		for (Component component : components) {
+			if (component.readMethod == null) {
+				return null;
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Matches setX methods with a getX accessor, sorted by name.
+	 */
+	private List<Component> findGetSetComponents(TypeElement type) {
+		List<Component> components = new ArrayList<>();
+
+		List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			if (name.startsWith("set") && name.length() > 3) {
+				String getterName = "g" + name.substring(1);
+
+				for (ExecutableElement getter : methods) {
+					if (getter.getSimpleName().contentEquals(getterName) && getter.getParameters().isEmpty()) {
+						Component component = new Component(Character.toLowerCase(getterName.charAt(3)) + getterName.substring(4), -1);
+						component.readMethod = getterName;
+						component.writeMethod = name;
+						components.add(component);
+						break;
+					}
+				}
+			}
+		}
+
+		components.sort(Comparator.comparing(c -> c.name));
+		return components;
+	}
+
+	/**
+	 * Returns the field name for this.field or field if not hidden by a parameter.
+	 */
+	private String fieldName(ExpressionTree tree, Set<String> fields, List<String> params) {
+		if (tree.getKind() == Tree.Kind.MEMBER_SELECT) {
+			MemberSelectTree select = (MemberSelectTree) tree;
+			if (select.getExpression().getKind() == Tree.Kind.IDENTIFIER && ((IdentifierTree) select.getExpression()).getName().contentEquals("this")) {
+				return select.getIdentifier().toString();
+			}
+		} else if (tree.getKind() == Tree.Kind.IDENTIFIER) {
+			String name = ((IdentifierTree) tree).getName().toString();
+			if (fields.contains(name) && !params.contains(name)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	private ExpressionTree unwrap(ExpressionTree tree) {
+		while (tree.getKind() == Tree.Kind.PARENTHESIZED) {
+			tree = ((ParenthesizedTree) tree).getExpression();
+		}
+		return tree;
+	}
+
+	private Component findArgument(List<Component> components, int argument) {
+		for (Component component : components) {
+			if (component.argument == argument) {
+				return component;
+			}
+		}
+		return null;
+	}
+
+	private Component findName(List<Component> components, String name) {
+		for (Component component : components) {
+			if (component.name.equals(name)) {
+				return component;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the JVM descriptor of the constructor to match against the runtime Constructor.
+	 */
+	private String constructorDescriptor(ExecutableElement constructor) {
+		StringBuilder descriptor = new StringBuilder("(");
+		for (VariableElement param : constructor.getParameters()) {
+			if (!appendDescriptor(descriptor, processingEnv.getTypeUtils().erasure(param.asType()))) {
+				return null;
+			}
+		}
+		return descriptor.append(")V").toString();
+	}
+
+	private boolean appendDescriptor(StringBuilder descriptor, TypeMirror type) {
+		switch (type.getKind()) {
+		case BOOLEAN:
+			descriptor.append('Z');
+			return true;
+		case BYTE:
+			descriptor.append('B');
+			return true;
+		case CHAR:
+			descriptor.append('C');
+			return true;
+		case SHORT:
+			descriptor.append('S');
+			return true;
+		case INT:
+			descriptor.append('I');
+			return true;
+		case LONG:
+			descriptor.append('J');
+			return true;
+		case FLOAT:
+			descriptor.append('F');
+			return true;
+		case DOUBLE:
+			descriptor.append('D');
+			return true;
+		case ARRAY:
+			descriptor.append('[');
+			return appendDescriptor(descriptor, ((ArrayType) type).getComponentType());
+		case DECLARED:
+			TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+			descriptor.append('L').append(processingEnv.getElementUtils().getBinaryName(element).toString().replace('.', '/')).append(';');
+			return true;
+		default:
+			return false;
+		}
+	}
+}
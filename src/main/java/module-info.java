@@ -18,4 +18,10 @@ module io.litterat.pep {
 
 	requires org.objectweb.asm;
 	requires org.objectweb.asm.tree;
+
+	// Only required when running the annotation processor in javac.
+	requires static java.compiler;
+	requires static jdk.compiler;
+
+	provides javax.annotation.processing.Processor with io.litterat.pep.processor.PepIndexProcessor;
 }
\ No newline at end of file
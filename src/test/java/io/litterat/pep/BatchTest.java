@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepBatch;
+import io.litterat.pep.mapper.PepBatchException;
+import io.litterat.pep.mapper.PepMapMapper;
+
+public class BatchTest {
+
+	final static int SIZE = 10_000;
+
+	PepContext context;
+
+	PepBatch batch;
+
+	List<SimpleImmutable> test;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		batch = PepBatch.builder().parallelism(4).granularity(100).build();
+
+		test = new ArrayList<>(SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			test.add(new SimpleImmutable(x, -x));
+		}
+	}
+
+	@AfterEach
+	public void close() {
+		batch.close();
+	}
+
+	@Test
+	public void testArrayMapper() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		List<Object[]> values = arrayMapper.toArrays(test, batch);
+		Assertions.assertEquals(SIZE, values.size());
+		for (int x = 0; x < SIZE; x++) {
+			Assertions.assertEquals(x, values.get(x)[0]);
+		}
+
+		List<SimpleImmutable> objects = arrayMapper.toObjects(SimpleImmutable.class, values, batch);
+		Assertions.assertEquals(SIZE, objects.size());
+		for (int x = 0; x < SIZE; x++) {
+			Assertions.assertEquals(x, objects.get(x).x());
+			Assertions.assertEquals(-x, objects.get(x).y());
+		}
+	}
+
+	@Test
+	public void testMapMapper() throws Throwable {
+		PepMapMapper mapMapper = new PepMapMapper(context);
+
+		List<Map<String, Object>> maps = mapMapper.toMaps(test, batch);
+		Assertions.assertEquals(SIZE - 1, maps.get(SIZE - 1).get("x"));
+
+		List<SimpleImmutable> objects = mapMapper.toObjects(SimpleImmutable.class, maps, batch);
+		for (int x = 0; x < SIZE; x++) {
+			Assertions.assertEquals(x, objects.get(x).x());
+		}
+	}
+
+	@Test
+	public void testUnsizedSource() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		// filter removes the sized characteristic of the stream.
+		List<Object[]> values = arrayMapper.toArrays(IntStream.range(0, SIZE).filter(x -> x % 2 == 0).mapToObj(test::get).spliterator(),
+				batch);
+		Assertions.assertEquals(SIZE / 2, values.size());
+		for (int x = 0; x < values.size(); x++) {
+			Assertions.assertEquals(x * 2, values.get(x)[0]);
+		}
+	}
+
+	@Test
+	public void testFailures() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		Object[][] values = arrayMapper.toArrays(test, batch).toArray(new Object[0][]);
+		values[503] = new Object[] { "bad", 1 };
+		values[17] = new Object[] { 1, "bad" };
+
+		PepBatchException e = Assertions.assertThrows(PepBatchException.class,
+				() -> arrayMapper.toObjects(SimpleImmutable.class, values, batch));
+		Assertions.assertEquals(2, e.failures().size());
+		Assertions.assertEquals(17, e.failures().get(0).index());
+		Assertions.assertEquals(503, e.failures().get(1).index());
+		Assertions.assertTrue(e.getCause() instanceof ClassCastException);
+	}
+
+	@Test
+	public void testEmpty() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		Assertions.assertTrue(arrayMapper.toArrays(Collections.emptyList(), PepBatch.commonPool()).isEmpty());
+	}
+}
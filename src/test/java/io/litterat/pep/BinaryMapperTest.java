@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.AstNode;
+import io.litterat.pep.data.Department;
+import io.litterat.pep.data.Employee;
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.PrimitiveArrays;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.data.SimpleUUIDImmutable;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.data.WideImmutable;
+import io.litterat.pep.mapper.PepBinaryMapper;
+
+public class BinaryMapperTest {
+
+	PepContext context;
+
+	PepBinaryMapper binaryMapper;
+
+	ByteBuffer buffer;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		binaryMapper = new PepBinaryMapper(context);
+		buffer = ByteBuffer.allocate(4096);
+	}
+
+	private <T> T roundTrip(Class<T> clss, T test) throws Throwable {
+		buffer.clear();
+		binaryMapper.toBuffer(test, buffer);
+		buffer.flip();
+
+		T object = binaryMapper.toObject(clss, buffer);
+		Assertions.assertFalse(buffer.hasRemaining());
+		return object;
+	}
+
+	@Test
+	public void testSimpleImmutable() throws Throwable {
+		SimpleImmutable object = roundTrip(SimpleImmutable.class, new SimpleImmutable(1, -2));
+
+		// small values are encoded as a single byte varint.
+		Assertions.assertEquals(2, buffer.limit());
+		Assertions.assertEquals(1, object.x());
+		Assertions.assertEquals(-2, object.y());
+	}
+
+	@Test
+	public void testWideImmutable() throws Throwable {
+		WideImmutable object = roundTrip(WideImmutable.class,
+				new WideImmutable(1, 2L, 3.0, "4", Integer.MIN_VALUE, Long.MAX_VALUE, 7.0, "é中", 9, 10L, 11.0, null));
+
+		Assertions.assertEquals(1, object.a());
+		Assertions.assertEquals(Integer.MIN_VALUE, object.e());
+		Assertions.assertEquals(Long.MAX_VALUE, object.f());
+		Assertions.assertEquals("é中", object.h());
+		Assertions.assertEquals(11.0, object.k());
+		Assertions.assertNull(object.l());
+	}
+
+	@Test
+	public void testPrimitiveTelemetry() throws Throwable {
+		PrimitiveTelemetry object = roundTrip(PrimitiveTelemetry.class, new PrimitiveTelemetry(true, Byte.MIN_VALUE, '￿', Short.MIN_VALUE,
+				Integer.MAX_VALUE, Long.MIN_VALUE, Float.NaN, Double.NEGATIVE_INFINITY, "sensor"));
+
+		Assertions.assertTrue(object.active());
+		Assertions.assertEquals(Byte.MIN_VALUE, object.level());
+		Assertions.assertEquals('￿', object.code());
+		Assertions.assertEquals(Short.MIN_VALUE, object.channel());
+		Assertions.assertEquals(Integer.MAX_VALUE, object.count());
+		Assertions.assertEquals(Long.MIN_VALUE, object.timestamp());
+		Assertions.assertTrue(Float.isNaN(object.ratio()));
+		Assertions.assertEquals(Double.NEGATIVE_INFINITY, object.value());
+		Assertions.assertEquals("sensor", object.source());
+	}
+
+	@Test
+	public void testPrimitiveArrays() throws Throwable {
+		PrimitiveArrays test = new PrimitiveArrays(new boolean[] { true, false }, new byte[] { 1, -1 }, new char[] { 'a', '中' },
+				new short[] { -3, 300 }, new int[] { 0, -1, Integer.MAX_VALUE }, new long[] { Long.MIN_VALUE }, new float[] { 1.5f },
+				new double[] { 2.5, -0.0 }, new String[] { "a", null, "c" }, new int[][] { { 1, 2 }, null, {} });
+
+		PrimitiveArrays object = roundTrip(PrimitiveArrays.class, test);
+
+		Assertions.assertArrayEquals(test.flags(), object.flags());
+		Assertions.assertArrayEquals(test.payload(), object.payload());
+		Assertions.assertArrayEquals(test.codes(), object.codes());
+		Assertions.assertArrayEquals(test.channels(), object.channels());
+		Assertions.assertArrayEquals(test.counts(), object.counts());
+		Assertions.assertArrayEquals(test.timestamps(), object.timestamps());
+		Assertions.assertArrayEquals(test.ratios(), object.ratios());
+		Assertions.assertArrayEquals(test.values(), object.values());
+		Assertions.assertArrayEquals(test.labels(), object.labels());
+		Assertions.assertArrayEquals(test.matrix(), object.matrix());
+
+		// null arrays are encoded as a zero length.
+		PrimitiveArrays empty = roundTrip(PrimitiveArrays.class, new PrimitiveArrays(null, null, null, null, null, null, null, null, null, null));
+		Assertions.assertEquals(10, buffer.limit());
+		Assertions.assertNull(empty.counts());
+		Assertions.assertNull(empty.matrix());
+	}
+
+	@Test
+	public void testNestedImmutable() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), null, new SimpleImmutable(7, 8) };
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		NestedImmutable object = roundTrip(NestedImmutable.class, test);
+		Assertions.assertEquals(2, object.first().y());
+		Assertions.assertEquals(3, object.second().x());
+		Assertions.assertEquals(4, object.second().y());
+		Assertions.assertEquals(3, object.array().arrayImmutable().length);
+		Assertions.assertNull(object.array().arrayImmutable()[1]);
+		Assertions.assertEquals(8, object.array().arrayImmutable()[2].y());
+
+		NestedImmutable nulls = roundTrip(NestedImmutable.class, new NestedImmutable(null, new ProjectImmutable(3, 4), null));
+		Assertions.assertNull(nulls.first());
+		Assertions.assertNull(nulls.array());
+	}
+
+	@Test
+	public void testAtoms() throws Throwable {
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		ImmutableAtom atom = roundTrip(ImmutableAtom.class, new ImmutableAtom(SimpleEnum.THREE, null, true));
+		Assertions.assertEquals(SimpleEnum.THREE, atom.enumCount());
+		Assertions.assertNull(atom.str());
+		Assertions.assertTrue(atom.bool());
+
+		UUID first = UUID.randomUUID();
+		SimpleUUIDImmutable uuid = roundTrip(SimpleUUIDImmutable.class, new SimpleUUIDImmutable(first, null));
+		Assertions.assertEquals(first, uuid.first());
+		Assertions.assertNull(uuid.second());
+	}
+
+	@Test
+	public void testPojo() throws Throwable {
+		SimplePojo test = new SimplePojo();
+		test.setX(1);
+		test.setY(2);
+
+		SimplePojo object = roundTrip(SimplePojo.class, test);
+		Assertions.assertEquals(1, object.getX());
+		Assertions.assertEquals(2, object.getY());
+	}
+
+	@Test
+	public void testRecursive() throws Throwable {
+		TreeNode tree = new TreeNode(1, new TreeNode(2, null, new TreeNode(3, null, null)), new TreeNode(4, null, null));
+		TreeNode treeObject = roundTrip(TreeNode.class, tree);
+		Assertions.assertEquals(3, treeObject.left().right().value());
+		Assertions.assertEquals(4, treeObject.right().value());
+
+		Department department = new Department("research", new Employee("alice", null));
+		Department departmentObject = roundTrip(Department.class, department);
+		Assertions.assertEquals("alice", departmentObject.manager().name());
+		Assertions.assertNull(departmentObject.manager().department());
+
+		AstNode ast = new AstNode("+", new AstNode[] { new AstNode("1", null), new AstNode("*", new AstNode[] { new AstNode("2", null) }) });
+		AstNode astObject = roundTrip(AstNode.class, ast);
+		Assertions.assertEquals("2", astObject.children()[1].children()[0].op());
+	}
+
+	@Test
+	public void testDirectBuffer() throws Throwable {
+		buffer = ByteBuffer.allocateDirect(256);
+
+		WideImmutable object = roundTrip(WideImmutable.class, new WideImmutable(1, 2L, 3.0, "4", 5, 6L, 7.0, "8", 9, 10L, 11.0, "12"));
+		Assertions.assertEquals("12", object.l());
+	}
+
+	@Test
+	public void testCorruptLength() throws Throwable {
+		// a length larger than an int.
+		assertCorrupt(PrimitiveArrays.class, "flags", 0x81, 0x80, 0x80, 0x80, 0x08);
+
+		// a length that decodes above Long.MAX_VALUE.
+		assertCorrupt(PrimitiveArrays.class, "flags", 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01);
+
+		// bits beyond 64 in the last byte of the varint.
+		assertCorrupt(PrimitiveArrays.class, "flags", 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x7F);
+
+		// lengths larger than the remaining bytes are rejected before allocating.
+		assertCorrupt(PrimitiveArrays.class, "payload", 0xFF, 0xFF, 0xFF, 0x07);
+		assertCorrupt(PrimitiveArrays.class, "labels", 0xFF, 0xFF, 0xFF, 0x07);
+
+		// two doubles need 16 bytes.
+		assertCorrupt(PrimitiveArrays.class, "values", 0x03, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void testTruncatedString() throws Throwable {
+		WideImmutable object = new WideImmutable(1, 2L, 3.0, "0123456789", 5, 6L, 7.0, "8", 9, 10L, 11.0, "12");
+		binaryMapper.toBuffer(object, buffer);
+		buffer.flip();
+
+		// the string must not be decoded past the limit of an array backed buffer.
+		int start = new String(buffer.array(), 0, buffer.limit(), StandardCharsets.ISO_8859_1).indexOf("0123456789");
+		buffer.limit(start + 5);
+		Assertions.assertThrows(PepException.class, () -> binaryMapper.toObject(WideImmutable.class, buffer));
+	}
+
+	/**
+	 * Writes null for the components before the named component followed by the given bytes and checks the
+	 * read fails.
+	 */
+	private void assertCorrupt(Class<?> clss, String name, int... bytes) throws Throwable {
+		buffer.clear();
+		for (PepDataComponent component : context.getDescriptor(clss).dataComponents()) {
+			if (component.name().equals(name)) {
+				break;
+			}
+			buffer.put((byte) 0);
+		}
+		for (int b : bytes) {
+			buffer.put((byte) b);
+		}
+		buffer.flip();
+
+		Assertions.assertThrows(PepException.class, () -> binaryMapper.toObject(clss, buffer));
+	}
+
+	@Test
+	public void testMultipleObjects() throws Throwable {
+		for (int x = 0; x < 10; x++) {
+			binaryMapper.toBuffer(new SimpleImmutable(x, x * 1000), buffer);
+		}
+		buffer.flip();
+
+		for (int x = 0; x < 10; x++) {
+			SimpleImmutable object = binaryMapper.toObject(SimpleImmutable.class, buffer);
+			Assertions.assertEquals(x, object.x());
+			Assertions.assertEquals(x * 1000, object.y());
+		}
+		Assertions.assertFalse(buffer.hasRemaining());
+	}
+}
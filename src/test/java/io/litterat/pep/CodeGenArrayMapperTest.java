@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.data.SimpleUUIDImmutable;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.data.WideImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class CodeGenArrayMapperTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMap;
+
+	@BeforeEach
+	public void setup() throws PepException {
+		context = PepContext.builder().build();
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		arrayMap = new PepArrayMapper(context, true);
+	}
+
+	@Test
+	public void testSimpleImmutable() throws Throwable {
+		SimpleImmutable test = new SimpleImmutable(1, 2);
+
+		Object[] values = arrayMap.toArray(test);
+		Assertions.assertArrayEquals(new Object[] { 1, 2 }, values);
+
+		SimpleImmutable object = arrayMap.toObject(SimpleImmutable.class, values);
+		Assertions.assertEquals(1, object.x());
+		Assertions.assertEquals(2, object.y());
+	}
+
+	@Test
+	public void testSimplePojo() throws Throwable {
+		SimplePojo test = new SimplePojo();
+		test.setX(1);
+		test.setY(2);
+
+		SimplePojo object = arrayMap.toObject(SimplePojo.class, arrayMap.toArray(test));
+		Assertions.assertEquals(1, object.getX());
+		Assertions.assertEquals(2, object.getY());
+	}
+
+	@Test
+	public void testProjectImmutable() throws Throwable {
+		ProjectImmutable test = new ProjectImmutable(1, 2);
+
+		ProjectImmutable object = arrayMap.toObject(ProjectImmutable.class, arrayMap.toArray(test));
+		Assertions.assertEquals(1, object.x());
+		Assertions.assertEquals(2, object.y());
+	}
+
+	@Test
+	public void testUUIDBridge() throws Throwable {
+		SimpleUUIDImmutable test = new SimpleUUIDImmutable(UUID.randomUUID(), UUID.randomUUID());
+
+		Object[] values = arrayMap.toArray(test);
+		Assertions.assertEquals(test.first().toString(), values[0]);
+
+		// embedding twice from the same array must give the same result.
+		arrayMap.toObject(SimpleUUIDImmutable.class, values);
+		SimpleUUIDImmutable object = arrayMap.toObject(SimpleUUIDImmutable.class, values);
+		Assertions.assertEquals(test.first(), object.first());
+		Assertions.assertEquals(test.second(), object.second());
+	}
+
+	@Test
+	public void testNullAtom() throws Throwable {
+		ImmutableAtom test = new ImmutableAtom(SimpleEnum.THREE, null, true);
+
+		PepContext context = PepContext.builder().allowSerializable().build();
+		PepArrayMapper arrayMap = new PepArrayMapper(context, true);
+
+		Object[] values = arrayMap.toArray(test);
+		Assertions.assertNull(values[1]);
+
+		ImmutableAtom object = arrayMap.toObject(ImmutableAtom.class, values);
+		Assertions.assertEquals(SimpleEnum.THREE, object.enumCount());
+		Assertions.assertNull(object.str());
+		Assertions.assertTrue(object.bool());
+	}
+
+	@Test
+	public void testWideImmutable() throws Throwable {
+		WideImmutable test = new WideImmutable(1, 2L, 3.0, "4", 5, 6L, 7.0, "8", 9, 10L, 11.0, "12");
+
+		WideImmutable object = arrayMap.toObject(WideImmutable.class, arrayMap.toArray(test));
+		Assertions.assertEquals(1, object.a());
+		Assertions.assertEquals(6L, object.f());
+		Assertions.assertEquals(11.0, object.k());
+		Assertions.assertEquals("12", object.l());
+	}
+
+	@Test
+	public void testNestedImmutable() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), new SimpleImmutable(7, 8) };
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		NestedImmutable object = arrayMap.toObject(NestedImmutable.class, arrayMap.toArray(test));
+		Assertions.assertEquals(2, object.first().y());
+		Assertions.assertEquals(3, object.second().x());
+		Assertions.assertEquals(2, object.array().arrayImmutable().length);
+		Assertions.assertEquals(8, object.array().arrayImmutable()[1].y());
+	}
+}
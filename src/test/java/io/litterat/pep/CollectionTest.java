@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.CollectionImmutable;
+import io.litterat.pep.data.FactoryList;
+import io.litterat.pep.data.ListImmutable;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepEventReader;
+import io.litterat.pep.mapper.PepEventWriter;
+import io.litterat.pep.mapper.PepMapMapper;
+import io.litterat.pep.mapper.PepPrimitiveMapper;
+
+public class CollectionTest {
+
+	PepContext context;
+
+	CollectionImmutable test;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+
+		FactoryList values = FactoryList.create();
+		values.add("value");
+		values.add(1);
+
+		test = new CollectionImmutable(new ArrayList<>(List.of("a", "b")), new HashSet<>(Set.of(1, 2, 3)), new ArrayDeque<>(List.of("first", "second")),
+				new LinkedList<>(List.of(10L, 20L)), new TreeSet<>(Set.of("z", "y")), values);
+	}
+
+	private void validate(CollectionImmutable object) {
+		Assertions.assertEquals(test.names(), object.names());
+		Assertions.assertTrue(object.names() instanceof ArrayList);
+		Assertions.assertEquals(test.ids(), object.ids());
+		Assertions.assertTrue(object.ids() instanceof HashSet);
+		Assertions.assertEquals("first", object.queue().peekFirst());
+		Assertions.assertTrue(object.queue() instanceof ArrayDeque);
+		Assertions.assertEquals(test.history(), object.history());
+		Assertions.assertEquals(test.sorted(), object.sorted());
+		Assertions.assertEquals("y", object.sorted().first());
+		Assertions.assertEquals(test.values(), object.values());
+	}
+
+	@Test
+	public void testArrayMapper() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		Object[] values = arrayMapper.toArray(test);
+		Assertions.assertArrayEquals(new Object[] { "a", "b" }, (Object[]) values[0]);
+
+		validate(arrayMapper.toObject(CollectionImmutable.class, values));
+	}
+
+	@Test
+	public void testCodeGenArrayMapper() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context, true);
+
+		validate(arrayMapper.toObject(CollectionImmutable.class, arrayMapper.toArray(test)));
+	}
+
+	@Test
+	public void testMapMapper() throws Throwable {
+		PepMapMapper mapMapper = new PepMapMapper(context);
+
+		Map<String, Object> map = mapMapper.toMap(test);
+		Assertions.assertArrayEquals(new Object[] { 10L, 20L }, (Object[]) map.get("history"));
+
+		validate((CollectionImmutable) mapMapper.toObject(CollectionImmutable.class, map));
+	}
+
+	@Test
+	public void testMapMapperDataElements() throws Throwable {
+		PepMapMapper mapMapper = new PepMapMapper(context);
+
+		FactoryList values = FactoryList.create();
+		values.add(new SimpleImmutable(1, 2));
+		values.add(null);
+		CollectionImmutable elements = new CollectionImmutable(null, null, null, null, null, values);
+
+		// elements of raw collections have no declared type so are not converted to maps.
+		Map<String, Object> map = mapMapper.toMap(elements);
+		Assertions.assertTrue(((Object[]) map.get("values"))[0] instanceof SimpleImmutable);
+
+		CollectionImmutable object = (CollectionImmutable) mapMapper.toObject(CollectionImmutable.class, map);
+		Assertions.assertEquals(2, object.values().size());
+		Assertions.assertEquals(2, ((SimpleImmutable) object.values().get(0)).y());
+		Assertions.assertNull(object.values().get(1));
+	}
+
+	@Test
+	public void testTypedElements() throws Throwable {
+		ListImmutable points = new ListImmutable(new ArrayList<>(Arrays.asList(new SimpleImmutable(1, 2), null)));
+
+		// elements are converted using the declared element class of the component.
+		PepMapMapper mapMapper = new PepMapMapper(context);
+		Map<String, Object> map = mapMapper.toMap(points);
+		Assertions.assertEquals(Map.of("x", 1, "y", 2), ((Object[]) map.get("points"))[0]);
+		validatePoints((ListImmutable) mapMapper.toObject(ListImmutable.class, map));
+
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+		Object[] values = arrayMapper.toArray(points);
+		Assertions.assertArrayEquals(new Object[] { 1, 2 }, (Object[]) ((Object[]) values[0])[0]);
+		validatePoints(arrayMapper.toObject(ListImmutable.class, values));
+
+		PepArrayMapper codeGenMapper = new PepArrayMapper(context, true);
+		validatePoints(codeGenMapper.toObject(ListImmutable.class, codeGenMapper.toArray(points)));
+
+		PepPrimitiveMapper primitiveMapper = new PepPrimitiveMapper(context);
+		validatePoints(primitiveMapper.toObject(ListImmutable.class, primitiveMapper.toRecord(points)));
+	}
+
+	private void validatePoints(ListImmutable object) {
+		Assertions.assertEquals(2, object.points().size());
+		Assertions.assertEquals(2, object.points().get(0).y());
+		Assertions.assertNull(object.points().get(1));
+	}
+
+	@Test
+	public void testPrimitiveMapper() throws Throwable {
+		PepPrimitiveMapper primitiveMapper = new PepPrimitiveMapper(context);
+
+		validate(primitiveMapper.toObject(CollectionImmutable.class, primitiveMapper.toRecord(test)));
+	}
+
+	@Test
+	public void testEvents() throws Throwable {
+		EventMapperTest.EventBuffer buffer = new EventMapperTest.EventBuffer();
+		new PepEventWriter(context).write(test, buffer);
+
+		validate(new PepEventReader(context).read(CollectionImmutable.class, buffer));
+	}
+
+	@Test
+	public void testNullCollection() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		CollectionImmutable object = arrayMapper.toObject(CollectionImmutable.class,
+				arrayMapper.toArray(new CollectionImmutable(null, null, null, null, null, null)));
+		Assertions.assertNull(object.names());
+		Assertions.assertNull(object.values());
+	}
+
+	@Test
+	public void testImmutable() throws Throwable {
+		context = PepContext.builder().immutableCollections().build();
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		CollectionImmutable object = arrayMapper.toObject(CollectionImmutable.class, arrayMapper.toArray(test));
+		Assertions.assertEquals(test.names(), object.names());
+		Assertions.assertEquals(test.ids(), object.ids());
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> object.names().add("c"));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> object.ids().add(4));
+
+		// only the List, Set and Collection interfaces are immutable.
+		object.history().add(30L);
+		Assertions.assertEquals(Arrays.asList(10L, 20L, 30L), object.history());
+
+		// the constructor of an immutable interface creates a collection of the declared type.
+		Assertions.assertTrue(context.getDescriptor(Set.class).constructor().invoke(4) instanceof HashSet);
+		Assertions.assertTrue(context.getDescriptor(List.class).constructor().invoke(4) instanceof ArrayList);
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimpleImmutableV1;
+import io.litterat.pep.data.WideIntImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepColumnMapper;
+import io.litterat.pep.mapper.PepColumns;
+import io.litterat.pep.mapper.PepDictionaryColumn;
+
+public class ColumnTest {
+
+	final static int SIZE = 1000;
+
+	PepContext context;
+
+	List<PrimitiveTelemetry> test;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+
+		test = new ArrayList<>(SIZE);
+		for (int x = 0; x < SIZE; x++) {
+			test.add(new PrimitiveTelemetry(x % 2 == 0, (byte) x, (char) ('a' + x % 26), (short) x, x, x * 1000L, x / 2.0f, x / 4.0,
+					x % 10 == 0 ? null : "source" + x % 3));
+		}
+	}
+
+	private void validate(List<PrimitiveTelemetry> objects) {
+		Assertions.assertEquals(SIZE, objects.size());
+		for (int x = 0; x < SIZE; x++) {
+			PrimitiveTelemetry expected = test.get(x);
+			PrimitiveTelemetry object = objects.get(x);
+			Assertions.assertEquals(expected.active(), object.active());
+			Assertions.assertEquals(expected.level(), object.level());
+			Assertions.assertEquals(expected.code(), object.code());
+			Assertions.assertEquals(expected.channel(), object.channel());
+			Assertions.assertEquals(expected.count(), object.count());
+			Assertions.assertEquals(expected.timestamp(), object.timestamp());
+			Assertions.assertEquals(expected.ratio(), object.ratio());
+			Assertions.assertEquals(expected.value(), object.value());
+			Assertions.assertEquals(expected.source(), object.source());
+		}
+	}
+
+	@Test
+	public void testColumns() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context);
+
+		PepColumns columns = columnMapper.toColumns(PrimitiveTelemetry.class, test);
+		Assertions.assertEquals(SIZE, columns.size());
+		Assertions.assertEquals(9, columns.columnCount());
+
+		// primitive components are stored in primitive arrays.
+		Assertions.assertTrue(columns.column("active") instanceof boolean[]);
+		Assertions.assertTrue(columns.column("level") instanceof byte[]);
+		Assertions.assertTrue(columns.column("code") instanceof char[]);
+		Assertions.assertTrue(columns.column("channel") instanceof short[]);
+		Assertions.assertTrue(columns.column("ratio") instanceof float[]);
+		Assertions.assertTrue(columns.column("source") instanceof String[]);
+
+		int[] count = (int[]) columns.column("count");
+		long[] timestamp = (long[]) columns.column("timestamp");
+		double[] value = (double[]) columns.column("value");
+		Assertions.assertEquals(999, count[999]);
+		Assertions.assertEquals(999000L, timestamp[999]);
+		Assertions.assertEquals(999 / 4.0, value[999]);
+
+		validate(columnMapper.toObjects(PrimitiveTelemetry.class, columns));
+
+		PrimitiveTelemetry row = columnMapper.toObject(PrimitiveTelemetry.class, columns, 7);
+		Assertions.assertEquals(7, row.count());
+	}
+
+	@Test
+	public void testDictionary() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context, true);
+
+		PepColumns columns = columnMapper.toColumns(PrimitiveTelemetry.class, test);
+
+		PepDictionaryColumn source = (PepDictionaryColumn) columns.column("source");
+		Assertions.assertEquals(3, source.dictionary().length);
+		Assertions.assertEquals(-1, source.codes()[0]);
+		Assertions.assertNull(source.get(0));
+		Assertions.assertEquals("source1", source.get(1));
+
+		// primitive components are not dictionary encoded.
+		Assertions.assertTrue(columns.column("count") instanceof int[]);
+
+		validate(columnMapper.toObjects(PrimitiveTelemetry.class, columns));
+	}
+
+	@Test
+	public void testAtomDictionary() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context, true);
+
+		List<ImmutableAtom> atoms = List.of(new ImmutableAtom(SimpleEnum.ONE, "a", true), new ImmutableAtom(SimpleEnum.TWO, "b", false),
+				new ImmutableAtom(SimpleEnum.ONE, null, true));
+
+		PepColumns columns = columnMapper.toColumns(ImmutableAtom.class, atoms);
+		PepDictionaryColumn enumCount = (PepDictionaryColumn) columns.column("enumCount");
+		Assertions.assertArrayEquals(new Object[] { SimpleEnum.ONE, SimpleEnum.TWO }, enumCount.dictionary());
+		Assertions.assertArrayEquals(new int[] { 0, 1, 0 }, enumCount.codes());
+
+		List<ImmutableAtom> objects = columnMapper.toObjects(ImmutableAtom.class, columns);
+		Assertions.assertEquals(SimpleEnum.TWO, objects.get(1).enumCount());
+		Assertions.assertNull(objects.get(2).str());
+		Assertions.assertFalse(objects.get(1).bool());
+	}
+
+	@Test
+	public void testEmpty() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context);
+
+		PepColumns columns = columnMapper.toColumns(PrimitiveTelemetry.class, List.of());
+		Assertions.assertEquals(0, ((int[]) columns.column("count")).length);
+		Assertions.assertTrue(columnMapper.toObjects(PrimitiveTelemetry.class, columns).isEmpty());
+	}
+
+	@Test
+	public void testWideClass() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context);
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		Object[] values = new Object[130];
+		for (int x = 0; x < values.length; x++) {
+			values[x] = x;
+		}
+		WideIntImmutable object = arrayMapper.toObject(WideIntImmutable.class, values);
+
+		// each row reader shares the columns and row arguments.
+		PepColumns columns = columnMapper.toColumns(WideIntImmutable.class, List.of(object, object));
+		Assertions.assertEquals(129, ((int[]) columns.column("v129"))[1]);
+		Assertions.assertEquals(128, columnMapper.toObject(WideIntImmutable.class, columns, 1).v128());
+	}
+
+	@Test
+	public void testVersionDescriptor() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context);
+		context.registerVersion(SimpleImmutable.class, 1, SimpleImmutableV1.class, new ObjectDataBridge<SimpleImmutableV1, SimpleImmutable>() {
+
+			@Override
+			public SimpleImmutableV1 toData(SimpleImmutable b) {
+				return new SimpleImmutableV1(b.x());
+			}
+
+			@Override
+			public SimpleImmutable toObject(SimpleImmutableV1 s) {
+				return new SimpleImmutable(s.x(), 0);
+			}
+		});
+		List<SimpleImmutable> objects = List.of(new SimpleImmutable(1, 2));
+
+		PepColumns current = columnMapper.toColumns(SimpleImmutable.class, objects);
+		Assertions.assertArrayEquals(new int[] { 2 }, (int[]) current.column("y"));
+
+		// the version descriptor of the same class has its own functions.
+		PepColumns version = columnMapper.toColumns(context.getDescriptor(SimpleImmutable.class, 1), objects);
+		Assertions.assertArrayEquals(new int[] { 1 }, (int[]) version.column("x"));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> version.column("y"));
+		Assertions.assertEquals(0, columnMapper.toObject(SimpleImmutable.class, version, 0).y());
+		Assertions.assertEquals(2, columnMapper.toObject(SimpleImmutable.class, current, 0).y());
+	}
+
+	@Test
+	public void testNotDataClass() throws Throwable {
+		PepColumnMapper columnMapper = new PepColumnMapper(context);
+
+		Assertions.assertThrows(PepException.class, () -> columnMapper.toColumns(String.class, List.of("a")));
+	}
+}
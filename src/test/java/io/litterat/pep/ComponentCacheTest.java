@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.litterat.pep.data.SerializableImmutable;
+import io.litterat.pep.describe.ComponentCache;
+import io.litterat.pep.describe.ComponentInfo;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class ComponentCacheTest {
+
+	@TempDir
+	Path tempDir;
+
+	Path cacheFile;
+
+	@BeforeEach
+	public void setup() {
+		cacheFile = tempDir.resolve("pep.cache");
+	}
+
+	@Test
+	public void testContextCache() throws Throwable {
+		PepContext context = PepContext.builder().allowSerializable().componentCache(cacheFile).build();
+		context.getDescriptor(SerializableImmutable.class);
+
+		// Analysed class is written to the cache.
+		String cache = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+		Assertions.assertTrue(cache.startsWith(ComponentCache.VERSION));
+		Assertions.assertTrue(cache.contains(SerializableImmutable.class.getName()));
+
+		// A new context resolves from the cache.
+		PepContext restarted = PepContext.builder().allowSerializable().componentCache(cacheFile).build();
+		PepArrayMapper arrayMap = new PepArrayMapper(restarted);
+
+		Object[] values = arrayMap.toArray(new SerializableImmutable("test", 42L));
+		Assertions.assertArrayEquals(new Object[] { "test", 42L }, values);
+
+		SerializableImmutable object = arrayMap.toObject(SerializableImmutable.class, values);
+		Assertions.assertEquals("test", object.name());
+		Assertions.assertEquals(42L, object.value());
+	}
+
+	@Test
+	public void testReload() throws Throwable {
+		Constructor<?> constructor = SerializableImmutable.class.getConstructor(String.class, long.class);
+
+		List<ComponentInfo> components = new ArrayList<>();
+		components.add(component("name", String.class, 0, "name"));
+		components.add(component("value", long.class, 1, "value"));
+
+		new ComponentCache(cacheFile).store(SerializableImmutable.class, constructor, components);
+
+		List<ComponentInfo> cached = new ArrayList<>();
+		Assertions.assertTrue(new ComponentCache(cacheFile).findComponents(SerializableImmutable.class, constructor, cached));
+		Assertions.assertEquals(2, cached.size());
+		Assertions.assertEquals("value", cached.get(1).getName());
+		Assertions.assertEquals(long.class, cached.get(1).getType());
+		Assertions.assertEquals(1, cached.get(1).getConstructorArgument());
+		Assertions.assertEquals(SerializableImmutable.class.getDeclaredMethod("value"), cached.get(1).getReadMethod());
+	}
+
+	@Test
+	public void testChangedClassFile() throws Throwable {
+		Constructor<?> constructor = SerializableImmutable.class.getConstructor(String.class, long.class);
+
+		List<ComponentInfo> components = new ArrayList<>();
+		components.add(component("name", String.class, 0, "name"));
+		components.add(component("value", long.class, 1, "value"));
+
+		new ComponentCache(cacheFile).store(SerializableImmutable.class, constructor, components);
+
+		// Replace the class file hash as if the class had been recompiled.
+		String cache = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+		cache = cache.replaceAll("\t[0-9a-f]{64}\n", "\t0000\n");
+		Files.write(cacheFile, cache.getBytes(StandardCharsets.UTF_8));
+
+		List<ComponentInfo> cached = new ArrayList<>();
+		Assertions.assertFalse(new ComponentCache(cacheFile).findComponents(SerializableImmutable.class, constructor, cached));
+		Assertions.assertTrue(cached.isEmpty());
+	}
+
+	@Test
+	public void testInvalidFile() throws Throwable {
+		Files.write(cacheFile, "not a cache".getBytes(StandardCharsets.UTF_8));
+
+		PepContext context = PepContext.builder().allowSerializable().componentCache(cacheFile).build();
+		context.getDescriptor(SerializableImmutable.class);
+
+		// Invalid file is replaced.
+		String cache = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+		Assertions.assertTrue(cache.startsWith(ComponentCache.VERSION));
+	}
+
+	private ComponentInfo component(String name, Class<?> type, int arg, String readMethod) throws Throwable {
+		ComponentInfo info = new ComponentInfo(name, type);
+		info.setConstructorArgument(arg);
+		info.setReadMethod(SerializableImmutable.class.getDeclaredMethod(readMethod));
+		return info;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ComplexImmutable;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.data.WideImmutable;
+import io.litterat.pep.describe.ComponentIndex;
+import io.litterat.pep.describe.ComponentInfo;
+import io.litterat.pep.describe.GetSetFinder;
+import io.litterat.pep.describe.ImmutableFinder;
+
+/**
+ * 
+ * Test data classes are compiled with the PepIndexProcessor. The index must give the same components as the
+ * runtime analysis.
+ *
+ */
+public class ComponentIndexTest {
+
+	PepContext context;
+
+	ComponentIndex index;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		index = new ComponentIndex();
+	}
+
+	@Test
+	public void testMatchesAnalysis() throws Throwable {
+		assertMatchesAnalysis(SimpleImmutable.class);
+		assertMatchesAnalysis(ComplexImmutable.class);
+		assertMatchesAnalysis(WideImmutable.class);
+		assertMatchesAnalysis(PrimitiveTelemetry.class);
+		assertMatchesAnalysis(ProjectImmutable.ProjectImmutableData.class);
+		assertMatchesAnalysis(SimplePojo.class);
+	}
+
+	@Test
+	public void testNoIndex() throws Throwable {
+
+		// ToData classes are not analysed so are not indexed.
+		List<ComponentInfo> components = new ArrayList<>();
+		Constructor<?> constructor = ProjectImmutable.class.getConstructor(int.class, int.class);
+		Assertions.assertFalse(index.findComponents(ProjectImmutable.class, constructor, components));
+		Assertions.assertTrue(components.isEmpty());
+	}
+
+	@Test
+	public void testIndexedDescriptor() throws Throwable {
+		PepDataClass descriptor = context.getDescriptor(ComplexImmutable.class);
+
+		Assertions.assertEquals(2, descriptor.dataComponents().length);
+		Assertions.assertEquals("x", descriptor.dataComponents()[0].name());
+		Assertions.assertEquals("y", descriptor.dataComponents()[1].name());
+	}
+
+	private void assertMatchesAnalysis(Class<?> clss) throws Throwable {
+		Constructor<?> constructor = clss.getConstructors()[0];
+
+		List<ComponentInfo> indexed = new ArrayList<>();
+		Assertions.assertTrue(index.findComponents(clss, constructor, indexed));
+
+		List<ComponentInfo> analysed = new ArrayList<>();
+		new ImmutableFinder(context).findComponents(clss, constructor, analysed);
+		new GetSetFinder().findComponents(clss, constructor, analysed);
+
+		Assertions.assertEquals(analysed.size(), indexed.size());
+		for (int x = 0; x < analysed.size(); x++) {
+			ComponentInfo expected = analysed.get(x);
+			ComponentInfo actual = indexed.get(x);
+
+			Assertions.assertEquals(expected.getName(), actual.getName());
+			Assertions.assertEquals(expected.getType(), actual.getType());
+			Assertions.assertEquals(expected.getReadMethod(), actual.getReadMethod());
+			Assertions.assertEquals(expected.getWriteMethod(), actual.getWriteMethod());
+			if (expected.getWriteMethod() == null) {
+				Assertions.assertEquals(expected.getConstructorArgument(), actual.getConstructorArgument());
+			}
+		}
+	}
+}
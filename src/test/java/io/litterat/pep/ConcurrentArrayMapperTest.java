@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.ConcurrentResolveTest.CountingResolver;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class ConcurrentArrayMapperTest {
+
+	final static int THREADS = 16;
+	final static int ITERATIONS = 1000;
+
+	@Test
+	public void testSharedMapper() throws Throwable {
+
+		// Classes are resolved on first use of the mapper so the resolver runs under contention.
+		CountingResolver resolver = new CountingResolver();
+		PepContext context = PepContext.builder().resolver(resolver).build();
+
+		PepArrayMapper arrayMap = new PepArrayMapper(context);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				final int id = t;
+				results.add(executor.submit(new Callable<Integer>() {
+
+					@Override
+					public Integer call() throws Exception {
+						start.await();
+
+						int count = 0;
+						for (int x = 0; x < ITERATIONS; x++) {
+							SimpleImmutable[] array = { new SimpleImmutable(id, x) };
+							try {
+								Object[] values = arrayMap.toArray(new SimpleArray(array));
+								SimpleArray object = arrayMap.toObject(SimpleArray.class, values);
+
+								Assertions.assertEquals(id, object.arrayImmutable()[0].x());
+								Assertions.assertEquals(x, object.arrayImmutable()[0].y());
+							} catch (Throwable e) {
+								throw new Exception(e);
+							}
+							count++;
+						}
+						return count;
+					}
+				}));
+			}
+
+			// release all threads at once so first use of each class is contended.
+			start.countDown();
+
+			for (Future<Integer> result : results) {
+				Assertions.assertEquals(ITERATIONS, result.get());
+			}
+
+			// each class is resolved once however many threads compile it.
+			Assertions.assertEquals(1, resolver.counts.get(SimpleArray.class).get());
+			Assertions.assertEquals(1, resolver.counts.get(SimpleImmutable.class).get());
+			for (Map.Entry<Class<?>, AtomicInteger> entry : resolver.counts.entrySet()) {
+				Assertions.assertEquals(1, entry.getValue().get(), entry.getKey().getName());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ComplexImmutable;
+import io.litterat.pep.data.Department;
+import io.litterat.pep.data.Employee;
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.TreeNode;
+
+public class ConcurrentResolveTest {
+
+	final static int THREADS = 8;
+	final static int ROUNDS = 100;
+
+	final static List<Class<?>> CLASSES = List.of(SimpleImmutable.class, ComplexImmutable.class, PrimitiveTelemetry.class, SimpleArray.class,
+			ImmutableAtom.class, TreeNode.class);
+
+	/**
+	 * Counts the resolver runs for each class.
+	 */
+	static class CountingResolver implements PepContextResolver {
+
+		final Map<Class<?>, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+		@Override
+		public PepDataClass resolve(PepContext context, Class<?> clss) throws PepException {
+			counts.computeIfAbsent(clss, c -> new AtomicInteger()).incrementAndGet();
+
+			// widen the window for threads to race.
+			Thread.yield();
+			return context.defaultResolver().resolve(context, clss);
+		}
+	}
+
+	private List<Map<Class<?>, PepDataClass>> resolveAll(PepContext context, ExecutorService executor, List<List<Class<?>>> orders)
+			throws Throwable {
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Future<Map<Class<?>, PepDataClass>>> futures = new ArrayList<>();
+		for (List<Class<?>> order : orders) {
+			futures.add(executor.submit(() -> {
+				start.await();
+
+				Map<Class<?>, PepDataClass> result = new ConcurrentHashMap<>();
+				for (Class<?> clss : order) {
+					result.put(clss, context.getDescriptor(clss));
+				}
+				return result;
+			}));
+		}
+		start.countDown();
+
+		List<Map<Class<?>, PepDataClass>> results = new ArrayList<>();
+		for (Future<Map<Class<?>, PepDataClass>> future : futures) {
+			results.add(future.get());
+		}
+		return results;
+	}
+
+	@Test
+	public void testResolvedOnce() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (int round = 0; round < ROUNDS; round++) {
+				CountingResolver resolver = new CountingResolver();
+				PepContext context = PepContext.builder().resolver(resolver).build();
+
+				List<List<Class<?>>> orders = new ArrayList<>();
+				for (int x = 0; x < THREADS; x++) {
+					List<Class<?>> order = new ArrayList<>(CLASSES);
+					Collections.shuffle(order);
+					orders.add(order);
+				}
+
+				List<Map<Class<?>, PepDataClass>> results = resolveAll(context, executor, orders);
+
+				// every thread sees the same descriptor and each class is resolved by one thread.
+				for (Class<?> clss : CLASSES) {
+					for (Map<Class<?>, PepDataClass> result : results) {
+						Assertions.assertSame(results.get(0).get(clss), result.get(clss));
+					}
+				}
+				for (Map.Entry<Class<?>, AtomicInteger> entry : resolver.counts.entrySet()) {
+					Assertions.assertEquals(1, entry.getValue().get(), entry.getKey().getName());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMutualReferences() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			Assertions.assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+				for (int round = 0; round < ROUNDS; round++) {
+					PepContext context = PepContext.builder().resolver(new CountingResolver()).build();
+
+					// Department refers to Employee and Employee to Department. Half the threads start from each.
+					List<List<Class<?>>> orders = new ArrayList<>();
+					for (int x = 0; x < THREADS; x++) {
+						orders.add(x % 2 == 0 ? Arrays.asList(Department.class, Employee.class) : Arrays.asList(Employee.class, Department.class));
+					}
+
+					List<Map<Class<?>, PepDataClass>> results = resolveAll(context, executor, orders);
+					for (Map<Class<?>, PepDataClass> result : results) {
+						Assertions.assertSame(context.getDescriptor(Department.class), result.get(Department.class));
+						Assertions.assertSame(context.getDescriptor(Employee.class), result.get(Employee.class));
+					}
+				}
+			});
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailureRetried() throws Throwable {
+		AtomicInteger attempts = new AtomicInteger();
+		PepContext context = PepContext.builder().resolver((c, clss) -> {
+			if (attempts.getAndIncrement() == 0) {
+				throw new PepException("first attempt fails");
+			}
+			return c.defaultResolver().resolve(c, clss);
+		}).build();
+
+		Assertions.assertThrows(PepException.class, () -> context.getDescriptor(SimpleImmutable.class));
+		Assertions.assertNotNull(context.getDescriptor(SimpleImmutable.class));
+	}
+}
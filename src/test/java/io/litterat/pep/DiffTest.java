@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.Circle;
+import io.litterat.pep.data.Drawing;
+import io.litterat.pep.data.Shape;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.Square;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepDelta;
+import io.litterat.pep.mapper.PepDiffMapper;
+
+public class DiffTest {
+
+	PepContext context;
+
+	PepDiffMapper diffMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		diffMapper = new PepDiffMapper(context);
+	}
+
+	@Test
+	public void testUnchanged() throws Throwable {
+		SimpleImmutable previous = new SimpleImmutable(1, 2);
+
+		PepDelta delta = diffMapper.diff(previous, new SimpleImmutable(1, 2));
+		Assertions.assertTrue(delta.isEmpty());
+		Assertions.assertSame(previous, diffMapper.apply(previous, delta));
+	}
+
+	@Test
+	public void testNestedTuple() throws Throwable {
+		TreeNode left = new TreeNode(2, null, null);
+		TreeNode previous = new TreeNode(1, left, new TreeNode(3, null, new TreeNode(4, null, null)));
+		TreeNode current = new TreeNode(1, left, new TreeNode(3, null, new TreeNode(5, null, null)));
+
+		PepDelta delta = diffMapper.diff(previous, current);
+		Assertions.assertEquals(1, delta.size());
+		Assertions.assertArrayEquals(new int[] { 2, 2, 0 }, delta.path(0));
+		Assertions.assertEquals(5, delta.value(0));
+
+		TreeNode result = diffMapper.apply(previous, delta);
+		Assertions.assertEquals(5, result.right().right().value());
+		Assertions.assertEquals(3, result.right().value());
+
+		// components that did not change keep their existing values.
+		Assertions.assertSame(left, result.left());
+		Assertions.assertEquals(4, previous.right().right().value());
+	}
+
+	@Test
+	public void testArraysAndUnions() throws Throwable {
+		Drawing previous = new Drawing("plan", new Circle(1), new Shape[] { new Circle(1), new Square(2) });
+		Drawing current = new Drawing("plan", new Square(4), new Shape[] { new Circle(1), new Square(3) });
+
+		PepDelta delta = diffMapper.diff(previous, current);
+		Assertions.assertEquals(2, delta.size());
+
+		// a union member of a different class is replaced in its tagged data form.
+		Assertions.assertArrayEquals(new int[] { 1 }, delta.path(0));
+		Assertions.assertArrayEquals(new Object[] { 1, new Object[] { 4 } }, (Object[]) delta.value(0));
+
+		// array elements of the same member class are compared by component.
+		Assertions.assertArrayEquals(new int[] { 2, 1, 0 }, delta.path(1));
+		Assertions.assertEquals(3, delta.value(1));
+
+		Drawing result = diffMapper.apply(previous, delta);
+		Assertions.assertEquals("plan", result.name());
+		Assertions.assertEquals(4, ((Square) result.main()).side());
+		Assertions.assertSame(previous.shapes()[0], result.shapes()[0]);
+		Assertions.assertEquals(3, ((Square) result.shapes()[1]).side());
+		Assertions.assertEquals(2, ((Square) previous.shapes()[1]).side());
+	}
+
+	@Test
+	public void testReplacedArray() throws Throwable {
+		Drawing previous = new Drawing("plan", null, new Shape[] { new Circle(1) });
+		Drawing current = new Drawing("plan", new Circle(2), new Shape[] { new Circle(1), new Circle(2) });
+
+		PepDelta delta = diffMapper.diff(previous, current);
+		Assertions.assertEquals(2, delta.size());
+		Assertions.assertArrayEquals(new int[] { 1 }, delta.path(0));
+		Assertions.assertArrayEquals(new int[] { 2 }, delta.path(1));
+
+		Drawing result = diffMapper.apply(previous, delta);
+		Assertions.assertEquals(2, ((Circle) result.main()).radius());
+		Assertions.assertEquals(2, result.shapes().length);
+		Assertions.assertEquals(2, ((Circle) result.shapes()[1]).radius());
+
+		// a component set to null is sent as null.
+		PepDelta reverse = diffMapper.diff(current, previous);
+		Assertions.assertNull(reverse.value(0));
+		Assertions.assertNull(diffMapper.apply(current, reverse).main());
+	}
+
+	@Test
+	public void testInvalid() throws Throwable {
+		Assertions.assertThrows(PepException.class, () -> diffMapper.diff(new SimpleImmutable(1, 2), new TreeNode(1, null, null)));
+
+		PepDelta delta = diffMapper.diff(new SimpleImmutable(1, 2), new SimpleImmutable(1, 3));
+		Assertions.assertThrows(PepException.class, () -> diffMapper.apply(new TreeNode(1, null, null), delta));
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.MixedPojo;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class EmbedIntoTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+	}
+
+	@Test
+	public void testSetters() throws Throwable {
+		SimplePojo source = new SimplePojo();
+		source.setX(1);
+		source.setY(2);
+
+		SimplePojo target = new SimplePojo();
+		SimplePojo result = arrayMapper.embed(target, arrayMapper.toArray(source));
+
+		// the instance is updated and no new instance is created.
+		Assertions.assertSame(target, result);
+		Assertions.assertEquals(1, target.getX());
+		Assertions.assertEquals(2, target.getY());
+
+		source.setX(3);
+		arrayMapper.embed(target, arrayMapper.toArray(source));
+		Assertions.assertEquals(3, target.getX());
+	}
+
+	@Test
+	public void testConstructorComponent() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(MixedPojo.class);
+		Assertions.assertNull(dataClass.dataComponents()[0].setter());
+		Assertions.assertNotNull(dataClass.dataComponents()[1].setter());
+
+		MixedPojo source = new MixedPojo("a");
+		source.setName("name");
+		source.setCount(5);
+
+		// the identifier matches so the setters are applied.
+		MixedPojo target = new MixedPojo("a");
+		arrayMapper.embed(target, arrayMapper.toArray(source));
+		Assertions.assertEquals("name", target.getName());
+		Assertions.assertEquals(5, target.getCount());
+
+		// the identifier can only be set through the constructor.
+		MixedPojo other = new MixedPojo("b");
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.embed(other, arrayMapper.toArray(source)));
+	}
+
+	@Test
+	public void testRejectedLeavesTarget() throws Throwable {
+		// register a descriptor with the setter components before the constructor component.
+		PepDataClass base = PepContext.builder().build().getDescriptor(MixedPojo.class);
+		PepDataComponent[] components = { component(base, "name"), component(base, "count"), component(base, "id") };
+		context.register(MixedPojo.class,
+				new PepDataClass(MixedPojo.class, MixedPojo.class, base.constructor(), base.toData(), base.toObject(), components));
+		Object[] values = { "name", 5, "a" };
+
+		MixedPojo target = new MixedPojo("b");
+		target.setName("old");
+		target.setCount(1);
+
+		// the identifier is checked before any setter is called.
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.embed(target, values));
+		Assertions.assertEquals("old", target.getName());
+		Assertions.assertEquals(1, target.getCount());
+
+		values[2] = "b";
+		arrayMapper.embed(target, values);
+		Assertions.assertEquals("name", target.getName());
+		Assertions.assertEquals(5, target.getCount());
+	}
+
+	private static PepDataComponent component(PepDataClass dataClass, String name) {
+		for (PepDataComponent component : dataClass.dataComponents()) {
+			if (component.name().equals(name)) {
+				return component;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	@Test
+	public void testImmutable() throws Throwable {
+		SimpleImmutable target = new SimpleImmutable(1, 2);
+
+		// an immutable instance can only be refreshed with the same values.
+		arrayMapper.embed(target, new Object[] { 1, 2 });
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.embed(target, new Object[] { 1, 3 }));
+	}
+}
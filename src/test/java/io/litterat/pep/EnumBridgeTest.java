@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.LabelEnum;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.describe.EnumBridge;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepBinaryMapper;
+
+public class EnumBridgeTest {
+
+	PepContext context;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+	}
+
+	@Test
+	public void testNames() throws Throwable {
+		EnumBridge bridge = new EnumBridge(SimpleEnum.class);
+
+		for (SimpleEnum value : SimpleEnum.values()) {
+			String name = bridge.toData(value);
+			Assertions.assertEquals(value.name(), name);
+			Assertions.assertEquals(value, bridge.toObject(name));
+
+			// names read from data are not interned.
+			Assertions.assertEquals(value, bridge.toObject(new String(name)));
+		}
+
+		Assertions.assertThrows(PepException.class, () -> bridge.toObject("SEVEN"));
+	}
+
+	@Test
+	public void testOverriddenToString() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(LabelEnum.class);
+
+		// the constant name is used and not the overridden toString.
+		Assertions.assertEquals("GREEN", (String) dataClass.toData().invoke(LabelEnum.GREEN));
+		Assertions.assertEquals(LabelEnum.GREEN, (LabelEnum) dataClass.toObject().invoke("GREEN"));
+	}
+
+	@Test
+	public void testOrdinal() throws Throwable {
+		context.registerOrdinalEnum(SimpleEnum.class);
+
+		PepDataClass dataClass = context.getDescriptor(SimpleEnum.class);
+		Assertions.assertEquals(int.class, dataClass.dataClass());
+
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+		ImmutableAtom test = new ImmutableAtom(SimpleEnum.THREE, "test", true);
+
+		Object[] values = arrayMapper.toArray(test);
+		Assertions.assertEquals(2, values[0]);
+
+		ImmutableAtom object = arrayMapper.toObject(ImmutableAtom.class, values);
+		Assertions.assertEquals(SimpleEnum.THREE, object.enumCount());
+	}
+
+	@Test
+	public void testOrdinalBinary() throws Throwable {
+		ImmutableAtom test = new ImmutableAtom(SimpleEnum.THREE, "test", true);
+
+		ByteBuffer nameBuffer = ByteBuffer.allocate(256);
+		new PepBinaryMapper(context).toBuffer(test, nameBuffer);
+
+		PepContext ordinalContext = PepContext.builder().build();
+		ordinalContext.registerOrdinalEnum(SimpleEnum.class);
+		PepBinaryMapper binaryMapper = new PepBinaryMapper(ordinalContext);
+
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		binaryMapper.toBuffer(test, buffer);
+		Assertions.assertTrue(buffer.position() < nameBuffer.position());
+
+		buffer.flip();
+		ImmutableAtom object = binaryMapper.toObject(ImmutableAtom.class, buffer);
+		Assertions.assertEquals(SimpleEnum.THREE, object.enumCount());
+
+		// null is encoded as ordinal -1.
+		buffer.clear();
+		binaryMapper.toBuffer(new ImmutableAtom(null, "test", true), buffer);
+		buffer.flip();
+		Assertions.assertNull(binaryMapper.toObject(ImmutableAtom.class, buffer).enumCount());
+	}
+
+	@Test
+	public void testOrdinalRegisteredTwice() throws Throwable {
+		context.registerOrdinalEnum(SimpleEnum.class);
+
+		Assertions.assertThrows(PepException.class, () -> context.registerOrdinalEnum(SimpleEnum.class));
+	}
+}
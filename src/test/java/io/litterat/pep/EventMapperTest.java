@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.AstNode;
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.PrimitiveArrays;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimpleUUIDImmutable;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.mapper.PepEvent;
+import io.litterat.pep.mapper.PepEventReader;
+import io.litterat.pep.mapper.PepEventSink;
+import io.litterat.pep.mapper.PepEventSource;
+import io.litterat.pep.mapper.PepEventWriter;
+
+public class EventMapperTest {
+
+	PepContext context;
+
+	PepEventWriter writer;
+
+	PepEventReader reader;
+
+	/**
+	 * Records events from the writer and replays them to the reader.
+	 */
+	static class EventBuffer implements PepEventSink, PepEventSource {
+
+		final List<PepEvent> events = new ArrayList<>();
+		final List<Object> details = new ArrayList<>();
+
+		int position = -1;
+
+		void add(PepEvent event, Object detail) {
+			events.add(event);
+			details.add(detail);
+		}
+
+		@Override
+		public void beginTuple(PepDataClass dataClass) {
+			add(PepEvent.BEGIN_TUPLE, dataClass);
+		}
+
+		@Override
+		public void component(PepDataComponent component) {
+			add(PepEvent.COMPONENT, component.name());
+		}
+
+		@Override
+		public void endTuple(PepDataClass dataClass) {
+			add(PepEvent.END_TUPLE, dataClass);
+		}
+
+		@Override
+		public void beginArray(PepDataClass dataClass, int length) {
+			add(PepEvent.BEGIN_ARRAY, length);
+		}
+
+		@Override
+		public void endArray(PepDataClass dataClass) {
+			add(PepEvent.END_ARRAY, dataClass);
+		}
+
+		@Override
+		public void atom(Object value) {
+			add(PepEvent.ATOM, value);
+		}
+
+		@Override
+		public void nullValue() {
+			add(PepEvent.NULL, null);
+		}
+
+		@Override
+		public PepEvent next() {
+			return events.get(++position);
+		}
+
+		@Override
+		public String name() {
+			return (String) details.get(position);
+		}
+
+		@Override
+		public int length() {
+			return (Integer) details.get(position);
+		}
+
+		@Override
+		public Object value() {
+			return details.get(position);
+		}
+
+		@Override
+		public Class<?> type() {
+			PepDataClass dataClass = (PepDataClass) details.get(position);
+			return dataClass != null ? dataClass.typeClass() : null;
+		}
+	}
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		writer = new PepEventWriter(context);
+		reader = new PepEventReader(context);
+	}
+
+	private <T> T roundTrip(Class<T> clss, T test) throws PepException {
+		EventBuffer buffer = new EventBuffer();
+		writer.write(test, buffer);
+
+		T object = reader.read(clss, buffer);
+		Assertions.assertEquals(buffer.events.size() - 1, buffer.position);
+		return object;
+	}
+
+	@Test
+	public void testEvents() throws Throwable {
+		EventBuffer buffer = new EventBuffer();
+		writer.write(new SimpleImmutable(1, 2), buffer);
+
+		Assertions.assertEquals(List.of(PepEvent.BEGIN_TUPLE, PepEvent.COMPONENT, PepEvent.ATOM, PepEvent.COMPONENT, PepEvent.ATOM, PepEvent.END_TUPLE),
+				buffer.events);
+		Assertions.assertEquals("x", buffer.details.get(1));
+		Assertions.assertEquals(1, buffer.details.get(2));
+		Assertions.assertEquals("y", buffer.details.get(3));
+		Assertions.assertEquals(2, buffer.details.get(4));
+	}
+
+	@Test
+	public void testNestedImmutable() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), null, new SimpleImmutable(7, 8) };
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		NestedImmutable object = roundTrip(NestedImmutable.class, test);
+		Assertions.assertEquals(2, object.first().y());
+		Assertions.assertEquals(4, object.second().y());
+		Assertions.assertEquals(3, object.array().arrayImmutable().length);
+		Assertions.assertNull(object.array().arrayImmutable()[1]);
+		Assertions.assertEquals(8, object.array().arrayImmutable()[2].y());
+
+		NestedImmutable nulls = roundTrip(NestedImmutable.class, new NestedImmutable(null, new ProjectImmutable(3, 4), null));
+		Assertions.assertNull(nulls.first());
+		Assertions.assertNull(nulls.array());
+	}
+
+	@Test
+	public void testArrays() throws Throwable {
+		PrimitiveArrays test = new PrimitiveArrays(new boolean[] { true }, new byte[] { 1, -1 }, new char[] { 'a' }, new short[] { -3 },
+				new int[] { 0, -1 }, new long[] { Long.MIN_VALUE }, new float[] { 1.5f }, new double[] { 2.5 }, new String[] { "a", null },
+				new int[][] { { 1, 2 }, null, {} });
+
+		PrimitiveArrays object = roundTrip(PrimitiveArrays.class, test);
+		Assertions.assertArrayEquals(test.payload(), object.payload());
+		Assertions.assertArrayEquals(test.counts(), object.counts());
+		Assertions.assertArrayEquals(test.labels(), object.labels());
+		Assertions.assertArrayEquals(test.matrix(), object.matrix());
+	}
+
+	@Test
+	public void testAtoms() throws Throwable {
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		ImmutableAtom atom = roundTrip(ImmutableAtom.class, new ImmutableAtom(SimpleEnum.TWO, "str", false));
+		Assertions.assertEquals(SimpleEnum.TWO, atom.enumCount());
+		Assertions.assertEquals("str", atom.str());
+
+		UUID first = UUID.randomUUID();
+		EventBuffer buffer = new EventBuffer();
+		writer.write(new SimpleUUIDImmutable(first, null), buffer);
+
+		// atoms are pushed as their data value.
+		Assertions.assertEquals(first.toString(), buffer.details.get(2));
+
+		SimpleUUIDImmutable uuid = reader.read(SimpleUUIDImmutable.class, buffer);
+		Assertions.assertEquals(first, uuid.first());
+		Assertions.assertNull(uuid.second());
+	}
+
+	@Test
+	public void testRecursive() throws Throwable {
+		TreeNode tree = new TreeNode(1, new TreeNode(2, null, new TreeNode(3, null, null)), null);
+		TreeNode treeObject = roundTrip(TreeNode.class, tree);
+		Assertions.assertEquals(3, treeObject.left().right().value());
+
+		AstNode ast = new AstNode("+", new AstNode[] { new AstNode("1", null), new AstNode("2", null) });
+		AstNode astObject = roundTrip(AstNode.class, ast);
+		Assertions.assertEquals("2", astObject.children()[1].op());
+	}
+
+	@Test
+	public void testCollectionOfTuples() throws Throwable {
+		List<Object> test = new ArrayList<>(List.of(new SimpleImmutable(1, 2), "label", new ProjectImmutable(3, 4)));
+
+		// elements are read using the type class of their tuple.
+		@SuppressWarnings("unchecked")
+		List<Object> object = roundTrip(ArrayList.class, new ArrayList<>(test));
+		Assertions.assertEquals(3, object.size());
+		Assertions.assertEquals(2, ((SimpleImmutable) object.get(0)).y());
+		Assertions.assertEquals("label", object.get(1));
+		Assertions.assertEquals(4, ((ProjectImmutable) object.get(2)).y());
+
+		Object[] array = roundTrip(Object[].class, test.toArray());
+		Assertions.assertEquals(1, ((SimpleImmutable) array[0]).x());
+		Assertions.assertEquals(3, ((ProjectImmutable) array[2]).x());
+
+		// tuples without a type can not be read.
+		EventBuffer buffer = new EventBuffer();
+		buffer.add(PepEvent.BEGIN_ARRAY, 1);
+		buffer.add(PepEvent.BEGIN_TUPLE, null);
+		buffer.add(PepEvent.END_TUPLE, null);
+		buffer.add(PepEvent.END_ARRAY, null);
+
+		Assertions.assertThrows(PepException.class, () -> {
+			reader.read(Object[].class, buffer);
+		});
+	}
+
+	@Test
+	public void testComponentOrderAndLength() throws Throwable {
+		EventBuffer buffer = new EventBuffer();
+		buffer.add(PepEvent.BEGIN_TUPLE, null);
+		buffer.add(PepEvent.COMPONENT, "arrayImmutable");
+		buffer.add(PepEvent.BEGIN_ARRAY, -1);
+		buffer.add(PepEvent.BEGIN_TUPLE, null);
+		buffer.add(PepEvent.COMPONENT, "y");
+		buffer.add(PepEvent.ATOM, 2);
+		buffer.add(PepEvent.COMPONENT, "x");
+		buffer.add(PepEvent.ATOM, 1);
+		buffer.add(PepEvent.END_TUPLE, null);
+		buffer.add(PepEvent.END_ARRAY, null);
+		buffer.add(PepEvent.END_TUPLE, null);
+
+		SimpleArray object = reader.read(SimpleArray.class, buffer);
+		Assertions.assertEquals(1, object.arrayImmutable().length);
+		Assertions.assertEquals(1, object.arrayImmutable()[0].x());
+		Assertions.assertEquals(2, object.arrayImmutable()[0].y());
+	}
+
+	@Test
+	public void testUnknownComponent() throws Throwable {
+		EventBuffer buffer = new EventBuffer();
+		buffer.add(PepEvent.BEGIN_TUPLE, null);
+		buffer.add(PepEvent.COMPONENT, "z");
+		buffer.add(PepEvent.ATOM, 1);
+		buffer.add(PepEvent.END_TUPLE, null);
+
+		PepException e = Assertions.assertThrows(PepException.class, () -> {
+			reader.read(SimpleImmutable.class, buffer);
+		});
+		Assertions.assertTrue(e.getMessage().endsWith("Unknown field z"));
+	}
+}
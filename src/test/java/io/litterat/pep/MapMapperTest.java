@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.WideImmutable;
+import io.litterat.pep.mapper.PepMapMapper;
+
+public class MapMapperTest {
+
+	PepContext context;
+
+	PepMapMapper mapMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		mapMapper = new PepMapMapper(context);
+	}
+
+	@Test
+	public void testWideImmutable() throws Throwable {
+		WideImmutable test = new WideImmutable(1, 2L, 3.0, "4", 5, 6L, 7.0, "8", 9, 10L, 11.0, "12");
+
+		Map<String, Object> map = mapMapper.toMap(test);
+		Assertions.assertEquals(12, map.size());
+		Assertions.assertEquals(6L, map.get("f"));
+
+		WideImmutable object = (WideImmutable) mapMapper.toObject(WideImmutable.class, map);
+		Assertions.assertEquals(1, object.a());
+		Assertions.assertEquals(11.0, object.k());
+		Assertions.assertEquals("12", object.l());
+	}
+
+	@Test
+	public void testNestedImmutable() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), null, new SimpleImmutable(7, 8) };
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		Map<String, Object> map = mapMapper.toMap(test);
+		Assertions.assertTrue(map.get("first") instanceof Map);
+
+		// the plan is reused for the second conversion.
+		mapMapper.toObject(NestedImmutable.class, map);
+		NestedImmutable object = (NestedImmutable) mapMapper.toObject(NestedImmutable.class, map);
+		Assertions.assertEquals(2, object.first().y());
+		Assertions.assertEquals(3, object.second().x());
+		Assertions.assertEquals(3, object.array().arrayImmutable().length);
+		Assertions.assertNull(object.array().arrayImmutable()[1]);
+		Assertions.assertEquals(8, object.array().arrayImmutable()[2].y());
+	}
+
+	@Test
+	public void testNullComponent() throws Throwable {
+		NestedImmutable test = new NestedImmutable(null, new ProjectImmutable(3, 4), null);
+
+		Map<String, Object> map = mapMapper.toMap(test);
+		Assertions.assertTrue(map.containsKey("first"));
+		Assertions.assertNull(map.get("first"));
+
+		NestedImmutable object = (NestedImmutable) mapMapper.toObject(NestedImmutable.class, map);
+		Assertions.assertNull(object.first());
+		Assertions.assertNull(object.array());
+	}
+
+	@Test
+	public void testExceptionNamesField() throws Throwable {
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), null);
+
+		Map<String, Object> map = mapMapper.toMap(test);
+
+		// corrupting the map by putting an invalid value for a nested data class.
+		map.put("second", "error");
+
+		PepException e = Assertions.assertThrows(PepException.class, () -> {
+			mapMapper.toObject(NestedImmutable.class, map);
+		});
+		Assertions.assertTrue(e.getMessage().endsWith("Incorrect value for field second"));
+	}
+}
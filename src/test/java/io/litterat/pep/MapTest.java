@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.MapImmutable;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.describe.MapBridge;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+import io.litterat.pep.mapper.PepPrimitiveMapper;
+
+public class MapTest {
+
+	PepContext context;
+
+	MapImmutable test;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+
+		Map<String, Integer> counts = new HashMap<>();
+		counts.put("a", 1);
+		counts.put("b", null);
+
+		Map<String, SimpleImmutable> points = new HashMap<>();
+		points.put("origin", new SimpleImmutable(0, 0));
+		points.put("unit", new SimpleImmutable(1, 1));
+
+		TreeMap<SimpleEnum, String> labels = new TreeMap<>();
+		labels.put(SimpleEnum.TWO, "two");
+		labels.put(SimpleEnum.ONE, "one");
+
+		test = new MapImmutable(counts, points, labels, Map.of("group", List.of("x", "y")));
+	}
+
+	private void validate(MapImmutable object) {
+		Assertions.assertEquals(test.counts(), object.counts());
+		Assertions.assertTrue(object.counts() instanceof HashMap);
+		Assertions.assertEquals(2, object.points().size());
+		Assertions.assertEquals(1, object.points().get("unit").y());
+		Assertions.assertEquals(test.labels(), object.labels());
+		Assertions.assertTrue(object.labels() instanceof TreeMap);
+		Assertions.assertEquals(SimpleEnum.ONE, object.labels().firstKey());
+		Assertions.assertEquals(test.groups(), object.groups());
+	}
+
+	@Test
+	public void testDescriptor() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(MapImmutable.class);
+
+		// key and value classes are taken from the declared component type.
+		PepDataClass points = dataClass.dataComponents()[1].dataClass();
+		Assertions.assertTrue(points.isMap());
+		Assertions.assertEquals(String.class, points.keyClass());
+		Assertions.assertEquals(SimpleImmutable.class, points.valueClass());
+
+		PepDataClass raw = context.getDescriptor(HashMap.class);
+		Assertions.assertTrue(raw.isMap());
+		Assertions.assertEquals(Object.class, raw.valueClass());
+	}
+
+	@Test
+	public void testArrayMapper() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		Object[] values = arrayMapper.toArray(test);
+
+		// maps are projected to parallel key and value arrays.
+		Object[] points = (Object[]) values[1];
+		Object[] keys = (Object[]) points[MapBridge.KEYS];
+		Object[] pointValues = (Object[]) points[MapBridge.VALUES];
+		Assertions.assertEquals(2, keys.length);
+		Assertions.assertTrue(pointValues[0] instanceof Object[]);
+
+		validate(arrayMapper.toObject(MapImmutable.class, values));
+	}
+
+	@Test
+	public void testCodeGenArrayMapper() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context, true);
+
+		validate(arrayMapper.toObject(MapImmutable.class, arrayMapper.toArray(test)));
+	}
+
+	@Test
+	public void testMapMapper() throws Throwable {
+		PepMapMapper mapMapper = new PepMapMapper(context);
+
+		Map<String, Object> map = mapMapper.toMap(test);
+		Object[] points = (Object[]) map.get("points");
+		Assertions.assertTrue(((Object[]) points[MapBridge.VALUES])[0] instanceof Map);
+
+		validate((MapImmutable) mapMapper.toObject(MapImmutable.class, map));
+	}
+
+	@Test
+	public void testPrimitiveMapper() throws Throwable {
+		PepPrimitiveMapper primitiveMapper = new PepPrimitiveMapper(context);
+
+		validate(primitiveMapper.toObject(MapImmutable.class, primitiveMapper.toRecord(test)));
+	}
+
+	@Test
+	public void testNullMap() throws Throwable {
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		MapImmutable object = arrayMapper.toObject(MapImmutable.class, arrayMapper.toArray(new MapImmutable(null, null, null, null)));
+		Assertions.assertNull(object.counts());
+		Assertions.assertNull(object.labels());
+	}
+
+	@Test
+	public void testImmutable() throws Throwable {
+		context = PepContext.builder().immutableCollections().build();
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+
+		test = new MapImmutable(Map.of("a", 1), test.points(), test.labels(), test.groups());
+		MapImmutable object = arrayMapper.toObject(MapImmutable.class, arrayMapper.toArray(test));
+		Assertions.assertEquals(test.counts(), object.counts());
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> object.counts().put("c", 3));
+
+		// only the Map interface is immutable.
+		object.labels().put(SimpleEnum.THREE, "three");
+	}
+}
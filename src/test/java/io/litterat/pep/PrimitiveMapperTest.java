@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.AstNode;
+import io.litterat.pep.data.Department;
+import io.litterat.pep.data.Employee;
+import io.litterat.pep.data.IntAtom;
+import io.litterat.pep.data.IntAtomData;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimplePojo;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.data.SimpleUUIDImmutable;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.mapper.PepPrimitiveMapper;
+import io.litterat.pep.mapper.PepPrimitiveRecord;
+
+public class PrimitiveMapperTest {
+
+	PepContext context;
+
+	PepPrimitiveMapper mapper;
+
+	@BeforeEach
+	public void setup() throws PepException {
+		context = PepContext.builder().build();
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		mapper = new PepPrimitiveMapper(context);
+	}
+
+	@Test
+	public void testPrimitiveTelemetry() throws Throwable {
+		PrimitiveTelemetry test = new PrimitiveTelemetry(true, (byte) 2, 'c', (short) 4, 5, 6L, 7.5f, 8.25, "source");
+
+		PepPrimitiveRecord record = mapper.toRecord(test);
+
+		// primitives are held in the typed slots.
+		Assertions.assertEquals(6, record.longs().length);
+		Assertions.assertEquals(2, record.doubles().length);
+		Assertions.assertEquals(1, record.objects().length);
+
+		Assertions.assertTrue(record.getBoolean(0));
+		Assertions.assertEquals('c', record.getLong(2));
+		Assertions.assertEquals(5, record.getInt(4));
+		Assertions.assertEquals(6L, record.getLong(5));
+		Assertions.assertEquals(7.5f, record.getFloat(6));
+		Assertions.assertEquals(8.25, record.getDouble(7));
+		Assertions.assertEquals("source", record.getObject(8));
+
+		PrimitiveTelemetry object = mapper.toObject(PrimitiveTelemetry.class, record);
+		Assertions.assertTrue(object.active());
+		Assertions.assertEquals((byte) 2, object.level());
+		Assertions.assertEquals('c', object.code());
+		Assertions.assertEquals((short) 4, object.channel());
+		Assertions.assertEquals(5, object.count());
+		Assertions.assertEquals(6L, object.timestamp());
+		Assertions.assertEquals(7.5f, object.ratio());
+		Assertions.assertEquals(8.25, object.value());
+		Assertions.assertEquals("source", object.source());
+	}
+
+	@Test
+	public void testNewRecord() throws Throwable {
+		PepPrimitiveRecord record = mapper.newRecord(SimpleImmutable.class);
+		record.setLong(0, 10);
+		record.setLong(1, 20);
+
+		SimpleImmutable object = mapper.toObject(SimpleImmutable.class, record);
+		Assertions.assertEquals(10, object.x());
+		Assertions.assertEquals(20, object.y());
+	}
+
+	@Test
+	public void testSimplePojo() throws Throwable {
+		SimplePojo test = new SimplePojo();
+		test.setX(1);
+		test.setY(2);
+
+		SimplePojo object = mapper.toObject(SimplePojo.class, mapper.toRecord(test));
+		Assertions.assertEquals(1, object.getX());
+		Assertions.assertEquals(2, object.getY());
+	}
+
+	@Test
+	public void testAtoms() throws Throwable {
+		SimpleUUIDImmutable test = new SimpleUUIDImmutable(UUID.randomUUID(), null);
+
+		PepPrimitiveRecord record = mapper.toRecord(test);
+		Assertions.assertEquals(test.first().toString(), record.getObject(0));
+
+		SimpleUUIDImmutable object = mapper.toObject(SimpleUUIDImmutable.class, record);
+		Assertions.assertEquals(test.first(), object.first());
+		Assertions.assertNull(object.second());
+
+		// atom with a primitive data form is held in a long slot.
+		IntAtomData atomData = new IntAtomData(IntAtom.getAtom(42));
+		record = mapper.toRecord(atomData);
+		Assertions.assertEquals(42, record.getInt(0));
+		Assertions.assertSame(atomData.intAtom(), mapper.toObject(IntAtomData.class, record).intAtom());
+	}
+
+	@Test
+	public void testNested() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), null };
+		NestedImmutable test = new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array));
+
+		PepPrimitiveRecord record = mapper.toRecord(test);
+		Assertions.assertTrue(record.getObject(0) instanceof PepPrimitiveRecord);
+
+		NestedImmutable object = mapper.toObject(NestedImmutable.class, record);
+		Assertions.assertEquals(2, object.first().y());
+		Assertions.assertEquals(4, object.second().y());
+		Assertions.assertEquals(6, object.array().arrayImmutable()[0].y());
+		Assertions.assertNull(object.array().arrayImmutable()[1]);
+	}
+
+	@Test
+	public void testRecursive() throws Throwable {
+		// direct, indirect and array recursion are all rejected rather than overflowing the stack.
+		Assertions.assertThrows(PepException.class, () -> mapper.toRecord(new TreeNode(1, null, null)));
+		Assertions.assertThrows(PepException.class, () -> mapper.toRecord(new Department("research", new Employee("alice", null))));
+		Assertions.assertThrows(PepException.class, () -> mapper.newRecord(Employee.class));
+		Assertions.assertThrows(PepException.class, () -> mapper.toRecord(new AstNode("1", null)));
+
+		// a failed compile does not affect other classes.
+		Assertions.assertEquals(2, mapper.toObject(SimpleImmutable.class, mapper.toRecord(new SimpleImmutable(1, 2))).y());
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class ProjectIntoTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+	}
+
+	private static TreeNode tree(int value) {
+		return new TreeNode(value, new TreeNode(value + 1, null, null), new TreeNode(value + 2, new TreeNode(value + 3, null, null), null));
+	}
+
+	@Test
+	public void testSameAsToArray() throws Throwable {
+		TreeNode test = tree(1);
+
+		Object[] values = arrayMapper.toArray(test, new Object[3]);
+		Assertions.assertArrayEquals(arrayMapper.toArray(test), values);
+
+		TreeNode object = arrayMapper.toObject(TreeNode.class, values);
+		Assertions.assertEquals(4, object.right().left().value());
+	}
+
+	@Test
+	public void testReuseNested() throws Throwable {
+		Object[] values = arrayMapper.toArray(tree(1), new Object[3]);
+		Object[] left = (Object[]) values[1];
+		Object[] rightLeft = (Object[]) ((Object[]) values[2])[1];
+
+		// nested arrays are reused when projecting the same shape again.
+		Object[] result = arrayMapper.toArray(tree(10), values);
+		Assertions.assertSame(values, result);
+		Assertions.assertSame(left, values[1]);
+		Assertions.assertSame(rightLeft, ((Object[]) values[2])[1]);
+		Assertions.assertEquals(11, left[0]);
+		Assertions.assertEquals(13, rightLeft[0]);
+	}
+
+	@Test
+	public void testShapeChange() throws Throwable {
+		Object[] values = arrayMapper.toArray(tree(1), new Object[3]);
+
+		// a null nested tuple clears the slot.
+		arrayMapper.toArray(new TreeNode(5, null, null), values);
+		Assertions.assertNull(values[1]);
+		Assertions.assertNull(values[2]);
+
+		arrayMapper.toArray(tree(20), values);
+		Assertions.assertEquals(21, ((Object[]) values[1])[0]);
+	}
+
+	@Test
+	public void testWrongLength() throws Throwable {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> arrayMapper.toArray(tree(1), new Object[2]));
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.litterat.pep.data.IntAtom;
+import io.litterat.pep.data.IntAtomData;
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.ProjectImmutable;
+import io.litterat.pep.data.SimpleArray;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.mapper.PepRecordFile;
+import io.litterat.pep.mapper.PepRecordView;
+import io.litterat.pep.mapper.PepRecordWriter;
+
+public class RecordFileTest {
+
+	// Component indexes of PrimitiveTelemetry.
+	static final int ACTIVE = 0;
+	static final int CODE = 2;
+	static final int COUNT = 4;
+	static final int TIMESTAMP = 5;
+	static final int RATIO = 6;
+	static final int VALUE = 7;
+	static final int SOURCE = 8;
+
+	@TempDir
+	Path tempDir;
+
+	Path file;
+
+	PepContext context;
+
+	@BeforeEach
+	public void setup() {
+		file = tempDir.resolve("records.pep");
+		context = PepContext.builder().build();
+	}
+
+	private PrimitiveTelemetry telemetry(int x) {
+		return new PrimitiveTelemetry(x % 2 == 0, (byte) x, (char) ('a' + x % 26), (short) -x, x * 7, 1000000000000L + x, x / 2.0f, x * 1.5,
+				x % 3 == 0 ? null : "source" + x);
+	}
+
+	private void writeTelemetry(int count) throws Throwable {
+		try (PepRecordWriter<PrimitiveTelemetry> writer = new PepRecordWriter<>(context, PrimitiveTelemetry.class, file)) {
+			for (int x = 0; x < count; x++) {
+				writer.write(telemetry(x));
+			}
+		}
+	}
+
+	@Test
+	public void testLazyComponents() throws Throwable {
+		writeTelemetry(10000);
+
+		int count = 0;
+		try (PepRecordFile<PrimitiveTelemetry> records = PepRecordFile.open(context, PrimitiveTelemetry.class, file)) {
+			PepRecordView<PrimitiveTelemetry> view = records.view();
+			while (view.next()) {
+				Assertions.assertEquals(count % 2 == 0, view.getBoolean(ACTIVE));
+				Assertions.assertEquals('a' + count % 26, view.getLong(CODE));
+				Assertions.assertEquals(count * 7, view.getInt(COUNT));
+				Assertions.assertEquals(1000000000000L + count, view.getLong(TIMESTAMP));
+				Assertions.assertEquals(count / 2.0f, view.getFloat(RATIO));
+				Assertions.assertEquals(count * 1.5, view.getDouble(VALUE));
+				Assertions.assertEquals(count % 3 == 0 ? null : "source" + count, view.getObject(SOURCE));
+				count++;
+			}
+		}
+		Assertions.assertEquals(10000, count);
+	}
+
+	@Test
+	public void testMaterialize() throws Throwable {
+		writeTelemetry(1000);
+
+		try (PepRecordFile<PrimitiveTelemetry> records = PepRecordFile.open(context, PrimitiveTelemetry.class, file)) {
+			PepRecordView<PrimitiveTelemetry> view = records.view();
+
+			// only materialize records passing the filter.
+			while (view.next()) {
+				if (view.getInt(COUNT) == 700) {
+					PrimitiveTelemetry object = view.materialize();
+					PrimitiveTelemetry expected = telemetry(100);
+					Assertions.assertEquals(expected.level(), object.level());
+					Assertions.assertEquals(expected.channel(), object.channel());
+					Assertions.assertEquals(expected.timestamp(), object.timestamp());
+					Assertions.assertEquals(expected.source(), object.source());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRegions() throws Throwable {
+		writeTelemetry(5000);
+
+		// small regions force the file to be remapped as the view moves.
+		int count = 0;
+		try (PepRecordFile<PrimitiveTelemetry> records = PepRecordFile.open(context, PrimitiveTelemetry.class, file, 4096)) {
+			PepRecordView<PrimitiveTelemetry> view = records.view();
+			while (view.next()) {
+				Assertions.assertEquals(count * 7, view.getInt(COUNT));
+				Assertions.assertEquals(count % 3 == 0 ? null : "source" + count, view.getObject(SOURCE));
+				count++;
+			}
+		}
+		Assertions.assertEquals(5000, count);
+	}
+
+	@Test
+	public void testNested() throws Throwable {
+		SimpleImmutable[] array = { new SimpleImmutable(5, 6), null };
+		try (PepRecordWriter<NestedImmutable> writer = new PepRecordWriter<>(context, NestedImmutable.class, file)) {
+			writer.write(new NestedImmutable(new SimpleImmutable(1, 2), new ProjectImmutable(3, 4), new SimpleArray(array)));
+			writer.write(new NestedImmutable(null, new ProjectImmutable(7, 8), null));
+		}
+
+		try (PepRecordFile<NestedImmutable> records = PepRecordFile.open(context, NestedImmutable.class, file)) {
+			PepRecordView<NestedImmutable> view = records.view();
+
+			Assertions.assertTrue(view.next());
+			Assertions.assertEquals(2, ((SimpleImmutable) view.getObject(0)).y());
+			NestedImmutable first = view.materialize();
+			Assertions.assertEquals(4, first.second().y());
+			Assertions.assertEquals(6, first.array().arrayImmutable()[0].y());
+			Assertions.assertNull(first.array().arrayImmutable()[1]);
+
+			Assertions.assertTrue(view.next());
+			Assertions.assertNull(view.getObject(0));
+			NestedImmutable second = view.materialize();
+			Assertions.assertEquals(7, second.second().x());
+			Assertions.assertNull(second.array());
+
+			Assertions.assertFalse(view.next());
+		}
+	}
+
+	@Test
+	public void testAtom() throws Throwable {
+		try (PepRecordWriter<IntAtomData> writer = new PepRecordWriter<>(context, IntAtomData.class, file)) {
+			writer.write(new IntAtomData(IntAtom.getAtom(23)));
+		}
+
+		try (PepRecordFile<IntAtomData> records = PepRecordFile.open(context, IntAtomData.class, file)) {
+			PepRecordView<IntAtomData> view = records.view();
+			Assertions.assertTrue(view.next());
+
+			// atoms with primitive data are stored in place.
+			Assertions.assertEquals(23, view.getInt(0));
+			Assertions.assertEquals(IntAtom.getAtom(23), view.getObject(0));
+			Assertions.assertEquals(IntAtom.getAtom(23), view.materialize().intAtom());
+		}
+	}
+
+	@Test
+	public void testFailedWrite() throws Throwable {
+		try (PepRecordWriter<IntAtomData> writer = new PepRecordWriter<>(context, IntAtomData.class, file)) {
+			writer.write(new IntAtomData(IntAtom.getAtom(23)));
+
+			// a null atom with primitive data fails after the fixed part has been reserved.
+			Assertions.assertThrows(PepException.class, () -> {
+				writer.write(new IntAtomData(null));
+			});
+
+			writer.write(new IntAtomData(IntAtom.getAtom(24)));
+		}
+
+		try (PepRecordFile<IntAtomData> records = PepRecordFile.open(context, IntAtomData.class, file)) {
+			PepRecordView<IntAtomData> view = records.view();
+			Assertions.assertTrue(view.next());
+			Assertions.assertEquals(23, view.getInt(0));
+			Assertions.assertTrue(view.next());
+			Assertions.assertEquals(24, view.getInt(0));
+			Assertions.assertFalse(view.next());
+		}
+	}
+
+	@Test
+	public void testInvalidFile() throws Throwable {
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+		Assertions.assertThrows(PepException.class, () -> {
+			PepRecordFile.open(context, PrimitiveTelemetry.class, file);
+		});
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.AstNode;
+import io.litterat.pep.data.Department;
+import io.litterat.pep.data.Employee;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+
+public class RecursiveArrayMapperTest {
+
+	PepContext context;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+	}
+
+	@Test
+	public void testDescriptor() throws Throwable {
+		PepDataClass descriptor = context.getDescriptor(TreeNode.class);
+
+		Assertions.assertSame(descriptor, descriptor.dataComponents()[1].dataClass());
+		Assertions.assertSame(descriptor, descriptor.dataComponents()[2].dataClass());
+	}
+
+	@Test
+	public void testSelfRecursive() throws Throwable {
+		assertTree(new PepArrayMapper(context));
+	}
+
+	@Test
+	public void testSelfRecursiveGenerated() throws Throwable {
+		assertTree(new PepArrayMapper(context, true));
+	}
+
+	@Test
+	public void testMutuallyRecursive() throws Throwable {
+		assertDepartment(new PepArrayMapper(context));
+	}
+
+	@Test
+	public void testMutuallyRecursiveGenerated() throws Throwable {
+		assertDepartment(new PepArrayMapper(context, true));
+	}
+
+	@Test
+	public void testArrayRecursive() throws Throwable {
+		AstNode test = new AstNode("+", new AstNode[] { new AstNode("1", new AstNode[0]), new AstNode("*", new AstNode[] {
+				new AstNode("2", new AstNode[0]), new AstNode("3", new AstNode[0]) }) });
+
+		PepArrayMapper arrayMap = new PepArrayMapper(context);
+		AstNode object = arrayMap.toObject(AstNode.class, arrayMap.toArray(test));
+
+		Assertions.assertEquals("+", object.op());
+		Assertions.assertEquals("*", object.children()[1].op());
+		Assertions.assertEquals("3", object.children()[1].children()[1].op());
+	}
+
+	@Test
+	public void testMapMapper() throws Throwable {
+		TreeNode test = new TreeNode(1, new TreeNode(2, null, null), new TreeNode(3, null, new TreeNode(4, null, null)));
+
+		PepMapMapper mapMapper = new PepMapMapper(context);
+		Map<String, Object> map = mapMapper.toMap(test);
+
+		TreeNode object = (TreeNode) mapMapper.toObject(TreeNode.class, map);
+		Assertions.assertEquals(4, object.right().right().value());
+	}
+
+	private void assertTree(PepArrayMapper arrayMap) throws Throwable {
+		TreeNode test = new TreeNode(1, new TreeNode(2, null, null), new TreeNode(3, null, new TreeNode(4, null, null)));
+
+		Object[] values = arrayMap.toArray(test);
+		Assertions.assertEquals(1, values[0]);
+		Assertions.assertArrayEquals(new Object[] { 2, null, null }, (Object[]) values[1]);
+
+		TreeNode object = arrayMap.toObject(TreeNode.class, values);
+		Assertions.assertEquals(1, object.value());
+		Assertions.assertEquals(2, object.left().value());
+		Assertions.assertNull(object.left().left());
+		Assertions.assertNull(object.right().left());
+		Assertions.assertEquals(4, object.right().right().value());
+	}
+
+	private void assertDepartment(PepArrayMapper arrayMap) throws Throwable {
+		Department test = new Department("sales", new Employee("alice", new Department("head office", null)));
+
+		Object[] values = arrayMap.toArray(test);
+		Department object = arrayMap.toObject(Department.class, values);
+		Assertions.assertEquals("sales", object.name());
+		Assertions.assertEquals("alice", object.manager().name());
+		Assertions.assertEquals("head office", object.manager().department().name());
+		Assertions.assertNull(object.manager().department().manager());
+
+		// Employee compiled as part of Department.
+		Employee employee = arrayMap.toObject(Employee.class, arrayMap.toArray(test.manager()));
+		Assertions.assertEquals("head office", employee.department().name());
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.Drawing;
+import io.litterat.pep.data.ImmutableAtom;
+import io.litterat.pep.data.ListImmutable;
+import io.litterat.pep.data.MapImmutable;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimpleImmutableV1;
+import io.litterat.pep.data.SimpleUUIDImmutable;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class SchemaTest {
+
+	PepContext context;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+	}
+
+	@Test
+	public void testCanonicalForm() throws Throwable {
+		PepSchema schema = context.getSchema(SimpleImmutable.class);
+
+		Assertions.assertEquals("io.litterat.pep.data.SimpleImmutable", schema.root());
+		Assertions.assertEquals("io.litterat.pep.data.SimpleImmutable;io.litterat.pep.data.SimpleImmutable{x:int,y:int}", schema.toString());
+
+		// the schema is created once.
+		Assertions.assertSame(schema, context.getSchema(SimpleImmutable.class));
+	}
+
+	@Test
+	public void testFingerprint() throws Throwable {
+		PepContext other = PepContext.builder().build();
+
+		long fingerprint = context.getSchema(SimpleImmutable.class).fingerprint();
+		Assertions.assertEquals(fingerprint, other.getSchema(SimpleImmutable.class).fingerprint());
+		Assertions.assertNotEquals(fingerprint, context.getSchema(SimpleImmutableV1.class).fingerprint());
+
+		// a version projected to a different data class has a different structure.
+		context.registerVersion(SimpleImmutable.class, 1, SimpleImmutableV1.class, new ObjectDataBridge<SimpleImmutableV1, SimpleImmutable>() {
+
+			@Override
+			public SimpleImmutableV1 toData(SimpleImmutable b) {
+				return new SimpleImmutableV1(b.x());
+			}
+
+			@Override
+			public SimpleImmutable toObject(SimpleImmutableV1 s) {
+				return new SimpleImmutable(s.x(), 0);
+			}
+		});
+		PepSchema version = PepSchema.create(context, context.getDescriptor(SimpleImmutable.class, 1));
+		Assertions.assertEquals("io.litterat.pep.data.SimpleImmutable;io.litterat.pep.data.SimpleImmutable{x:int}", version.toString());
+		Assertions.assertNotEquals(fingerprint, version.fingerprint());
+	}
+
+	@Test
+	public void testNestedTypes() throws Throwable {
+		Assertions.assertEquals(
+				"io.litterat.pep.data.TreeNode;io.litterat.pep.data.TreeNode{value:int,left:io.litterat.pep.data.TreeNode,right:io.litterat.pep.data.TreeNode}",
+				context.getSchema(TreeNode.class).toString());
+
+		Assertions.assertEquals("io.litterat.pep.data.Drawing;"
+				+ "io.litterat.pep.data.Drawing{name:java.lang.String,main:io.litterat.pep.data.Shape,shapes:io.litterat.pep.data.Shape[]};"
+				+ "io.litterat.pep.data.Shape|io.litterat.pep.data.Circle,io.litterat.pep.data.Square;"
+				+ "io.litterat.pep.data.Circle{radius:int};io.litterat.pep.data.Square{side:int}", context.getSchema(Drawing.class).toString());
+
+		context.registerAtom(UUID.class, new UUIDBridge());
+		PepSchema uuid = context.getSchema(SimpleUUIDImmutable.class);
+		Assertions.assertEquals("java.util.UUID=java.lang.String", uuid.types()[1].toString());
+
+		PepSchemaType map = context.getSchema(MapImmutable.class).types()[0];
+		Assertions.assertEquals("java.util.Map<java.lang.String,java.lang.Integer>", map.components()[0].type());
+
+		Assertions.assertEquals("io.litterat.pep.data.ListImmutable;io.litterat.pep.data.ListImmutable{points:java.util.List<io.litterat.pep.data.SimpleImmutable>};"
+				+ "io.litterat.pep.data.SimpleImmutable{x:int,y:int}", context.getSchema(ListImmutable.class).toString());
+	}
+
+	@Test
+	public void testEnumConstants() throws Throwable {
+		PepSchema schema = context.getSchema(ImmutableAtom.class);
+		Assertions.assertEquals("io.litterat.pep.data.SimpleEnum=java.lang.String[ONE,TWO,THREE,FOUR,FIVE,SIX]", schema.types()[1].toString());
+
+		PepContext ordinal = PepContext.builder().build();
+		ordinal.registerOrdinalEnum(SimpleEnum.class);
+		PepSchema ordinalSchema = ordinal.getSchema(ImmutableAtom.class);
+		Assertions.assertEquals("io.litterat.pep.data.SimpleEnum=int[ONE,TWO,THREE,FOUR,FIVE,SIX]", ordinalSchema.types()[1].toString());
+		Assertions.assertNotEquals(schema.fingerprint(), ordinalSchema.fingerprint());
+
+		// reordered constants give a different canonical form.
+		PepSchemaType reordered = new PepSchemaType(SimpleEnum.class.getName(), "ATOM", "int",
+				new PepSchemaComponent[0], new String[] { "TWO", "ONE", "THREE", "FOUR", "FIVE", "SIX" });
+		Assertions.assertNotEquals(ordinalSchema.types()[1].toString(), reordered.toString());
+	}
+
+	@Test
+	public void testExchange() throws Throwable {
+		PepSchema schema = context.getSchema(Drawing.class);
+
+		// the schema is a data class so can be sent with a mapper and recreated by the reader.
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+		PepSchema received = arrayMapper.toObject(PepSchema.class, arrayMapper.toArray(schema));
+
+		Assertions.assertEquals(schema.toString(), received.toString());
+		Assertions.assertEquals(schema.fingerprint(), received.fingerprint());
+	}
+}
@@ -22,6 +22,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import io.litterat.pep.data.NestedImmutable;
+import io.litterat.pep.data.ProjectImmutable;
 import io.litterat.pep.data.SimpleArray;
 import io.litterat.pep.data.SimpleImmutable;
 import io.litterat.pep.data.UUIDBridge;
@@ -54,14 +56,31 @@ public class SimpleArrayTest {
 		Assertions.assertNotNull(values);
 
 		// rebuild as an object.
-		//SimpleUUIDImmutable object = arrayMap.toObject(SimpleUUIDImmutable.class, values);
+		SimpleArray object = arrayMap.toObject(SimpleArray.class, values);
 
 		// Validate
-		//		Assertions.assertNotNull(object);
-		//		Assertions.assertTrue(object instanceof SimpleUUIDImmutable);
-		//		Assertions.assertEquals(FIRST_UUID, test.first());
-		//		Assertions.assertEquals(SECOND_UUID, test.second());
+		Assertions.assertNotNull(object);
+		Assertions.assertEquals(3, object.arrayImmutable().length);
+		Assertions.assertEquals(22, object.arrayImmutable()[1].x());
+		Assertions.assertEquals(3, object.arrayImmutable()[2].y());
+
+	}
+
+	@Test
+	public void testEmbedTwice() throws Throwable {
+
+		PepArrayMapper arrayMap = new PepArrayMapper(context);
+		Object[] values = arrayMap.toArray(new NestedImmutable(a1, new ProjectImmutable(1, 2), test));
+
+		// nested tuples and arrays are not replaced in the caller's array.
+		NestedImmutable first = arrayMap.toObject(NestedImmutable.class, values);
+		NestedImmutable second = arrayMap.toObject(NestedImmutable.class, values);
 
+		Assertions.assertTrue(values[0] instanceof Object[]);
+		Assertions.assertTrue(values[2] instanceof Object[]);
+		Assertions.assertEquals(1, first.first().x());
+		Assertions.assertEquals(212, second.array().arrayImmutable()[1].y());
+		Assertions.assertNotSame(first.array(), second.array());
 	}
 
 	@Test
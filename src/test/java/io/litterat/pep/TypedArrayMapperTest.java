@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.TreeNode;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepTypedArrayMapper;
+
+public class TypedArrayMapperTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+	}
+
+	@Test
+	public void testRoundTrip() throws Throwable {
+		PepTypedArrayMapper<SimpleImmutable> mapper = arrayMapper.forClass(SimpleImmutable.class);
+		Assertions.assertEquals(SimpleImmutable.class, mapper.typeClass());
+
+		SimpleImmutable p = new SimpleImmutable(1, 2);
+		Object[] values = mapper.toArray(p);
+		Assertions.assertArrayEquals(arrayMapper.toArray(p), values);
+
+		SimpleImmutable result = mapper.toObject(values);
+		Assertions.assertEquals(1, result.x());
+		Assertions.assertEquals(2, result.y());
+	}
+
+	@Test
+	public void testGeneratedConstants() throws Throwable {
+		PepTypedArrayMapper<SimpleImmutable> mapper = arrayMapper.forClass(SimpleImmutable.class);
+
+		// the functions are held in static final fields of a generated subclass so the JIT can fold them.
+		Assertions.assertEquals(PepTypedArrayMapper.class, mapper.getClass().getSuperclass());
+		Field[] fields = mapper.getClass().getDeclaredFields();
+		Assertions.assertEquals(2, fields.length);
+		for (Field field : fields) {
+			Assertions.assertEquals(MethodHandle.class, field.getType());
+			Assertions.assertTrue(Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers()));
+		}
+
+		// each mapper has its own class.
+		Assertions.assertNotEquals(mapper.getClass(), arrayMapper.forClass(SimpleImmutable.class).getClass());
+	}
+
+	@Test
+	public void testRecursive() throws Throwable {
+		for (PepArrayMapper mapper : new PepArrayMapper[] { arrayMapper, new PepArrayMapper(context, true) }) {
+			PepTypedArrayMapper<TreeNode> treeMapper = mapper.forClass(TreeNode.class);
+
+			TreeNode tree = new TreeNode(1, new TreeNode(2, null, null), new TreeNode(3, null, new TreeNode(4, null, null)));
+			TreeNode result = treeMapper.toObject(treeMapper.toArray(tree));
+			Assertions.assertEquals(1, result.value());
+			Assertions.assertEquals(2, result.left().value());
+			Assertions.assertEquals(4, result.right().right().value());
+		}
+	}
+
+	@Test
+	public void testVersion() throws Throwable {
+		context.registerVersion(SimpleImmutable.class, 3);
+
+		PepTypedArrayMapper<SimpleImmutable> mapper = arrayMapper.forClass(SimpleImmutable.class, 3);
+		Assertions.assertArrayEquals(new Object[] { 1, 2 }, mapper.toArray(new SimpleImmutable(1, 2)));
+
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.forClass(SimpleImmutable.class, 4));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void testInvalid() throws Throwable {
+		PepTypedArrayMapper mapper = arrayMapper.forClass(SimpleImmutable.class);
+
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.toArray(null));
+		Assertions.assertThrows(ClassCastException.class, () -> mapper.toArray(new TreeNode(1, null, null)));
+	}
+}
@@ -68,6 +68,24 @@ public class UUIDBridgeTest {
 
 	}
 
+	@Test
+	public void testEmbedTwice() throws Throwable {
+
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		PepArrayMapper arrayMap = new PepArrayMapper(context);
+		Object[] values = arrayMap.toArray(test);
+
+		// embedding does not convert the values in place so the same array can be embedded again.
+		SimpleUUIDImmutable first = arrayMap.toObject(SimpleUUIDImmutable.class, values);
+		SimpleUUIDImmutable second = arrayMap.toObject(SimpleUUIDImmutable.class, values);
+
+		Assertions.assertEquals(FIRST_UUID.toString(), values[0]);
+		Assertions.assertEquals(FIRST_UUID, first.first());
+		Assertions.assertEquals(FIRST_UUID, second.first());
+		Assertions.assertEquals(SECOND_UUID, second.second());
+	}
+
 	@Test
 	public void testToMap() throws Throwable {
 
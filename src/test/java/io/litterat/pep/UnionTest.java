@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.Add;
+import io.litterat.pep.data.Circle;
+import io.litterat.pep.data.Drawing;
+import io.litterat.pep.data.Expr;
+import io.litterat.pep.data.Literal;
+import io.litterat.pep.data.Shape;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.Square;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepMapMapper;
+
+public class UnionTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+	}
+
+	@Test
+	public void testDescriptor() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(Shape.class);
+
+		Assertions.assertTrue(dataClass.isUnion());
+		Assertions.assertEquals(Object[].class, dataClass.dataClass());
+		Assertions.assertArrayEquals(new Class<?>[] { Circle.class, Square.class }, dataClass.unionMembers());
+
+		PepDataComponent[] fields = context.getDescriptor(Drawing.class).dataComponents();
+		Assertions.assertTrue(fields[1].dataClass().isUnion());
+	}
+
+	@Test
+	public void testTaggedProjection() throws Throwable {
+		Drawing drawing = new Drawing("plan", new Square(4), new Shape[] { new Circle(1), null, new Square(2) });
+
+		Object[] values = arrayMapper.toArray(drawing);
+		Assertions.assertArrayEquals(new Object[] { 1, new Object[] { 4 } }, (Object[]) values[1]);
+
+		Object[] shapes = (Object[]) values[2];
+		Assertions.assertArrayEquals(new Object[] { 0, new Object[] { 1 } }, (Object[]) shapes[0]);
+		Assertions.assertNull(shapes[1]);
+		Assertions.assertArrayEquals(new Object[] { 1, new Object[] { 2 } }, (Object[]) shapes[2]);
+
+		Drawing result = arrayMapper.toObject(Drawing.class, values);
+		Assertions.assertEquals("plan", result.name());
+		Assertions.assertEquals(4, ((Square) result.main()).side());
+		Assertions.assertEquals(3, result.shapes().length);
+		Assertions.assertEquals(1, ((Circle) result.shapes()[0]).radius());
+		Assertions.assertNull(result.shapes()[1]);
+		Assertions.assertEquals(2, ((Square) result.shapes()[2]).side());
+
+		// the union class itself embeds from the tagged form.
+		Shape shape = arrayMapper.toObject(Shape.class, new Object[] { 0, new Object[] { 5 } });
+		Assertions.assertEquals(5, ((Circle) shape).radius());
+	}
+
+	@Test
+	public void testRegisteredRecursiveUnion() throws Throwable {
+		context.registerUnion(Expr.class, Literal.class, Add.class);
+
+		Expr expr = new Add(new Literal(1), new Add(new Literal(2), new Literal(3)));
+
+		Object[] values = arrayMapper.toArray(expr);
+		Assertions.assertArrayEquals(new Object[] { 0, new Object[] { 1 } }, (Object[]) values[0]);
+
+		Expr result = arrayMapper.toObject(Add.class, values);
+		Assertions.assertEquals(6, result.evaluate());
+		Assertions.assertEquals(3, ((Literal) ((Add) ((Add) result).right()).right()).value());
+	}
+
+	@Test
+	public void testGeneratedCode() throws Throwable {
+		PepArrayMapper generated = new PepArrayMapper(context, true);
+
+		Drawing drawing = new Drawing("plan", new Square(4), new Shape[] { new Circle(1) });
+
+		Object[] values = generated.toArray(drawing);
+		Assertions.assertArrayEquals(new Object[] { 1, new Object[] { 4 } }, (Object[]) values[1]);
+
+		Drawing result = generated.toObject(Drawing.class, values);
+		Assertions.assertEquals(4, ((Square) result.main()).side());
+		Assertions.assertEquals(1, ((Circle) result.shapes()[0]).radius());
+	}
+
+	@Test
+	public void testMapMapper() throws Throwable {
+		PepMapMapper mapMapper = new PepMapMapper(context);
+
+		Drawing drawing = new Drawing("plan", new Circle(3), new Shape[] { new Square(2), null });
+
+		Map<String, Object> map = mapMapper.toMap(drawing);
+		Object[] main = (Object[]) map.get("main");
+		Assertions.assertEquals(0, main[0]);
+		Assertions.assertEquals(3, ((Map<?, ?>) main[1]).get("radius"));
+
+		Drawing result = (Drawing) mapMapper.toObject(Drawing.class, map);
+		Assertions.assertEquals(3, ((Circle) result.main()).radius());
+		Assertions.assertEquals(2, ((Square) result.shapes()[0]).side());
+		Assertions.assertNull(result.shapes()[1]);
+	}
+
+	@Test
+	public void testInvalid() throws Throwable {
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toObject(Shape.class, new Object[] { 2, new Object[] { 5 } }));
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toObject(Shape.class, new Object[] { -1, new Object[] { 5 } }));
+
+		// members must implement the union and be listed once.
+		Assertions.assertThrows(PepException.class, () -> context.registerUnion(Expr.class, Literal.class, SimpleImmutable.class));
+		Assertions.assertThrows(PepException.class, () -> context.registerUnion(Expr.class, Literal.class, Literal.class));
+
+		// an implementation that is not a member can not be projected.
+		Shape triangle = new Shape() {
+
+			@Override
+			public int area() {
+				return 0;
+			}
+		};
+		Drawing drawing = new Drawing("plan", triangle, new Shape[0]);
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toArray(drawing));
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.SimpleImmutableV1;
+import io.litterat.pep.mapper.PepArrayMapper;
+
+public class VersionTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() throws Throwable {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+
+		context.registerVersion(SimpleImmutable.class, 1, SimpleImmutableV1.class,
+				new ObjectDataBridge<SimpleImmutableV1, SimpleImmutable>() {
+
+					@Override
+					public SimpleImmutableV1 toData(SimpleImmutable b) {
+						return new SimpleImmutableV1(b.x());
+					}
+
+					@Override
+					public SimpleImmutable toObject(SimpleImmutableV1 s) {
+						return new SimpleImmutable(s.x(), 0);
+					}
+				});
+		context.registerVersion(SimpleImmutable.class, 2);
+	}
+
+	@Test
+	public void testDescriptors() throws Throwable {
+		PepDataClass v1 = context.getDescriptor(SimpleImmutable.class, 1);
+		Assertions.assertEquals(SimpleImmutable.class, v1.typeClass());
+		Assertions.assertEquals(SimpleImmutableV1.class, v1.dataClass());
+		Assertions.assertEquals(1, v1.dataComponents().length);
+
+		// the current version is the same descriptor as the unversioned one.
+		Assertions.assertSame(context.getDescriptor(SimpleImmutable.class), context.getDescriptor(SimpleImmutable.class, 2));
+	}
+
+	@Test
+	public void testMixedVersions() throws Throwable {
+		SimpleImmutable p = new SimpleImmutable(3, 4);
+
+		Object[] v1 = arrayMapper.toArray(p, 1);
+		Object[] v2 = arrayMapper.toArray(p, 2);
+		Assertions.assertArrayEquals(new Object[] { 3 }, v1);
+		Assertions.assertArrayEquals(new Object[] { 3, 4 }, v2);
+
+		SimpleImmutable r1 = arrayMapper.toObject(SimpleImmutable.class, 1, v1);
+		Assertions.assertEquals(3, r1.x());
+		Assertions.assertEquals(0, r1.y());
+
+		SimpleImmutable r2 = arrayMapper.toObject(SimpleImmutable.class, 2, v2);
+		Assertions.assertEquals(3, r2.x());
+		Assertions.assertEquals(4, r2.y());
+
+		// unversioned calls are not affected by the registered versions.
+		Assertions.assertArrayEquals(v2, arrayMapper.toArray(p));
+	}
+
+	@Test
+	public void testUnregisteredVersion() throws Throwable {
+		SimpleImmutable p = new SimpleImmutable(3, 4);
+
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toArray(p, 0));
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toArray(p, 5));
+		Assertions.assertThrows(PepException.class, () -> arrayMapper.toArray(p, -1));
+		Assertions.assertThrows(PepException.class, () -> context.registerVersion(SimpleImmutable.class, -1));
+	}
+
+	@Test
+	public void testDuplicateVersion() throws Throwable {
+		Assertions.assertThrows(PepException.class, () -> context.registerVersion(SimpleImmutable.class, 2));
+
+		// the original registration is kept.
+		Assertions.assertEquals(SimpleImmutableV1.class, context.getDescriptor(SimpleImmutable.class, 1).dataClass());
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.ComplexImmutable;
+import io.litterat.pep.data.PrimitiveTelemetry;
+import io.litterat.pep.data.SimpleEnum;
+import io.litterat.pep.data.SimpleImmutable;
+import io.litterat.pep.data.UUIDBridge;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepWarmup;
+
+public class WarmupTest {
+
+	PepContext context;
+
+	PepArrayMapper arrayMapper;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+		arrayMapper = new PepArrayMapper(context);
+	}
+
+	@Test
+	public void testWarmup() throws Throwable {
+		PepWarmup.Report report = PepWarmup.builder(context).classes(SimpleImmutable.class, ComplexImmutable.class, PrimitiveTelemetry.class)
+				.arrayMapper(arrayMapper).iterations(100).parallelism(2).build().run();
+
+		Assertions.assertEquals(3, report.classes().size());
+		Assertions.assertTrue(report.failures().isEmpty(), () -> report.failures().toString());
+
+		PepWarmup.ClassReport telemetry = report.get(PrimitiveTelemetry.class);
+		Assertions.assertTrue(telemetry.resolveNanos() > 0);
+		Assertions.assertTrue(telemetry.warmupNanos() > 0);
+	}
+
+	@Test
+	public void testFailure() throws Throwable {
+		PepWarmup.Report report = PepWarmup.builder(context).classes(SimpleImmutable.class, Object.class).arrayMapper(arrayMapper).build()
+				.run();
+
+		Assertions.assertEquals(1, report.failures().size());
+		Assertions.assertEquals(Object.class, report.failures().get(0).typeClass());
+		Assertions.assertTrue(report.failures().get(0).failure() instanceof PepException);
+		Assertions.assertNull(report.get(SimpleImmutable.class).failure());
+	}
+
+	@Test
+	public void testScanPackage() throws Throwable {
+		PepWarmup warmup = PepWarmup.builder(context).scanPackage("io.litterat.pep.data").build();
+
+		List<Class<?>> classes = warmup.classes();
+		Assertions.assertTrue(classes.contains(SimpleImmutable.class));
+		Assertions.assertTrue(classes.contains(PrimitiveTelemetry.class));
+
+		// only classes with a @Data annotation.
+		Assertions.assertFalse(classes.contains(SimpleEnum.class));
+		Assertions.assertFalse(classes.contains(UUIDBridge.class));
+	}
+
+	@Test
+	public void testParallelResolve() throws Throwable {
+		context.registerAtom(UUID.class, new UUIDBridge());
+
+		// classes sharing nested classes are resolved at the same time.
+		PepWarmup.Report report = PepWarmup.builder(context).scanPackage("io.litterat.pep.data").parallelism(4).build().run();
+
+		PepWarmup.ClassReport simple = report.get(SimpleImmutable.class);
+		Assertions.assertNull(simple.failure());
+		Assertions.assertSame(context.getDescriptor(SimpleImmutable.class), context.getDescriptor(SimpleImmutable.class));
+	}
+}
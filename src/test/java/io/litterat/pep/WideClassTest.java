@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.litterat.pep.data.WideIntImmutable;
+import io.litterat.pep.data.WideLongImmutable;
+import io.litterat.pep.mapper.PepArrayMapper;
+import io.litterat.pep.mapper.PepPrimitiveMapper;
+
+public class WideClassTest {
+
+	PepContext context;
+
+	@BeforeEach
+	public void setup() {
+		context = PepContext.builder().build();
+	}
+
+	@Test
+	public void testResolveWideInt() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(WideIntImmutable.class);
+		Assertions.assertEquals(130, dataClass.dataComponents().length);
+		Assertions.assertEquals(130, dataClass.creator().type().parameterCount());
+
+		Object[] values = new Object[130];
+		for (int x = 0; x < values.length; x++) {
+			values[x] = x;
+		}
+
+		WideIntImmutable object = (WideIntImmutable) dataClass.creator().invokeWithArguments(values);
+		Assertions.assertEquals(129, object.v129());
+
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+		Assertions.assertArrayEquals(values, arrayMapper.toArray(arrayMapper.toObject(WideIntImmutable.class, values)));
+
+		// the generated embed passes each component to the creator on the stack.
+		PepArrayMapper codeGenMapper = new PepArrayMapper(context, true);
+		Assertions.assertArrayEquals(values, codeGenMapper.toArray(codeGenMapper.toObject(WideIntImmutable.class, values)));
+
+		PepPrimitiveMapper primitiveMapper = new PepPrimitiveMapper(context);
+		Assertions.assertEquals(128, primitiveMapper.toObject(WideIntImmutable.class, primitiveMapper.toRecord(object)).v128());
+	}
+
+	@Test
+	public void testResolveWideLong() throws Throwable {
+		PepDataClass dataClass = context.getDescriptor(WideLongImmutable.class);
+		Assertions.assertEquals(64, dataClass.creator().type().parameterCount());
+
+		Object[] values = new Object[64];
+		for (int x = 0; x < values.length; x++) {
+			values[x] = (long) x;
+		}
+
+		PepArrayMapper arrayMapper = new PepArrayMapper(context);
+		WideLongImmutable object = arrayMapper.toObject(WideLongImmutable.class, values);
+		Assertions.assertEquals(63L, object.v63());
+		Assertions.assertArrayEquals(values, arrayMapper.toArray(object));
+		PepArrayMapper codeGenMapper = new PepArrayMapper(context, true);
+		Assertions.assertArrayEquals(values, codeGenMapper.toArray(codeGenMapper.toObject(WideLongImmutable.class, values)));
+	}
+}
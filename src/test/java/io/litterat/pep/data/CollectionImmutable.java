@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Sample class with a component for several kinds of collection.
+ *
+ */
+public class CollectionImmutable {
+
+	private final List<String> names;
+	private final Set<Integer> ids;
+	private final Deque<String> queue;
+	private final LinkedList<Long> history;
+	private final TreeSet<String> sorted;
+	private final FactoryList values;
+
+	@Data
+	public CollectionImmutable(List<String> names, Set<Integer> ids, Deque<String> queue, LinkedList<Long> history, TreeSet<String> sorted,
+			FactoryList values) {
+		this.names = names;
+		this.ids = ids;
+		this.queue = queue;
+		this.history = history;
+		this.sorted = sorted;
+		this.values = values;
+	}
+
+	public List<String> names() {
+		return names;
+	}
+
+	public Set<Integer> ids() {
+		return ids;
+	}
+
+	public Deque<String> queue() {
+		return queue;
+	}
+
+	public LinkedList<Long> history() {
+		return history;
+	}
+
+	public TreeSet<String> sorted() {
+		return sorted;
+	}
+
+	public FactoryList values() {
+		return values;
+	}
+}
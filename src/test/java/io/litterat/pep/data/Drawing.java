@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Data class with union components.
+ *
+ */
+public class Drawing {
+
+	private final String name;
+	private final Shape main;
+	private final Shape[] shapes;
+
+	@Data
+	public Drawing(String name, Shape main, Shape[] shapes) {
+		this.name = name;
+		this.main = main;
+		this.shapes = shapes;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Shape main() {
+		return main;
+	}
+
+	public Shape[] shapes() {
+		return shapes;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Mutually recursive with Department.
+ *
+ */
+public class Employee {
+
+	private final String name;
+	private final Department department;
+
+	@Data
+	public Employee(String name, Department department) {
+		this.name = name;
+		this.department = department;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Department department() {
+		return department;
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import java.util.List;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Sample class with a list of data class elements.
+ *
+ */
+public class ListImmutable {
+
+	private final List<SimpleImmutable> points;
+
+	@Data
+	public ListImmutable(List<SimpleImmutable> points) {
+		this.points = points;
+	}
+
+	public List<SimpleImmutable> points() {
+		return points;
+	}
+}
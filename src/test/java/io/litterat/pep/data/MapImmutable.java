@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Sample class with map components of different key and value types.
+ *
+ */
+public class MapImmutable {
+
+	private final Map<String, Integer> counts;
+	private final Map<String, SimpleImmutable> points;
+	private final SortedMap<SimpleEnum, String> labels;
+	private final Map<String, List<String>> groups;
+
+	@Data
+	public MapImmutable(Map<String, Integer> counts, Map<String, SimpleImmutable> points, SortedMap<SimpleEnum, String> labels,
+			Map<String, List<String>> groups) {
+		this.counts = counts;
+		this.points = points;
+		this.labels = labels;
+		this.groups = groups;
+	}
+
+	public Map<String, Integer> counts() {
+		return counts;
+	}
+
+	public Map<String, SimpleImmutable> points() {
+		return points;
+	}
+
+	public SortedMap<SimpleEnum, String> labels() {
+		return labels;
+	}
+
+	public Map<String, List<String>> groups() {
+		return groups;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Nests other data classes two levels deep.
+ *
+ */
+public class NestedImmutable {
+
+	private final SimpleImmutable first;
+	private final ProjectImmutable second;
+	private final SimpleArray array;
+
+	@Data
+	public NestedImmutable(SimpleImmutable first, ProjectImmutable second, SimpleArray array) {
+		this.first = first;
+		this.second = second;
+		this.array = array;
+	}
+
+	public SimpleImmutable first() {
+		return first;
+	}
+
+	public ProjectImmutable second() {
+		return second;
+	}
+
+	public SimpleArray array() {
+		return array;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Sample class with a component for each kind of array.
+ *
+ */
+public class PrimitiveArrays {
+
+	private final boolean[] flags;
+	private final byte[] payload;
+	private final char[] codes;
+	private final short[] channels;
+	private final int[] counts;
+	private final long[] timestamps;
+	private final float[] ratios;
+	private final double[] values;
+	private final String[] labels;
+	private final int[][] matrix;
+
+	@Data
+	public PrimitiveArrays(boolean[] flags, byte[] payload, char[] codes, short[] channels, int[] counts, long[] timestamps, float[] ratios,
+			double[] values, String[] labels, int[][] matrix) {
+		this.flags = flags;
+		this.payload = payload;
+		this.codes = codes;
+		this.channels = channels;
+		this.counts = counts;
+		this.timestamps = timestamps;
+		this.ratios = ratios;
+		this.values = values;
+		this.labels = labels;
+		this.matrix = matrix;
+	}
+
+	public boolean[] flags() {
+		return flags;
+	}
+
+	public byte[] payload() {
+		return payload;
+	}
+
+	public char[] codes() {
+		return codes;
+	}
+
+	public short[] channels() {
+		return channels;
+	}
+
+	public int[] counts() {
+		return counts;
+	}
+
+	public long[] timestamps() {
+		return timestamps;
+	}
+
+	public float[] ratios() {
+		return ratios;
+	}
+
+	public double[] values() {
+		return values;
+	}
+
+	public String[] labels() {
+		return labels;
+	}
+
+	public int[][] matrix() {
+		return matrix;
+	}
+}
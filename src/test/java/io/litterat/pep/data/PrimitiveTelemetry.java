@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Telemetry style class with a component for each primitive type.
+ *
+ */
+public class PrimitiveTelemetry {
+
+	private final boolean active;
+	private final byte level;
+	private final char code;
+	private final short channel;
+	private final int count;
+	private final long timestamp;
+	private final float ratio;
+	private final double value;
+	private final String source;
+
+	@Data
+	public PrimitiveTelemetry(boolean active, byte level, char code, short channel, int count, long timestamp, float ratio, double value,
+			String source) {
+		this.active = active;
+		this.level = level;
+		this.code = code;
+		this.channel = channel;
+		this.count = count;
+		this.timestamp = timestamp;
+		this.ratio = ratio;
+		this.value = value;
+		this.source = source;
+	}
+
+	public boolean active() {
+		return active;
+	}
+
+	public byte level() {
+		return level;
+	}
+
+	public char code() {
+		return code;
+	}
+
+	public short channel() {
+		return channel;
+	}
+
+	public int count() {
+		return count;
+	}
+
+	public long timestamp() {
+		return timestamp;
+	}
+
+	public float ratio() {
+		return ratio;
+	}
+
+	public double value() {
+		return value;
+	}
+
+	public String source() {
+		return source;
+	}
+}
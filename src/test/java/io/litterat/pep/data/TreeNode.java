@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Self recursive binary tree.
+ *
+ */
+public class TreeNode {
+
+	private final int value;
+	private final TreeNode left;
+	private final TreeNode right;
+
+	@Data
+	public TreeNode(int value, TreeNode left, TreeNode right) {
+		this.value = value;
+		this.left = left;
+		this.right = right;
+	}
+
+	public int value() {
+		return value;
+	}
+
+	public TreeNode left() {
+		return left;
+	}
+
+	public TreeNode right() {
+		return right;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * A wide class with a mix of primitive and String components.
+ *
+ */
+public class WideImmutable {
+
+	private final int a;
+	private final long b;
+	private final double c;
+	private final String d;
+	private final int e;
+	private final long f;
+	private final double g;
+	private final String h;
+	private final int i;
+	private final long j;
+	private final double k;
+	private final String l;
+
+	@Data
+	public WideImmutable(int a, long b, double c, String d, int e, long f, double g, String h, int i, long j, double k, String l) {
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+		this.e = e;
+		this.f = f;
+		this.g = g;
+		this.h = h;
+		this.i = i;
+		this.j = j;
+		this.k = k;
+		this.l = l;
+	}
+
+	public int a() {
+		return a;
+	}
+
+	public long b() {
+		return b;
+	}
+
+	public double c() {
+		return c;
+	}
+
+	public String d() {
+		return d;
+	}
+
+	public int e() {
+		return e;
+	}
+
+	public long f() {
+		return f;
+	}
+
+	public double g() {
+		return g;
+	}
+
+	public String h() {
+		return h;
+	}
+
+	public int i() {
+		return i;
+	}
+
+	public long j() {
+		return j;
+	}
+
+	public double k() {
+		return k;
+	}
+
+	public String l() {
+		return l;
+	}
+}
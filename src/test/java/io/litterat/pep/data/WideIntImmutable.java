@@ -0,0 +1,823 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Wide class with 130 int components, more than fit in a method type if each component is passed twice.
+ *
+ */
+public class WideIntImmutable {
+
+	private final int v0;
+	private final int v1;
+	private final int v2;
+	private final int v3;
+	private final int v4;
+	private final int v5;
+	private final int v6;
+	private final int v7;
+	private final int v8;
+	private final int v9;
+	private final int v10;
+	private final int v11;
+	private final int v12;
+	private final int v13;
+	private final int v14;
+	private final int v15;
+	private final int v16;
+	private final int v17;
+	private final int v18;
+	private final int v19;
+	private final int v20;
+	private final int v21;
+	private final int v22;
+	private final int v23;
+	private final int v24;
+	private final int v25;
+	private final int v26;
+	private final int v27;
+	private final int v28;
+	private final int v29;
+	private final int v30;
+	private final int v31;
+	private final int v32;
+	private final int v33;
+	private final int v34;
+	private final int v35;
+	private final int v36;
+	private final int v37;
+	private final int v38;
+	private final int v39;
+	private final int v40;
+	private final int v41;
+	private final int v42;
+	private final int v43;
+	private final int v44;
+	private final int v45;
+	private final int v46;
+	private final int v47;
+	private final int v48;
+	private final int v49;
+	private final int v50;
+	private final int v51;
+	private final int v52;
+	private final int v53;
+	private final int v54;
+	private final int v55;
+	private final int v56;
+	private final int v57;
+	private final int v58;
+	private final int v59;
+	private final int v60;
+	private final int v61;
+	private final int v62;
+	private final int v63;
+	private final int v64;
+	private final int v65;
+	private final int v66;
+	private final int v67;
+	private final int v68;
+	private final int v69;
+	private final int v70;
+	private final int v71;
+	private final int v72;
+	private final int v73;
+	private final int v74;
+	private final int v75;
+	private final int v76;
+	private final int v77;
+	private final int v78;
+	private final int v79;
+	private final int v80;
+	private final int v81;
+	private final int v82;
+	private final int v83;
+	private final int v84;
+	private final int v85;
+	private final int v86;
+	private final int v87;
+	private final int v88;
+	private final int v89;
+	private final int v90;
+	private final int v91;
+	private final int v92;
+	private final int v93;
+	private final int v94;
+	private final int v95;
+	private final int v96;
+	private final int v97;
+	private final int v98;
+	private final int v99;
+	private final int v100;
+	private final int v101;
+	private final int v102;
+	private final int v103;
+	private final int v104;
+	private final int v105;
+	private final int v106;
+	private final int v107;
+	private final int v108;
+	private final int v109;
+	private final int v110;
+	private final int v111;
+	private final int v112;
+	private final int v113;
+	private final int v114;
+	private final int v115;
+	private final int v116;
+	private final int v117;
+	private final int v118;
+	private final int v119;
+	private final int v120;
+	private final int v121;
+	private final int v122;
+	private final int v123;
+	private final int v124;
+	private final int v125;
+	private final int v126;
+	private final int v127;
+	private final int v128;
+	private final int v129;
+
+	@Data
+	public WideIntImmutable(int v0, int v1, int v2, int v3, int v4, int v5, int v6, int v7, int v8, int v9,
+			int v10, int v11, int v12, int v13, int v14, int v15, int v16, int v17, int v18, int v19,
+			int v20, int v21, int v22, int v23, int v24, int v25, int v26, int v27, int v28, int v29,
+			int v30, int v31, int v32, int v33, int v34, int v35, int v36, int v37, int v38, int v39,
+			int v40, int v41, int v42, int v43, int v44, int v45, int v46, int v47, int v48, int v49,
+			int v50, int v51, int v52, int v53, int v54, int v55, int v56, int v57, int v58, int v59,
+			int v60, int v61, int v62, int v63, int v64, int v65, int v66, int v67, int v68, int v69,
+			int v70, int v71, int v72, int v73, int v74, int v75, int v76, int v77, int v78, int v79,
+			int v80, int v81, int v82, int v83, int v84, int v85, int v86, int v87, int v88, int v89,
+			int v90, int v91, int v92, int v93, int v94, int v95, int v96, int v97, int v98, int v99,
+			int v100, int v101, int v102, int v103, int v104, int v105, int v106, int v107, int v108, int v109,
+			int v110, int v111, int v112, int v113, int v114, int v115, int v116, int v117, int v118, int v119,
+			int v120, int v121, int v122, int v123, int v124, int v125, int v126, int v127, int v128, int v129) {
+		this.v0 = v0;
+		this.v1 = v1;
+		this.v2 = v2;
+		this.v3 = v3;
+		this.v4 = v4;
+		this.v5 = v5;
+		this.v6 = v6;
+		this.v7 = v7;
+		this.v8 = v8;
+		this.v9 = v9;
+		this.v10 = v10;
+		this.v11 = v11;
+		this.v12 = v12;
+		this.v13 = v13;
+		this.v14 = v14;
+		this.v15 = v15;
+		this.v16 = v16;
+		this.v17 = v17;
+		this.v18 = v18;
+		this.v19 = v19;
+		this.v20 = v20;
+		this.v21 = v21;
+		this.v22 = v22;
+		this.v23 = v23;
+		this.v24 = v24;
+		this.v25 = v25;
+		this.v26 = v26;
+		this.v27 = v27;
+		this.v28 = v28;
+		this.v29 = v29;
+		this.v30 = v30;
+		this.v31 = v31;
+		this.v32 = v32;
+		this.v33 = v33;
+		this.v34 = v34;
+		this.v35 = v35;
+		this.v36 = v36;
+		this.v37 = v37;
+		this.v38 = v38;
+		this.v39 = v39;
+		this.v40 = v40;
+		this.v41 = v41;
+		this.v42 = v42;
+		this.v43 = v43;
+		this.v44 = v44;
+		this.v45 = v45;
+		this.v46 = v46;
+		this.v47 = v47;
+		this.v48 = v48;
+		this.v49 = v49;
+		this.v50 = v50;
+		this.v51 = v51;
+		this.v52 = v52;
+		this.v53 = v53;
+		this.v54 = v54;
+		this.v55 = v55;
+		this.v56 = v56;
+		this.v57 = v57;
+		this.v58 = v58;
+		this.v59 = v59;
+		this.v60 = v60;
+		this.v61 = v61;
+		this.v62 = v62;
+		this.v63 = v63;
+		this.v64 = v64;
+		this.v65 = v65;
+		this.v66 = v66;
+		this.v67 = v67;
+		this.v68 = v68;
+		this.v69 = v69;
+		this.v70 = v70;
+		this.v71 = v71;
+		this.v72 = v72;
+		this.v73 = v73;
+		this.v74 = v74;
+		this.v75 = v75;
+		this.v76 = v76;
+		this.v77 = v77;
+		this.v78 = v78;
+		this.v79 = v79;
+		this.v80 = v80;
+		this.v81 = v81;
+		this.v82 = v82;
+		this.v83 = v83;
+		this.v84 = v84;
+		this.v85 = v85;
+		this.v86 = v86;
+		this.v87 = v87;
+		this.v88 = v88;
+		this.v89 = v89;
+		this.v90 = v90;
+		this.v91 = v91;
+		this.v92 = v92;
+		this.v93 = v93;
+		this.v94 = v94;
+		this.v95 = v95;
+		this.v96 = v96;
+		this.v97 = v97;
+		this.v98 = v98;
+		this.v99 = v99;
+		this.v100 = v100;
+		this.v101 = v101;
+		this.v102 = v102;
+		this.v103 = v103;
+		this.v104 = v104;
+		this.v105 = v105;
+		this.v106 = v106;
+		this.v107 = v107;
+		this.v108 = v108;
+		this.v109 = v109;
+		this.v110 = v110;
+		this.v111 = v111;
+		this.v112 = v112;
+		this.v113 = v113;
+		this.v114 = v114;
+		this.v115 = v115;
+		this.v116 = v116;
+		this.v117 = v117;
+		this.v118 = v118;
+		this.v119 = v119;
+		this.v120 = v120;
+		this.v121 = v121;
+		this.v122 = v122;
+		this.v123 = v123;
+		this.v124 = v124;
+		this.v125 = v125;
+		this.v126 = v126;
+		this.v127 = v127;
+		this.v128 = v128;
+		this.v129 = v129;
+	}
+
+	public int v0() {
+		return v0;
+	}
+
+	public int v1() {
+		return v1;
+	}
+
+	public int v2() {
+		return v2;
+	}
+
+	public int v3() {
+		return v3;
+	}
+
+	public int v4() {
+		return v4;
+	}
+
+	public int v5() {
+		return v5;
+	}
+
+	public int v6() {
+		return v6;
+	}
+
+	public int v7() {
+		return v7;
+	}
+
+	public int v8() {
+		return v8;
+	}
+
+	public int v9() {
+		return v9;
+	}
+
+	public int v10() {
+		return v10;
+	}
+
+	public int v11() {
+		return v11;
+	}
+
+	public int v12() {
+		return v12;
+	}
+
+	public int v13() {
+		return v13;
+	}
+
+	public int v14() {
+		return v14;
+	}
+
+	public int v15() {
+		return v15;
+	}
+
+	public int v16() {
+		return v16;
+	}
+
+	public int v17() {
+		return v17;
+	}
+
+	public int v18() {
+		return v18;
+	}
+
+	public int v19() {
+		return v19;
+	}
+
+	public int v20() {
+		return v20;
+	}
+
+	public int v21() {
+		return v21;
+	}
+
+	public int v22() {
+		return v22;
+	}
+
+	public int v23() {
+		return v23;
+	}
+
+	public int v24() {
+		return v24;
+	}
+
+	public int v25() {
+		return v25;
+	}
+
+	public int v26() {
+		return v26;
+	}
+
+	public int v27() {
+		return v27;
+	}
+
+	public int v28() {
+		return v28;
+	}
+
+	public int v29() {
+		return v29;
+	}
+
+	public int v30() {
+		return v30;
+	}
+
+	public int v31() {
+		return v31;
+	}
+
+	public int v32() {
+		return v32;
+	}
+
+	public int v33() {
+		return v33;
+	}
+
+	public int v34() {
+		return v34;
+	}
+
+	public int v35() {
+		return v35;
+	}
+
+	public int v36() {
+		return v36;
+	}
+
+	public int v37() {
+		return v37;
+	}
+
+	public int v38() {
+		return v38;
+	}
+
+	public int v39() {
+		return v39;
+	}
+
+	public int v40() {
+		return v40;
+	}
+
+	public int v41() {
+		return v41;
+	}
+
+	public int v42() {
+		return v42;
+	}
+
+	public int v43() {
+		return v43;
+	}
+
+	public int v44() {
+		return v44;
+	}
+
+	public int v45() {
+		return v45;
+	}
+
+	public int v46() {
+		return v46;
+	}
+
+	public int v47() {
+		return v47;
+	}
+
+	public int v48() {
+		return v48;
+	}
+
+	public int v49() {
+		return v49;
+	}
+
+	public int v50() {
+		return v50;
+	}
+
+	public int v51() {
+		return v51;
+	}
+
+	public int v52() {
+		return v52;
+	}
+
+	public int v53() {
+		return v53;
+	}
+
+	public int v54() {
+		return v54;
+	}
+
+	public int v55() {
+		return v55;
+	}
+
+	public int v56() {
+		return v56;
+	}
+
+	public int v57() {
+		return v57;
+	}
+
+	public int v58() {
+		return v58;
+	}
+
+	public int v59() {
+		return v59;
+	}
+
+	public int v60() {
+		return v60;
+	}
+
+	public int v61() {
+		return v61;
+	}
+
+	public int v62() {
+		return v62;
+	}
+
+	public int v63() {
+		return v63;
+	}
+
+	public int v64() {
+		return v64;
+	}
+
+	public int v65() {
+		return v65;
+	}
+
+	public int v66() {
+		return v66;
+	}
+
+	public int v67() {
+		return v67;
+	}
+
+	public int v68() {
+		return v68;
+	}
+
+	public int v69() {
+		return v69;
+	}
+
+	public int v70() {
+		return v70;
+	}
+
+	public int v71() {
+		return v71;
+	}
+
+	public int v72() {
+		return v72;
+	}
+
+	public int v73() {
+		return v73;
+	}
+
+	public int v74() {
+		return v74;
+	}
+
+	public int v75() {
+		return v75;
+	}
+
+	public int v76() {
+		return v76;
+	}
+
+	public int v77() {
+		return v77;
+	}
+
+	public int v78() {
+		return v78;
+	}
+
+	public int v79() {
+		return v79;
+	}
+
+	public int v80() {
+		return v80;
+	}
+
+	public int v81() {
+		return v81;
+	}
+
+	public int v82() {
+		return v82;
+	}
+
+	public int v83() {
+		return v83;
+	}
+
+	public int v84() {
+		return v84;
+	}
+
+	public int v85() {
+		return v85;
+	}
+
+	public int v86() {
+		return v86;
+	}
+
+	public int v87() {
+		return v87;
+	}
+
+	public int v88() {
+		return v88;
+	}
+
+	public int v89() {
+		return v89;
+	}
+
+	public int v90() {
+		return v90;
+	}
+
+	public int v91() {
+		return v91;
+	}
+
+	public int v92() {
+		return v92;
+	}
+
+	public int v93() {
+		return v93;
+	}
+
+	public int v94() {
+		return v94;
+	}
+
+	public int v95() {
+		return v95;
+	}
+
+	public int v96() {
+		return v96;
+	}
+
+	public int v97() {
+		return v97;
+	}
+
+	public int v98() {
+		return v98;
+	}
+
+	public int v99() {
+		return v99;
+	}
+
+	public int v100() {
+		return v100;
+	}
+
+	public int v101() {
+		return v101;
+	}
+
+	public int v102() {
+		return v102;
+	}
+
+	public int v103() {
+		return v103;
+	}
+
+	public int v104() {
+		return v104;
+	}
+
+	public int v105() {
+		return v105;
+	}
+
+	public int v106() {
+		return v106;
+	}
+
+	public int v107() {
+		return v107;
+	}
+
+	public int v108() {
+		return v108;
+	}
+
+	public int v109() {
+		return v109;
+	}
+
+	public int v110() {
+		return v110;
+	}
+
+	public int v111() {
+		return v111;
+	}
+
+	public int v112() {
+		return v112;
+	}
+
+	public int v113() {
+		return v113;
+	}
+
+	public int v114() {
+		return v114;
+	}
+
+	public int v115() {
+		return v115;
+	}
+
+	public int v116() {
+		return v116;
+	}
+
+	public int v117() {
+		return v117;
+	}
+
+	public int v118() {
+		return v118;
+	}
+
+	public int v119() {
+		return v119;
+	}
+
+	public int v120() {
+		return v120;
+	}
+
+	public int v121() {
+		return v121;
+	}
+
+	public int v122() {
+		return v122;
+	}
+
+	public int v123() {
+		return v123;
+	}
+
+	public int v124() {
+		return v124;
+	}
+
+	public int v125() {
+		return v125;
+	}
+
+	public int v126() {
+		return v126;
+	}
+
+	public int v127() {
+		return v127;
+	}
+
+	public int v128() {
+		return v128;
+	}
+
+	public int v129() {
+		return v129;
+	}
+}
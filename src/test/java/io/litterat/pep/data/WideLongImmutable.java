@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2020, Live Media Pty. Ltd. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.litterat.pep.data;
+
+import io.litterat.pep.Data;
+
+/**
+ * 
+ * Wide class with 64 long components, more than fit in a method type if each component is passed twice.
+ *
+ */
+public class WideLongImmutable {
+
+	private final long v0;
+	private final long v1;
+	private final long v2;
+	private final long v3;
+	private final long v4;
+	private final long v5;
+	private final long v6;
+	private final long v7;
+	private final long v8;
+	private final long v9;
+	private final long v10;
+	private final long v11;
+	private final long v12;
+	private final long v13;
+	private final long v14;
+	private final long v15;
+	private final long v16;
+	private final long v17;
+	private final long v18;
+	private final long v19;
+	private final long v20;
+	private final long v21;
+	private final long v22;
+	private final long v23;
+	private final long v24;
+	private final long v25;
+	private final long v26;
+	private final long v27;
+	private final long v28;
+	private final long v29;
+	private final long v30;
+	private final long v31;
+	private final long v32;
+	private final long v33;
+	private final long v34;
+	private final long v35;
+	private final long v36;
+	private final long v37;
+	private final long v38;
+	private final long v39;
+	private final long v40;
+	private final long v41;
+	private final long v42;
+	private final long v43;
+	private final long v44;
+	private final long v45;
+	private final long v46;
+	private final long v47;
+	private final long v48;
+	private final long v49;
+	private final long v50;
+	private final long v51;
+	private final long v52;
+	private final long v53;
+	private final long v54;
+	private final long v55;
+	private final long v56;
+	private final long v57;
+	private final long v58;
+	private final long v59;
+	private final long v60;
+	private final long v61;
+	private final long v62;
+	private final long v63;
+
+	@Data
+	public WideLongImmutable(long v0, long v1, long v2, long v3, long v4, long v5, long v6, long v7, long v8, long v9,
+			long v10, long v11, long v12, long v13, long v14, long v15, long v16, long v17, long v18, long v19,
+			long v20, long v21, long v22, long v23, long v24, long v25, long v26, long v27, long v28, long v29,
+			long v30, long v31, long v32, long v33, long v34, long v35, long v36, long v37, long v38, long v39,
+			long v40, long v41, long v42, long v43, long v44, long v45, long v46, long v47, long v48, long v49,
+			long v50, long v51, long v52, long v53, long v54, long v55, long v56, long v57, long v58, long v59,
+			long v60, long v61, long v62, long v63) {
+		this.v0 = v0;
+		this.v1 = v1;
+		this.v2 = v2;
+		this.v3 = v3;
+		this.v4 = v4;
+		this.v5 = v5;
+		this.v6 = v6;
+		this.v7 = v7;
+		this.v8 = v8;
+		this.v9 = v9;
+		this.v10 = v10;
+		this.v11 = v11;
+		this.v12 = v12;
+		this.v13 = v13;
+		this.v14 = v14;
+		this.v15 = v15;
+		this.v16 = v16;
+		this.v17 = v17;
+		this.v18 = v18;
+		this.v19 = v19;
+		this.v20 = v20;
+		this.v21 = v21;
+		this.v22 = v22;
+		this.v23 = v23;
+		this.v24 = v24;
+		this.v25 = v25;
+		this.v26 = v26;
+		this.v27 = v27;
+		this.v28 = v28;
+		this.v29 = v29;
+		this.v30 = v30;
+		this.v31 = v31;
+		this.v32 = v32;
+		this.v33 = v33;
+		this.v34 = v34;
+		this.v35 = v35;
+		this.v36 = v36;
+		this.v37 = v37;
+		this.v38 = v38;
+		this.v39 = v39;
+		this.v40 = v40;
+		this.v41 = v41;
+		this.v42 = v42;
+		this.v43 = v43;
+		this.v44 = v44;
+		this.v45 = v45;
+		this.v46 = v46;
+		this.v47 = v47;
+		this.v48 = v48;
+		this.v49 = v49;
+		this.v50 = v50;
+		this.v51 = v51;
+		this.v52 = v52;
+		this.v53 = v53;
+		this.v54 = v54;
+		this.v55 = v55;
+		this.v56 = v56;
+		this.v57 = v57;
+		this.v58 = v58;
+		this.v59 = v59;
+		this.v60 = v60;
+		this.v61 = v61;
+		this.v62 = v62;
+		this.v63 = v63;
+	}
+
+	public long v0() {
+		return v0;
+	}
+
+	public long v1() {
+		return v1;
+	}
+
+	public long v2() {
+		return v2;
+	}
+
+	public long v3() {
+		return v3;
+	}
+
+	public long v4() {
+		return v4;
+	}
+
+	public long v5() {
+		return v5;
+	}
+
+	public long v6() {
+		return v6;
+	}
+
+	public long v7() {
+		return v7;
+	}
+
+	public long v8() {
+		return v8;
+	}
+
+	public long v9() {
+		return v9;
+	}
+
+	public long v10() {
+		return v10;
+	}
+
+	public long v11() {
+		return v11;
+	}
+
+	public long v12() {
+		return v12;
+	}
+
+	public long v13() {
+		return v13;
+	}
+
+	public long v14() {
+		return v14;
+	}
+
+	public long v15() {
+		return v15;
+	}
+
+	public long v16() {
+		return v16;
+	}
+
+	public long v17() {
+		return v17;
+	}
+
+	public long v18() {
+		return v18;
+	}
+
+	public long v19() {
+		return v19;
+	}
+
+	public long v20() {
+		return v20;
+	}
+
+	public long v21() {
+		return v21;
+	}
+
+	public long v22() {
+		return v22;
+	}
+
+	public long v23() {
+		return v23;
+	}
+
+	public long v24() {
+		return v24;
+	}
+
+	public long v25() {
+		return v25;
+	}
+
+	public long v26() {
+		return v26;
+	}
+
+	public long v27() {
+		return v27;
+	}
+
+	public long v28() {
+		return v28;
+	}
+
+	public long v29() {
+		return v29;
+	}
+
+	public long v30() {
+		return v30;
+	}
+
+	public long v31() {
+		return v31;
+	}
+
+	public long v32() {
+		return v32;
+	}
+
+	public long v33() {
+		return v33;
+	}
+
+	public long v34() {
+		return v34;
+	}
+
+	public long v35() {
+		return v35;
+	}
+
+	public long v36() {
+		return v36;
+	}
+
+	public long v37() {
+		return v37;
+	}
+
+	public long v38() {
+		return v38;
+	}
+
+	public long v39() {
+		return v39;
+	}
+
+	public long v40() {
+		return v40;
+	}
+
+	public long v41() {
+		return v41;
+	}
+
+	public long v42() {
+		return v42;
+	}
+
+	public long v43() {
+		return v43;
+	}
+
+	public long v44() {
+		return v44;
+	}
+
+	public long v45() {
+		return v45;
+	}
+
+	public long v46() {
+		return v46;
+	}
+
+	public long v47() {
+		return v47;
+	}
+
+	public long v48() {
+		return v48;
+	}
+
+	public long v49() {
+		return v49;
+	}
+
+	public long v50() {
+		return v50;
+	}
+
+	public long v51() {
+		return v51;
+	}
+
+	public long v52() {
+		return v52;
+	}
+
+	public long v53() {
+		return v53;
+	}
+
+	public long v54() {
+		return v54;
+	}
+
+	public long v55() {
+		return v55;
+	}
+
+	public long v56() {
+		return v56;
+	}
+
+	public long v57() {
+		return v57;
+	}
+
+	public long v58() {
+		return v58;
+	}
+
+	public long v59() {
+		return v59;
+	}
+
+	public long v60() {
+		return v60;
+	}
+
+	public long v61() {
+		return v61;
+	}
+
+	public long v62() {
+		return v62;
+	}
+
+	public long v63() {
+		return v63;
+	}
+}